@@ -0,0 +1,310 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.btc4j.core.BtcBlock;
+import org.btc4j.core.BtcBlockTemplate;
+import org.btc4j.core.BtcCoinbase;
+import org.btc4j.core.BtcInput;
+import org.btc4j.core.BtcOutput;
+import org.btc4j.core.BtcRawTransaction;
+import org.btc4j.core.BtcScript;
+import org.btc4j.core.BtcTransaction;
+import org.btc4j.core.BtcTransactionTemplate;
+import org.btc4j.core.BtcUtil;
+
+public final class BtcFixtures {
+	public static final int BLOCK_TRANSACTIONS = 2500;
+	public static final int TRANSACTION_INPUTS = 3;
+	public static final int TRANSACTION_OUTPUTS = 2;
+	public static final int TEMPLATE_TRANSACTION_SIZE = 400;
+	private final Random random;
+
+	public BtcFixtures(long seed) {
+		this.random = new Random(seed);
+	}
+
+	public Map<String, Object> blockJson() {
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("hash", hash());
+		json.put("confirmations", 12L);
+		json.put("size", 998714L);
+		json.put("height", 300000L);
+		json.put("version", 2L);
+		json.put("merkleroot", hash());
+		List<Object> tx = new ArrayList<Object>(BLOCK_TRANSACTIONS);
+		for (int i = 0; i < BLOCK_TRANSACTIONS; i++) {
+			tx.add(hash());
+		}
+		json.put("tx", tx);
+		json.put("time", 1399703554L);
+		json.put("nonce", 222771801L);
+		json.put("bits", "1900896c");
+		json.put("difficulty", new BigDecimal("8000872135.96816733"));
+		json.put("previousblockhash", hash());
+		json.put("nextblockhash", hash());
+		return json;
+	}
+
+	public Map<String, Object> rawTransactionJson() {
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("hex", hex(TRANSACTION_INPUTS * 148 + TRANSACTION_OUTPUTS
+				* 34 + 10));
+		json.put("txid", hash());
+		json.put("version", 1L);
+		json.put("locktime", 0L);
+		List<Object> vin = new ArrayList<Object>(TRANSACTION_INPUTS);
+		for (int i = 0; i < TRANSACTION_INPUTS; i++) {
+			Map<String, Object> input = new LinkedHashMap<String, Object>();
+			input.put("txid", hash());
+			input.put("vout", (long) random.nextInt(4));
+			Map<String, Object> script = new LinkedHashMap<String, Object>();
+			String signature = hex(72);
+			String key = "02" + hex(32);
+			script.put("asm", signature + " " + key);
+			script.put("hex", "48" + signature + "21" + key);
+			input.put("scriptSig", script);
+			input.put("sequence", 4294967295L);
+			vin.add(input);
+		}
+		json.put("vin", vin);
+		List<Object> vout = new ArrayList<Object>(TRANSACTION_OUTPUTS);
+		for (int i = 0; i < TRANSACTION_OUTPUTS; i++) {
+			Map<String, Object> output = new LinkedHashMap<String, Object>();
+			output.put("value", BigDecimal.valueOf(random.nextInt(100000000),
+					8));
+			output.put("n", (long) i);
+			Map<String, Object> script = new LinkedHashMap<String, Object>();
+			String hash160 = hex(20);
+			script.put("asm", "OP_DUP OP_HASH160 " + hash160
+					+ " OP_EQUALVERIFY OP_CHECKSIG");
+			script.put("hex", "76a914" + hash160 + "88ac");
+			script.put("reqSigs", 1L);
+			script.put("type", "pubkeyhash");
+			List<Object> addresses = new ArrayList<Object>();
+			addresses.add("1" + hex(16));
+			script.put("addresses", addresses);
+			output.put("scriptPubKey", script);
+			vout.add(output);
+		}
+		json.put("vout", vout);
+		return json;
+	}
+
+	public Map<String, Object> blockTemplateJson() {
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("version", 2L);
+		json.put("previousblockhash", hash());
+		List<Object> transactions = new ArrayList<Object>(BLOCK_TRANSACTIONS);
+		for (int i = 0; i < BLOCK_TRANSACTIONS; i++) {
+			Map<String, Object> transaction = new LinkedHashMap<String, Object>();
+			transaction.put("data", hex(TEMPLATE_TRANSACTION_SIZE));
+			transaction.put("hash", hash());
+			List<Object> depends = new ArrayList<Object>();
+			if ((i > 0) && (random.nextInt(10) == 0)) {
+				depends.add((long) random.nextInt(i) + 1);
+			}
+			transaction.put("depends", depends);
+			transaction.put("fee", (long) random.nextInt(100000));
+			transaction.put("sigops", (long) random.nextInt(4) + 1);
+			transaction.put("required", Boolean.FALSE);
+			transactions.add(transaction);
+		}
+		json.put("transactions", transactions);
+		Map<String, Object> aux = new LinkedHashMap<String, Object>();
+		aux.put("flags", "062f503253482f");
+		json.put("coinbaseaux", aux);
+		json.put("coinbasevalue", 2512345678L);
+		json.put("target",
+				"0000000000000000896c00000000000000000000000000000000000000000000");
+		json.put("mintime", 1399703000L);
+		List<Object> mutable = new ArrayList<Object>();
+		mutable.add("time");
+		mutable.add("transactions");
+		mutable.add("prevblock");
+		json.put("mutable", mutable);
+		json.put("noncerange", "00000000ffffffff");
+		json.put("sigoplimit", 20000L);
+		json.put("sizelimit", 1000000L);
+		json.put("curtime", 1399703554L);
+		json.put("bits", "1900896c");
+		json.put("height", 300001L);
+		return json;
+	}
+
+	public static BtcBlock toBlock(Map<String, Object> json) {
+		BtcBlock block = new BtcBlock();
+		block.setHash(string(json, "hash"));
+		block.setConfirmations(number(json, "confirmations"));
+		block.setSize(number(json, "size"));
+		block.setHeight(number(json, "height"));
+		block.setVersion(number(json, "version"));
+		block.setMerkleRoot(string(json, "merkleroot"));
+		List<BtcTransaction> transactions = new ArrayList<BtcTransaction>();
+		for (Object id : list(json, "tx")) {
+			BtcTransaction transaction = new BtcTransaction();
+			transaction.setTransaction((String) id);
+			transactions.add(transaction);
+		}
+		block.setTransactions(transactions);
+		block.setTime(number(json, "time"));
+		block.setNonce(number(json, "nonce"));
+		block.setBits(string(json, "bits"));
+		block.setDifficulty((BigDecimal) json.get("difficulty"));
+		block.setPreviousBlockHash(string(json, "previousblockhash"));
+		block.setNextBlockHash(string(json, "nextblockhash"));
+		return block;
+	}
+
+	public static BtcRawTransaction toRawTransaction(Map<String, Object> json) {
+		BtcRawTransaction transaction = new BtcRawTransaction();
+		transaction.setHex(string(json, "hex"));
+		transaction.setTransaction(string(json, "txid"));
+		transaction.setVersion(number(json, "version"));
+		transaction.setLockTime(number(json, "locktime"));
+		List<BtcInput> inputs = new ArrayList<BtcInput>();
+		for (Object element : list(json, "vin")) {
+			Map<String, Object> vin = map(element);
+			BtcInput input = new BtcInput();
+			input.setTransaction(string(vin, "txid"));
+			input.setOutput(number(vin, "vout"));
+			input.setScript(toScript(map(vin.get("scriptSig"))));
+			input.setSequence(number(vin, "sequence"));
+			inputs.add(input);
+		}
+		transaction.setInputs(inputs);
+		List<BtcOutput> outputs = new ArrayList<BtcOutput>();
+		for (Object element : list(json, "vout")) {
+			Map<String, Object> vout = map(element);
+			BtcOutput output = new BtcOutput();
+			output.setValue((BigDecimal) vout.get("value"));
+			output.setIndex(number(vout, "n"));
+			output.setScript(toScript(map(vout.get("scriptPubKey"))));
+			outputs.add(output);
+		}
+		transaction.setOutputs(outputs);
+		return transaction;
+	}
+
+	public static BtcBlockTemplate toBlockTemplate(Map<String, Object> json) {
+		BtcBlockTemplate template = new BtcBlockTemplate();
+		template.setVersion(number(json, "version"));
+		template.setPreviousBlockHash(string(json, "previousblockhash"));
+		List<BtcTransactionTemplate> transactions = new ArrayList<BtcTransactionTemplate>();
+		for (Object element : list(json, "transactions")) {
+			Map<String, Object> tx = map(element);
+			BtcTransactionTemplate transaction = new BtcTransactionTemplate();
+			transaction.setData(string(tx, "data"));
+			transaction.setHash(string(tx, "hash"));
+			List<Object> depends = list(tx, "depends");
+			long[] indexes = new long[depends.size()];
+			for (int i = 0; i < indexes.length; i++) {
+				indexes[i] = (Long) depends.get(i);
+			}
+			transaction.setDepends(indexes);
+			transaction.setFee(BtcUtil.fromSatoshis(number(tx, "fee")));
+			transaction.setSignatureOperations(number(tx, "sigops"));
+			transaction.setRequired((Boolean) tx.get("required"));
+			transactions.add(transaction);
+		}
+		template.setTransactions(transactions);
+		BtcCoinbase coinbase = new BtcCoinbase();
+		Map<String, String> aux = new HashMap<String, String>();
+		for (Map.Entry<String, Object> entry : map(json.get("coinbaseaux"))
+				.entrySet()) {
+			aux.put(entry.getKey(), (String) entry.getValue());
+		}
+		coinbase.setAux(aux);
+		coinbase.setValue(BtcUtil.fromSatoshis(number(json, "coinbasevalue")));
+		template.setCoinbase(coinbase);
+		template.setTarget(string(json, "target"));
+		template.setMinimumTime(number(json, "mintime"));
+		List<String> mutable = new ArrayList<String>();
+		for (Object element : list(json, "mutable")) {
+			mutable.add((String) element);
+		}
+		template.setMutable(mutable);
+		template.setNonceRange(string(json, "noncerange"));
+		template.setSignatureOperations(number(json, "sigoplimit"));
+		template.setSize(number(json, "sizelimit"));
+		template.setTime(number(json, "curtime"));
+		template.setBits(string(json, "bits"));
+		template.setHeight(number(json, "height"));
+		return template;
+	}
+
+	private static BtcScript toScript(Map<String, Object> json) {
+		BtcScript script = new BtcScript();
+		script.setAsm(string(json, "asm"));
+		script.setPublicKey(string(json, "hex"));
+		if (json.containsKey("reqSigs")) {
+			script.setRequiredSignatures(number(json, "reqSigs"));
+			script.setType(BtcScript.Type.getValue(string(json, "type")));
+			List<String> addresses = new ArrayList<String>();
+			for (Object address : list(json, "addresses")) {
+				addresses.add((String) address);
+			}
+			script.setAddresses(addresses);
+		}
+		return script;
+	}
+
+	private static String string(Map<String, Object> json, String name) {
+		return (String) json.get(name);
+	}
+
+	private static long number(Map<String, Object> json, String name) {
+		Object value = json.get(name);
+		return (value == null) ? 0 : ((Long) value).longValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> list(Map<String, Object> json, String name) {
+		return (List<Object>) json.get(name);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> map(Object value) {
+		return (Map<String, Object>) value;
+	}
+
+	private String hash() {
+		return hex(32);
+	}
+
+	private String hex(int length) {
+		byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return BtcUtil.bytesToHex(bytes);
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.btc4j.core.BtcBlock;
+import org.btc4j.core.BtcBlockTemplate;
+import org.btc4j.core.BtcInput;
+import org.btc4j.core.BtcOutput;
+import org.btc4j.core.BtcRawTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BtcModelBenchmark {
+	private Map<String, Object> blockJson;
+	private Map<String, Object> rawTransactionJson;
+	private Map<String, Object> blockTemplateJson;
+
+	@Setup
+	public void setup() {
+		BtcFixtures fixtures = new BtcFixtures(300000);
+		blockJson = fixtures.blockJson();
+		rawTransactionJson = fixtures.rawTransactionJson();
+		blockTemplateJson = fixtures.blockTemplateJson();
+	}
+
+	@Benchmark
+	public BtcBlock decodeBlock() {
+		return BtcFixtures.toBlock(blockJson);
+	}
+
+	@Benchmark
+	public BtcRawTransaction decodeRawTransaction() {
+		return BtcFixtures.toRawTransaction(rawTransactionJson);
+	}
+
+	@Benchmark
+	public BtcBlockTemplate decodeBlockTemplate() {
+		return BtcFixtures.toBlockTemplate(blockTemplateJson);
+	}
+
+	@Benchmark
+	public BtcBlock newBlock() {
+		return new BtcBlock();
+	}
+
+	@Benchmark
+	public BtcRawTransaction newRawTransaction() {
+		return new BtcRawTransaction();
+	}
+
+	@Benchmark
+	public BtcBlockTemplate newBlockTemplate() {
+		return new BtcBlockTemplate();
+	}
+
+	@Benchmark
+	public BtcOutput newOutput() {
+		return new BtcOutput();
+	}
+
+	@Benchmark
+	public BtcInput newInput() {
+		return new BtcInput();
+	}
+}
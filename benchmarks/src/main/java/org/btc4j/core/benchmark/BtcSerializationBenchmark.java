@@ -0,0 +1,126 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.btc4j.core.BtcBlock;
+import org.btc4j.core.BtcBlockTemplate;
+import org.btc4j.core.BtcRawTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BtcSerializationBenchmark {
+	private BtcBlock block;
+	private BtcRawTransaction rawTransaction;
+	private BtcBlockTemplate blockTemplate;
+	private byte[] blockBytes;
+	private byte[] rawTransactionBytes;
+	private byte[] blockTemplateBytes;
+
+	@Setup
+	public void setup() throws IOException {
+		BtcFixtures fixtures = new BtcFixtures(300000);
+		block = BtcFixtures.toBlock(fixtures.blockJson());
+		rawTransaction = BtcFixtures.toRawTransaction(fixtures
+				.rawTransactionJson());
+		blockTemplate = BtcFixtures.toBlockTemplate(fixtures
+				.blockTemplateJson());
+		blockBytes = serialize(block);
+		rawTransactionBytes = serialize(rawTransaction);
+		blockTemplateBytes = serialize(blockTemplate);
+	}
+
+	@Benchmark
+	public byte[] serializeBlock() throws IOException {
+		return serialize(block);
+	}
+
+	@Benchmark
+	public Object deserializeBlock() throws IOException, ClassNotFoundException {
+		return deserialize(blockBytes);
+	}
+
+	@Benchmark
+	public byte[] serializeRawTransaction() throws IOException {
+		return serialize(rawTransaction);
+	}
+
+	@Benchmark
+	public Object deserializeRawTransaction() throws IOException,
+			ClassNotFoundException {
+		return deserialize(rawTransactionBytes);
+	}
+
+	@Benchmark
+	public byte[] serializeBlockTemplate() throws IOException {
+		return serialize(blockTemplate);
+	}
+
+	@Benchmark
+	public Object deserializeBlockTemplate() throws IOException,
+			ClassNotFoundException {
+		return deserialize(blockTemplateBytes);
+	}
+
+	static byte[] serialize(Serializable value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(value);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	static Object deserialize(byte[] value) throws IOException,
+			ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				value));
+		try {
+			return in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.btc4j.core.BtcBlockTemplate;
+import org.btc4j.core.BtcNode;
+import org.btc4j.core.BtcRawTransaction;
+import org.btc4j.core.BtcScript;
+import org.btc4j.core.BtcTransaction;
+import org.btc4j.core.BtcUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BtcUtilBenchmark {
+	@Param({ "receive", "unknown" })
+	public String value;
+	public String string = "1BitcoinEaterAddressDontSendf59kuE";
+	public String nullString = null;
+	public BigDecimal nullDecimal = null;
+	public List<String> nullList = null;
+
+	@Benchmark
+	public String notNullString() {
+		return BtcUtil.notNull(string);
+	}
+
+	@Benchmark
+	public String notNullStringFallback() {
+		return BtcUtil.notNull(nullString);
+	}
+
+	@Benchmark
+	public BigDecimal notNullDecimalFallback() {
+		return BtcUtil.notNull(nullDecimal);
+	}
+
+	@Benchmark
+	public List<String> notNullListFallback() {
+		return BtcUtil.notNull(nullList);
+	}
+
+	@Benchmark
+	public String nil() {
+		return BtcUtil.nil(string);
+	}
+
+	@Benchmark
+	public BtcTransaction.Category categoryGetValue() {
+		return BtcTransaction.Category.getValue(value);
+	}
+
+	@Benchmark
+	public BtcScript.Type typeGetValue() {
+		return BtcScript.Type.getValue(value);
+	}
+
+	@Benchmark
+	public BtcBlockTemplate.Mode modeGetValue() {
+		return BtcBlockTemplate.Mode.getValue(value);
+	}
+
+	@Benchmark
+	public BtcBlockTemplate.Capability capabilityGetValue() {
+		return BtcBlockTemplate.Capability.getValue(value);
+	}
+
+	@Benchmark
+	public BtcRawTransaction.SignatureHash signatureHashGetValue() {
+		return BtcRawTransaction.SignatureHash.getValue(value);
+	}
+
+	@Benchmark
+	public BtcNode.Operation operationGetValue() {
+		return BtcNode.Operation.getValue(value);
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BtcAddressPool {
+	private final BtcApi api;
+	private final int poolSize;
+	private final int lowWatermark;
+	private final long keyPoolWatermark;
+	private final ConcurrentMap<String, Account> accounts = new ConcurrentHashMap<String, Account>();
+	private final ScheduledExecutorService executor;
+	private volatile BtcException lastError = null;
+
+	public BtcAddressPool(BtcApi api, int poolSize, int lowWatermark,
+			long keyPoolWatermark, long checkInterval) {
+		this.api = api;
+		this.poolSize = Math.max(1, poolSize);
+		this.lowWatermark = Math.min(Math.max(0, lowWatermark), this.poolSize);
+		this.keyPoolWatermark = keyPoolWatermark;
+		long interval = BtcUtil.atLeast(checkInterval, 1);
+		this.executor = Executors.newSingleThreadScheduledExecutor();
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				for (Account account : accounts.values()) {
+					refill(account);
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	public String getNewAddress(String account) throws BtcException {
+		Account pool = getAccount(BtcUtil.notNull(account));
+		String address = pool.addresses.poll();
+		if (address != null) {
+			if (pool.available.decrementAndGet() <= lowWatermark) {
+				schedule(pool);
+			}
+			return address;
+		}
+		schedule(pool);
+		return api.getNewAddress(pool.name);
+	}
+
+	public void prefetch(String account) {
+		schedule(getAccount(BtcUtil.notNull(account)));
+	}
+
+	public int getAvailable(String account) {
+		Account pool = accounts.get(BtcUtil.notNull(account));
+		return (pool == null) ? 0 : pool.available.get();
+	}
+
+	public BtcException getLastError() {
+		return lastError;
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private Account getAccount(String account) {
+		Account pool = accounts.get(account);
+		if (pool == null) {
+			Account created = new Account(account);
+			pool = accounts.putIfAbsent(account, created);
+			if (pool == null) {
+				pool = created;
+			}
+		}
+		return pool;
+	}
+
+	private void schedule(final Account account) {
+		if (account.scheduled.compareAndSet(false, true)
+				&& !executor.isShutdown()) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					account.scheduled.set(false);
+					refill(account);
+				}
+			});
+		}
+	}
+
+	private void refill(Account account) {
+		int available = account.available.get();
+		if ((available > lowWatermark) || (available >= poolSize)) {
+			return;
+		}
+		try {
+			if (api.getInformation().getKeyPoolSize() < keyPoolWatermark) {
+				api.keyPoolRefill();
+			}
+			while (account.available.get() < poolSize) {
+				account.addresses.offer(api.getNewAddress(account.name));
+				account.available.incrementAndGet();
+			}
+			lastError = null;
+		} catch (BtcException e) {
+			lastError = e;
+		}
+	}
+
+	private static final class Account {
+		private final String name;
+		private final Queue<String> addresses = new ConcurrentLinkedQueue<String>();
+		private final AtomicInteger available = new AtomicInteger();
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+		private Account(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+public class BtcAddressValidator {
+	public static final int PUBKEYHASH_VERSION = 0;
+	public static final int SCRIPTHASH_VERSION = 5;
+	public static final int TESTNET_PUBKEYHASH_VERSION = 111;
+	public static final int TESTNET_SCRIPTHASH_VERSION = 196;
+	private static final ThreadLocal<byte[]> PAYLOAD = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[21];
+		}
+	};
+	private final int pubKeyHashVersion;
+	private final int scriptHashVersion;
+
+	public BtcAddressValidator() {
+		this(false);
+	}
+
+	public BtcAddressValidator(boolean testnet) {
+		this.pubKeyHashVersion = testnet ? TESTNET_PUBKEYHASH_VERSION
+				: PUBKEYHASH_VERSION;
+		this.scriptHashVersion = testnet ? TESTNET_SCRIPTHASH_VERSION
+				: SCRIPTHASH_VERSION;
+	}
+
+	public int getPubKeyHashVersion() {
+		return pubKeyHashVersion;
+	}
+
+	public int getScriptHashVersion() {
+		return scriptHashVersion;
+	}
+
+	public int decode(String address, byte[] hash) {
+		if (address == null) {
+			return -1;
+		}
+		byte[] payload = PAYLOAD.get();
+		if (BtcBase58.decodeCheck(address, payload) != 21) {
+			return -1;
+		}
+		int version = payload[0] & 0xff;
+		if ((version != pubKeyHashVersion) && (version != scriptHashVersion)) {
+			return -1;
+		}
+		if (hash != null) {
+			System.arraycopy(payload, 1, hash, 0, 20);
+		}
+		return version;
+	}
+
+	public boolean isValid(String address) {
+		return decode(address, null) >= 0;
+	}
+
+	public boolean isScript(String address) {
+		return decode(address, null) == scriptHashVersion;
+	}
+
+	public BtcAddress validateAddress(String address) {
+		BtcAddress validated = new BtcAddress();
+		int version = decode(address, null);
+		if (version >= 0) {
+			validated.setValid(true);
+			validated.setAddress(address);
+			validated.setScript(version == scriptHashVersion);
+		}
+		return validated;
+	}
+}
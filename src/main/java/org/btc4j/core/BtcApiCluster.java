@@ -0,0 +1,256 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BtcApiCluster extends BtcApiDecorator {
+	public static final long DEFAULT_CHECK_INTERVAL = 5000;
+	public static final long DEFAULT_EJECT_TIME = 10000;
+	public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+	private static final int RPC_CLIENT_IN_INITIAL_DOWNLOAD = -10;
+	private static final int RPC_IN_WARMUP = -28;
+	private static final Set<String> READ_METHODS = new HashSet<String>(
+			Arrays.asList("createMultiSignatureAddress",
+					"createRawTransaction", "decodeRawTransaction", "getBlock",
+					"getBlockCount", "getBlockHash", "getConnectionCount",
+					"getDifficulty", "getRawMemoryPool", "getRawTransaction",
+					"getTransactionOutput",
+					"getTransactionOutputSetInformation", "help",
+					"verifyMessage"));
+	private final List<Backend> backends;
+	private final Backend wallet;
+	private final long maxLag;
+	private final long ejectTime;
+	private final int failureThreshold;
+	private final AtomicInteger next = new AtomicInteger();
+	private final ScheduledExecutorService executor;
+	private volatile long bestHeight = -1;
+
+	public BtcApiCluster(List<BtcApi> backends) {
+		this(backends, 0, 0, DEFAULT_CHECK_INTERVAL, DEFAULT_EJECT_TIME,
+				DEFAULT_FAILURE_THRESHOLD);
+	}
+
+	public BtcApiCluster(List<BtcApi> backends, int wallet, long maxLag,
+			long checkInterval, long ejectTime, int failureThreshold) {
+		super(backends.get(wallet));
+		List<Backend> nodes = new ArrayList<Backend>(backends.size());
+		for (BtcApi backend : backends) {
+			nodes.add(new Backend(backend));
+		}
+		this.backends = Collections.unmodifiableList(nodes);
+		this.wallet = nodes.get(wallet);
+		this.maxLag = Math.max(0, maxLag);
+		this.ejectTime = ejectTime;
+		this.failureThreshold = Math.max(1, failureThreshold);
+		long interval = BtcUtil.atLeast(checkInterval, 1);
+		this.executor = Executors.newSingleThreadScheduledExecutor();
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				check();
+			}
+		}, 0, interval, TimeUnit.MILLISECONDS);
+	}
+
+	public int getBackends() {
+		return backends.size();
+	}
+
+	public boolean isHealthy(int backend) {
+		return !backends.get(backend).ejected;
+	}
+
+	public int getInFlight(int backend) {
+		return backends.get(backend).inFlight.get();
+	}
+
+	public long getBlockCount(int backend) {
+		return backends.get(backend).blockCount;
+	}
+
+	public long getBestHeight() {
+		return bestHeight;
+	}
+
+	public void check() {
+		long best = -1;
+		for (Backend backend : backends) {
+			if (!backend.ejected
+					|| (backend.ejectedUntil <= System.currentTimeMillis())) {
+				try {
+					backend.observe(backend.api.getBlockCount());
+					backend.readmit();
+				} catch (BtcException e) {
+					backend.failed(e);
+				} catch (RuntimeException e) {
+					backend.failed(null);
+				}
+			}
+			if (!backend.ejected) {
+				best = Math.max(best, backend.blockCount);
+			}
+		}
+		bestHeight = best;
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	protected Object call(Method method, Object[] args) throws BtcException {
+		if (!READ_METHODS.contains(method.getName())) {
+			return call(wallet, method, args);
+		}
+		Set<Backend> tried = new HashSet<Backend>();
+		while (true) {
+			Backend backend = select(tried);
+			tried.add(backend);
+			try {
+				Object result = call(backend, method, args);
+				if ("getBlockCount".equals(method.getName())) {
+					backend.observe((Long) result);
+				}
+				return result;
+			} catch (BtcException e) {
+				if (!isFailure(e) || (tried.size() == backends.size())) {
+					throw e;
+				}
+			} catch (RuntimeException e) {
+				if (tried.size() == backends.size()) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	private Object call(Backend backend, Method method, Object[] args)
+			throws BtcException {
+		backend.inFlight.incrementAndGet();
+		try {
+			Object result = call(backend.api, method, args);
+			backend.succeeded();
+			return result;
+		} catch (BtcException e) {
+			if (isFailure(e)) {
+				backend.failed(e);
+			} else {
+				backend.succeeded();
+			}
+			throw e;
+		} catch (RuntimeException e) {
+			backend.failed(null);
+			throw e;
+		} finally {
+			backend.inFlight.decrementAndGet();
+		}
+	}
+
+	private Backend select(Set<Backend> tried) {
+		long floor = bestHeight - maxLag;
+		List<Backend> eligible = new ArrayList<Backend>(backends.size());
+		Backend fallback = null;
+		for (Backend backend : backends) {
+			if (tried.contains(backend)) {
+				continue;
+			}
+			if ((fallback == null) || (!backend.ejected && fallback.ejected)) {
+				fallback = backend;
+			}
+			if (!backend.ejected && (backend.blockCount >= floor)) {
+				eligible.add(backend);
+			}
+		}
+		if (eligible.isEmpty()) {
+			return fallback;
+		}
+		int start = (next.getAndIncrement() & Integer.MAX_VALUE)
+				% eligible.size();
+		Backend selected = null;
+		for (int i = 0; i < eligible.size(); i++) {
+			Backend backend = eligible.get((start + i) % eligible.size());
+			if ((selected == null)
+					|| (backend.inFlight.get() < selected.inFlight.get())) {
+				selected = backend;
+			}
+		}
+		return selected;
+	}
+
+	private static boolean isFailure(BtcException e) {
+		return (e.getCode() == BtcException.BTC4J_ERROR_CODE)
+				|| (e.getCode() == RPC_IN_WARMUP)
+				|| (e.getCode() == RPC_CLIENT_IN_INITIAL_DOWNLOAD);
+	}
+
+	private final class Backend {
+		private final BtcApi api;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private volatile long blockCount = -1;
+		private volatile boolean ejected = false;
+		private volatile long ejectedUntil = 0;
+		private int failures = 0;
+
+		private Backend(BtcApi api) {
+			this.api = api;
+		}
+
+		private void observe(long count) {
+			blockCount = count;
+			if (count > bestHeight) {
+				bestHeight = count;
+			}
+		}
+
+		private synchronized void succeeded() {
+			failures = 0;
+		}
+
+		private synchronized void readmit() {
+			failures = 0;
+			ejected = false;
+		}
+
+		private synchronized void failed(BtcException e) {
+			if ((++failures >= failureThreshold) || ((e != null)
+					&& (e.getCode() != BtcException.BTC4J_ERROR_CODE))) {
+				ejectedUntil = System.currentTimeMillis() + ejectTime;
+				ejected = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BtcApiCoalescer extends BtcApiDecorator {
+	public static final Set<String> DEFAULT_METHODS = Collections
+			.unmodifiableSet(new HashSet<String>(Arrays.asList(
+					"getBlockCount", "getDifficulty", "getInformation",
+					"getMiningInformation")));
+	private static final Object[] NO_ARGS = new Object[] {};
+	private final Set<String> methods;
+	private final long ttl;
+	private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong requests = new AtomicLong();
+
+	public BtcApiCoalescer(BtcApi api) {
+		this(api, DEFAULT_METHODS, 0);
+	}
+
+	public BtcApiCoalescer(BtcApi api, long ttl) {
+		this(api, DEFAULT_METHODS, ttl);
+	}
+
+	public BtcApiCoalescer(BtcApi api, Set<String> methods, long ttl) {
+		super(api);
+		this.methods = new HashSet<String>(methods);
+		this.ttl = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttl));
+	}
+
+	public long getCalls() {
+		return calls.get();
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	@Override
+	protected Object call(Method method, Object[] args) throws BtcException {
+		if (!methods.contains(method.getName())) {
+			return super.call(method, args);
+		}
+		calls.incrementAndGet();
+		Key key = new Key(method.getName(), args);
+		while (true) {
+			Entry entry = entries.get(key);
+			if ((entry != null) && entry.future.isDone()
+					&& ((System.nanoTime() - entry.expires) >= 0)) {
+				entries.remove(key, entry);
+				entry = null;
+			}
+			if (entry == null) {
+				Entry created = new Entry();
+				entry = entries.putIfAbsent(key, created);
+				if (entry == null) {
+					return load(key, created, method, args);
+				}
+				continue;
+			}
+			return await(entry);
+		}
+	}
+
+	private Object load(Key key, Entry entry, Method method, Object[] args)
+			throws BtcException {
+		requests.incrementAndGet();
+		try {
+			Object result = super.call(method, args);
+			entry.expires = System.nanoTime() + ttl;
+			if (ttl == 0) {
+				entries.remove(key, entry);
+			}
+			entry.future.complete(result);
+			return result;
+		} catch (BtcException | RuntimeException | Error e) {
+			entries.remove(key, entry);
+			entry.future.fail(e);
+			throw e;
+		}
+	}
+
+	private static Object await(Entry entry) throws BtcException {
+		try {
+			return entry.future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof BtcException) {
+				throw (BtcException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": "
+							+ e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	private static final class Entry {
+		private final BtcFuture<Object> future = new BtcFuture<Object>();
+		private volatile long expires = 0;
+	}
+
+	private static final class Key {
+		private final String method;
+		private final Object[] args;
+
+		private Key(String method, Object[] args) {
+			this.method = method;
+			this.args = (args == null) ? NO_ARGS : args;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * method.hashCode() + Arrays.deepHashCode(args);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return method.equals(other.method)
+					&& Arrays.deepEquals(args, other.args);
+		}
+	}
+}
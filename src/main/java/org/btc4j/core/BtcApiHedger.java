@@ -0,0 +1,282 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BtcApiHedger extends BtcApiDecorator {
+	public static final double DEFAULT_PERCENTILE = 95;
+	public static final double DEFAULT_BUDGET = 0.05;
+	public static final long DEFAULT_INITIAL_DELAY = 50;
+	public static final Set<String> IDEMPOTENT_METHODS = Collections
+			.unmodifiableSet(new HashSet<String>(Arrays.asList(
+					"decodeRawTransaction", "getBlock", "getBlockCount",
+					"getBlockHash", "getDifficulty", "getRawTransaction",
+					"getTransactionOutput",
+					"getTransactionOutputSetInformation")));
+	private static final int MIN_SAMPLES = 32;
+	private static final int REFRESH_SAMPLES = 256;
+	private static final int WINDOW_SAMPLES = 4096;
+	private static final long TOKEN = 1000;
+	private static final long MAX_TOKENS = 10 * TOKEN;
+	private final List<BtcApi> backends;
+	private final Set<String> methods;
+	private final double percentile;
+	private final long budget;
+	private final long initialDelay;
+	private final ExecutorService executor;
+	private final boolean ownExecutor;
+	private final ConcurrentMap<String, Delay> delays = new ConcurrentHashMap<String, Delay>();
+	private final AtomicInteger next = new AtomicInteger();
+	private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong hedges = new AtomicLong();
+	private final AtomicLong hedgeWins = new AtomicLong();
+
+	public BtcApiHedger(List<BtcApi> backends) {
+		this(backends, IDEMPOTENT_METHODS, DEFAULT_PERCENTILE, DEFAULT_BUDGET,
+				DEFAULT_INITIAL_DELAY, Executors.newCachedThreadPool(), true);
+	}
+
+	public BtcApiHedger(List<BtcApi> backends, Set<String> methods,
+			double percentile, double budget, long initialDelay,
+			ExecutorService executor) {
+		this(backends, methods, percentile, budget, initialDelay, executor,
+				false);
+	}
+
+	private BtcApiHedger(List<BtcApi> backends, Set<String> methods,
+			double percentile, double budget, long initialDelay,
+			ExecutorService executor, boolean ownExecutor) {
+		super(backends.get(0));
+		this.backends = new ArrayList<BtcApi>(backends);
+		this.methods = new HashSet<String>(methods);
+		this.percentile = Math.min(Math.max(0, percentile), 100);
+		this.budget = (long) (Math.max(0, budget) * TOKEN);
+		this.initialDelay = TimeUnit.MILLISECONDS.toNanos(initialDelay);
+		this.executor = executor;
+		this.ownExecutor = ownExecutor;
+	}
+
+	public long getCalls() {
+		return calls.get();
+	}
+
+	public long getHedges() {
+		return hedges.get();
+	}
+
+	public long getHedgeWins() {
+		return hedgeWins.get();
+	}
+
+	public long getDelay(String method) {
+		Delay delay = delays.get(method);
+		return TimeUnit.NANOSECONDS.toMillis((delay == null) ? initialDelay
+				: delay.value);
+	}
+
+	public void shutdown() {
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	@Override
+	protected Object call(Method method, Object[] args) throws BtcException {
+		if (!methods.contains(method.getName()) || (backends.size() < 2)) {
+			return super.call(method, args);
+		}
+		calls.incrementAndGet();
+		deposit();
+		Delay delay = getDelay(method);
+		long hedgeDelay = delay.value;
+		int primary = (next.getAndIncrement() & Integer.MAX_VALUE)
+				% backends.size();
+		CompletionService<Object> completion = new ExecutorCompletionService<Object>(
+				executor);
+		List<Attempt> attempts = new ArrayList<Attempt>(2);
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(2);
+		try {
+			attempts.add(new Attempt(backends.get(primary), method, args,
+					delay));
+			futures.add(completion.submit(attempts.get(0)));
+			Future<Object> done = completion.poll(hedgeDelay,
+					TimeUnit.NANOSECONDS);
+			if ((done == null) && withdraw()) {
+				hedges.incrementAndGet();
+				attempts.add(new Attempt(backends.get((primary + 1)
+						% backends.size()), method, args, delay));
+				futures.add(completion.submit(attempts.get(1)));
+			}
+			int pending = futures.size();
+			while (true) {
+				if (done == null) {
+					done = completion.take();
+				}
+				pending--;
+				try {
+					Object result = done.get();
+					if ((futures.size() > 1) && (done == futures.get(1))) {
+						hedgeWins.incrementAndGet();
+					}
+					return result;
+				} catch (ExecutionException e) {
+					if (pending == 0) {
+						throw unwrap(e.getCause());
+					}
+				}
+				done = null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		} finally {
+			for (int i = 0; i < futures.size(); i++) {
+				attempts.get(i).record(hedgeDelay);
+				futures.get(i).cancel(true);
+			}
+		}
+	}
+
+	private Delay getDelay(Method method) {
+		Delay delay = delays.get(method.getName());
+		if (delay == null) {
+			delays.putIfAbsent(method.getName(), new Delay(initialDelay));
+			delay = delays.get(method.getName());
+		}
+		return delay;
+	}
+
+	private void deposit() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current >= MAX_TOKENS) {
+				return;
+			}
+		} while (!tokens.compareAndSet(current,
+				Math.min(MAX_TOKENS, current + budget)));
+	}
+
+	private boolean withdraw() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current < TOKEN) {
+				return false;
+			}
+		} while (!tokens.compareAndSet(current, current - TOKEN));
+		return true;
+	}
+
+	private static BtcException unwrap(Throwable cause) {
+		if (cause instanceof BtcException) {
+			return (BtcException) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new BtcException(BtcException.BTC4J_ERROR_CODE,
+				BtcException.BTC4J_ERROR_MESSAGE + ": " + cause.getMessage(),
+				cause);
+	}
+
+	private static final class Attempt implements Callable<Object> {
+		private final BtcApi backend;
+		private final Method method;
+		private final Object[] args;
+		private final Delay delay;
+		private final long start = System.nanoTime();
+		private final AtomicBoolean recorded = new AtomicBoolean();
+
+		private Attempt(BtcApi backend, Method method, Object[] args,
+				Delay delay) {
+			this.backend = backend;
+			this.method = method;
+			this.args = args;
+			this.delay = delay;
+		}
+
+		@Override
+		public Object call() throws BtcException {
+			try {
+				return BtcApiDecorator.call(backend, method, args);
+			} finally {
+				record(0);
+			}
+		}
+
+		private void record(long floor) {
+			if (recorded.compareAndSet(false, true)) {
+				delay.record(Math.max(floor, System.nanoTime() - start));
+			}
+		}
+	}
+
+	private final class Delay {
+		private final BtcLatencyHistogram latency = new BtcLatencyHistogram();
+		private final AtomicLong samples = new AtomicLong();
+		private volatile long value;
+
+		private Delay(long value) {
+			this.value = value;
+		}
+
+		private void record(long elapsed) {
+			latency.record(elapsed);
+			long count = samples.incrementAndGet();
+			if ((count == MIN_SAMPLES) || ((count % REFRESH_SAMPLES) == 0)) {
+				value = Math.max(1, latency.getValueAtPercentile(percentile));
+			}
+			if ((count % WINDOW_SAMPLES) == 0) {
+				latency.reset();
+			}
+		}
+	}
+}
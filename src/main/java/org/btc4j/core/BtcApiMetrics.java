@@ -0,0 +1,219 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class BtcApiMetrics extends BtcApiDecorator implements
+		BtcApiMetricsMXBean {
+	public static final String OBJECT_NAME = "org.btc4j.core:type=BtcApiMetrics";
+	private final ConcurrentMap<String, Stats> methods = new ConcurrentHashMap<String, Stats>();
+
+	public BtcApiMetrics(BtcApi api) {
+		super(api);
+	}
+
+	@Override
+	protected Object call(Method method, Object[] args) throws BtcException {
+		Stats stats = getStats(method.getName());
+		long start = System.nanoTime();
+		try {
+			Object result = super.call(method, args);
+			stats.latency.record(System.nanoTime() - start);
+			stats.responseElements.record(countOf(result));
+			return result;
+		} catch (BtcException e) {
+			stats.latency.record(System.nanoTime() - start);
+			stats.error(e.getCode());
+			throw e;
+		} catch (RuntimeException e) {
+			stats.latency.record(System.nanoTime() - start);
+			stats.error(BtcException.BTC4J_ERROR_CODE);
+			throw e;
+		} finally {
+			stats.requestElements.addAndGet(countArguments(args));
+		}
+	}
+
+	@Override
+	public long getCalls() {
+		long calls = 0;
+		for (Stats stats : methods.values()) {
+			calls += stats.latency.getCount();
+		}
+		return calls;
+	}
+
+	@Override
+	public long getErrors() {
+		long errors = 0;
+		for (Stats stats : methods.values()) {
+			errors += stats.errors.get();
+		}
+		return errors;
+	}
+
+	public BtcMethodMetrics getMethodMetrics(String method) {
+		Stats stats = methods.get(BtcUtil.notNull(method));
+		return (stats == null) ? null : stats.snapshot();
+	}
+
+	@Override
+	public List<BtcMethodMetrics> getMethodMetrics() {
+		List<BtcMethodMetrics> metrics = new ArrayList<BtcMethodMetrics>();
+		for (Stats stats : new TreeMap<String, Stats>(methods).values()) {
+			metrics.add(stats.snapshot());
+		}
+		return metrics;
+	}
+
+	public BtcLatencyHistogram getLatency(String method) {
+		return getStats(BtcUtil.notNull(method)).latency;
+	}
+
+	@Override
+	public void reset() {
+		methods.clear();
+	}
+
+	public ObjectName register() throws BtcException {
+		return register(OBJECT_NAME);
+	}
+
+	public ObjectName register(String name) throws BtcException {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			return server.registerMBean(this, objectName).getObjectName();
+		} catch (JMException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	private Stats getStats(String method) {
+		Stats stats = methods.get(method);
+		if (stats == null) {
+			Stats created = new Stats(method);
+			stats = methods.putIfAbsent(method, created);
+			if (stats == null) {
+				stats = created;
+			}
+		}
+		return stats;
+	}
+
+	private static long countOf(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).size();
+		}
+		if (value instanceof Map) {
+			return ((Map<?, ?>) value).size();
+		}
+		if (value instanceof Object[]) {
+			return ((Object[]) value).length;
+		}
+		return 1;
+	}
+
+	private static long countArguments(Object[] args) {
+		long count = 0;
+		if (args != null) {
+			for (Object arg : args) {
+				count += countOf(arg);
+			}
+		}
+		return count;
+	}
+
+	private static final class Stats {
+		private final String method;
+		private final BtcLatencyHistogram latency = new BtcLatencyHistogram();
+		private final BtcLatencyHistogram responseElements = new BtcLatencyHistogram();
+		private final AtomicLong requestElements = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+		private final ConcurrentMap<Integer, AtomicLong> errorCodes = new ConcurrentHashMap<Integer, AtomicLong>();
+
+		private Stats(String method) {
+			this.method = method;
+		}
+
+		private void error(int code) {
+			errors.incrementAndGet();
+			AtomicLong counter = errorCodes.get(code);
+			if (counter == null) {
+				AtomicLong created = new AtomicLong();
+				counter = errorCodes.putIfAbsent(code, created);
+				if (counter == null) {
+					counter = created;
+				}
+			}
+			counter.incrementAndGet();
+		}
+
+		private BtcMethodMetrics snapshot() {
+			BtcMethodMetrics metrics = new BtcMethodMetrics();
+			metrics.setMethod(method);
+			metrics.setCalls(latency.getCount());
+			metrics.setErrors(errors.get());
+			Map<String, Long> codes = new HashMap<String, Long>();
+			for (Map.Entry<Integer, AtomicLong> entry : errorCodes.entrySet()) {
+				codes.put(String.valueOf(entry.getKey()), entry.getValue()
+						.get());
+			}
+			metrics.setErrorCodes(codes);
+			metrics.setLatencyMean(latency.getMean());
+			metrics.setLatencyMedian(latency.getValueAtPercentile(50));
+			metrics.setLatency90(latency.getValueAtPercentile(90));
+			metrics.setLatency99(latency.getValueAtPercentile(99));
+			metrics.setLatency999(latency.getValueAtPercentile(99.9));
+			metrics.setLatencyMax(latency.getMax());
+			metrics.setRequestElements(requestElements.get());
+			metrics.setResponseElements(responseElements.getSum());
+			metrics.setResponseElementsMax(responseElements.getMax());
+			return metrics;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+public class BtcBalanceCache {
+	private static final String ALL_ACCOUNTS = "*";
+	private final BtcApi api;
+	private final ConcurrentMap<Key, BtcFuture<Object>> entries = new ConcurrentHashMap<Key, BtcFuture<Object>>();
+
+	public BtcBalanceCache(BtcApi api) {
+		this.api = api;
+	}
+
+	public BigDecimal getBalance(final String account, final long minConfirms)
+			throws BtcException {
+		return (BigDecimal) get(new Key(Kind.BALANCE,
+				(account == null) ? ALL_ACCOUNTS : account, minConfirms),
+				new Loader() {
+			@Override
+			public Object load() throws BtcException {
+				return api.getBalance(account, minConfirms);
+			}
+		});
+	}
+
+	public BigDecimal getReceivedByAccount(final String account,
+			final long minConfirms) throws BtcException {
+		return (BigDecimal) get(new Key(Kind.RECEIVED,
+				BtcUtil.notNull(account), minConfirms), new Loader() {
+			@Override
+			public Object load() throws BtcException {
+				return api.getReceivedByAccount(account, minConfirms);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	public Map<String, BtcAccount> listAccounts(final long minConfirms)
+			throws BtcException {
+		return (Map<String, BtcAccount>) get(new Key(Kind.ACCOUNTS,
+				ALL_ACCOUNTS, minConfirms), new Loader() {
+			@Override
+			public Object load() throws BtcException {
+				return Collections.unmodifiableMap(api
+						.listAccounts(minConfirms));
+			}
+		});
+	}
+
+	public void blockNotify(String blockHash) {
+		invalidateAll();
+	}
+
+	public void walletNotify(String transactionId) throws BtcException {
+		walletNotify(api.getTransaction(transactionId));
+	}
+
+	public void walletNotify(BtcTransaction transaction) {
+		if (transaction.getDetails().isEmpty()) {
+			invalidateAll();
+			return;
+		}
+		for (BtcTransactionDetail detail : transaction.getDetails()) {
+			invalidate(detail.getAccount());
+		}
+	}
+
+	public void invalidate(String account) {
+		String name = BtcUtil.notNull(account);
+		for (Key key : entries.keySet()) {
+			if (key.account.equals(name)
+					|| key.account.equals(ALL_ACCOUNTS)) {
+				entries.remove(key);
+			}
+		}
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private Object get(Key key, Loader loader) throws BtcException {
+		BtcFuture<Object> entry = entries.get(key);
+		if (entry == null) {
+			BtcFuture<Object> created = new BtcFuture<Object>();
+			entry = entries.putIfAbsent(key, created);
+			if (entry == null) {
+				entry = created;
+				try {
+					created.complete(loader.load());
+				} catch (BtcException e) {
+					entries.remove(key, created);
+					created.fail(e);
+					throw e;
+				} catch (RuntimeException e) {
+					entries.remove(key, created);
+					created.fail(e);
+					throw e;
+				}
+			}
+		}
+		try {
+			return entry.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof BtcException) {
+				throw (BtcException) e.getCause();
+			}
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": "
+							+ e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	private interface Loader {
+		Object load() throws BtcException;
+	}
+
+	private enum Kind {
+		BALANCE, RECEIVED, ACCOUNTS
+	}
+
+	private static final class Key {
+		private final Kind kind;
+		private final String account;
+		private final long minConfirms;
+
+		private Key(Kind kind, String account, long minConfirms) {
+			this.kind = kind;
+			this.account = account;
+			this.minConfirms = minConfirms;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = kind.hashCode();
+			result = 31 * result + account.hashCode();
+			return 31 * result + (int) (minConfirms ^ (minConfirms >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return (kind == other.kind) && (minConfirms == other.minConfirms)
+					&& account.equals(other.account);
+		}
+	}
+}
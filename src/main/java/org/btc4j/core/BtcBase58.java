@@ -0,0 +1,217 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+public class BtcBase58 {
+	private static final char[] ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz"
+			.toCharArray();
+	private static final int[] INDEXES = new int[128];
+
+	private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	static {
+		Arrays.fill(INDEXES, -1);
+		for (int i = 0; i < ALPHABET.length; i++) {
+			INDEXES[ALPHABET[i]] = i;
+		}
+	}
+
+	public static String encode(byte[] data) {
+		int zeros = 0;
+		while ((zeros < data.length) && (data[zeros] == 0)) {
+			zeros++;
+		}
+		byte[] digits = new byte[data.length * 138 / 100 + 1];
+		int length = 0;
+		for (int i = zeros; i < data.length; i++) {
+			int carry = data[i] & 0xff;
+			for (int j = 0; j < length; j++) {
+				carry += (digits[j] & 0xff) << 8;
+				digits[j] = (byte) (carry % 58);
+				carry /= 58;
+			}
+			while (carry > 0) {
+				digits[length++] = (byte) (carry % 58);
+				carry /= 58;
+			}
+		}
+		char[] chars = new char[zeros + length];
+		Arrays.fill(chars, 0, zeros, ALPHABET[0]);
+		for (int i = 0; i < length; i++) {
+			chars[zeros + i] = ALPHABET[digits[length - 1 - i]];
+		}
+		return new String(chars);
+	}
+
+	public static byte[] decode(String value) {
+		int zeros = 0;
+		while ((zeros < value.length()) && (value.charAt(zeros) == ALPHABET[0])) {
+			zeros++;
+		}
+		byte[] bytes = new byte[value.length() * 733 / 1000 + 1];
+		int length = 0;
+		for (int i = zeros; i < value.length(); i++) {
+			char c = value.charAt(i);
+			int carry = (c < 128) ? INDEXES[c] : -1;
+			if (carry < 0) {
+				throw new IllegalArgumentException("invalid base58 character: "
+						+ c);
+			}
+			for (int j = 0; j < length; j++) {
+				carry += (bytes[j] & 0xff) * 58;
+				bytes[j] = (byte) carry;
+				carry >>>= 8;
+			}
+			while (carry > 0) {
+				bytes[length++] = (byte) carry;
+				carry >>>= 8;
+			}
+		}
+		byte[] decoded = new byte[zeros + length];
+		for (int i = 0; i < length; i++) {
+			decoded[zeros + i] = bytes[length - 1 - i];
+		}
+		return decoded;
+	}
+
+	public static int decodeCheck(String value, byte[] output) {
+		Scratch s = SCRATCH.get();
+		int zeros = 0;
+		while ((zeros < value.length()) && (value.charAt(zeros) == ALPHABET[0])) {
+			zeros++;
+		}
+		if (value.length() > s.limbs.length * 4) {
+			return -1;
+		}
+		int used = 0;
+		for (int i = zeros; i < value.length(); i++) {
+			char c = value.charAt(i);
+			long carry = (c < 128) ? INDEXES[c] : -1;
+			if (carry < 0) {
+				return -1;
+			}
+			for (int j = 0; j < used; j++) {
+				carry += (s.limbs[j] & 0xffffffffL) * 58;
+				s.limbs[j] = (int) carry;
+				carry >>>= 32;
+			}
+			if (carry > 0) {
+				s.limbs[used++] = (int) carry;
+			}
+		}
+		int significant = used * 4;
+		while ((significant > 0) && (byteAt(s.limbs, significant - 1) == 0)) {
+			significant--;
+		}
+		int length = zeros + significant;
+		if ((length < 5) || (length - 4 > output.length)) {
+			return -1;
+		}
+		for (int i = 0; i < zeros; i++) {
+			s.bytes[i] = 0;
+		}
+		for (int i = 0; i < significant; i++) {
+			s.bytes[length - 1 - i] = (byte) byteAt(s.limbs, i);
+		}
+		try {
+			s.digest.update(s.bytes, 0, length - 4);
+			s.digest.digest(s.hash, 0, 32);
+			s.digest.update(s.hash, 0, 32);
+			s.digest.digest(s.hash, 0, 32);
+		} catch (DigestException e) {
+			return -1;
+		}
+		if ((s.hash[0] != s.bytes[length - 4])
+				|| (s.hash[1] != s.bytes[length - 3])
+				|| (s.hash[2] != s.bytes[length - 2])
+				|| (s.hash[3] != s.bytes[length - 1])) {
+			return -1;
+		}
+		System.arraycopy(s.bytes, 0, output, 0, length - 4);
+		return length - 4;
+	}
+
+	public static String encodeCheck(int version, byte[] payload) {
+		byte[] data = new byte[payload.length + 5];
+		data[0] = (byte) version;
+		System.arraycopy(payload, 0, data, 1, payload.length);
+		byte[] checksum = doubleDigest(data, 0, payload.length + 1);
+		System.arraycopy(checksum, 0, data, payload.length + 1, 4);
+		return encode(data);
+	}
+
+	public static byte[] decodeCheck(String value) {
+		byte[] data = decode(value);
+		if (data.length < 5) {
+			throw new IllegalArgumentException("base58check value too short");
+		}
+		byte[] checksum = doubleDigest(data, 0, data.length - 4);
+		for (int i = 0; i < 4; i++) {
+			if (checksum[i] != data[data.length - 4 + i]) {
+				throw new IllegalArgumentException("invalid base58 checksum");
+			}
+		}
+		return Arrays.copyOf(data, data.length - 4);
+	}
+
+	private static int byteAt(int[] limbs, int index) {
+		return (limbs[index >> 2] >>> ((index & 3) << 3)) & 0xff;
+	}
+
+	private static final class Scratch {
+		private final MessageDigest digest;
+		private final int[] limbs = new int[32];
+		private final byte[] bytes = new byte[128];
+		private final byte[] hash = new byte[32];
+
+		private Scratch() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static byte[] doubleDigest(byte[] data, int offset, int length) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(data, offset, length);
+			return digest.digest(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,506 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+public class BtcBlockArchive {
+	public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final String HEIGHT_INDEX = "heights.idx";
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 2;
+	private static final int OFFSET_BITS = 40;
+	private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+	private final File directory;
+	private final long segmentSize;
+	private final List<FileChannel> segments = new ArrayList<FileChannel>();
+	private final ConcurrentMap<String, Long> hashes = new ConcurrentHashMap<String, Long>();
+	private final ConcurrentMap<Long, Long> heights = new ConcurrentHashMap<Long, Long>();
+	private final ByteBuffer entry = ByteBuffer.allocate(8);
+	private volatile MappedByteBuffer[] mappings = new MappedByteBuffer[0];
+	private volatile long height = -1;
+	private FileChannel heightIndex;
+	private long indexed = -1;
+	private long position = 0;
+
+	public BtcBlockArchive(File directory) throws BtcException {
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public BtcBlockArchive(File directory, long segmentSize)
+			throws BtcException {
+		this.directory = directory;
+		this.segmentSize = Math.min(BtcUtil.atLeast(segmentSize, 1024),
+				Integer.MAX_VALUE);
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("cannot create " + directory);
+			}
+			for (int i = 0; segment(i).exists(); i++) {
+				segments.add(open(i));
+			}
+			if (segments.isEmpty()) {
+				segments.add(open(0));
+			}
+			mappings = new MappedByteBuffer[segments.size()];
+			for (int i = 0; i < segments.size(); i++) {
+				FileChannel channel = segments.get(i);
+				mappings[i] = (i < segments.size() - 1) ? channel.map(
+						FileChannel.MapMode.READ_ONLY, 0, channel.size())
+						: channel.map(FileChannel.MapMode.READ_WRITE, 0,
+								Math.max(channel.size(), this.segmentSize));
+			}
+			List<long[]> records = new ArrayList<long[]>();
+			for (int i = 0; i < segments.size(); i++) {
+				scan(i, records);
+			}
+			heightIndex = new RandomAccessFile(new File(directory,
+					HEIGHT_INDEX), "rw").getChannel();
+			load(records);
+		} catch (IOException e) {
+			close();
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public long getHeight() {
+		return height;
+	}
+
+	public int size() {
+		return hashes.size();
+	}
+
+	public boolean contains(String hash) {
+		return hashes.containsKey(hash);
+	}
+
+	public String getHash(long height) throws BtcException {
+		Long location = heights.get(height);
+		if (location == null) {
+			return null;
+		}
+		ByteBuffer record = record(location);
+		byte[] hash = new byte[record.getShort(16)];
+		record.position(HEADER_SIZE);
+		record.get(hash);
+		return new String(hash, ASCII);
+	}
+
+	public ByteBuffer getBuffer(String hash) throws BtcException {
+		Long location = hashes.get(hash);
+		return (location == null) ? null : body(location);
+	}
+
+	public ByteBuffer getBuffer(long height) throws BtcException {
+		Long location = heights.get(height);
+		return (location == null) ? null : body(location);
+	}
+
+	public BtcBlock getBlock(String hash) throws BtcException {
+		return decode(getBuffer(hash));
+	}
+
+	public BtcBlock getBlock(long height) throws BtcException {
+		return decode(getBuffer(height));
+	}
+
+	public List<BtcRawTransaction> getRawTransactions(String hash)
+			throws BtcException {
+		return decodeTransactions(getBuffer(hash));
+	}
+
+	public List<BtcRawTransaction> getRawTransactions(long height)
+			throws BtcException {
+		return decodeTransactions(getBuffer(height));
+	}
+
+	public BtcBlock getBlock(long height, List<BtcRawTransaction> transactions)
+			throws BtcException {
+		ByteBuffer buffer = getBuffer(height);
+		return (buffer == null) ? null : decode(buffer, transactions);
+	}
+
+	public boolean append(BtcBlock block) throws BtcException {
+		return append(block, Collections.<BtcRawTransaction> emptyList());
+	}
+
+	public boolean append(BtcBlock block, List<BtcRawTransaction> transactions)
+			throws BtcException {
+		if (hashes.containsKey(block.getHash())) {
+			return false;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			BtcCodec.write(out, block);
+			for (BtcRawTransaction transaction : transactions) {
+				BtcCodec.write(out, transaction);
+			}
+			out.flush();
+			return append(block.getHash(), block.getHeight(),
+					bytes.toByteArray());
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public synchronized boolean append(String hash, long height, byte[] data)
+			throws BtcException {
+		if (hashes.containsKey(hash)) {
+			return false;
+		}
+		byte[] key = hash.getBytes(ASCII);
+		int size = HEADER_SIZE + key.length + data.length;
+		try {
+			int index = segments.size() - 1;
+			if ((position + size) > mappings[index].capacity()) {
+				if (position > 0) {
+					mappings[index].force();
+					segments.add(open(++index));
+					position = 0;
+				}
+				map(index, Math.max(segmentSize, size));
+			}
+			ByteBuffer record = mappings[index].duplicate();
+			record.position((int) position + 8);
+			record.putLong(height);
+			record.putShort((short) key.length);
+			record.put(key);
+			record.put(data);
+			CRC32 checksum = new CRC32();
+			checksum.update(ByteBuffer.allocate(10).putLong(height)
+					.putShort((short) key.length).array());
+			checksum.update(key);
+			checksum.update(data);
+			record.putInt((int) position + 4, (int) checksum.getValue());
+			record.putInt((int) position, size - 4);
+			long location = ((long) index << OFFSET_BITS) | position;
+			position += size;
+			hashes.put(hash, location);
+			put(height, location);
+			return true;
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public int follow(BtcApi api) throws BtcException {
+		return follow(api, false);
+	}
+
+	public synchronized int follow(BtcApi api, boolean transactions)
+			throws BtcException {
+		long count = api.getBlockCount();
+		long next = Math.min(height, count) + 1;
+		while ((next > 0)
+				&& !api.getBlockHash(next - 1).equals(getHash(next - 1))) {
+			next--;
+		}
+		truncate(next - 1);
+		int appended = 0;
+		for (long i = next; i <= count; i++) {
+			String hash = api.getBlockHash(i);
+			Long location = hashes.get(hash);
+			if (location != null) {
+				try {
+					put(i, location);
+				} catch (IOException e) {
+					throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+							BtcException.BTC4J_ERROR_MESSAGE + ": "
+									+ e.getMessage(), e);
+				}
+			} else {
+				BtcBlock block = api.getBlock(hash);
+				List<BtcRawTransaction> raw = new ArrayList<BtcRawTransaction>();
+				if (transactions && (i > 0)) {
+					for (BtcTransaction transaction : block.getTransactions()) {
+						raw.add(api.getRawTransaction(
+								transaction.getTransaction(), true));
+					}
+				}
+				append(block, raw);
+				appended++;
+			}
+		}
+		return appended;
+	}
+
+	public synchronized void flush() throws BtcException {
+		try {
+			mappings[mappings.length - 1].force();
+			heightIndex.force(false);
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public synchronized void close() {
+		MappedByteBuffer[] current = mappings;
+		if ((current.length > 0) && (current[current.length - 1] != null)) {
+			current[current.length - 1].force();
+		}
+		for (FileChannel channel : segments) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+			}
+		}
+		segments.clear();
+		mappings = new MappedByteBuffer[0];
+		if (heightIndex != null) {
+			try {
+				heightIndex.force(false);
+				heightIndex.close();
+			} catch (IOException e) {
+			}
+			heightIndex = null;
+		}
+	}
+
+	private File segment(int index) {
+		return new File(directory, String.format("blk%05d.dat", index));
+	}
+
+	private FileChannel open(int index) throws IOException {
+		return new RandomAccessFile(segment(index), "rw").getChannel();
+	}
+
+	private void map(int index, long size) throws IOException {
+		MappedByteBuffer[] current = mappings;
+		MappedByteBuffer[] updated = new MappedByteBuffer[Math.max(
+				current.length, index + 1)];
+		System.arraycopy(current, 0, updated, 0, current.length);
+		updated[index] = segments.get(index).map(
+				FileChannel.MapMode.READ_WRITE, 0, size);
+		mappings = updated;
+	}
+
+	private void scan(int index, List<long[]> records) throws IOException {
+		MappedByteBuffer mapping = mappings[index];
+		int limit = mapping.capacity();
+		int offset = 0;
+		byte[] scratch = new byte[64 * 1024];
+		while (offset + HEADER_SIZE <= limit) {
+			int length = mapping.getInt(offset);
+			int keyLength = mapping.getShort(offset + 16);
+			if ((length <= 0) || (keyLength < 0)
+					|| (length < (HEADER_SIZE - 4 + keyLength))
+					|| ((offset + 4L + length) > limit)
+					|| (mapping.getInt(offset + 4) != checksum(mapping,
+							offset + 8, offset + 4 + length, scratch))) {
+				break;
+			}
+			byte[] key = new byte[keyLength];
+			ByteBuffer record = mapping.duplicate();
+			record.position(offset + HEADER_SIZE);
+			record.get(key);
+			long location = ((long) index << OFFSET_BITS) | offset;
+			hashes.put(new String(key, ASCII), location);
+			records.add(new long[] { mapping.getLong(offset + 8), location });
+			offset += 4 + length;
+		}
+		if (index < segments.size() - 1) {
+			if ((offset + 4 <= limit) && (mapping.getInt(offset) != 0)) {
+				throw new IOException("corrupt archive segment "
+						+ segment(index));
+			}
+		} else {
+			for (int i = offset; i < limit; i++) {
+				if (mapping.get(i) != 0) {
+					for (int j = offset; j < limit; j++) {
+						mapping.put(j, (byte) 0);
+					}
+					break;
+				}
+			}
+			position = offset;
+		}
+	}
+
+	private static int checksum(ByteBuffer mapping, int from, int to,
+			byte[] scratch) {
+		CRC32 checksum = new CRC32();
+		ByteBuffer range = mapping.duplicate();
+		range.position(from);
+		range.limit(to);
+		while (range.hasRemaining()) {
+			int length = Math.min(scratch.length, range.remaining());
+			range.get(scratch, 0, length);
+			checksum.update(scratch, 0, length);
+		}
+		return (int) checksum.getValue();
+	}
+
+	private void load(List<long[]> records) throws IOException {
+		Set<Long> locations = new HashSet<Long>(records.size() * 2);
+		for (long[] record : records) {
+			locations.add(record[1]);
+		}
+		long entries = heightIndex.size() / 8;
+		ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+		for (long i = 0; i < entries; i += buffer.capacity() / 8) {
+			buffer.clear();
+			while (buffer.hasRemaining()
+					&& (heightIndex.read(buffer, i * 8 + buffer.position()) > 0)) {
+			}
+			buffer.flip();
+			for (long h = i - 1; buffer.remaining() >= 8; h++) {
+				long location = buffer.getLong() - 1;
+				if (h < 0) {
+					indexed = location;
+				} else if (locations.contains(location)) {
+					heights.put(h, location);
+					height = Math.max(height, h);
+				}
+			}
+		}
+		for (long[] record : records) {
+			if (record[1] > indexed) {
+				put(record[0], record[1]);
+			}
+		}
+		heightIndex.truncate((height + 2) * 8);
+	}
+
+	private void put(long height, long location) throws IOException {
+		heights.put(height, location);
+		write(height + 1, location);
+		if (location > indexed) {
+			indexed = location;
+			write(0, location);
+		}
+		if (height > this.height) {
+			this.height = height;
+		}
+	}
+
+	private void write(long slot, long location) throws IOException {
+		entry.clear();
+		entry.putLong(location + 1).flip();
+		while (entry.hasRemaining()) {
+			heightIndex.write(entry, slot * 8 + entry.position());
+		}
+	}
+
+	private void truncate(long count) throws BtcException {
+		if (count >= height) {
+			return;
+		}
+		try {
+			heightIndex.truncate((count + 2) * 8);
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+		for (long i = count + 1; i <= height; i++) {
+			heights.remove(i);
+		}
+		height = count;
+	}
+
+	private ByteBuffer record(long location) {
+		int index = (int) (location >>> OFFSET_BITS);
+		int offset = (int) (location & OFFSET_MASK);
+		ByteBuffer mapping = mappings[index].duplicate();
+		mapping.position(offset);
+		mapping.limit(offset + 4 + mapping.getInt(offset));
+		return mapping.slice();
+	}
+
+	private ByteBuffer body(long location) {
+		ByteBuffer record = record(location);
+		record.position(HEADER_SIZE + record.getShort(16));
+		return record.slice().asReadOnlyBuffer();
+	}
+
+	private static List<BtcRawTransaction> decodeTransactions(ByteBuffer buffer)
+			throws BtcException {
+		if (buffer == null) {
+			return null;
+		}
+		List<BtcRawTransaction> transactions = new ArrayList<BtcRawTransaction>();
+		decode(buffer, transactions);
+		return transactions;
+	}
+
+	private static BtcBlock decode(ByteBuffer buffer,
+			List<BtcRawTransaction> transactions) throws BtcException {
+		try {
+			Object block = BtcCodec.read(buffer);
+			if (!(block instanceof BtcBlock)) {
+				throw new IOException("archived record is not a block");
+			}
+			while (buffer.hasRemaining()) {
+				Object value = BtcCodec.read(buffer);
+				if (!(value instanceof BtcRawTransaction)) {
+					throw new IOException(
+							"archived record is not a raw transaction");
+				}
+				transactions.add((BtcRawTransaction) value);
+			}
+			return (BtcBlock) block;
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static BtcBlock decode(ByteBuffer buffer) throws BtcException {
+		if (buffer == null) {
+			return null;
+		}
+		try {
+			Object value = BtcCodec.read(buffer);
+			if (!(value instanceof BtcBlock)) {
+				throw new IOException("archived record is not a block");
+			}
+			return (BtcBlock) value;
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+}
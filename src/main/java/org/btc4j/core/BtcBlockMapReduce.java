@@ -0,0 +1,209 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BtcBlockMapReduce {
+	public static final int DEFAULT_CHUNK_BLOCKS = 64;
+	private final BtcBlockArchive archive;
+	private final ForkJoinPool pool;
+	private final boolean ownPool;
+	private final int chunkBlocks;
+	private final AtomicLong blocks = new AtomicLong();
+	private volatile long started = 0;
+	private volatile long finished = 0;
+
+	public BtcBlockMapReduce(BtcBlockArchive archive) {
+		this(archive, new ForkJoinPool(), DEFAULT_CHUNK_BLOCKS, true);
+	}
+
+	public BtcBlockMapReduce(BtcBlockArchive archive, ForkJoinPool pool,
+			int chunkBlocks) {
+		this(archive, pool, chunkBlocks, false);
+	}
+
+	private BtcBlockMapReduce(BtcBlockArchive archive, ForkJoinPool pool,
+			int chunkBlocks, boolean ownPool) {
+		this.archive = archive;
+		this.pool = pool;
+		this.ownPool = ownPool;
+		this.chunkBlocks = (int) BtcUtil.atLeast(chunkBlocks, 1);
+	}
+
+	public void shutdown() {
+		if (ownPool) {
+			pool.shutdown();
+		}
+	}
+
+	public long getBlocks() {
+		return blocks.get();
+	}
+
+	public long getElapsed() {
+		long start = started;
+		if (start == 0) {
+			return 0;
+		}
+		long end = finished;
+		return ((end == 0) ? System.nanoTime() : end) - start;
+	}
+
+	public double getBlocksPerSecond() {
+		long elapsed = getElapsed();
+		return (elapsed == 0) ? 0 : blocks.get() * 1e9 / elapsed;
+	}
+
+	public synchronized <T> T map(long from, long to, BlockMapper<T> mapper,
+			Reducer<T> reducer) throws BtcException {
+		return run(from, to, mapper, null, reducer);
+	}
+
+	public synchronized <T> T map(long from, long to,
+			TransactionMapper<T> mapper, Reducer<T> reducer)
+			throws BtcException {
+		return run(from, to, null, mapper, reducer);
+	}
+
+	private <T> T run(long from, long to, BlockMapper<T> blockMapper,
+			TransactionMapper<T> transactionMapper, Reducer<T> reducer)
+			throws BtcException {
+		AtomicReference<BtcException> failure = new AtomicReference<BtcException>();
+		blocks.set(0);
+		finished = 0;
+		started = System.nanoTime();
+		try {
+			if (from > to) {
+				return null;
+			}
+			T result = pool.invoke(new MapTask<T>(blockMapper,
+					transactionMapper, reducer, failure, from, to + 1));
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+			return result;
+		} finally {
+			finished = System.nanoTime();
+		}
+	}
+
+	public interface BlockMapper<T> {
+		T map(BtcBlock block) throws BtcException;
+	}
+
+	public interface TransactionMapper<T> {
+		T map(BtcBlock block, BtcRawTransaction transaction)
+				throws BtcException;
+	}
+
+	public interface Reducer<T> {
+		T reduce(T left, T right);
+	}
+
+	private final class MapTask<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = -2740561108452036127L;
+		private final BlockMapper<T> blockMapper;
+		private final TransactionMapper<T> transactionMapper;
+		private final Reducer<T> reducer;
+		private final AtomicReference<BtcException> failure;
+		private final long from;
+		private final long to;
+
+		private MapTask(BlockMapper<T> blockMapper,
+				TransactionMapper<T> transactionMapper, Reducer<T> reducer,
+				AtomicReference<BtcException> failure, long from, long to) {
+			this.blockMapper = blockMapper;
+			this.transactionMapper = transactionMapper;
+			this.reducer = reducer;
+			this.failure = failure;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected T compute() {
+			if (to - from <= chunkBlocks) {
+				T result = null;
+				for (long height = from; (height < to)
+						&& (failure.get() == null); height++) {
+					try {
+						result = combine(result, map(height));
+					} catch (BtcException e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+				return result;
+			}
+			long middle = (from + to) >>> 1;
+			MapTask<T> right = new MapTask<T>(blockMapper, transactionMapper,
+					reducer, failure, middle, to);
+			right.fork();
+			T left = new MapTask<T>(blockMapper, transactionMapper, reducer,
+					failure, from, middle).compute();
+			return combine(left, right.join());
+		}
+
+		private T map(long height) throws BtcException {
+			T result = null;
+			if (blockMapper != null) {
+				result = blockMapper.map(require(archive.getBlock(height),
+						height));
+			} else {
+				List<BtcRawTransaction> transactions = new ArrayList<BtcRawTransaction>();
+				BtcBlock block = require(
+						archive.getBlock(height, transactions), height);
+				for (BtcRawTransaction transaction : transactions) {
+					result = combine(result,
+							transactionMapper.map(block, transaction));
+				}
+			}
+			blocks.incrementAndGet();
+			return result;
+		}
+
+		private BtcBlock require(BtcBlock block, long height)
+				throws BtcException {
+			if (block == null) {
+				throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+						BtcException.BTC4J_ERROR_MESSAGE
+								+ ": block not archived at height " + height);
+			}
+			return block;
+		}
+
+		private T combine(T left, T right) {
+			if (left == null) {
+				return right;
+			}
+			return (right == null) ? left : reducer.reduce(left, right);
+		}
+	}
+}
@@ -44,9 +44,23 @@ public class BtcBlockTemplate extends BtcBlockBase {
 		LONGPOLL, COINBASETXN, COINBASEVALUE, PROPOSAL, SERVERLIST, WORKID, NULL;
 
 		public static Capability getValue(String value) {
-			try {
-				return Capability.valueOf(value.toUpperCase());
-			} catch (Throwable t) {
+			if (value == null) {
+				return NULL;
+			}
+			switch (value.toUpperCase()) {
+			case "LONGPOLL":
+				return LONGPOLL;
+			case "COINBASETXN":
+				return COINBASETXN;
+			case "COINBASEVALUE":
+				return COINBASEVALUE;
+			case "PROPOSAL":
+				return PROPOSAL;
+			case "SERVERLIST":
+				return SERVERLIST;
+			case "WORKID":
+				return WORKID;
+			default:
 				return NULL;
 			}
 		}
@@ -56,9 +70,15 @@ public class BtcBlockTemplate extends BtcBlockBase {
 		TEMPLATE, PROPOSAL, NULL;
 
 		public static Mode getValue(String value) {
-			try {
-				return Mode.valueOf(value.toUpperCase());
-			} catch (Throwable t) {
+			if (value == null) {
+				return NULL;
+			}
+			switch (value.toUpperCase()) {
+			case "TEMPLATE":
+				return TEMPLATE;
+			case "PROPOSAL":
+				return PROPOSAL;
+			default:
 				return NULL;
 			}
 		}
@@ -0,0 +1,1252 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class BtcCodec {
+	public static final int VERSION = 1;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final int ACCOUNT = 0;
+	private static final int ADDED_NODE = 1;
+	private static final int ADDRESS = 2;
+	private static final int BLOCK = 3;
+	private static final int BLOCK_SUBMISSION = 4;
+	private static final int BLOCK_TEMPLATE = 5;
+	private static final int COINBASE = 6;
+	private static final int COIN_SELECTION = 7;
+	private static final int INFO = 8;
+	private static final int INPUT = 9;
+	private static final int LAST_BLOCK = 10;
+	private static final int METHOD_METRICS = 11;
+	private static final int MINING_INFO = 12;
+	private static final int MULTI_SIGNATURE_ADDRESS = 13;
+	private static final int NODE = 14;
+	private static final int OUTPUT = 15;
+	private static final int OUTPUT_PART = 16;
+	private static final int OUTPUT_SET = 17;
+	private static final int PEER = 18;
+	private static final int RAW_TRANSACTION = 19;
+	private static final int SCRIPT = 20;
+	private static final int TARGET = 21;
+	private static final int TRANSACTION = 22;
+	private static final int TRANSACTION_DETAIL = 23;
+	private static final int TRANSACTION_TEMPLATE = 24;
+	private static final int WORK = 25;
+	private static final int CHUNK_SIZE = 8192;
+	private static final Map<Class<?>, Integer> TYPES = new HashMap<Class<?>, Integer>();
+	private static final byte[] HEX_VALUES = new byte[128];
+
+	static {
+		for (int i = 0; i < HEX_VALUES.length; i++) {
+			HEX_VALUES[i] = (byte) (((i >= '0') && (i <= '9')) ? (i - '0')
+					: ((i >= 'a') && (i <= 'f')) ? (i - 'a' + 10) : -1);
+		}
+		TYPES.put(BtcAccount.class, ACCOUNT);
+		TYPES.put(BtcAddedNode.class, ADDED_NODE);
+		TYPES.put(BtcAddress.class, ADDRESS);
+		TYPES.put(BtcBlock.class, BLOCK);
+		TYPES.put(BtcBlockSubmission.class, BLOCK_SUBMISSION);
+		TYPES.put(BtcBlockTemplate.class, BLOCK_TEMPLATE);
+		TYPES.put(BtcCoinbase.class, COINBASE);
+		TYPES.put(BtcCoinSelection.class, COIN_SELECTION);
+		TYPES.put(BtcInfo.class, INFO);
+		TYPES.put(BtcInput.class, INPUT);
+		TYPES.put(BtcLastBlock.class, LAST_BLOCK);
+		TYPES.put(BtcMethodMetrics.class, METHOD_METRICS);
+		TYPES.put(BtcMiningInfo.class, MINING_INFO);
+		TYPES.put(BtcMultiSignatureAddress.class, MULTI_SIGNATURE_ADDRESS);
+		TYPES.put(BtcNode.class, NODE);
+		TYPES.put(BtcOutput.class, OUTPUT);
+		TYPES.put(BtcOutputPart.class, OUTPUT_PART);
+		TYPES.put(BtcOutputSet.class, OUTPUT_SET);
+		TYPES.put(BtcPeer.class, PEER);
+		TYPES.put(BtcRawTransaction.class, RAW_TRANSACTION);
+		TYPES.put(BtcScript.class, SCRIPT);
+		TYPES.put(BtcTarget.class, TARGET);
+		TYPES.put(BtcTransaction.class, TRANSACTION);
+		TYPES.put(BtcTransactionDetail.class, TRANSACTION_DETAIL);
+		TYPES.put(BtcTransactionTemplate.class, TRANSACTION_TEMPLATE);
+		TYPES.put(BtcWork.class, WORK);
+	}
+
+	private BtcCodec() {
+	}
+
+	public static byte[] encode(Object value) throws IOException {
+		Output bytes = new Output();
+		DataOutputStream out = new DataOutputStream(bytes);
+		write(out, value);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	public static Object decode(byte[] value) throws IOException {
+		return read(new DataInputStream(new Input(value, 0, value.length)));
+	}
+
+	public static <T> T decode(byte[] value, Class<T> type) throws IOException {
+		return read(new DataInputStream(new Input(value, 0, value.length)),
+				type);
+	}
+
+	public static void write(ByteBuffer buffer, Object value)
+			throws IOException {
+		buffer.put(encode(value));
+	}
+
+	public static Object read(ByteBuffer buffer) throws IOException {
+		if (!buffer.hasArray()) {
+			return read(new DataInputStream(new BufferInput(buffer)));
+		}
+		Input bytes = new Input(buffer.array(), buffer.arrayOffset()
+				+ buffer.position(), buffer.remaining());
+		int remaining = buffer.remaining();
+		Object value = read(new DataInputStream(bytes));
+		buffer.position(buffer.position() + remaining - bytes.available());
+		return value;
+	}
+
+	public static void write(DataOutput out, Object value) throws IOException {
+		int type = typeOf(value);
+		out.writeByte(VERSION);
+		out.writeByte(type);
+		writeBody(out, type, value);
+	}
+
+	public static Object read(DataInput in) throws IOException {
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new StreamCorruptedException("unsupported codec version "
+					+ version);
+		}
+		return readBody(in, in.readUnsignedByte());
+	}
+
+	public static <T> T read(DataInput in, Class<T> type) throws IOException {
+		Object value = read(in);
+		if (!type.isInstance(value)) {
+			throw new StreamCorruptedException("expected " + type.getName()
+					+ " but found " + value.getClass().getName());
+		}
+		return type.cast(value);
+	}
+
+	private static int typeOf(Object value) {
+		Integer type = (value == null) ? null : TYPES.get(value.getClass());
+		if (type == null) {
+			throw new IllegalArgumentException("unsupported type "
+					+ ((value == null) ? null : value.getClass().getName()));
+		}
+		return type;
+	}
+
+	private static void writeBody(DataOutput out, int type, Object value)
+			throws IOException {
+		switch (type) {
+		case ACCOUNT:
+			writeAccount(out, (BtcAccount) value);
+			break;
+		case ADDED_NODE:
+			writeAddedNode(out, (BtcAddedNode) value);
+			break;
+		case ADDRESS:
+			writeAddress(out, (BtcAddress) value);
+			break;
+		case BLOCK:
+			writeBlock(out, (BtcBlock) value);
+			break;
+		case BLOCK_SUBMISSION:
+			writeBlockSubmission(out, (BtcBlockSubmission) value);
+			break;
+		case BLOCK_TEMPLATE:
+			writeBlockTemplate(out, (BtcBlockTemplate) value);
+			break;
+		case COINBASE:
+			writeCoinbase(out, (BtcCoinbase) value);
+			break;
+		case COIN_SELECTION:
+			writeCoinSelection(out, (BtcCoinSelection) value);
+			break;
+		case INFO:
+			writeInfo(out, (BtcInfo) value);
+			break;
+		case INPUT:
+			writeInput(out, (BtcInput) value);
+			break;
+		case LAST_BLOCK:
+			writeLastBlock(out, (BtcLastBlock) value);
+			break;
+		case METHOD_METRICS:
+			writeMethodMetrics(out, (BtcMethodMetrics) value);
+			break;
+		case MINING_INFO:
+			writeMiningInfo(out, (BtcMiningInfo) value);
+			break;
+		case MULTI_SIGNATURE_ADDRESS:
+			writeMultiSignatureAddress(out, (BtcMultiSignatureAddress) value);
+			break;
+		case NODE:
+			writeNode(out, (BtcNode) value);
+			break;
+		case OUTPUT:
+			writeOutput(out, (BtcOutput) value);
+			break;
+		case OUTPUT_PART:
+			writeOutputPart(out, (BtcOutputPart) value);
+			break;
+		case OUTPUT_SET:
+			writeOutputSet(out, (BtcOutputSet) value);
+			break;
+		case PEER:
+			writePeer(out, (BtcPeer) value);
+			break;
+		case RAW_TRANSACTION:
+			writeRawTransaction(out, (BtcRawTransaction) value);
+			break;
+		case SCRIPT:
+			writeScript(out, (BtcScript) value);
+			break;
+		case TARGET:
+			writeString(out, value.toString());
+			break;
+		case TRANSACTION:
+			writeTransaction(out, (BtcTransaction) value);
+			break;
+		case TRANSACTION_DETAIL:
+			writeTransactionDetail(out, (BtcTransactionDetail) value);
+			break;
+		case TRANSACTION_TEMPLATE:
+			writeTransactionTemplate(out, (BtcTransactionTemplate) value);
+			break;
+		default:
+			writeWork(out, (BtcWork) value);
+			break;
+		}
+	}
+
+	private static Object readBody(DataInput in, int type) throws IOException {
+		switch (type) {
+		case ACCOUNT:
+			return readAccount(in);
+		case ADDED_NODE:
+			return readAddedNode(in);
+		case ADDRESS:
+			return readAddress(in);
+		case BLOCK:
+			return readBlock(in);
+		case BLOCK_SUBMISSION:
+			return readBlockSubmission(in);
+		case BLOCK_TEMPLATE:
+			return readBlockTemplate(in);
+		case COINBASE:
+			return readCoinbase(in);
+		case COIN_SELECTION:
+			return readCoinSelection(in);
+		case INFO:
+			return readInfo(in);
+		case INPUT:
+			return readInput(in);
+		case LAST_BLOCK:
+			return readLastBlock(in);
+		case METHOD_METRICS:
+			return readMethodMetrics(in);
+		case MINING_INFO:
+			return readMiningInfo(in);
+		case MULTI_SIGNATURE_ADDRESS:
+			return readMultiSignatureAddress(in);
+		case NODE:
+			return readNode(in);
+		case OUTPUT:
+			return readOutput(in);
+		case OUTPUT_PART:
+			return readOutputPart(in, new BtcOutputPart());
+		case OUTPUT_SET:
+			return readOutputSet(in);
+		case PEER:
+			return readPeer(in);
+		case RAW_TRANSACTION:
+			return readRawTransaction(in);
+		case SCRIPT:
+			return readScript(in);
+		case TARGET:
+			return BtcTarget.valueOf(readString(in));
+		case TRANSACTION:
+			return readTransaction(in);
+		case TRANSACTION_DETAIL:
+			return readTransactionDetail(in);
+		case TRANSACTION_TEMPLATE:
+			return readTransactionTemplate(in);
+		case WORK:
+			return readWork(in);
+		default:
+			throw new StreamCorruptedException("unknown type " + type);
+		}
+	}
+
+	private static void writeAccount(DataOutput out, BtcAccount value)
+			throws IOException {
+		writeString(out, value.getAccount());
+		writeDecimal(out, value.getAmount());
+		writeLong(out, value.getConfirmations());
+	}
+
+	private static BtcAccount readAccount(DataInput in) throws IOException {
+		BtcAccount value = new BtcAccount();
+		value.setAccount(readString(in));
+		value.setAmount(readDecimal(in));
+		value.setConfirmations(readLong(in));
+		return value;
+	}
+
+	private static void writeAddedNode(DataOutput out, BtcAddedNode value)
+			throws IOException {
+		writeString(out, value.getAddedNode());
+		out.writeBoolean(value.isConnected());
+		writeCount(out, value.getAddresses().size());
+		for (BtcNode node : value.getAddresses()) {
+			writeNode(out, node);
+		}
+	}
+
+	private static BtcAddedNode readAddedNode(DataInput in) throws IOException {
+		BtcAddedNode value = new BtcAddedNode();
+		value.setAddedNode(readString(in));
+		value.setConnected(in.readBoolean());
+		int count = readCount(in);
+		List<BtcNode> addresses = new ArrayList<BtcNode>();
+		for (int i = 0; i < count; i++) {
+			addresses.add(readNode(in));
+		}
+		value.setAddresses(addresses);
+		return value;
+	}
+
+	private static void writeAddress(DataOutput out, BtcAddress value)
+			throws IOException {
+		writeString(out, value.getAddress());
+		out.writeBoolean(value.isValid());
+		out.writeBoolean(value.isMine());
+		out.writeBoolean(value.isScript());
+		writeString(out, value.getPublicKey());
+		out.writeBoolean(value.isCompressed());
+		writeAccount(out, value.getAccount());
+		writeDecimal(out, value.getAmount());
+		writeLong(out, value.getConfirmations());
+	}
+
+	private static BtcAddress readAddress(DataInput in) throws IOException {
+		BtcAddress value = new BtcAddress();
+		value.setAddress(readString(in));
+		value.setValid(in.readBoolean());
+		value.setMine(in.readBoolean());
+		value.setScript(in.readBoolean());
+		value.setPublicKey(readString(in));
+		value.setCompressed(in.readBoolean());
+		value.setAccount(readAccount(in));
+		value.setAmount(readDecimal(in));
+		value.setConfirmations(readLong(in));
+		return value;
+	}
+
+	private static void writeBlockBase(DataOutput out, BtcBlockBase value)
+			throws IOException {
+		writeString(out, value.getBits());
+		writeLong(out, value.getTime());
+		writeLong(out, value.getHeight());
+		writeString(out, value.getPreviousBlockHash());
+		writeLong(out, value.getSize());
+		writeLong(out, value.getVersion());
+	}
+
+	private static void readBlockBase(DataInput in, BtcBlockBase value)
+			throws IOException {
+		value.setBits(readString(in));
+		value.setTime(readLong(in));
+		value.setHeight(readLong(in));
+		value.setPreviousBlockHash(readString(in));
+		value.setSize(readLong(in));
+		value.setVersion(readLong(in));
+	}
+
+	private static void writeBlock(DataOutput out, BtcBlock value)
+			throws IOException {
+		writeBlockBase(out, value);
+		writeString(out, value.getHash());
+		writeLong(out, value.getConfirmations());
+		writeString(out, value.getMerkleRoot());
+		writeTransactions(out, value.getTransactions());
+		writeLong(out, value.getNonce());
+		writeDecimal(out, value.getDifficulty());
+		writeString(out, value.getNextBlockHash());
+	}
+
+	private static BtcBlock readBlock(DataInput in) throws IOException {
+		BtcBlock value = new BtcBlock();
+		readBlockBase(in, value);
+		value.setHash(readString(in));
+		value.setConfirmations(readLong(in));
+		value.setMerkleRoot(readString(in));
+		value.setTransactions(readTransactions(in));
+		value.setNonce(readLong(in));
+		value.setDifficulty(readDecimal(in));
+		value.setNextBlockHash(readString(in));
+		return value;
+	}
+
+	private static void writeBlockSubmission(DataOutput out,
+			BtcBlockSubmission value) throws IOException {
+		out.writeBoolean(value.isAccepted());
+		writeStrings(out, value.getReasons());
+	}
+
+	private static BtcBlockSubmission readBlockSubmission(DataInput in)
+			throws IOException {
+		BtcBlockSubmission value = new BtcBlockSubmission();
+		value.setAccepted(in.readBoolean());
+		value.setReasons(readStrings(in));
+		return value;
+	}
+
+	private static void writeBlockTemplate(DataOutput out,
+			BtcBlockTemplate value) throws IOException {
+		writeBlockBase(out, value);
+		writeLong(out, value.getSignatureOperations());
+		writeCount(out, value.getTransactions().size());
+		for (BtcTransactionTemplate transaction : value.getTransactions()) {
+			writeTransactionTemplate(out, transaction);
+		}
+		writeCoinbase(out, value.getCoinbase());
+		writeString(out, value.getWorkId());
+		writeString(out, value.getTarget());
+		writeLong(out, value.getMinimumTime());
+		writeStrings(out, value.getMutable());
+		writeString(out, value.getNonceRange());
+	}
+
+	private static BtcBlockTemplate readBlockTemplate(DataInput in)
+			throws IOException {
+		BtcBlockTemplate value = new BtcBlockTemplate();
+		readBlockBase(in, value);
+		value.setSignatureOperations(readLong(in));
+		int count = readCount(in);
+		List<BtcTransactionTemplate> transactions = new ArrayList<BtcTransactionTemplate>();
+		for (int i = 0; i < count; i++) {
+			transactions.add(readTransactionTemplate(in));
+		}
+		value.setTransactions(transactions);
+		value.setCoinbase(readCoinbase(in));
+		value.setWorkId(readString(in));
+		value.setTarget(readString(in));
+		value.setMinimumTime(readLong(in));
+		value.setMutable(readStrings(in));
+		value.setNonceRange(readString(in));
+		return value;
+	}
+
+	private static void writeCoinbase(DataOutput out, BtcCoinbase value)
+			throws IOException {
+		writeCount(out, value.getAux().size());
+		for (Map.Entry<String, String> entry : value.getAux().entrySet()) {
+			writeString(out, entry.getKey());
+			writeString(out, entry.getValue());
+		}
+		writeString(out, value.getTransaction());
+		writeDecimal(out, value.getValue());
+	}
+
+	private static BtcCoinbase readCoinbase(DataInput in) throws IOException {
+		BtcCoinbase value = new BtcCoinbase();
+		int count = readCount(in);
+		Map<String, String> aux = new HashMap<String, String>();
+		for (int i = 0; i < count; i++) {
+			aux.put(readString(in), readString(in));
+		}
+		value.setAux(aux);
+		value.setTransaction(readString(in));
+		value.setValue(readDecimal(in));
+		return value;
+	}
+
+	private static void writeCoinSelection(DataOutput out,
+			BtcCoinSelection value) throws IOException {
+		writeCount(out, value.getOutputs().size());
+		for (BtcOutputPart output : value.getOutputs()) {
+			int type = typeOf(output);
+			out.writeByte(type);
+			writeBody(out, type, output);
+		}
+		writeDecimal(out, value.getAmount());
+		writeDecimal(out, value.getFee());
+		writeDecimal(out, value.getChange());
+	}
+
+	private static BtcCoinSelection readCoinSelection(DataInput in)
+			throws IOException {
+		BtcCoinSelection value = new BtcCoinSelection();
+		int count = readCount(in);
+		List<BtcOutputPart> outputs = new ArrayList<BtcOutputPart>();
+		for (int i = 0; i < count; i++) {
+			int type = in.readUnsignedByte();
+			if ((type != OUTPUT_PART) && (type != OUTPUT) && (type != INPUT)) {
+				throw new StreamCorruptedException("unexpected type " + type);
+			}
+			outputs.add((BtcOutputPart) readBody(in, type));
+		}
+		value.setOutputs(outputs);
+		value.setAmount(readDecimal(in));
+		value.setFee(readDecimal(in));
+		value.setChange(readDecimal(in));
+		return value;
+	}
+
+	private static void writeInfoBase(DataOutput out, BtcInfoBase value)
+			throws IOException {
+		writeLong(out, value.getBlocks());
+		writeDecimal(out, value.getDifficulty());
+		out.writeBoolean(value.isTestnet());
+		writeString(out, value.getErrors());
+	}
+
+	private static void readInfoBase(DataInput in, BtcInfoBase value)
+			throws IOException {
+		value.setBlocks(readLong(in));
+		value.setDifficulty(readDecimal(in));
+		value.setTestnet(in.readBoolean());
+		value.setErrors(readString(in));
+	}
+
+	private static void writeInfo(DataOutput out, BtcInfo value)
+			throws IOException {
+		writeInfoBase(out, value);
+		writeLong(out, value.getVersion());
+		writeLong(out, value.getProtocolVersion());
+		writeLong(out, value.getWalletVersion());
+		writeDecimal(out, value.getBalance());
+		writeLong(out, value.getTimeOffset());
+		writeLong(out, value.getConnections());
+		writeString(out, value.getProxy());
+		writeLong(out, value.getKeyPoolOldest());
+		writeLong(out, value.getKeyPoolSize());
+		writeDecimal(out, value.getTransactionFee());
+	}
+
+	private static BtcInfo readInfo(DataInput in) throws IOException {
+		BtcInfo value = new BtcInfo();
+		readInfoBase(in, value);
+		value.setVersion(readLong(in));
+		value.setProtocolVersion(readLong(in));
+		value.setWalletVersion(readLong(in));
+		value.setBalance(readDecimal(in));
+		value.setTimeOffset(readLong(in));
+		value.setConnections(readLong(in));
+		value.setProxy(readString(in));
+		value.setKeyPoolOldest(readLong(in));
+		value.setKeyPoolSize(readLong(in));
+		value.setTransactionFee(readDecimal(in));
+		return value;
+	}
+
+	private static void writeInput(DataOutput out, BtcInput value)
+			throws IOException {
+		writeOutputPart(out, value);
+		writeLong(out, value.getSequence());
+	}
+
+	private static BtcInput readInput(DataInput in) throws IOException {
+		BtcInput value = readOutputPart(in, new BtcInput());
+		value.setSequence(readLong(in));
+		return value;
+	}
+
+	private static void writeLastBlock(DataOutput out, BtcLastBlock value)
+			throws IOException {
+		writeString(out, value.getLastBlock());
+		writeTransactions(out, value.getTransactions());
+	}
+
+	private static BtcLastBlock readLastBlock(DataInput in) throws IOException {
+		BtcLastBlock value = new BtcLastBlock();
+		value.setLastBlock(readString(in));
+		value.setTransactions(readTransactions(in));
+		return value;
+	}
+
+	private static void writeMethodMetrics(DataOutput out,
+			BtcMethodMetrics value) throws IOException {
+		writeString(out, value.getMethod());
+		writeLong(out, value.getCalls());
+		writeLong(out, value.getErrors());
+		writeCount(out, value.getErrorCodes().size());
+		for (Map.Entry<String, Long> entry : value.getErrorCodes().entrySet()) {
+			writeString(out, entry.getKey());
+			writeLong(out, entry.getValue());
+		}
+		out.writeDouble(value.getLatencyMean());
+		writeLong(out, value.getLatencyMedian());
+		writeLong(out, value.getLatency90());
+		writeLong(out, value.getLatency99());
+		writeLong(out, value.getLatency999());
+		writeLong(out, value.getLatencyMax());
+		writeLong(out, value.getRequestElements());
+		writeLong(out, value.getResponseElements());
+		writeLong(out, value.getResponseElementsMax());
+	}
+
+	private static BtcMethodMetrics readMethodMetrics(DataInput in)
+			throws IOException {
+		BtcMethodMetrics value = new BtcMethodMetrics();
+		value.setMethod(readString(in));
+		value.setCalls(readLong(in));
+		value.setErrors(readLong(in));
+		int count = readCount(in);
+		Map<String, Long> errorCodes = new HashMap<String, Long>();
+		for (int i = 0; i < count; i++) {
+			errorCodes.put(readString(in), readLong(in));
+		}
+		value.setErrorCodes(errorCodes);
+		value.setLatencyMean(in.readDouble());
+		value.setLatencyMedian(readLong(in));
+		value.setLatency90(readLong(in));
+		value.setLatency99(readLong(in));
+		value.setLatency999(readLong(in));
+		value.setLatencyMax(readLong(in));
+		value.setRequestElements(readLong(in));
+		value.setResponseElements(readLong(in));
+		value.setResponseElementsMax(readLong(in));
+		return value;
+	}
+
+	private static void writeMiningInfo(DataOutput out, BtcMiningInfo value)
+			throws IOException {
+		writeInfoBase(out, value);
+		writeLong(out, value.getCurrentBlockSize());
+		writeLong(out, value.getCurrentBlockTransactions());
+		out.writeBoolean(value.isGenerate());
+		writeLong(out, value.getGenProcessorLimit());
+		writeLong(out, value.getHashesPerSecond());
+		writeLong(out, value.getPooledTransactions());
+	}
+
+	private static BtcMiningInfo readMiningInfo(DataInput in)
+			throws IOException {
+		BtcMiningInfo value = new BtcMiningInfo();
+		readInfoBase(in, value);
+		value.setCurrentBlockSize(readLong(in));
+		value.setCurrentBlockTransactions(readLong(in));
+		value.setGenerate(in.readBoolean());
+		value.setGenProcessorLimit(readLong(in));
+		value.setHashesPerSecond(readLong(in));
+		value.setPooledTransactions(readLong(in));
+		return value;
+	}
+
+	private static void writeMultiSignatureAddress(DataOutput out,
+			BtcMultiSignatureAddress value) throws IOException {
+		writeString(out, value.getAddress());
+		writeString(out, value.getRedeemScript());
+	}
+
+	private static BtcMultiSignatureAddress readMultiSignatureAddress(
+			DataInput in) throws IOException {
+		BtcMultiSignatureAddress value = new BtcMultiSignatureAddress();
+		value.setAddress(readString(in));
+		value.setRedeemScript(readString(in));
+		return value;
+	}
+
+	private static void writeNode(DataOutput out, BtcNode value)
+			throws IOException {
+		writeString(out, value.getAddress());
+		writeString(out, value.getConnected());
+	}
+
+	private static BtcNode readNode(DataInput in) throws IOException {
+		BtcNode value = new BtcNode();
+		value.setAddress(readString(in));
+		value.setConnected(readString(in));
+		return value;
+	}
+
+	private static void writeOutputPart(DataOutput out, BtcOutputPart value)
+			throws IOException {
+		writeString(out, value.getTransaction());
+		writeLong(out, value.getOutput());
+		writeScript(out, value.getScript());
+	}
+
+	private static <T extends BtcOutputPart> T readOutputPart(DataInput in,
+			T value) throws IOException {
+		value.setTransaction(readString(in));
+		value.setOutput(readLong(in));
+		value.setScript(readScript(in));
+		return value;
+	}
+
+	private static void writeOutput(DataOutput out, BtcOutput value)
+			throws IOException {
+		writeOutputPart(out, value);
+		writeString(out, value.getBestBlock());
+		writeLong(out, value.getConfirmations());
+		writeLong(out, value.getIndex());
+		writeLong(out, value.getVersion());
+		out.writeBoolean(value.isCoinbase());
+		writeTransactionDetail(out, value.getDetail());
+		writeDecimal(out, value.getValue());
+	}
+
+	private static BtcOutput readOutput(DataInput in) throws IOException {
+		BtcOutput value = readOutputPart(in, new BtcOutput());
+		value.setBestBlock(readString(in));
+		value.setConfirmations(readLong(in));
+		value.setIndex(readLong(in));
+		value.setVersion(readLong(in));
+		value.setCoinbase(in.readBoolean());
+		value.setDetail(readTransactionDetail(in));
+		value.setValue(readDecimal(in));
+		return value;
+	}
+
+	private static void writeOutputSet(DataOutput out, BtcOutputSet value)
+			throws IOException {
+		writeLong(out, value.getHeight());
+		writeString(out, value.getBestBlock());
+		writeLong(out, value.getTransactions());
+		writeLong(out, value.getOutputs());
+		writeLong(out, value.getBytesSerialized());
+		writeString(out, value.getHashSerialized());
+		writeDecimal(out, value.getTotalAmount());
+	}
+
+	private static BtcOutputSet readOutputSet(DataInput in) throws IOException {
+		BtcOutputSet value = new BtcOutputSet();
+		value.setHeight(readLong(in));
+		value.setBestBlock(readString(in));
+		value.setTransactions(readLong(in));
+		value.setOutputs(readLong(in));
+		value.setBytesSerialized(readLong(in));
+		value.setHashSerialized(readString(in));
+		value.setTotalAmount(readDecimal(in));
+		return value;
+	}
+
+	private static void writePeer(DataOutput out, BtcPeer value)
+			throws IOException {
+		writeString(out, value.getNetworkAddress());
+		writeString(out, value.getServices());
+		writeLong(out, value.getLastSend());
+		writeLong(out, value.getLastReceived());
+		writeLong(out, value.getBytesSent());
+		writeLong(out, value.getBytesReceived());
+		writeLong(out, value.getConnectionTime());
+		writeLong(out, value.getVersion());
+		writeString(out, value.getSubVersion());
+		out.writeBoolean(value.isInbound());
+		writeLong(out, value.getStartingHeight());
+		writeLong(out, value.getBanScore());
+		out.writeBoolean(value.isSyncNode());
+	}
+
+	private static BtcPeer readPeer(DataInput in) throws IOException {
+		BtcPeer value = new BtcPeer();
+		value.setNetworkAddress(readString(in));
+		value.setServices(readString(in));
+		value.setLastSend(readLong(in));
+		value.setLastReceived(readLong(in));
+		value.setBytesSent(readLong(in));
+		value.setBytesReceived(readLong(in));
+		value.setConnectionTime(readLong(in));
+		value.setVersion(readLong(in));
+		value.setSubVersion(readString(in));
+		value.setInbound(in.readBoolean());
+		value.setStartingHeight(readLong(in));
+		value.setBanScore(readLong(in));
+		value.setSyncNode(in.readBoolean());
+		return value;
+	}
+
+	private static void writeTransactionBase(DataOutput out,
+			BtcTransactionBase value) throws IOException {
+		writeString(out, value.getTransaction());
+		writeLong(out, value.getConfirmations());
+		writeLong(out, value.getTime());
+		writeString(out, value.getBlockHash());
+		writeLong(out, value.getBlockTime());
+	}
+
+	private static void readTransactionBase(DataInput in,
+			BtcTransactionBase value) throws IOException {
+		value.setTransaction(readString(in));
+		value.setConfirmations(readLong(in));
+		value.setTime(readLong(in));
+		value.setBlockHash(readString(in));
+		value.setBlockTime(readLong(in));
+	}
+
+	private static void writeRawTransaction(DataOutput out,
+			BtcRawTransaction value) throws IOException {
+		writeTransactionBase(out, value);
+		writeString(out, value.getHex());
+		writeLong(out, value.getVersion());
+		writeLong(out, value.getLockTime());
+		writeCount(out, value.getInputs().size());
+		for (BtcInput input : value.getInputs()) {
+			writeInput(out, input);
+		}
+		writeCount(out, value.getOutputs().size());
+		for (BtcOutput output : value.getOutputs()) {
+			writeOutput(out, output);
+		}
+		out.writeBoolean(value.isComplete());
+	}
+
+	private static BtcRawTransaction readRawTransaction(DataInput in)
+			throws IOException {
+		BtcRawTransaction value = new BtcRawTransaction();
+		readTransactionBase(in, value);
+		value.setHex(readString(in));
+		value.setVersion(readLong(in));
+		value.setLockTime(readLong(in));
+		int count = readCount(in);
+		List<BtcInput> inputs = new ArrayList<BtcInput>();
+		for (int i = 0; i < count; i++) {
+			inputs.add(readInput(in));
+		}
+		value.setInputs(inputs);
+		count = readCount(in);
+		List<BtcOutput> outputs = new ArrayList<BtcOutput>();
+		for (int i = 0; i < count; i++) {
+			outputs.add(readOutput(in));
+		}
+		value.setOutputs(outputs);
+		value.setComplete(in.readBoolean());
+		return value;
+	}
+
+	private static void writeScript(DataOutput out, BtcScript value)
+			throws IOException {
+		writeString(out, value.getAsm());
+		writeString(out, value.getPublicKey());
+		writeLong(out, value.getRequiredSignatures());
+		writeCount(out, value.getType().ordinal());
+		writeStrings(out, value.getAddresses());
+	}
+
+	private static BtcScript readScript(DataInput in) throws IOException {
+		BtcScript value = new BtcScript();
+		value.setAsm(readString(in));
+		value.setPublicKey(readString(in));
+		value.setRequiredSignatures(readLong(in));
+		int type = readCount(in);
+		BtcScript.Type[] types = BtcScript.Type.values();
+		value.setType((type < types.length) ? types[type] : BtcScript.Type.NULL);
+		value.setAddresses(readStrings(in));
+		return value;
+	}
+
+	private static void writeTransactions(DataOutput out,
+			List<BtcTransaction> transactions) throws IOException {
+		writeCount(out, transactions.size());
+		for (BtcTransaction transaction : transactions) {
+			writeTransaction(out, transaction);
+		}
+	}
+
+	private static List<BtcTransaction> readTransactions(DataInput in)
+			throws IOException {
+		int count = readCount(in);
+		List<BtcTransaction> transactions = new ArrayList<BtcTransaction>();
+		for (int i = 0; i < count; i++) {
+			transactions.add(readTransaction(in));
+		}
+		return transactions;
+	}
+
+	private static void writeTransaction(DataOutput out, BtcTransaction value)
+			throws IOException {
+		writeTransactionBase(out, value);
+		writeDecimal(out, value.getAmount());
+		writeDecimal(out, value.getFee());
+		writeCount(out, value.getDetails().size());
+		for (BtcTransactionDetail detail : value.getDetails()) {
+			writeTransactionDetail(out, detail);
+		}
+		writeLong(out, value.getTimeReceived());
+		writeLong(out, value.getBlockIndex());
+	}
+
+	private static BtcTransaction readTransaction(DataInput in)
+			throws IOException {
+		BtcTransaction value = new BtcTransaction();
+		readTransactionBase(in, value);
+		value.setAmount(readDecimal(in));
+		value.setFee(readDecimal(in));
+		int count = readCount(in);
+		List<BtcTransactionDetail> details = new ArrayList<BtcTransactionDetail>();
+		for (int i = 0; i < count; i++) {
+			details.add(readTransactionDetail(in));
+		}
+		value.setDetails(details);
+		value.setTimeReceived(readLong(in));
+		value.setBlockIndex(readLong(in));
+		return value;
+	}
+
+	private static void writeTransactionDetail(DataOutput out,
+			BtcTransactionDetail value) throws IOException {
+		writeString(out, value.getAccount());
+		writeString(out, value.getAddress());
+		writeCount(out, value.getCategory().ordinal());
+		writeDecimal(out, value.getAmount());
+		writeDecimal(out, value.getFee());
+	}
+
+	private static BtcTransactionDetail readTransactionDetail(DataInput in)
+			throws IOException {
+		BtcTransactionDetail value = new BtcTransactionDetail();
+		value.setAccount(readString(in));
+		value.setAddress(readString(in));
+		int category = readCount(in);
+		BtcTransaction.Category[] categories = BtcTransaction.Category
+				.values();
+		value.setCategory((category < categories.length) ? categories[category]
+				: BtcTransaction.Category.NULL);
+		value.setAmount(readDecimal(in));
+		value.setFee(readDecimal(in));
+		return value;
+	}
+
+	private static void writeTransactionTemplate(DataOutput out,
+			BtcTransactionTemplate value) throws IOException {
+		writeString(out, value.getData());
+		long[] depends = value.getDepends();
+		writeCount(out, depends.length);
+		for (long depend : depends) {
+			writeLong(out, depend);
+		}
+		writeDecimal(out, value.getFee());
+		writeString(out, value.getHash());
+		out.writeBoolean(value.isRequired());
+		writeLong(out, value.getSignatureOperations());
+	}
+
+	private static BtcTransactionTemplate readTransactionTemplate(DataInput in)
+			throws IOException {
+		BtcTransactionTemplate value = new BtcTransactionTemplate();
+		value.setData(readString(in));
+		int count = readCount(in);
+		long[] depends = new long[Math.min(count, CHUNK_SIZE)];
+		for (int i = 0; i < count; i++) {
+			if (i == depends.length) {
+				depends = Arrays.copyOf(depends,
+						(int) Math.min(count, (long) i << 1));
+			}
+			depends[i] = readLong(in);
+		}
+		value.setDepends(depends);
+		value.setFee(readDecimal(in));
+		value.setHash(readString(in));
+		value.setRequired(in.readBoolean());
+		value.setSignatureOperations(readLong(in));
+		return value;
+	}
+
+	private static void writeWork(DataOutput out, BtcWork value)
+			throws IOException {
+		writeString(out, value.getMidState());
+		writeString(out, value.getData());
+		writeString(out, value.getHash());
+		writeString(out, value.getTarget());
+		out.writeBoolean(value.isSuccess());
+	}
+
+	private static BtcWork readWork(DataInput in) throws IOException {
+		BtcWork value = new BtcWork();
+		value.setMidState(readString(in));
+		value.setData(readString(in));
+		value.setHash(readString(in));
+		value.setTarget(readString(in));
+		value.setSuccess(in.readBoolean());
+		return value;
+	}
+
+	private static void writeStrings(DataOutput out, List<String> values)
+			throws IOException {
+		writeCount(out, values.size());
+		for (String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	private static List<String> readStrings(DataInput in) throws IOException {
+		int count = readCount(in);
+		List<String> values = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			values.add(readString(in));
+		}
+		return values;
+	}
+
+	static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			writeVarLong(out, 0);
+			return;
+		}
+		byte[] hex = hexToBytes(value);
+		if (hex != null) {
+			writeVarLong(out, ((long) hex.length << 1) | 1);
+			out.write(hex);
+		} else {
+			byte[] bytes = value.getBytes(UTF_8);
+			writeVarLong(out, (long) bytes.length << 1);
+			out.write(bytes);
+		}
+	}
+
+	static String readString(DataInput in) throws IOException {
+		long header = readVarLong(in);
+		byte[] bytes = readBytes(in, count(header >>> 1));
+		return ((header & 1) == 1) ? BtcUtil.bytesToHex(bytes) : new String(
+				bytes, UTF_8);
+	}
+
+	static void writeDecimal(DataOutput out, BigDecimal value)
+			throws IOException {
+		BigInteger unscaled = value.unscaledValue();
+		long scale = zigZag(value.scale()) << 1;
+		if (unscaled.bitLength() < 64) {
+			writeVarLong(out, scale);
+			writeLong(out, unscaled.longValue());
+		} else {
+			byte[] bytes = unscaled.toByteArray();
+			writeVarLong(out, scale | 1);
+			writeCount(out, bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	static BigDecimal readDecimal(DataInput in) throws IOException {
+		long header = readVarLong(in);
+		int scale = (int) unZigZag(header >>> 1);
+		if ((header & 1) == 0) {
+			return BigDecimal.valueOf(readLong(in), scale);
+		}
+		byte[] bytes = readBytes(in, readCount(in));
+		return new BigDecimal(new BigInteger(bytes), scale);
+	}
+
+	private static byte[] readBytes(DataInput in, int length)
+			throws IOException {
+		byte[] bytes = new byte[Math.min(length, CHUNK_SIZE)];
+		int read = 0;
+		try {
+			while (read < length) {
+				if (read == bytes.length) {
+					bytes = Arrays.copyOf(bytes,
+							(int) Math.min(length, (long) read << 1));
+				}
+				in.readFully(bytes, read, bytes.length - read);
+				read = bytes.length;
+			}
+		} catch (EOFException e) {
+			throw new StreamCorruptedException("truncated field of length "
+					+ length);
+		}
+		return bytes;
+	}
+
+	static void writeLong(DataOutput out, long value) throws IOException {
+		writeVarLong(out, zigZag(value));
+	}
+
+	static long readLong(DataInput in) throws IOException {
+		return unZigZag(readVarLong(in));
+	}
+
+	static void writeCount(DataOutput out, int value) throws IOException {
+		writeVarLong(out, value);
+	}
+
+	static int readCount(DataInput in) throws IOException {
+		return count(readVarLong(in));
+	}
+
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		long v = value;
+		while ((v & ~0x7fL) != 0) {
+			out.writeByte((int) ((v & 0x7f) | 0x80));
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new StreamCorruptedException("malformed varint");
+	}
+
+	private static int count(long value) throws IOException {
+		if ((value < 0) || (value > Integer.MAX_VALUE)) {
+			throw new StreamCorruptedException("invalid length " + value);
+		}
+		return (int) value;
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static byte[] hexToBytes(String value) {
+		int length = value.length();
+		if ((length == 0) || ((length & 1) != 0)) {
+			return null;
+		}
+		byte[] bytes = new byte[length >> 1];
+		for (int i = 0; i < bytes.length; i++) {
+			char hi = value.charAt(i << 1);
+			char lo = value.charAt((i << 1) + 1);
+			if ((hi >= HEX_VALUES.length) || (lo >= HEX_VALUES.length)
+					|| ((HEX_VALUES[hi] | HEX_VALUES[lo]) < 0)) {
+				return null;
+			}
+			bytes[i] = (byte) ((HEX_VALUES[hi] << 4) | HEX_VALUES[lo]);
+		}
+		return bytes;
+	}
+
+	private static final class Output extends ByteArrayOutputStream {
+		private Output() {
+			super(256);
+		}
+
+		@Override
+		public void write(int b) {
+			if (count == buf.length) {
+				buf = Arrays.copyOf(buf, buf.length << 1);
+			}
+			buf[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			if (count + len > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + len));
+			}
+			System.arraycopy(b, off, buf, count, len);
+			count += len;
+		}
+	}
+
+	private static final class Input extends ByteArrayInputStream {
+		private Input(byte[] buf, int offset, int length) {
+			super(buf, offset, length);
+		}
+
+		@Override
+		public int read() {
+			return (pos < count) ? (buf[pos++] & 0xff) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (pos >= count) {
+				return -1;
+			}
+			int n = Math.min(len, count - pos);
+			System.arraycopy(buf, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return count - pos;
+		}
+	}
+
+	private static final class BufferInput extends InputStream {
+		private final ByteBuffer buffer;
+
+		private BufferInput(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
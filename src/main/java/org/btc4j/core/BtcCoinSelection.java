@@ -0,0 +1,103 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BtcCoinSelection implements Serializable {
+	private static final long serialVersionUID = -2218744560127470331L;
+	private List<BtcOutputPart> outputs = new ArrayList<BtcOutputPart>();
+	private BigDecimal amount = BigDecimal.ZERO;
+	private BigDecimal fee = BigDecimal.ZERO;
+	private BigDecimal change = BigDecimal.ZERO;
+
+	public List<BtcOutputPart> getOutputs() {
+		return outputs;
+	}
+
+	public void setOutputs(List<BtcOutputPart> outputs) {
+		this.outputs = BtcUtil.notNull(outputs);
+	}
+
+	public BigDecimal getAmount() {
+		return amount;
+	}
+
+	public void setAmount(BigDecimal amount) {
+		this.amount = BtcUtil.notNull(amount);
+	}
+
+	public BigDecimal getFee() {
+		return fee;
+	}
+
+	public void setFee(BigDecimal fee) {
+		this.fee = BtcUtil.notNull(fee);
+	}
+
+	public BigDecimal getChange() {
+		return change;
+	}
+
+	public void setChange(BigDecimal change) {
+		this.change = BtcUtil.notNull(change);
+	}
+
+	public boolean isChangeless() {
+		return change.signum() == 0;
+	}
+
+	public Map<String, BigDecimal> getAmounts(Map<String, BigDecimal> payments,
+			String changeAddress) {
+		Map<String, BigDecimal> amounts = new HashMap<String, BigDecimal>(
+				BtcUtil.notNull(payments));
+		if (!isChangeless()) {
+			BigDecimal existing = amounts.get(changeAddress);
+			amounts.put(changeAddress, (existing == null) ? change : existing
+					.add(change));
+		}
+		return amounts;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BtcCoinSelection [outputs=");
+		builder.append(outputs);
+		builder.append(", amount=");
+		builder.append(amount);
+		builder.append(", fee=");
+		builder.append(fee);
+		builder.append(", change=");
+		builder.append(change);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class BtcCoinSelector {
+	public static final long INPUT_SIZE = 148;
+	public static final long OUTPUT_SIZE = 34;
+	public static final long OVERHEAD_SIZE = 10;
+	public static final int BRANCH_AND_BOUND_TRIES = 100000;
+	public static final int KNAPSACK_ITERATIONS = 1000;
+	private final long feePerByte;
+	private final long minimumChange;
+
+	public BtcCoinSelector(long feePerByte, long minimumChange) {
+		this.feePerByte = BtcUtil.atLeast(feePerByte, 0);
+		this.minimumChange = BtcUtil.atLeast(minimumChange, 1);
+	}
+
+	public BtcCoinSelection select(List<BtcOutput> unspent, BigDecimal amount,
+			int payments, long minConfirms) throws BtcException {
+		int count = 0;
+		long[] values = new long[unspent.size()];
+		int[] index = new int[unspent.size()];
+		for (int i = 0; i < unspent.size(); i++) {
+			BtcOutput output = unspent.get(i);
+			if (output.getConfirmations() < minConfirms) {
+				continue;
+			}
+			long value = BtcUtil.toSatoshis(output.getValue())
+					- getInputSize(output) * feePerByte;
+			if (value > 0) {
+				values[count] = value;
+				index[count] = i;
+				count++;
+			}
+		}
+		sort(values, index, count);
+		long fixedFee = (OVERHEAD_SIZE + OUTPUT_SIZE * payments) * feePerByte;
+		long target = BtcUtil.toSatoshis(amount) + fixedFee;
+		long changeFee = OUTPUT_SIZE * feePerByte;
+		boolean[] selected = new boolean[count];
+		if (!branchAndBound(values, count, target, changeFee + INPUT_SIZE
+				* feePerByte, selected)
+				&& !knapsack(values, count, target, changeFee + minimumChange,
+						selected)) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": insufficient funds");
+		}
+		List<BtcOutputPart> outputs = new ArrayList<BtcOutputPart>();
+		long total = 0;
+		long effective = 0;
+		for (int i = 0; i < count; i++) {
+			if (selected[i]) {
+				BtcOutput output = unspent.get(index[i]);
+				outputs.add(output);
+				total += BtcUtil.toSatoshis(output.getValue());
+				effective += values[i];
+			}
+		}
+		long excess = effective - target;
+		long change = (excess >= changeFee + minimumChange) ? excess
+				- changeFee : 0;
+		BtcCoinSelection selection = new BtcCoinSelection();
+		selection.setOutputs(outputs);
+		selection.setAmount(BtcUtil.fromSatoshis(total));
+		selection.setChange(BtcUtil.fromSatoshis(change));
+		selection.setFee(BtcUtil.fromSatoshis(total - change
+				- BtcUtil.toSatoshis(amount)));
+		return selection;
+	}
+
+	protected long getInputSize(BtcOutput output) {
+		BtcScript script = output.getScript();
+		if ((script.getType() != BtcScript.Type.PUBKEYHASH)
+				&& (script.getRequiredSignatures() > 1)) {
+			return 49 + 74 * script.getRequiredSignatures() + 34
+					* script.getAddresses().size();
+		}
+		return INPUT_SIZE;
+	}
+
+	private static boolean branchAndBound(long[] values, int count,
+			long target, long costOfChange, boolean[] best) {
+		boolean[] selected = new boolean[count];
+		long available = 0;
+		for (int i = 0; i < count; i++) {
+			available += values[i];
+		}
+		long value = 0;
+		long bestWaste = Long.MAX_VALUE;
+		int depth = 0;
+		for (int tries = 0; tries < BRANCH_AND_BOUND_TRIES; tries++) {
+			boolean backtrack = false;
+			if ((value + available < target)
+					|| (value > target + costOfChange)) {
+				backtrack = true;
+			} else if (value >= target) {
+				if (value - target < bestWaste) {
+					bestWaste = value - target;
+					System.arraycopy(selected, 0, best, 0, count);
+					if (bestWaste == 0) {
+						break;
+					}
+				}
+				backtrack = true;
+			}
+			if (backtrack) {
+				while ((depth > 0) && !selected[depth - 1]) {
+					depth--;
+					available += values[depth];
+				}
+				if (depth == 0) {
+					break;
+				}
+				selected[depth - 1] = false;
+				value -= values[depth - 1];
+			} else {
+				available -= values[depth];
+				if ((depth == 0) || selected[depth - 1]
+						|| (values[depth] != values[depth - 1])) {
+					selected[depth] = true;
+					value += values[depth];
+				}
+				depth++;
+			}
+		}
+		return bestWaste != Long.MAX_VALUE;
+	}
+
+	private static boolean knapsack(long[] values, int count, long target,
+			long minimumExcess, boolean[] best) {
+		long lowestLarger = -1;
+		long total = 0;
+		for (int i = 0; i < count; i++) {
+			if (values[i] == target) {
+				best[i] = true;
+				return true;
+			} else if (values[i] < target + minimumExcess) {
+				total += values[i];
+			} else {
+				lowestLarger = i;
+			}
+		}
+		int first = (lowestLarger < 0) ? 0 : (int) lowestLarger + 1;
+		if (total == target) {
+			for (int i = first; i < count; i++) {
+				best[i] = true;
+			}
+			return true;
+		}
+		if (total < target) {
+			if (lowestLarger < 0) {
+				return false;
+			}
+			best[(int) lowestLarger] = true;
+			return true;
+		}
+		long goal = (total >= target + minimumExcess) ? target
+				+ minimumExcess : target;
+		long bestValue = approximateBestSubset(values, first, count, goal,
+				best);
+		if ((lowestLarger >= 0) && (bestValue != goal)
+				&& (values[(int) lowestLarger] <= bestValue)) {
+			for (int i = first; i < count; i++) {
+				best[i] = false;
+			}
+			best[(int) lowestLarger] = true;
+		}
+		return true;
+	}
+
+	private static long approximateBestSubset(long[] values, int first,
+			int count, long target, boolean[] best) {
+		Random random = ThreadLocalRandom.current();
+		boolean[] included = new boolean[count];
+		long bestValue = 0;
+		for (int i = first; i < count; i++) {
+			best[i] = true;
+			bestValue += values[i];
+		}
+		for (int rep = 0; (rep < KNAPSACK_ITERATIONS)
+				&& (bestValue != target); rep++) {
+			for (int i = first; i < count; i++) {
+				included[i] = false;
+			}
+			long value = 0;
+			boolean reached = false;
+			for (int pass = 0; (pass < 2) && !reached; pass++) {
+				for (int i = first; i < count; i++) {
+					if ((pass == 0) ? random.nextBoolean() : !included[i]) {
+						value += values[i];
+						included[i] = true;
+						if (value >= target) {
+							reached = true;
+							if (value < bestValue) {
+								bestValue = value;
+								System.arraycopy(included, first, best, first,
+										count - first);
+							}
+							value -= values[i];
+							included[i] = false;
+						}
+					}
+				}
+			}
+		}
+		return bestValue;
+	}
+
+	private static void sort(long[] values, int[] index, int count) {
+		for (int start = count / 2 - 1; start >= 0; start--) {
+			sift(values, index, start, count);
+		}
+		for (int end = count - 1; end > 0; end--) {
+			swap(values, index, 0, end);
+			sift(values, index, 0, end);
+		}
+	}
+
+	private static void sift(long[] values, int[] index, int root, int end) {
+		while (true) {
+			int child = 2 * root + 1;
+			if (child >= end) {
+				return;
+			}
+			if ((child + 1 < end) && (values[child + 1] < values[child])) {
+				child++;
+			}
+			if (values[root] <= values[child]) {
+				return;
+			}
+			swap(values, index, root, child);
+			root = child;
+		}
+	}
+
+	private static void swap(long[] values, int[] index, int i, int j) {
+		long value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+		int position = index[i];
+		index[i] = index[j];
+		index[j] = position;
+	}
+}
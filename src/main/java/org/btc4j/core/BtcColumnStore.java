@@ -0,0 +1,1086 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class BtcColumnStore {
+	public static final int CHUNK_ROWS = 1 << 16;
+	private static final int WINDOW_CHUNKS = 64;
+	private static final int BLOCK_RECORD = 32 + 8 + 8 + 8;
+	private static final int STATISTICS_RECORD = 6 * 8;
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final BtcScript.Type[] TYPES = BtcScript.Type.values();
+	private final File directory;
+	private final ForkJoinPool pool;
+	private final boolean ownPool;
+	private final Column heights;
+	private final Column times;
+	private final Column transactions;
+	private final Column values;
+	private final Column types;
+	private final Column addresses;
+	private final Column spent;
+	private final Column[] columns;
+	private final FileChannel dictionary;
+	private final FileChannel blockLog;
+	private final FileChannel spendLog;
+	private final FileChannel chunkStatistics;
+	private final Index transactionIndex;
+	private final Index addressIndex;
+	private volatile MappedByteBuffer names;
+	private volatile long[][] statistics = new long[0][];
+	private volatile long rows = 0;
+	private volatile long height = -1;
+	private long blockCount = 0;
+	private long spendCount = 0;
+
+	public BtcColumnStore(File directory) throws BtcException {
+		this(directory, new ForkJoinPool(), true);
+	}
+
+	public BtcColumnStore(File directory, ForkJoinPool pool)
+			throws BtcException {
+		this(directory, pool, false);
+	}
+
+	private BtcColumnStore(File directory, ForkJoinPool pool, boolean ownPool)
+			throws BtcException {
+		this.directory = directory;
+		this.pool = pool;
+		this.ownPool = ownPool;
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("cannot create " + directory);
+			}
+			heights = new Column("height", 4);
+			times = new Column("time", 8);
+			transactions = new Column("txid", 32);
+			values = new Column("value", 8);
+			types = new Column("type", 1);
+			addresses = new Column("address", 4);
+			spent = new Column("spent", 1);
+			columns = new Column[] { heights, times, transactions, values,
+					types, addresses, spent };
+			dictionary = channel("address.dict");
+			blockLog = channel("blocks.log");
+			spendLog = channel("spends.log");
+			chunkStatistics = channel("chunks.stat");
+			transactionIndex = new Index(new File(directory, "txid.idx"),
+					CHUNK_ROWS);
+			addressIndex = new Index(new File(directory, "address.idx"), 1024);
+			load();
+		} catch (IOException e) {
+			close();
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public int getChunks() {
+		return statistics.length;
+	}
+
+	public long getHeight() {
+		return height;
+	}
+
+	public String getAddress(int id) {
+		try {
+			return name(id);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	public <T> T scan(Filter filter, Task<T> task) throws BtcException {
+		long[][] snapshot;
+		long total;
+		synchronized (this) {
+			snapshot = statistics;
+			total = rows;
+		}
+		try {
+			List<Chunk> chunks = new ArrayList<Chunk>();
+			for (int i = 0; i < snapshot.length; i++) {
+				if ((filter == null) || filter.overlaps(snapshot[i])) {
+					int count = (int) Math.min(CHUNK_ROWS, total
+							- ((long) i * CHUNK_ROWS));
+					chunks.add(new Chunk(i, count, snapshot[i], filter));
+				}
+			}
+			if (chunks.isEmpty()) {
+				return null;
+			}
+			return pool.invoke(new ScanTask<T>(chunks, task, 0, chunks.size()));
+		} catch (IOException | RuntimeException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public int append(BtcApi api, BtcBlock block) throws BtcException {
+		List<BtcRawTransaction> raw = new ArrayList<BtcRawTransaction>(block
+				.getTransactions().size());
+		if (block.getHeight() > 0) {
+			for (BtcTransaction transaction : block.getTransactions()) {
+				raw.add(api.getRawTransaction(transaction.getTransaction(),
+						true));
+			}
+		}
+		return append(block, raw);
+	}
+
+	public synchronized int append(BtcBlock block,
+			List<BtcRawTransaction> transactions) throws BtcException {
+		int count = 0;
+		for (BtcRawTransaction transaction : transactions) {
+			count += transaction.getOutputs().size();
+		}
+		ByteBuffer heightRows = ByteBuffer.allocate(count * heights.width);
+		ByteBuffer timeRows = ByteBuffer.allocate(count * times.width);
+		ByteBuffer transactionRows = ByteBuffer.allocate(count
+				* this.transactions.width);
+		ByteBuffer valueRows = ByteBuffer.allocate(count * values.width);
+		ByteBuffer typeRows = ByteBuffer.allocate(count * types.width);
+		ByteBuffer addressRows = ByteBuffer.allocate(count * addresses.width);
+		ByteBuffer spentRows = ByteBuffer.allocate(count * spent.width);
+		Map<Long, String> spends = new HashMap<Long, String>();
+		Map<String, Long> created = new HashMap<String, Long>();
+		int marked = 0;
+		try {
+			byte[] hash = BtcUtil.hexToBytes(block.getHash());
+			if (hash.length != 32) {
+				throw new IOException("invalid block hash " + block.getHash());
+			}
+			for (BtcRawTransaction transaction : transactions) {
+				for (BtcInput input : transaction.getInputs()) {
+					Long first = created.get(input.getTransaction());
+					if (first == null) {
+						first = firstRow(input.getTransaction());
+					}
+					if (first != null) {
+						spends.put(first + input.getOutput(),
+								input.getTransaction());
+					}
+				}
+				byte[] id = BtcUtil.hexToBytes(transaction.getTransaction());
+				if (id.length != this.transactions.width) {
+					throw new IOException("invalid transaction id "
+							+ transaction.getTransaction());
+				}
+				created.put(transaction.getTransaction(), rows
+						+ heightRows.position() / heights.width);
+				for (BtcOutput output : transaction.getOutputs()) {
+					heightRows.putInt((int) block.getHeight());
+					timeRows.putLong(block.getTime());
+					transactionRows.put(id);
+					valueRows.putLong(BtcUtil.toSatoshis(output.getValue()));
+					typeRows.put((byte) output.getScript().getType().ordinal());
+					List<String> names = output.getScript().getAddresses();
+					addressRows.putInt(names.isEmpty() ? -1 : addressId(names
+							.get(0)));
+					spentRows.put((byte) 0);
+				}
+			}
+			heights.append(rows, heightRows);
+			times.append(rows, timeRows);
+			this.transactions.append(rows, transactionRows);
+			values.append(rows, valueRows);
+			types.append(rows, typeRows);
+			addresses.append(rows, addressRows);
+			spent.append(rows, spentRows);
+			ByteBuffer spendRows = ByteBuffer.allocate(spends.size() * 8);
+			for (Map.Entry<Long, String> spend : spends.entrySet()) {
+				long row = spend.getKey();
+				if ((row >= 0) && (row < rows + count)
+						&& spend.getValue().equals(transaction(row))) {
+					spendRows.putLong(row);
+				}
+			}
+			spendRows.flip();
+			marked = spendRows.remaining() / 8;
+			write(spendLog, spendRows.duplicate(), spendCount * 8);
+			while (spendRows.hasRemaining()) {
+				spent.set(spendRows.getLong(), (byte) 1);
+			}
+			for (Map.Entry<String, Long> entry : created.entrySet()) {
+				byte[] id = BtcUtil.hexToBytes(entry.getKey());
+				transactionIndex.put(hash(id), entry.getValue(),
+						new TransactionKey(id, rows + count));
+			}
+			transactionIndex.setCovered(rows + count);
+			ByteBuffer record = ByteBuffer.allocate(BLOCK_RECORD);
+			record.put(hash);
+			record.putLong(block.getHeight());
+			record.putLong(rows + count);
+			record.putLong(spendCount + marked);
+			record.flip();
+			write(blockLog, record, blockCount * BLOCK_RECORD);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+		long first = rows;
+		blockCount++;
+		spendCount += marked;
+		height = block.getHeight();
+		for (int i = 0; i < count; i++) {
+			index(first + i, block.getHeight(), block.getTime(),
+					valueRows.getLong(i * values.width));
+		}
+		rows += count;
+		try {
+			for (long chunk = first / CHUNK_ROWS; chunk * CHUNK_ROWS < rows; chunk++) {
+				writeStatistics((int) chunk);
+			}
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+		return count;
+	}
+
+	public int follow(BtcApi api, long minConfirms) throws BtcException {
+		long count = api.getBlockCount();
+		rewind(api, count);
+		long tip = count - BtcUtil.atLeast(minConfirms, 1) + 1;
+		int appended = 0;
+		for (long i = height + 1; i <= tip; i++) {
+			appended += append(api, api.getBlock(api.getBlockHash(i)));
+		}
+		return appended;
+	}
+
+	public synchronized void flush() throws BtcException {
+		try {
+			for (Column column : columns) {
+				column.channel.force(false);
+			}
+			dictionary.force(false);
+			spendLog.force(false);
+			chunkStatistics.force(false);
+			transactionIndex.force();
+			addressIndex.force();
+			blockLog.force(false);
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	public synchronized void close() {
+		if (columns != null) {
+			for (Column column : columns) {
+				column.close();
+			}
+		}
+		close(dictionary);
+		close(blockLog);
+		close(spendLog);
+		close(chunkStatistics);
+		if (transactionIndex != null) {
+			transactionIndex.close();
+		}
+		if (addressIndex != null) {
+			addressIndex.close();
+		}
+		names = null;
+		if (ownPool) {
+			pool.shutdown();
+		}
+	}
+
+	private FileChannel channel(String name) throws IOException {
+		return new RandomAccessFile(new File(directory, name), "rw")
+				.getChannel();
+	}
+
+	private void load() throws IOException {
+		blockCount = blockLog.size() / BLOCK_RECORD;
+		blockLog.truncate(blockCount * BLOCK_RECORD);
+		if (blockCount > 0) {
+			ByteBuffer record = read(blockLog, BLOCK_RECORD, (blockCount - 1)
+					* BLOCK_RECORD);
+			height = record.getLong(32);
+			rows = record.getLong(40);
+			spendCount = record.getLong(48);
+		}
+		for (Column column : columns) {
+			if (column.channel.size() < rows * column.width) {
+				throw new IOException("missing rows in " + column.name);
+			}
+			column.channel.truncate(rows * column.width);
+		}
+		unspend(spendCount, spendLog.size() / 8, rows);
+		spendLog.truncate(spendCount * 8);
+		long size = dictionary.size();
+		long end = Math.min(addressIndex.getCovered(), size);
+		ByteBuffer entries = dictionary.map(FileChannel.MapMode.READ_ONLY, 0,
+				size);
+		while (end + 2 <= size) {
+			int length = entries.getShort((int) end);
+			if ((length < 0) || (end + 2 + length > size)) {
+				break;
+			}
+			byte[] name = new byte[length];
+			entries.position((int) end + 2);
+			entries.get(name);
+			String address = new String(name, ASCII);
+			addressIndex.put(hash(address), end, new AddressKey(address));
+			end += 2 + length;
+		}
+		dictionary.truncate(end);
+		addressIndex.setCovered(end);
+		long covered = Math.min(transactionIndex.getCovered(), rows);
+		byte[] previous = (covered > 0) ? transactionBytes(covered - 1) : null;
+		for (long row = covered; row < rows; row++) {
+			byte[] id = transactionBytes(row);
+			if (!Arrays.equals(id, previous)) {
+				transactionIndex.put(hash(id), row, new TransactionKey(id,
+						rows));
+			}
+			previous = id;
+		}
+		transactionIndex.setCovered(rows);
+		long chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+		int trusted = (int) Math.max(0, Math.min(chunkStatistics.size()
+				/ STATISTICS_RECORD - 1, chunks - 1));
+		long[][] current = new long[trusted][];
+		for (int i = 0; i < trusted; i++) {
+			ByteBuffer record = read(chunkStatistics, STATISTICS_RECORD,
+					(long) i * STATISTICS_RECORD);
+			current[i] = new long[6];
+			record.asLongBuffer().get(current[i]);
+		}
+		statistics = current;
+		summarize(trusted);
+	}
+
+	private synchronized void rewind(BtcApi api, long count)
+			throws BtcException {
+		try {
+			while (blockCount > 0) {
+				byte[] hash = new byte[32];
+				read(blockLog, BLOCK_RECORD, (blockCount - 1) * BLOCK_RECORD)
+						.get(hash);
+				if ((height <= count)
+						&& BtcUtil.bytesToHex(hash).equalsIgnoreCase(
+								api.getBlockHash(height))) {
+					return;
+				}
+				removeLast();
+			}
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	private void removeLast() throws IOException {
+		long previousHeight = -1;
+		long previousRows = 0;
+		long previousSpends = 0;
+		if (blockCount > 1) {
+			ByteBuffer record = read(blockLog, BLOCK_RECORD, (blockCount - 2)
+					* BLOCK_RECORD);
+			previousHeight = record.getLong(32);
+			previousRows = record.getLong(40);
+			previousSpends = record.getLong(48);
+		}
+		unspend(previousSpends, spendCount, previousRows);
+		byte[] previous = null;
+		for (long row = previousRows; row < rows; row++) {
+			byte[] id = transactionBytes(row);
+			if (!Arrays.equals(id, previous)) {
+				transactionIndex.remove(hash(id), new TransactionKey(id, rows));
+			}
+			previous = id;
+		}
+		transactionIndex.setCovered(previousRows);
+		spendLog.truncate(previousSpends * 8);
+		blockLog.truncate((blockCount - 1) * BLOCK_RECORD);
+		blockCount--;
+		spendCount = previousSpends;
+		rows = previousRows;
+		height = previousHeight;
+		long chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+		summarize((int) Math.max(0, Math.min(statistics.length, chunks - 1)));
+	}
+
+	private void unspend(long from, long to, long limit) throws IOException {
+		if (from >= to) {
+			return;
+		}
+		ByteBuffer entries = read(spendLog, (int) ((to - from) * 8), from * 8);
+		while (entries.hasRemaining()) {
+			long row = entries.getLong();
+			if (row < limit) {
+				spent.set(row, (byte) 0);
+			}
+		}
+	}
+
+	private void summarize(int from) throws IOException {
+		long chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+		statistics = Arrays.copyOf(statistics, from);
+		for (long row = (long) from * CHUNK_ROWS; row < rows; row++) {
+			index(row, heights.window(row).getInt(heights.offset(row)), times
+					.window(row).getLong(times.offset(row)), values.window(row)
+					.getLong(values.offset(row)));
+		}
+		for (int i = from; i < chunks; i++) {
+			writeStatistics(i);
+		}
+		chunkStatistics.truncate(chunks * STATISTICS_RECORD);
+	}
+
+	private void writeStatistics(int chunk) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(STATISTICS_RECORD);
+		for (long bound : statistics[chunk]) {
+			record.putLong(bound);
+		}
+		record.flip();
+		write(chunkStatistics, record, (long) chunk * STATISTICS_RECORD);
+	}
+
+	private Long firstRow(String transaction) {
+		if ((transaction == null) || (transaction.length() != 64)) {
+			return null;
+		}
+		try {
+			byte[] id = BtcUtil.hexToBytes(transaction);
+			long row = transactionIndex.get(hash(id), new TransactionKey(id,
+					rows));
+			return (row < 0) ? null : row;
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private String transaction(long row) throws IOException {
+		return BtcUtil.bytesToHex(transactionBytes(row));
+	}
+
+	private byte[] transactionBytes(long row) throws IOException {
+		byte[] id = new byte[transactions.width];
+		ByteBuffer window = transactions.window(row).duplicate();
+		window.position(transactions.offset(row));
+		window.get(id);
+		return id;
+	}
+
+	private int addressId(String name) throws IOException {
+		long hash = hash(name);
+		AddressKey key = new AddressKey(name);
+		long id = addressIndex.get(hash, key);
+		if (id >= 0) {
+			return (int) id;
+		}
+		byte[] bytes = name.getBytes(ASCII);
+		long offset = dictionary.size();
+		if (offset + 2 + bytes.length > Integer.MAX_VALUE) {
+			throw new IOException("address dictionary is full");
+		}
+		ByteBuffer entry = ByteBuffer.allocate(2 + bytes.length);
+		entry.putShort((short) bytes.length);
+		entry.put(bytes);
+		entry.flip();
+		write(dictionary, entry, offset);
+		addressIndex.put(hash, offset, key);
+		addressIndex.setCovered(offset + 2 + bytes.length);
+		return (int) offset;
+	}
+
+	private String name(long id) throws IOException {
+		if (id < 0) {
+			return null;
+		}
+		ByteBuffer view = names(id + 2);
+		if (view == null) {
+			return null;
+		}
+		int length = view.getShort((int) id);
+		if ((length < 0) || ((view = names(id + 2 + length)) == null)) {
+			return null;
+		}
+		byte[] name = new byte[length];
+		ByteBuffer entry = view.duplicate();
+		entry.position((int) id + 2);
+		entry.get(name);
+		return new String(name, ASCII);
+	}
+
+	private ByteBuffer names(long limit) throws IOException {
+		MappedByteBuffer current = names;
+		if ((current != null) && (limit <= current.limit())) {
+			return current;
+		}
+		synchronized (dictionary) {
+			current = names;
+			if ((current == null) || (limit > current.limit())) {
+				long size = dictionary.size();
+				if (limit > size) {
+					return null;
+				}
+				current = dictionary.map(FileChannel.MapMode.READ_ONLY, 0,
+						size);
+				names = current;
+			}
+			return current;
+		}
+	}
+
+	private void index(long row, long height, long time, long value) {
+		int chunk = (int) (row / CHUNK_ROWS);
+		long[][] current = statistics;
+		if (chunk == current.length) {
+			current = Arrays.copyOf(current, chunk + 1);
+			current[chunk] = new long[] { height, height, time, time, value,
+					value };
+			statistics = current;
+		} else {
+			long[] bounds = current[chunk];
+			bounds[0] = Math.min(bounds[0], height);
+			bounds[1] = Math.max(bounds[1], height);
+			bounds[2] = Math.min(bounds[2], time);
+			bounds[3] = Math.max(bounds[3], time);
+			bounds[4] = Math.min(bounds[4], value);
+			bounds[5] = Math.max(bounds[5], value);
+		}
+	}
+
+	private static long hash(byte[] id) {
+		return ByteBuffer.wrap(id).getLong();
+	}
+
+	private static long hash(String name) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < name.length(); i++) {
+			hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static ByteBuffer read(FileChannel channel, int size,
+			long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private static void close(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	public interface Task<T> {
+		T map(Chunk chunk);
+
+		T reduce(T left, T right);
+	}
+
+	public static class Filter {
+		private long minHeight = Long.MIN_VALUE;
+		private long maxHeight = Long.MAX_VALUE;
+		private long minTime = Long.MIN_VALUE;
+		private long maxTime = Long.MAX_VALUE;
+		private long minValue = Long.MIN_VALUE;
+		private long maxValue = Long.MAX_VALUE;
+
+		public Filter setHeight(long minHeight, long maxHeight) {
+			this.minHeight = minHeight;
+			this.maxHeight = maxHeight;
+			return this;
+		}
+
+		public Filter setTime(long minTime, long maxTime) {
+			this.minTime = minTime;
+			this.maxTime = maxTime;
+			return this;
+		}
+
+		public Filter setValue(long minValue, long maxValue) {
+			this.minValue = minValue;
+			this.maxValue = maxValue;
+			return this;
+		}
+
+		public boolean accept(Chunk chunk, int row) {
+			long value = chunk.getHeight(row);
+			if ((value < minHeight) || (value > maxHeight)) {
+				return false;
+			}
+			value = chunk.getTime(row);
+			if ((value < minTime) || (value > maxTime)) {
+				return false;
+			}
+			value = chunk.getValue(row);
+			return (value >= minValue) && (value <= maxValue);
+		}
+
+		private boolean overlaps(long[] bounds) {
+			return (bounds[0] <= maxHeight) && (bounds[1] >= minHeight)
+					&& (bounds[2] <= maxTime) && (bounds[3] >= minTime)
+					&& (bounds[4] <= maxValue) && (bounds[5] >= minValue);
+		}
+	}
+
+	public final class Chunk {
+		private final int index;
+		private final int rows;
+		private final long[] bounds;
+		private final Filter filter;
+		private final ByteBuffer heights;
+		private final ByteBuffer times;
+		private final ByteBuffer transactions;
+		private final ByteBuffer values;
+		private final ByteBuffer types;
+		private final ByteBuffer addresses;
+		private final ByteBuffer spent;
+
+		private Chunk(int index, int rows, long[] bounds, Filter filter)
+				throws IOException {
+			this.index = index;
+			this.rows = rows;
+			this.bounds = bounds.clone();
+			this.filter = filter;
+			this.heights = BtcColumnStore.this.heights.slice(index, rows);
+			this.times = BtcColumnStore.this.times.slice(index, rows);
+			this.transactions = BtcColumnStore.this.transactions.slice(index,
+					rows);
+			this.values = BtcColumnStore.this.values.slice(index, rows);
+			this.types = BtcColumnStore.this.types.slice(index, rows);
+			this.addresses = BtcColumnStore.this.addresses.slice(index, rows);
+			this.spent = BtcColumnStore.this.spent.slice(index, rows);
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public long getFirstRow() {
+			return (long) index * CHUNK_ROWS;
+		}
+
+		public int getRows() {
+			return rows;
+		}
+
+		public long getMinHeight() {
+			return bounds[0];
+		}
+
+		public long getMaxHeight() {
+			return bounds[1];
+		}
+
+		public long getMinTime() {
+			return bounds[2];
+		}
+
+		public long getMaxTime() {
+			return bounds[3];
+		}
+
+		public long getMinValue() {
+			return bounds[4];
+		}
+
+		public long getMaxValue() {
+			return bounds[5];
+		}
+
+		public boolean accept(int row) {
+			return (filter == null) || filter.accept(this, row);
+		}
+
+		public long getHeight(int row) {
+			return heights.getInt(row << 2);
+		}
+
+		public long getTime(int row) {
+			return times.getLong(row << 3);
+		}
+
+		public String getTransaction(int row) {
+			byte[] id = new byte[32];
+			ByteBuffer buffer = transactions.duplicate();
+			buffer.position(row << 5);
+			buffer.get(id);
+			return BtcUtil.bytesToHex(id);
+		}
+
+		public long getValue(int row) {
+			return values.getLong(row << 3);
+		}
+
+		public BtcScript.Type getType(int row) {
+			int ordinal = types.get(row);
+			return ((ordinal >= 0) && (ordinal < TYPES.length)) ? TYPES[ordinal]
+					: BtcScript.Type.NULL;
+		}
+
+		public int getAddressId(int row) {
+			return addresses.getInt(row << 2);
+		}
+
+		public String getAddress(int row) {
+			return BtcColumnStore.this.getAddress(getAddressId(row));
+		}
+
+		public boolean isSpent(int row) {
+			return spent.get(row) != 0;
+		}
+	}
+
+	private interface Key {
+		boolean matches(long value) throws IOException;
+	}
+
+	private final class TransactionKey implements Key {
+		private final byte[] id;
+		private final long limit;
+
+		private TransactionKey(byte[] id, long limit) {
+			this.id = id;
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean matches(long row) throws IOException {
+			return (row < limit) && Arrays.equals(id, transactionBytes(row));
+		}
+	}
+
+	private final class AddressKey implements Key {
+		private final String name;
+
+		private AddressKey(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean matches(long id) throws IOException {
+			return name.equals(name(id));
+		}
+	}
+
+	private final class Column {
+		private final String name;
+		private final int width;
+		private final FileChannel channel;
+		private volatile MappedByteBuffer[] windows = new MappedByteBuffer[0];
+
+		private Column(String name, int width) throws IOException {
+			this.name = name;
+			this.width = width;
+			this.channel = new RandomAccessFile(new File(directory, name
+					+ ".col"), "rw").getChannel();
+		}
+
+		private void append(long row, ByteBuffer rows) throws IOException {
+			rows.flip();
+			long position = row * width;
+			while (rows.hasRemaining()) {
+				position += channel.write(rows, position);
+			}
+		}
+
+		private void set(long row, byte value) throws IOException {
+			channel.write(ByteBuffer.wrap(new byte[] { value }), row * width);
+		}
+
+		private int offset(long row) {
+			return (int) ((row % ((long) WINDOW_CHUNKS * CHUNK_ROWS)) * width);
+		}
+
+		private ByteBuffer window(long row) throws IOException {
+			int index = (int) (row / ((long) WINDOW_CHUNKS * CHUNK_ROWS));
+			int limit = offset(row) + width;
+			MappedByteBuffer[] current = windows;
+			if ((index < current.length) && (current[index] != null)
+					&& (limit <= current[index].limit())) {
+				return current[index];
+			}
+			synchronized (this) {
+				current = windows;
+				if ((index >= current.length) || (current[index] == null)
+						|| (limit > current[index].limit())) {
+					long start = (long) index * WINDOW_CHUNKS * CHUNK_ROWS
+							* width;
+					long size = Math.min((long) WINDOW_CHUNKS * CHUNK_ROWS
+							* width, channel.size() - start);
+					current = Arrays.copyOf(current,
+							Math.max(current.length, index + 1));
+					current[index] = channel.map(FileChannel.MapMode.READ_ONLY,
+							start, size);
+					windows = current;
+				}
+				return current[index];
+			}
+		}
+
+		private ByteBuffer slice(int chunk, int rows) throws IOException {
+			long first = (long) chunk * CHUNK_ROWS;
+			ByteBuffer buffer = window(first + rows - 1).duplicate();
+			int offset = offset(first);
+			buffer.limit(offset + rows * width);
+			buffer.position(offset);
+			return buffer.slice();
+		}
+
+		private void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+			}
+			windows = new MappedByteBuffer[0];
+		}
+	}
+
+	private static final class Index {
+		private static final int HEADER = 32;
+		private static final int SLOT = 16;
+		private static final int WINDOW_BITS = 26;
+		private static final int WINDOW_MASK = (1 << WINDOW_BITS) - 1;
+		private final File file;
+		private FileChannel channel;
+		private MappedByteBuffer header;
+		private MappedByteBuffer[] windows;
+		private long mask;
+		private long size;
+
+		private Index(File file, long capacity) throws IOException {
+			this.file = file;
+			open(capacity);
+		}
+
+		private long getCovered() {
+			return header.getLong(16);
+		}
+
+		private void setCovered(long covered) {
+			header.putLong(16, covered);
+		}
+
+		private long get(long hash, Key key) throws IOException {
+			for (long slot = home(hash);; slot = (slot + 1) & mask) {
+				long stored = value(slot);
+				if (stored == 0) {
+					return -1;
+				}
+				if ((hash(slot) == hash) && key.matches(stored - 1)) {
+					return stored - 1;
+				}
+			}
+		}
+
+		private void put(long hash, long value, Key key) throws IOException {
+			long slot = home(hash);
+			for (long stored; (stored = value(slot)) != 0; slot = (slot + 1)
+					& mask) {
+				if ((hash(slot) == hash) && key.matches(stored - 1)) {
+					set(slot, hash, value + 1);
+					return;
+				}
+			}
+			set(slot, hash, value + 1);
+			header.putLong(8, ++size);
+			if ((size << 1) > mask) {
+				grow();
+			}
+		}
+
+		private void remove(long hash, Key key) throws IOException {
+			long hole = home(hash);
+			for (long stored; (stored = value(hole)) != 0; hole = (hole + 1)
+					& mask) {
+				if ((hash(hole) == hash) && key.matches(stored - 1)) {
+					for (long next = (hole + 1) & mask; value(next) != 0; next = (next + 1)
+							& mask) {
+						long home = home(hash(next));
+						if ((hole <= next) ? ((home <= hole) || (home > next))
+								: ((home <= hole) && (home > next))) {
+							set(hole, hash(next), value(next));
+							hole = next;
+						}
+					}
+					set(hole, 0, 0);
+					header.putLong(8, --size);
+					return;
+				}
+			}
+		}
+
+		private void force() {
+			header.force();
+			for (MappedByteBuffer window : windows) {
+				window.force();
+			}
+		}
+
+		private void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+			}
+			windows = new MappedByteBuffer[0];
+		}
+
+		private void open(long capacity) throws IOException {
+			channel = new RandomAccessFile(file, "rw").getChannel();
+			header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+			if (header.getLong(0) == 0) {
+				header.putLong(0, capacity);
+			}
+			capacity = header.getLong(0);
+			if (Long.bitCount(capacity) != 1) {
+				throw new IOException("corrupt index " + file);
+			}
+			mask = capacity - 1;
+			size = header.getLong(8);
+			windows = new MappedByteBuffer[(int) ((capacity + WINDOW_MASK) >>> WINDOW_BITS)];
+			for (int i = 0; i < windows.length; i++) {
+				long first = (long) i << WINDOW_BITS;
+				windows[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+						HEADER + first * SLOT,
+						Math.min(WINDOW_MASK + 1, capacity - first) * SLOT);
+			}
+		}
+
+		private void grow() throws IOException {
+			File larger = new File(file.getPath() + ".tmp");
+			if (larger.exists() && !larger.delete()) {
+				throw new IOException("cannot delete " + larger);
+			}
+			Index index = new Index(larger, (mask + 1) << 1);
+			for (long slot = 0; slot <= mask; slot++) {
+				long stored = value(slot);
+				if (stored != 0) {
+					long target = index.home(hash(slot));
+					while (index.value(target) != 0) {
+						target = (target + 1) & index.mask;
+					}
+					index.set(target, hash(slot), stored);
+				}
+			}
+			index.header.putLong(8, size);
+			index.setCovered(getCovered());
+			index.force();
+			index.close();
+			close();
+			Files.move(larger.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			open(0);
+		}
+
+		private long home(long hash) {
+			hash *= 0x9e3779b97f4a7c15L;
+			return (hash ^ (hash >>> 32)) & mask;
+		}
+
+		private long hash(long slot) {
+			return windows[(int) (slot >>> WINDOW_BITS)]
+					.getLong((int) (slot & WINDOW_MASK) * SLOT);
+		}
+
+		private long value(long slot) {
+			return windows[(int) (slot >>> WINDOW_BITS)]
+					.getLong((int) (slot & WINDOW_MASK) * SLOT + 8);
+		}
+
+		private void set(long slot, long hash, long value) {
+			MappedByteBuffer window = windows[(int) (slot >>> WINDOW_BITS)];
+			int offset = (int) (slot & WINDOW_MASK) * SLOT;
+			window.putLong(offset, hash);
+			window.putLong(offset + 8, value);
+		}
+	}
+
+	private static final class ScanTask<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = 6104296523451587190L;
+		private final List<Chunk> chunks;
+		private final Task<T> task;
+		private final int from;
+		private final int to;
+
+		private ScanTask(List<Chunk> chunks, Task<T> task, int from, int to) {
+			this.chunks = chunks;
+			this.task = task;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected T compute() {
+			if (to - from == 1) {
+				return task.map(chunks.get(from));
+			}
+			int middle = (from + to) >>> 1;
+			ScanTask<T> right = new ScanTask<T>(chunks, task, middle, to);
+			right.fork();
+			T left = new ScanTask<T>(chunks, task, from, middle).compute();
+			return task.reduce(left, right.join());
+		}
+	}
+}
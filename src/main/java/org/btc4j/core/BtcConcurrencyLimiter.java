@@ -0,0 +1,268 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class BtcConcurrencyLimiter extends BtcApiDecorator {
+	public static final int DEFAULT_INITIAL_LIMIT = 8;
+	public static final int DEFAULT_MAX_LIMIT = 64;
+	public static final int DEFAULT_MAX_QUEUE = 256;
+	public static final long DEFAULT_QUEUE_TIMEOUT = 5000;
+	private static final double BACKOFF_RATIO = 0.9;
+	private static final double LATENCY_TOLERANCE = 2.0;
+	private static final double LATENCY_SMOOTHING = 0.1;
+	private static final int BASELINE_SAMPLES = 1000;
+	private final int maxLimit;
+	private final int maxQueue;
+	private final long queueTimeout;
+	private final ConcurrentMap<String, Priority> priorities = new ConcurrentHashMap<String, Priority>();
+	private final ConcurrentMap<String, Baseline> baselines = new ConcurrentHashMap<String, Baseline>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition[] lanes = new Condition[Priority.values().length];
+	private final int[] waiting = new int[Priority.values().length];
+	private final AtomicLong shed = new AtomicLong();
+	private double limit;
+	private int inFlight = 0;
+	private long completed = 0;
+	private long nextBackoff = 0;
+
+	public enum Priority {
+		WALLET(1.0), DEFAULT(0.9), ANALYTICS(0.75);
+		private final double share;
+
+		private Priority(double share) {
+			this.share = share;
+		}
+	}
+
+	public BtcConcurrencyLimiter(BtcApi api) {
+		this(api, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_MAX_QUEUE,
+				DEFAULT_QUEUE_TIMEOUT);
+	}
+
+	public BtcConcurrencyLimiter(BtcApi api, int initialLimit, int maxLimit,
+			int maxQueue, long queueTimeout) {
+		super(api);
+		this.maxLimit = Math.max(1, maxLimit);
+		this.limit = Math.min(Math.max(1, initialLimit), this.maxLimit);
+		this.maxQueue = Math.max(0, maxQueue);
+		this.queueTimeout = queueTimeout;
+		for (int i = 0; i < lanes.length; i++) {
+			lanes[i] = lock.newCondition();
+		}
+		for (String method : new String[] { "move", "sendFrom", "sendMany",
+				"sendRawTransaction", "sendToAddress", "signRawTransaction",
+				"walletPassphrase" }) {
+			priorities.put(method, Priority.WALLET);
+		}
+		for (String method : new String[] { "decodeRawTransaction",
+				"getBlock", "getBlockHash", "getRawTransaction",
+				"getTransactionOutputSetInformation", "listReceivedByAccount",
+				"listReceivedByAddress", "listSinceBlock", "listTransactions" }) {
+			priorities.put(method, Priority.ANALYTICS);
+		}
+	}
+
+	public Priority getPriority(String method) {
+		Priority priority = priorities.get(method);
+		return (priority == null) ? Priority.DEFAULT : priority;
+	}
+
+	public void setPriority(String method, Priority priority) {
+		priorities.put(method, (priority == null) ? Priority.DEFAULT
+				: priority);
+	}
+
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getQueued(Priority priority) {
+		lock.lock();
+		try {
+			return waiting[priority.ordinal()];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getShed() {
+		return shed.get();
+	}
+
+	@Override
+	protected Object call(Method method, Object[] args) throws BtcException {
+		acquire(method.getName(), getPriority(method.getName()));
+		long start = System.nanoTime();
+		boolean dropped = true;
+		try {
+			Object result = super.call(method, args);
+			dropped = false;
+			return result;
+		} catch (BtcException e) {
+			dropped = (e.getCode() == BtcException.BTC4J_ERROR_CODE);
+			throw e;
+		} finally {
+			release(method.getName(), System.nanoTime() - start, dropped);
+		}
+	}
+
+	private void acquire(String method, Priority priority)
+			throws BtcException {
+		int lane = priority.ordinal();
+		lock.lock();
+		try {
+			if ((waiting[lane] == 0) && available(lane)) {
+				inFlight++;
+				return;
+			}
+			if (queued() >= maxQueue) {
+				throw rejected(method, "queue full");
+			}
+			waiting[lane]++;
+			try {
+				long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+				while (!available(lane)) {
+					if (remaining <= 0) {
+						throw rejected(method, "queue timeout");
+					}
+					remaining = lanes[lane].awaitNanos(remaining);
+				}
+				inFlight++;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw rejected(method, "interrupted");
+			} finally {
+				waiting[lane]--;
+				signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(String method, long latency, boolean dropped) {
+		Baseline baseline = baselines.get(method);
+		if (baseline == null) {
+			baselines.putIfAbsent(method, new Baseline());
+			baseline = baselines.get(method);
+		}
+		boolean congested = baseline.record(latency);
+		lock.lock();
+		try {
+			completed++;
+			if (congested || dropped) {
+				if (completed >= nextBackoff) {
+					limit = Math.max(1, limit * BACKOFF_RATIO);
+					nextBackoff = completed + (long) limit;
+				}
+			} else if ((inFlight * 2) >= limit) {
+				limit = Math.min(maxLimit, limit + (1 / limit));
+			}
+			inFlight--;
+			signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean available(int lane) {
+		for (int i = 0; i < lane; i++) {
+			if (waiting[i] > 0) {
+				return false;
+			}
+		}
+		Priority priority = Priority.values()[lane];
+		return inFlight < Math.max(1, (int) (limit * priority.share));
+	}
+
+	private void signal() {
+		for (int i = 0; i < lanes.length; i++) {
+			if (waiting[i] > 0) {
+				if (available(i)) {
+					lanes[i].signal();
+				}
+				return;
+			}
+		}
+	}
+
+	private int queued() {
+		int queued = 0;
+		for (int count : waiting) {
+			queued += count;
+		}
+		return queued;
+	}
+
+	private BtcException rejected(String method, String reason) {
+		shed.incrementAndGet();
+		return new BtcException(BtcException.BTC4J_ERROR_CODE,
+				BtcException.BTC4J_ERROR_MESSAGE + ": concurrency limit "
+						+ (int) limit + " exceeded for " + method + ": "
+						+ reason);
+	}
+
+	private static final class Baseline {
+		private long minimum = Long.MAX_VALUE;
+		private long candidate = Long.MAX_VALUE;
+		private double average = -1;
+		private int samples = 0;
+
+		private synchronized boolean record(long latency) {
+			candidate = Math.min(candidate, latency);
+			if (++samples >= BASELINE_SAMPLES) {
+				minimum = candidate;
+				candidate = Long.MAX_VALUE;
+				samples = 0;
+			}
+			minimum = Math.min(minimum, latency);
+			average = (average < 0) ? latency : average
+					+ ((latency - average) * LATENCY_SMOOTHING);
+			return average > (minimum * LATENCY_TOLERANCE);
+		}
+	}
+}
@@ -0,0 +1,1258 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class BtcJsonBinding {
+	private BtcJsonBinding() {
+	}
+
+	public static BtcAccount readAccount(BtcJsonReader in) throws BtcException {
+		BtcAccount value = new BtcAccount();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "account":
+				value.setAccount(in.nextString());
+				break;
+			case "amount":
+				value.setAmount(in.nextDecimal());
+				break;
+			case "confirmations":
+				value.setConfirmations(in.nextLong());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static Map<String, BtcAccount> readAccounts(BtcJsonReader in)
+			throws BtcException {
+		Map<String, BtcAccount> accounts = new LinkedHashMap<String, BtcAccount>();
+		in.beginObject();
+		while (in.hasNext()) {
+			BtcAccount account = new BtcAccount();
+			account.setAccount(in.nextName());
+			account.setAmount(in.nextDecimal());
+			accounts.put(account.getAccount(), account);
+		}
+		in.endObject();
+		return accounts;
+	}
+
+	public static BtcAddedNode readAddedNode(BtcJsonReader in)
+			throws BtcException {
+		BtcAddedNode value = new BtcAddedNode();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "addednode":
+				value.setAddedNode(in.nextString());
+				break;
+			case "connected":
+				value.setConnected(in.nextBoolean());
+				break;
+			case "addresses":
+				List<BtcNode> addresses = new ArrayList<BtcNode>();
+				in.beginArray();
+				while (in.hasNext()) {
+					addresses.add(readNode(in));
+				}
+				in.endArray();
+				value.setAddresses(addresses);
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcAddress readAddress(BtcJsonReader in) throws BtcException {
+		BtcAddress value = new BtcAddress();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "isvalid":
+				value.setValid(in.nextBoolean());
+				break;
+			case "address":
+				value.setAddress(in.nextString());
+				break;
+			case "ismine":
+				value.setMine(in.nextBoolean());
+				break;
+			case "isscript":
+				value.setScript(in.nextBoolean());
+				break;
+			case "pubkey":
+				value.setPublicKey(in.nextString());
+				break;
+			case "iscompressed":
+				value.setCompressed(in.nextBoolean());
+				break;
+			case "account":
+				value.getAccount().setAccount(in.nextString());
+				break;
+			case "amount":
+				value.setAmount(in.nextDecimal());
+				break;
+			case "confirmations":
+				value.setConfirmations(in.nextLong());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcBlock readBlock(BtcJsonReader in) throws BtcException {
+		BtcBlock value = new BtcBlock();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "hash":
+				value.setHash(in.nextString());
+				break;
+			case "confirmations":
+				value.setConfirmations(in.nextLong());
+				break;
+			case "size":
+				value.setSize(in.nextLong());
+				break;
+			case "height":
+				value.setHeight(in.nextLong());
+				break;
+			case "version":
+				value.setVersion(in.nextLong());
+				break;
+			case "merkleroot":
+				value.setMerkleRoot(in.nextString());
+				break;
+			case "tx":
+				List<BtcTransaction> transactions = new ArrayList<BtcTransaction>();
+				in.beginArray();
+				while (in.hasNext()) {
+					if (in.peek() == BtcJsonReader.Token.BEGIN_OBJECT) {
+						transactions.add(readTransaction(in));
+					} else {
+						BtcTransaction transaction = new BtcTransaction();
+						transaction.setTransaction(in.nextString());
+						transactions.add(transaction);
+					}
+				}
+				in.endArray();
+				value.setTransactions(transactions);
+				break;
+			case "time":
+				value.setTime(in.nextLong());
+				break;
+			case "nonce":
+				value.setNonce(in.nextLong());
+				break;
+			case "bits":
+				value.setBits(in.nextString());
+				break;
+			case "difficulty":
+				value.setDifficulty(in.nextDecimal());
+				break;
+			case "previousblockhash":
+				value.setPreviousBlockHash(in.nextString());
+				break;
+			case "nextblockhash":
+				value.setNextBlockHash(in.nextString());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcBlockTemplate readBlockTemplate(BtcJsonReader in)
+			throws BtcException {
+		BtcBlockTemplate value = new BtcBlockTemplate();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "version":
+				value.setVersion(in.nextLong());
+				break;
+			case "previousblockhash":
+				value.setPreviousBlockHash(in.nextString());
+				break;
+			case "transactions":
+				List<BtcTransactionTemplate> transactions = new ArrayList<BtcTransactionTemplate>();
+				in.beginArray();
+				while (in.hasNext()) {
+					transactions.add(readTransactionTemplate(in));
+				}
+				in.endArray();
+				value.setTransactions(transactions);
+				break;
+			case "coinbaseaux":
+				Map<String, String> aux = new HashMap<String, String>();
+				in.beginObject();
+				while (in.hasNext()) {
+					aux.put(in.nextName(), in.nextString());
+				}
+				in.endObject();
+				value.getCoinbase().setAux(aux);
+				break;
+			case "coinbasetxn":
+				in.beginObject();
+				while (in.hasNext()) {
+					if ("data".equals(in.nextName())) {
+						value.getCoinbase().setTransaction(in.nextString());
+					} else {
+						in.skipValue();
+					}
+				}
+				in.endObject();
+				break;
+			case "coinbasevalue":
+				value.getCoinbase().setValue(
+						BtcUtil.fromSatoshis(in.nextLong()));
+				break;
+			case "workid":
+				value.setWorkId(in.nextString());
+				break;
+			case "target":
+				value.setTarget(in.nextString());
+				break;
+			case "mintime":
+				value.setMinimumTime(in.nextLong());
+				break;
+			case "mutable":
+				value.setMutable(readStrings(in));
+				break;
+			case "noncerange":
+				value.setNonceRange(in.nextString());
+				break;
+			case "sigoplimit":
+				value.setSignatureOperations(in.nextLong());
+				break;
+			case "sizelimit":
+				value.setSize(in.nextLong());
+				break;
+			case "curtime":
+				value.setTime(in.nextLong());
+				break;
+			case "bits":
+				value.setBits(in.nextString());
+				break;
+			case "height":
+				value.setHeight(in.nextLong());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcInfo readInfo(BtcJsonReader in) throws BtcException {
+		BtcInfo value = new BtcInfo();
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (readInfoBase(in, name, value)) {
+				continue;
+			}
+			switch (name) {
+			case "version":
+				value.setVersion(in.nextLong());
+				break;
+			case "protocolversion":
+				value.setProtocolVersion(in.nextLong());
+				break;
+			case "walletversion":
+				value.setWalletVersion(in.nextLong());
+				break;
+			case "balance":
+				value.setBalance(in.nextDecimal());
+				break;
+			case "timeoffset":
+				value.setTimeOffset(in.nextLong());
+				break;
+			case "connections":
+				value.setConnections(in.nextLong());
+				break;
+			case "proxy":
+				value.setProxy(in.nextString());
+				break;
+			case "keypoololdest":
+				value.setKeyPoolOldest(in.nextLong());
+				break;
+			case "keypoolsize":
+				value.setKeyPoolSize(in.nextLong());
+				break;
+			case "paytxfee":
+				value.setTransactionFee(in.nextDecimal());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcLastBlock readLastBlock(BtcJsonReader in)
+			throws BtcException {
+		BtcLastBlock value = new BtcLastBlock();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "transactions":
+				value.setTransactions(readTransactions(in));
+				break;
+			case "lastblock":
+				value.setLastBlock(in.nextString());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcMiningInfo readMiningInfo(BtcJsonReader in)
+			throws BtcException {
+		BtcMiningInfo value = new BtcMiningInfo();
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (readInfoBase(in, name, value)) {
+				continue;
+			}
+			switch (name) {
+			case "currentblocksize":
+				value.setCurrentBlockSize(in.nextLong());
+				break;
+			case "currentblocktx":
+				value.setCurrentBlockTransactions(in.nextLong());
+				break;
+			case "generate":
+				value.setGenerate(in.nextBoolean());
+				break;
+			case "genproclimit":
+				value.setGenProcessorLimit(in.nextLong());
+				break;
+			case "hashespersec":
+				value.setHashesPerSecond(in.nextLong());
+				break;
+			case "pooledtx":
+				value.setPooledTransactions(in.nextLong());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcMultiSignatureAddress readMultiSignatureAddress(
+			BtcJsonReader in) throws BtcException {
+		BtcMultiSignatureAddress value = new BtcMultiSignatureAddress();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "address":
+				value.setAddress(in.nextString());
+				break;
+			case "redeemScript":
+				value.setRedeemScript(in.nextString());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcNode readNode(BtcJsonReader in) throws BtcException {
+		BtcNode value = new BtcNode();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "address":
+				value.setAddress(in.nextString());
+				break;
+			case "connected":
+				value.setConnected(in.nextString());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcOutput readOutput(BtcJsonReader in) throws BtcException {
+		BtcOutput value = new BtcOutput();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "bestblock":
+				value.setBestBlock(in.nextString());
+				break;
+			case "confirmations":
+				value.setConfirmations(in.nextLong());
+				break;
+			case "value":
+				value.setValue(in.nextDecimal());
+				break;
+			case "n":
+				value.setIndex(in.nextLong());
+				break;
+			case "scriptPubKey":
+				value.setScript(readScript(in));
+				break;
+			case "version":
+				value.setVersion(in.nextLong());
+				break;
+			case "coinbase":
+				value.setCoinbase(in.nextBoolean());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcOutputSet readOutputSet(BtcJsonReader in)
+			throws BtcException {
+		BtcOutputSet value = new BtcOutputSet();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "height":
+				value.setHeight(in.nextLong());
+				break;
+			case "bestblock":
+				value.setBestBlock(in.nextString());
+				break;
+			case "transactions":
+				value.setTransactions(in.nextLong());
+				break;
+			case "txouts":
+				value.setOutputs(in.nextLong());
+				break;
+			case "bytes_serialized":
+				value.setBytesSerialized(in.nextLong());
+				break;
+			case "hash_serialized":
+				value.setHashSerialized(in.nextString());
+				break;
+			case "total_amount":
+				value.setTotalAmount(in.nextDecimal());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcPeer readPeer(BtcJsonReader in) throws BtcException {
+		BtcPeer value = new BtcPeer();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "addr":
+				value.setNetworkAddress(in.nextString());
+				break;
+			case "services":
+				value.setServices(in.nextString());
+				break;
+			case "lastsend":
+				value.setLastSend(in.nextLong());
+				break;
+			case "lastrecv":
+				value.setLastReceived(in.nextLong());
+				break;
+			case "bytessent":
+				value.setBytesSent(in.nextLong());
+				break;
+			case "bytesrecv":
+				value.setBytesReceived(in.nextLong());
+				break;
+			case "conntime":
+				value.setConnectionTime(in.nextLong());
+				break;
+			case "version":
+				value.setVersion(in.nextLong());
+				break;
+			case "subver":
+				value.setSubVersion(in.nextString());
+				break;
+			case "inbound":
+				value.setInbound(in.nextBoolean());
+				break;
+			case "startingheight":
+				value.setStartingHeight(in.nextLong());
+				break;
+			case "banscore":
+				value.setBanScore(in.nextLong());
+				break;
+			case "syncnode":
+				value.setSyncNode(in.nextBoolean());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static List<BtcPeer> readPeers(BtcJsonReader in)
+			throws BtcException {
+		List<BtcPeer> peers = new ArrayList<BtcPeer>();
+		in.beginArray();
+		while (in.hasNext()) {
+			peers.add(readPeer(in));
+		}
+		in.endArray();
+		return peers;
+	}
+
+	public static BtcRawTransaction readRawTransaction(BtcJsonReader in)
+			throws BtcException {
+		BtcRawTransaction value = new BtcRawTransaction();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "hex":
+				value.setHex(in.nextString());
+				break;
+			case "txid":
+				value.setTransaction(in.nextString());
+				break;
+			case "version":
+				value.setVersion(in.nextLong());
+				break;
+			case "locktime":
+				value.setLockTime(in.nextLong());
+				break;
+			case "vin":
+				List<BtcInput> inputs = new ArrayList<BtcInput>();
+				in.beginArray();
+				while (in.hasNext()) {
+					inputs.add(readInput(in));
+				}
+				in.endArray();
+				value.setInputs(inputs);
+				break;
+			case "vout":
+				List<BtcOutput> outputs = new ArrayList<BtcOutput>();
+				in.beginArray();
+				while (in.hasNext()) {
+					BtcOutput output = readOutput(in);
+					output.setOutput(output.getIndex());
+					outputs.add(output);
+				}
+				in.endArray();
+				value.setOutputs(outputs);
+				break;
+			case "blockhash":
+				value.setBlockHash(in.nextString());
+				break;
+			case "confirmations":
+				value.setConfirmations(in.nextLong());
+				break;
+			case "time":
+				value.setTime(in.nextLong());
+				break;
+			case "blocktime":
+				value.setBlockTime(in.nextLong());
+				break;
+			case "complete":
+				value.setComplete(in.nextBoolean());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		for (BtcOutput output : value.getOutputs()) {
+			output.setTransaction(value.getTransaction());
+		}
+		return value;
+	}
+
+	public static BtcScript readScript(BtcJsonReader in) throws BtcException {
+		BtcScript value = new BtcScript();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "asm":
+				value.setAsm(in.nextString());
+				break;
+			case "hex":
+				value.setPublicKey(in.nextString());
+				break;
+			case "reqSigs":
+				value.setRequiredSignatures(in.nextLong());
+				break;
+			case "type":
+				value.setType(BtcScript.Type.getValue(in.nextString()));
+				break;
+			case "addresses":
+				value.setAddresses(readStrings(in));
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcTransaction readTransaction(BtcJsonReader in)
+			throws BtcException {
+		BtcTransaction value = new BtcTransaction();
+		BtcTransactionDetail entry = null;
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "txid":
+				value.setTransaction(in.nextString());
+				break;
+			case "amount":
+				value.setAmount(in.nextDecimal());
+				break;
+			case "fee":
+				value.setFee(in.nextDecimal());
+				break;
+			case "confirmations":
+				value.setConfirmations(in.nextLong());
+				break;
+			case "time":
+				value.setTime(in.nextLong());
+				break;
+			case "timereceived":
+				value.setTimeReceived(in.nextLong());
+				break;
+			case "blockhash":
+				value.setBlockHash(in.nextString());
+				break;
+			case "blockindex":
+				value.setBlockIndex(in.nextLong());
+				break;
+			case "blocktime":
+				value.setBlockTime(in.nextLong());
+				break;
+			case "details":
+				List<BtcTransactionDetail> details = new ArrayList<BtcTransactionDetail>();
+				in.beginArray();
+				while (in.hasNext()) {
+					details.add(readTransactionDetail(in));
+				}
+				in.endArray();
+				value.setDetails(details);
+				break;
+			case "account":
+				entry = (entry == null) ? new BtcTransactionDetail() : entry;
+				entry.setAccount(in.nextString());
+				break;
+			case "address":
+				entry = (entry == null) ? new BtcTransactionDetail() : entry;
+				entry.setAddress(in.nextString());
+				break;
+			case "category":
+				entry = (entry == null) ? new BtcTransactionDetail() : entry;
+				entry.setCategory(BtcTransaction.Category.getValue(in
+						.nextString()));
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		if ((entry != null) && value.getDetails().isEmpty()) {
+			entry.setAmount(value.getAmount());
+			entry.setFee(value.getFee());
+			List<BtcTransactionDetail> details = new ArrayList<BtcTransactionDetail>(
+					1);
+			details.add(entry);
+			value.setDetails(details);
+		}
+		return value;
+	}
+
+	public static List<BtcTransaction> readTransactions(BtcJsonReader in)
+			throws BtcException {
+		List<BtcTransaction> transactions = new ArrayList<BtcTransaction>();
+		in.beginArray();
+		while (in.hasNext()) {
+			transactions.add(readTransaction(in));
+		}
+		in.endArray();
+		return transactions;
+	}
+
+	public static BtcTransactionDetail readTransactionDetail(BtcJsonReader in)
+			throws BtcException {
+		BtcTransactionDetail value = new BtcTransactionDetail();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "account":
+				value.setAccount(in.nextString());
+				break;
+			case "address":
+				value.setAddress(in.nextString());
+				break;
+			case "category":
+				value.setCategory(BtcTransaction.Category.getValue(in
+						.nextString()));
+				break;
+			case "amount":
+				value.setAmount(in.nextDecimal());
+				break;
+			case "fee":
+				value.setFee(in.nextDecimal());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcTransactionTemplate readTransactionTemplate(
+			BtcJsonReader in) throws BtcException {
+		BtcTransactionTemplate value = new BtcTransactionTemplate();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "data":
+				value.setData(in.nextString());
+				break;
+			case "hash":
+				value.setHash(in.nextString());
+				break;
+			case "depends":
+				long[] depends = new long[4];
+				int count = 0;
+				in.beginArray();
+				while (in.hasNext()) {
+					if (count == depends.length) {
+						long[] grown = new long[count << 1];
+						System.arraycopy(depends, 0, grown, 0, count);
+						depends = grown;
+					}
+					depends[count++] = in.nextLong();
+				}
+				in.endArray();
+				long[] trimmed = new long[count];
+				System.arraycopy(depends, 0, trimmed, 0, count);
+				value.setDepends(trimmed);
+				break;
+			case "fee":
+				value.setFee(BtcUtil.fromSatoshis(in.nextLong()));
+				break;
+			case "sigops":
+				value.setSignatureOperations(in.nextLong());
+				break;
+			case "required":
+				value.setRequired(in.nextBoolean());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static BtcWork readWork(BtcJsonReader in) throws BtcException {
+		BtcWork value = new BtcWork();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "midstate":
+				value.setMidState(in.nextString());
+				break;
+			case "data":
+				value.setData(in.nextString());
+				break;
+			case "hash1":
+				value.setHash(in.nextString());
+				break;
+			case "target":
+				value.setTarget(in.nextString());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	public static void writeAccount(BtcJsonWriter out, BtcAccount value) {
+		out.beginObject();
+		out.name("account").value(value.getAccount());
+		out.name("amount").value(value.getAmount());
+		out.name("confirmations").value(value.getConfirmations());
+		out.endObject();
+	}
+
+	public static void writeAccounts(BtcJsonWriter out,
+			Map<String, BtcAccount> value) {
+		out.beginObject();
+		for (Map.Entry<String, BtcAccount> entry : value.entrySet()) {
+			out.name(entry.getKey()).value(entry.getValue().getAmount());
+		}
+		out.endObject();
+	}
+
+	public static void writeAddedNode(BtcJsonWriter out, BtcAddedNode value) {
+		out.beginObject();
+		out.name("addednode").value(value.getAddedNode());
+		out.name("connected").value(value.isConnected());
+		out.name("addresses").beginArray();
+		for (BtcNode node : value.getAddresses()) {
+			writeNode(out, node);
+		}
+		out.endArray();
+		out.endObject();
+	}
+
+	public static void writeAddress(BtcJsonWriter out, BtcAddress value) {
+		out.beginObject();
+		out.name("isvalid").value(value.isValid());
+		out.name("address").value(value.getAddress());
+		out.name("ismine").value(value.isMine());
+		out.name("isscript").value(value.isScript());
+		out.name("pubkey").value(value.getPublicKey());
+		out.name("iscompressed").value(value.isCompressed());
+		out.name("account").value(value.getAccount().getAccount());
+		out.name("amount").value(value.getAmount());
+		out.name("confirmations").value(value.getConfirmations());
+		out.endObject();
+	}
+
+	public static void writeBlock(BtcJsonWriter out, BtcBlock value) {
+		out.beginObject();
+		out.name("hash").value(value.getHash());
+		out.name("confirmations").value(value.getConfirmations());
+		out.name("size").value(value.getSize());
+		out.name("height").value(value.getHeight());
+		out.name("version").value(value.getVersion());
+		out.name("merkleroot").value(value.getMerkleRoot());
+		out.name("tx").beginArray();
+		for (BtcTransaction transaction : value.getTransactions()) {
+			out.value(transaction.getTransaction());
+		}
+		out.endArray();
+		out.name("time").value(value.getTime());
+		out.name("nonce").value(value.getNonce());
+		out.name("bits").value(value.getBits());
+		out.name("difficulty").value(value.getDifficulty());
+		out.name("previousblockhash").value(value.getPreviousBlockHash());
+		out.name("nextblockhash").value(value.getNextBlockHash());
+		out.endObject();
+	}
+
+	public static void writeBlockTemplate(BtcJsonWriter out,
+			BtcBlockTemplate value) {
+		out.beginObject();
+		out.name("version").value(value.getVersion());
+		out.name("previousblockhash").value(value.getPreviousBlockHash());
+		out.name("transactions").beginArray();
+		for (BtcTransactionTemplate transaction : value.getTransactions()) {
+			writeTransactionTemplate(out, transaction);
+		}
+		out.endArray();
+		out.name("coinbaseaux").beginObject();
+		for (Map.Entry<String, String> entry : value.getCoinbase().getAux()
+				.entrySet()) {
+			out.name(entry.getKey()).value(entry.getValue());
+		}
+		out.endObject();
+		if (value.getCoinbase().getTransaction().length() > 0) {
+			out.name("coinbasetxn").beginObject();
+			out.name("data").value(value.getCoinbase().getTransaction());
+			out.endObject();
+		}
+		out.name("coinbasevalue").value(
+				BtcUtil.toSatoshis(value.getCoinbase().getValue()));
+		if (value.getWorkId().length() > 0) {
+			out.name("workid").value(value.getWorkId());
+		}
+		out.name("target").value(value.getTarget());
+		out.name("mintime").value(value.getMinimumTime());
+		out.name("mutable");
+		writeStrings(out, value.getMutable());
+		out.name("noncerange").value(value.getNonceRange());
+		out.name("sigoplimit").value(value.getSignatureOperations());
+		out.name("sizelimit").value(value.getSize());
+		out.name("curtime").value(value.getTime());
+		out.name("bits").value(value.getBits());
+		out.name("height").value(value.getHeight());
+		out.endObject();
+	}
+
+	public static void writeInfo(BtcJsonWriter out, BtcInfo value) {
+		out.beginObject();
+		out.name("version").value(value.getVersion());
+		out.name("protocolversion").value(value.getProtocolVersion());
+		out.name("walletversion").value(value.getWalletVersion());
+		out.name("balance").value(value.getBalance());
+		out.name("blocks").value(value.getBlocks());
+		out.name("timeoffset").value(value.getTimeOffset());
+		out.name("connections").value(value.getConnections());
+		out.name("proxy").value(value.getProxy());
+		out.name("difficulty").value(value.getDifficulty());
+		out.name("testnet").value(value.isTestnet());
+		out.name("keypoololdest").value(value.getKeyPoolOldest());
+		out.name("keypoolsize").value(value.getKeyPoolSize());
+		out.name("paytxfee").value(value.getTransactionFee());
+		out.name("errors").value(value.getErrors());
+		out.endObject();
+	}
+
+	public static void writeLastBlock(BtcJsonWriter out, BtcLastBlock value) {
+		out.beginObject();
+		out.name("transactions");
+		writeTransactions(out, value.getTransactions());
+		out.name("lastblock").value(value.getLastBlock());
+		out.endObject();
+	}
+
+	public static void writeMiningInfo(BtcJsonWriter out, BtcMiningInfo value) {
+		out.beginObject();
+		out.name("blocks").value(value.getBlocks());
+		out.name("currentblocksize").value(value.getCurrentBlockSize());
+		out.name("currentblocktx").value(value.getCurrentBlockTransactions());
+		out.name("difficulty").value(value.getDifficulty());
+		out.name("errors").value(value.getErrors());
+		out.name("genproclimit").value(value.getGenProcessorLimit());
+		out.name("hashespersec").value(value.getHashesPerSecond());
+		out.name("pooledtx").value(value.getPooledTransactions());
+		out.name("testnet").value(value.isTestnet());
+		out.name("generate").value(value.isGenerate());
+		out.endObject();
+	}
+
+	public static void writeMultiSignatureAddress(BtcJsonWriter out,
+			BtcMultiSignatureAddress value) {
+		out.beginObject();
+		out.name("address").value(value.getAddress());
+		out.name("redeemScript").value(value.getRedeemScript());
+		out.endObject();
+	}
+
+	public static void writeNode(BtcJsonWriter out, BtcNode value) {
+		out.beginObject();
+		out.name("address").value(value.getAddress());
+		out.name("connected").value(value.getConnected());
+		out.endObject();
+	}
+
+	public static void writeOutput(BtcJsonWriter out, BtcOutput value) {
+		out.beginObject();
+		if (value.getBestBlock().length() > 0) {
+			out.name("bestblock").value(value.getBestBlock());
+			out.name("confirmations").value(value.getConfirmations());
+		}
+		out.name("value").value(value.getValue());
+		out.name("n").value(value.getIndex());
+		out.name("scriptPubKey");
+		writeScript(out, value.getScript());
+		if (value.getBestBlock().length() > 0) {
+			out.name("version").value(value.getVersion());
+			out.name("coinbase").value(value.isCoinbase());
+		}
+		out.endObject();
+	}
+
+	public static void writeOutputSet(BtcJsonWriter out, BtcOutputSet value) {
+		out.beginObject();
+		out.name("height").value(value.getHeight());
+		out.name("bestblock").value(value.getBestBlock());
+		out.name("transactions").value(value.getTransactions());
+		out.name("txouts").value(value.getOutputs());
+		out.name("bytes_serialized").value(value.getBytesSerialized());
+		out.name("hash_serialized").value(value.getHashSerialized());
+		out.name("total_amount").value(value.getTotalAmount());
+		out.endObject();
+	}
+
+	public static void writePeer(BtcJsonWriter out, BtcPeer value) {
+		out.beginObject();
+		out.name("addr").value(value.getNetworkAddress());
+		out.name("services").value(value.getServices());
+		out.name("lastsend").value(value.getLastSend());
+		out.name("lastrecv").value(value.getLastReceived());
+		out.name("bytessent").value(value.getBytesSent());
+		out.name("bytesrecv").value(value.getBytesReceived());
+		out.name("conntime").value(value.getConnectionTime());
+		out.name("version").value(value.getVersion());
+		out.name("subver").value(value.getSubVersion());
+		out.name("inbound").value(value.isInbound());
+		out.name("startingheight").value(value.getStartingHeight());
+		out.name("banscore").value(value.getBanScore());
+		out.name("syncnode").value(value.isSyncNode());
+		out.endObject();
+	}
+
+	public static void writeRawTransaction(BtcJsonWriter out,
+			BtcRawTransaction value) {
+		out.beginObject();
+		out.name("hex").value(value.getHex());
+		out.name("txid").value(value.getTransaction());
+		out.name("version").value(value.getVersion());
+		out.name("locktime").value(value.getLockTime());
+		out.name("vin").beginArray();
+		for (BtcInput input : value.getInputs()) {
+			writeInput(out, input);
+		}
+		out.endArray();
+		out.name("vout").beginArray();
+		for (BtcOutput output : value.getOutputs()) {
+			writeOutput(out, output);
+		}
+		out.endArray();
+		if (value.getBlockHash().length() > 0) {
+			out.name("blockhash").value(value.getBlockHash());
+			out.name("confirmations").value(value.getConfirmations());
+			out.name("time").value(value.getTime());
+			out.name("blocktime").value(value.getBlockTime());
+		}
+		out.endObject();
+	}
+
+	public static void writeScript(BtcJsonWriter out, BtcScript value) {
+		out.beginObject();
+		out.name("asm").value(value.getAsm());
+		out.name("hex").value(value.getPublicKey());
+		if (value.getRequiredSignatures() > 0) {
+			out.name("reqSigs").value(value.getRequiredSignatures());
+		}
+		if (value.getType() != BtcScript.Type.NULL) {
+			out.name("type").value(value.getType().name().toLowerCase());
+		}
+		if (!value.getAddresses().isEmpty()) {
+			out.name("addresses");
+			writeStrings(out, value.getAddresses());
+		}
+		out.endObject();
+	}
+
+	public static void writeTransaction(BtcJsonWriter out, BtcTransaction value) {
+		out.beginObject();
+		out.name("amount").value(value.getAmount());
+		out.name("fee").value(value.getFee());
+		out.name("confirmations").value(value.getConfirmations());
+		if (value.getBlockHash().length() > 0) {
+			out.name("blockhash").value(value.getBlockHash());
+			out.name("blockindex").value(value.getBlockIndex());
+			out.name("blocktime").value(value.getBlockTime());
+		}
+		out.name("txid").value(value.getTransaction());
+		out.name("time").value(value.getTime());
+		out.name("timereceived").value(value.getTimeReceived());
+		out.name("details").beginArray();
+		for (BtcTransactionDetail detail : value.getDetails()) {
+			writeTransactionDetail(out, detail);
+		}
+		out.endArray();
+		out.endObject();
+	}
+
+	public static void writeTransactions(BtcJsonWriter out,
+			List<BtcTransaction> value) {
+		out.beginArray();
+		for (BtcTransaction transaction : value) {
+			writeTransaction(out, transaction);
+		}
+		out.endArray();
+	}
+
+	public static void writeTransactionDetail(BtcJsonWriter out,
+			BtcTransactionDetail value) {
+		out.beginObject();
+		out.name("account").value(value.getAccount());
+		out.name("address").value(value.getAddress());
+		out.name("category").value(value.getCategory().name().toLowerCase());
+		out.name("amount").value(value.getAmount());
+		out.name("fee").value(value.getFee());
+		out.endObject();
+	}
+
+	public static void writeTransactionTemplate(BtcJsonWriter out,
+			BtcTransactionTemplate value) {
+		out.beginObject();
+		out.name("data").value(value.getData());
+		out.name("hash").value(value.getHash());
+		out.name("depends").beginArray();
+		for (long depend : value.getDepends()) {
+			out.value(depend);
+		}
+		out.endArray();
+		out.name("fee").value(BtcUtil.toSatoshis(value.getFee()));
+		out.name("sigops").value(value.getSignatureOperations());
+		out.name("required").value(value.isRequired());
+		out.endObject();
+	}
+
+	public static void writeWork(BtcJsonWriter out, BtcWork value) {
+		out.beginObject();
+		out.name("midstate").value(value.getMidState());
+		out.name("data").value(value.getData());
+		out.name("hash1").value(value.getHash());
+		out.name("target").value(value.getTarget());
+		out.endObject();
+	}
+
+	private static BtcInput readInput(BtcJsonReader in) throws BtcException {
+		BtcInput value = new BtcInput();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "txid":
+				value.setTransaction(in.nextString());
+				break;
+			case "vout":
+				value.setOutput(in.nextLong());
+				break;
+			case "coinbase":
+				BtcScript coinbase = new BtcScript();
+				coinbase.setPublicKey(in.nextString());
+				value.setScript(coinbase);
+				break;
+			case "scriptSig":
+				value.setScript(readScript(in));
+				break;
+			case "sequence":
+				value.setSequence(in.nextLong());
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+	private static void writeInput(BtcJsonWriter out, BtcInput value) {
+		out.beginObject();
+		if (value.getTransaction().length() == 0) {
+			out.name("coinbase").value(value.getScript().getPublicKey());
+		} else {
+			out.name("txid").value(value.getTransaction());
+			out.name("vout").value(value.getOutput());
+			out.name("scriptSig");
+			writeScript(out, value.getScript());
+		}
+		out.name("sequence").value(value.getSequence());
+		out.endObject();
+	}
+
+	private static boolean readInfoBase(BtcJsonReader in, String name,
+			BtcInfoBase value) throws BtcException {
+		switch (name) {
+		case "blocks":
+			value.setBlocks(in.nextLong());
+			return true;
+		case "difficulty":
+			value.setDifficulty(in.nextDecimal());
+			return true;
+		case "testnet":
+			value.setTestnet(in.nextBoolean());
+			return true;
+		case "errors":
+			value.setErrors(in.nextString());
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static List<String> readStrings(BtcJsonReader in)
+			throws BtcException {
+		List<String> values = new ArrayList<String>();
+		in.beginArray();
+		while (in.hasNext()) {
+			values.add(in.nextString());
+		}
+		in.endArray();
+		return values;
+	}
+
+	private static void writeStrings(BtcJsonWriter out, List<String> values) {
+		out.beginArray();
+		for (String value : values) {
+			out.value(value);
+		}
+		out.endArray();
+	}
+}
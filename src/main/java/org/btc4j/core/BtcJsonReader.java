@@ -0,0 +1,323 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigDecimal;
+
+public class BtcJsonReader {
+	private final String json;
+	private final int length;
+	private int position = 0;
+
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, STRING, NUMBER, BOOLEAN, NULL, END
+	}
+
+	public BtcJsonReader(String json) {
+		this.json = BtcUtil.notNull(json);
+		this.length = this.json.length();
+	}
+
+	public Token peek() throws BtcException {
+		switch (next()) {
+		case '{':
+			return Token.BEGIN_OBJECT;
+		case '}':
+			return Token.END_OBJECT;
+		case '[':
+			return Token.BEGIN_ARRAY;
+		case ']':
+			return Token.END_ARRAY;
+		case '"':
+			return Token.STRING;
+		case 't':
+		case 'f':
+			return Token.BOOLEAN;
+		case 'n':
+			return Token.NULL;
+		case -1:
+			return Token.END;
+		default:
+			return Token.NUMBER;
+		}
+	}
+
+	public void beginObject() throws BtcException {
+		expect('{');
+	}
+
+	public void endObject() throws BtcException {
+		expect('}');
+	}
+
+	public void beginArray() throws BtcException {
+		expect('[');
+	}
+
+	public void endArray() throws BtcException {
+		expect(']');
+	}
+
+	public boolean hasNext() throws BtcException {
+		int c = next();
+		return (c != '}') && (c != ']') && (c != -1);
+	}
+
+	public String nextName() throws BtcException {
+		if (next() != '"') {
+			throw error("expected name");
+		}
+		String name = readString();
+		if (next() != ':') {
+			throw error("expected ':'");
+		}
+		position++;
+		return name;
+	}
+
+	public String nextString() throws BtcException {
+		switch (next()) {
+		case '"':
+			return readString();
+		case 'n':
+			readLiteral("null");
+			return null;
+		case '{':
+		case '[':
+		case -1:
+			throw error("expected string");
+		default:
+			return readToken();
+		}
+	}
+
+	public long nextLong() throws BtcException {
+		if (next() == 'n') {
+			readLiteral("null");
+			return 0;
+		}
+		String token = (json.charAt(position) == '"') ? readString()
+				: readToken();
+		for (int i = (token.startsWith("-") ? 1 : 0); i < token.length(); i++) {
+			char c = token.charAt(i);
+			if ((c < '0') || (c > '9')) {
+				return decimal(token).longValue();
+			}
+		}
+		try {
+			return Long.parseLong(token);
+		} catch (NumberFormatException e) {
+			return decimal(token).longValue();
+		}
+	}
+
+	public BigDecimal nextDecimal() throws BtcException {
+		if (next() == 'n') {
+			readLiteral("null");
+			return null;
+		}
+		return decimal((json.charAt(position) == '"') ? readString()
+				: readToken());
+	}
+
+	public double nextDouble() throws BtcException {
+		BigDecimal value = nextDecimal();
+		return (value == null) ? 0 : value.doubleValue();
+	}
+
+	public boolean nextBoolean() throws BtcException {
+		switch (next()) {
+		case 't':
+			readLiteral("true");
+			return true;
+		case 'f':
+			readLiteral("false");
+			return false;
+		case 'n':
+			readLiteral("null");
+			return false;
+		default:
+			throw error("expected boolean");
+		}
+	}
+
+	public void skipValue() throws BtcException {
+		int depth = 0;
+		do {
+			switch (next()) {
+			case '{':
+			case '[':
+				position++;
+				depth++;
+				break;
+			case '}':
+			case ']':
+				position++;
+				depth--;
+				break;
+			case '"':
+				readString();
+				if (next() == ':') {
+					position++;
+					depth++;
+					skipValue();
+					depth--;
+				}
+				break;
+			case -1:
+				throw error("unexpected end");
+			default:
+				readToken();
+				break;
+			}
+		} while (depth > 0);
+	}
+
+	private int next() {
+		while (position < length) {
+			char c = json.charAt(position);
+			if ((c == ' ') || (c == ',') || (c == '\n') || (c == '\r')
+					|| (c == '\t')) {
+				position++;
+			} else {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	private void expect(char c) throws BtcException {
+		if (next() != c) {
+			throw error("expected '" + c + "'");
+		}
+		position++;
+	}
+
+	private void readLiteral(String literal) throws BtcException {
+		if (!json.startsWith(literal, position)) {
+			throw error("expected " + literal);
+		}
+		position += literal.length();
+	}
+
+	private String readToken() throws BtcException {
+		int start = position;
+		while (position < length) {
+			char c = json.charAt(position);
+			if ((c == ',') || (c == '}') || (c == ']') || (c == ':')
+					|| (c == ' ') || (c == '\n') || (c == '\r') || (c == '\t')) {
+				break;
+			}
+			position++;
+		}
+		if (start == position) {
+			throw error("expected value");
+		}
+		return json.substring(start, position);
+	}
+
+	private String readString() throws BtcException {
+		int start = ++position;
+		while (position < length) {
+			char c = json.charAt(position);
+			if (c == '"') {
+				return json.substring(start, position++);
+			}
+			if (c == '\\') {
+				return readEscapedString(start);
+			}
+			position++;
+		}
+		throw error("unterminated string");
+	}
+
+	private String readEscapedString(int start) throws BtcException {
+		StringBuilder builder = new StringBuilder();
+		builder.append(json, start, position);
+		while (position < length) {
+			char c = json.charAt(position++);
+			if (c == '"') {
+				return builder.toString();
+			}
+			if (c != '\\') {
+				builder.append(c);
+				continue;
+			}
+			if (position >= length) {
+				break;
+			}
+			char escape = json.charAt(position++);
+			switch (escape) {
+			case 'b':
+				builder.append('\b');
+				break;
+			case 'f':
+				builder.append('\f');
+				break;
+			case 'n':
+				builder.append('\n');
+				break;
+			case 'r':
+				builder.append('\r');
+				break;
+			case 't':
+				builder.append('\t');
+				break;
+			case 'u':
+				if (position + 4 > length) {
+					throw error("invalid unicode escape");
+				}
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(json.charAt(position++), 16);
+					if (digit < 0) {
+						throw error("invalid unicode escape");
+					}
+					code = (code << 4) | digit;
+				}
+				builder.append((char) code);
+				break;
+			default:
+				builder.append(escape);
+				break;
+			}
+		}
+		throw error("unterminated string");
+	}
+
+	private BigDecimal decimal(String token) throws BtcException {
+		try {
+			return new BigDecimal(token);
+		} catch (NumberFormatException e) {
+			throw error("invalid number " + token);
+		}
+	}
+
+	private BtcException error(String message) {
+		return new BtcException(BtcException.BTC4J_ERROR_CODE,
+				BtcException.BTC4J_ERROR_MESSAGE + ": " + message
+						+ " at position " + position);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigDecimal;
+
+public class BtcJsonWriter {
+	private final StringBuilder builder;
+	private boolean first = true;
+
+	public BtcJsonWriter() {
+		this(new StringBuilder());
+	}
+
+	public BtcJsonWriter(StringBuilder builder) {
+		this.builder = builder;
+	}
+
+	public BtcJsonWriter beginObject() {
+		separate();
+		builder.append('{');
+		first = true;
+		return this;
+	}
+
+	public BtcJsonWriter endObject() {
+		builder.append('}');
+		first = false;
+		return this;
+	}
+
+	public BtcJsonWriter beginArray() {
+		separate();
+		builder.append('[');
+		first = true;
+		return this;
+	}
+
+	public BtcJsonWriter endArray() {
+		builder.append(']');
+		first = false;
+		return this;
+	}
+
+	public BtcJsonWriter name(String name) {
+		separate();
+		quote(name);
+		builder.append(':');
+		first = true;
+		return this;
+	}
+
+	public BtcJsonWriter value(String value) {
+		separate();
+		if (value == null) {
+			builder.append("null");
+		} else {
+			quote(value);
+		}
+		return this;
+	}
+
+	public BtcJsonWriter value(long value) {
+		separate();
+		builder.append(value);
+		return this;
+	}
+
+	public BtcJsonWriter value(double value) {
+		separate();
+		builder.append(value);
+		return this;
+	}
+
+	public BtcJsonWriter value(boolean value) {
+		separate();
+		builder.append(value);
+		return this;
+	}
+
+	public BtcJsonWriter value(BigDecimal value) {
+		separate();
+		builder.append((value == null) ? "null" : value.toPlainString());
+		return this;
+	}
+
+	public BtcJsonWriter nullValue() {
+		separate();
+		builder.append("null");
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return builder.toString();
+	}
+
+	private void separate() {
+		if (!first) {
+			builder.append(',');
+		}
+		first = false;
+	}
+
+	private void quote(String value) {
+		builder.append('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if ((c >= 0x20) && (c != '"') && (c != '\\')) {
+				continue;
+			}
+			builder.append(value, start, i);
+			switch (c) {
+			case '"':
+				builder.append("\\\"");
+				break;
+			case '\\':
+				builder.append("\\\\");
+				break;
+			case '\n':
+				builder.append("\\n");
+				break;
+			case '\r':
+				builder.append("\\r");
+				break;
+			case '\t':
+				builder.append("\\t");
+				break;
+			default:
+				builder.append(String.format("\\u%04x", (int) c));
+				break;
+			}
+			start = i + 1;
+		}
+		builder.append(value, start, value.length());
+		builder.append('"');
+	}
+}
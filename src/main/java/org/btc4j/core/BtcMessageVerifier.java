@@ -0,0 +1,242 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class BtcMessageVerifier {
+	public static final String MESSAGE_MAGIC = "Bitcoin Signed Message:\n";
+	private static final int RPC_TYPE_ERROR = -3;
+	private static final int RPC_INVALID_ADDRESS_OR_KEY = -5;
+	private static final int BATCH_THRESHOLD = 32;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private final BtcAddressValidator validator;
+	private final ForkJoinPool pool;
+	private final boolean ownPool;
+
+	public BtcMessageVerifier() {
+		this(false, new ForkJoinPool(), true);
+	}
+
+	public BtcMessageVerifier(boolean testnet, ForkJoinPool pool) {
+		this(testnet, pool, false);
+	}
+
+	private BtcMessageVerifier(boolean testnet, ForkJoinPool pool,
+			boolean ownPool) {
+		this.validator = new BtcAddressValidator(testnet);
+		this.pool = pool;
+		this.ownPool = ownPool;
+	}
+
+	public void shutdown() {
+		if (ownPool) {
+			pool.shutdown();
+		}
+	}
+
+	public boolean verifyMessage(String address, String signature,
+			String message) throws BtcException {
+		byte[] hash = new byte[20];
+		int version = validator.decode(address, hash);
+		if (version == validator.getScriptHashVersion()) {
+			throw new BtcException(RPC_TYPE_ERROR,
+					"Address does not refer to key");
+		} else if (version < 0) {
+			throw new BtcException(RPC_TYPE_ERROR, "Invalid address");
+		}
+		byte[] compact = decodeBase64(BtcUtil.notNull(signature));
+		if (compact == null) {
+			throw new BtcException(RPC_INVALID_ADDRESS_OR_KEY,
+					"Malformed base64 encoding");
+		}
+		if (compact.length != 65) {
+			return false;
+		}
+		int header = (compact[0] & 0xff) - 27;
+		byte[] publicKey = BtcSecp256k1.recover(
+				messageHash(BtcUtil.notNull(message)),
+				new BigInteger(1, Arrays.copyOfRange(compact, 1, 33)),
+				new BigInteger(1, Arrays.copyOfRange(compact, 33, 65)),
+				header & 3, (header & 4) != 0);
+		return (publicKey != null)
+				&& Arrays.equals(BtcRipemd160.hash160(publicKey), hash);
+	}
+
+	public boolean[] verifyMessages(List<String> addresses,
+			List<String> signatures, List<String> messages) {
+		if ((addresses.size() != signatures.size())
+				|| (addresses.size() != messages.size())) {
+			throw new IllegalArgumentException("batch size mismatch");
+		}
+		boolean[] results = new boolean[addresses.size()];
+		pool.invoke(new MessageTask(addresses, signatures, messages, results,
+				0, results.length));
+		return results;
+	}
+
+	public boolean verifySignature(byte[] hash, byte[] signature,
+			byte[] publicKey) {
+		BigInteger[] rs = decodeDer(signature);
+		return (rs != null) && BtcSecp256k1.verify(hash, rs[0], rs[1], publicKey);
+	}
+
+	public static byte[] messageHash(String message) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writeString(out, MESSAGE_MAGIC.getBytes(UTF_8));
+		writeString(out, message.getBytes(UTF_8));
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return digest.digest(digest.digest(out.toByteArray()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void writeString(ByteArrayOutputStream out, byte[] bytes) {
+		int length = bytes.length;
+		if (length < 0xfd) {
+			out.write(length);
+		} else if (length <= 0xffff) {
+			out.write(0xfd);
+			out.write(length);
+			out.write(length >>> 8);
+		} else {
+			out.write(0xfe);
+			out.write(length);
+			out.write(length >>> 8);
+			out.write(length >>> 16);
+			out.write(length >>> 24);
+		}
+		out.write(bytes, 0, length);
+	}
+
+	private static byte[] decodeBase64(String value) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(
+				value.length() * 3 / 4);
+		int buffer = 0;
+		int bits = 0;
+		int padding = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			int digit;
+			if ((c >= 'A') && (c <= 'Z')) {
+				digit = c - 'A';
+			} else if ((c >= 'a') && (c <= 'z')) {
+				digit = c - 'a' + 26;
+			} else if ((c >= '0') && (c <= '9')) {
+				digit = c - '0' + 52;
+			} else if (c == '+') {
+				digit = 62;
+			} else if (c == '/') {
+				digit = 63;
+			} else if (c == '=') {
+				padding++;
+				continue;
+			} else {
+				return null;
+			}
+			if (padding > 0) {
+				return null;
+			}
+			buffer = (buffer << 6) | digit;
+			bits += 6;
+			if (bits >= 8) {
+				bits -= 8;
+				out.write(buffer >>> bits);
+			}
+		}
+		return (padding > 2) ? null : out.toByteArray();
+	}
+
+	private static BigInteger[] decodeDer(byte[] signature) {
+		if ((signature.length < 8) || (signature[0] != 0x30)) {
+			return null;
+		}
+		int offset = 2;
+		BigInteger[] rs = new BigInteger[2];
+		for (int i = 0; i < 2; i++) {
+			if ((offset + 2 > signature.length) || (signature[offset] != 0x02)) {
+				return null;
+			}
+			int length = signature[offset + 1] & 0xff;
+			offset += 2;
+			if ((length == 0) || (offset + length > signature.length)) {
+				return null;
+			}
+			rs[i] = new BigInteger(1, Arrays.copyOfRange(signature, offset,
+					offset + length));
+			offset += length;
+		}
+		return rs;
+	}
+
+	private final class MessageTask extends RecursiveAction {
+		private static final long serialVersionUID = -1405528129071632712L;
+		private final List<String> addresses;
+		private final List<String> signatures;
+		private final List<String> messages;
+		private final boolean[] results;
+		private final int from;
+		private final int to;
+
+		private MessageTask(List<String> addresses, List<String> signatures,
+				List<String> messages, boolean[] results, int from, int to) {
+			this.addresses = addresses;
+			this.signatures = signatures;
+			this.messages = messages;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= BATCH_THRESHOLD) {
+				for (int i = from; i < to; i++) {
+					try {
+						results[i] = verifyMessage(addresses.get(i),
+								signatures.get(i), messages.get(i));
+					} catch (BtcException e) {
+						results[i] = false;
+					}
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new MessageTask(addresses, signatures, messages,
+						results, from, middle), new MessageTask(addresses,
+						signatures, messages, results, middle, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BtcMethodMetrics implements Serializable {
+	private static final long serialVersionUID = 6254017351934872041L;
+	private String method = "";
+	private long calls = 0;
+	private long errors = 0;
+	private Map<String, Long> errorCodes = new HashMap<String, Long>();
+	private double latencyMean = 0;
+	private long latencyMedian = 0;
+	private long latency90 = 0;
+	private long latency99 = 0;
+	private long latency999 = 0;
+	private long latencyMax = 0;
+	private long requestElements = 0;
+	private long responseElements = 0;
+	private long responseElementsMax = 0;
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = BtcUtil.notNull(method);
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public void setCalls(long calls) {
+		this.calls = calls;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public void setErrors(long errors) {
+		this.errors = errors;
+	}
+
+	public Map<String, Long> getErrorCodes() {
+		return errorCodes;
+	}
+
+	public void setErrorCodes(Map<String, Long> errorCodes) {
+		this.errorCodes = BtcUtil.notNull(errorCodes);
+	}
+
+	public double getLatencyMean() {
+		return latencyMean;
+	}
+
+	public void setLatencyMean(double latencyMean) {
+		this.latencyMean = latencyMean;
+	}
+
+	public long getLatencyMedian() {
+		return latencyMedian;
+	}
+
+	public void setLatencyMedian(long latencyMedian) {
+		this.latencyMedian = latencyMedian;
+	}
+
+	public long getLatency90() {
+		return latency90;
+	}
+
+	public void setLatency90(long latency90) {
+		this.latency90 = latency90;
+	}
+
+	public long getLatency99() {
+		return latency99;
+	}
+
+	public void setLatency99(long latency99) {
+		this.latency99 = latency99;
+	}
+
+	public long getLatency999() {
+		return latency999;
+	}
+
+	public void setLatency999(long latency999) {
+		this.latency999 = latency999;
+	}
+
+	public long getLatencyMax() {
+		return latencyMax;
+	}
+
+	public void setLatencyMax(long latencyMax) {
+		this.latencyMax = latencyMax;
+	}
+
+	public long getRequestElements() {
+		return requestElements;
+	}
+
+	public void setRequestElements(long requestElements) {
+		this.requestElements = requestElements;
+	}
+
+	public long getResponseElements() {
+		return responseElements;
+	}
+
+	public void setResponseElements(long responseElements) {
+		this.responseElements = responseElements;
+	}
+
+	public long getResponseElementsMax() {
+		return responseElementsMax;
+	}
+
+	public void setResponseElementsMax(long responseElementsMax) {
+		this.responseElementsMax = responseElementsMax;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BtcMethodMetrics [method=");
+		builder.append(method);
+		builder.append(", calls=");
+		builder.append(calls);
+		builder.append(", errors=");
+		builder.append(errors);
+		builder.append(", errorCodes=");
+		builder.append(errorCodes);
+		builder.append(", latencyMean=");
+		builder.append(latencyMean);
+		builder.append(", latencyMedian=");
+		builder.append(latencyMedian);
+		builder.append(", latency90=");
+		builder.append(latency90);
+		builder.append(", latency99=");
+		builder.append(latency99);
+		builder.append(", latency999=");
+		builder.append(latency999);
+		builder.append(", latencyMax=");
+		builder.append(latencyMax);
+		builder.append(", requestElements=");
+		builder.append(requestElements);
+		builder.append(", responseElements=");
+		builder.append(responseElements);
+		builder.append(", responseElementsMax=");
+		builder.append(responseElementsMax);
+		builder.append("]");
+		return builder.toString();
+	}
+}
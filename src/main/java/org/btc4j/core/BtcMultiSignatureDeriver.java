@@ -0,0 +1,179 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BtcMultiSignatureDeriver {
+	public static final int MAXIMUM_KEYS = 16;
+	public static final int MAXIMUM_SCRIPT_SIZE = 520;
+	private static final int RPC_MISC_ERROR = -1;
+	private static final int OP_1 = 0x51;
+	private static final int OP_CHECKMULTISIG = 0xae;
+	private static final int BATCH_THRESHOLD = 64;
+	private final BtcAddressValidator validator;
+	private final ForkJoinPool pool;
+	private final boolean ownPool;
+
+	public BtcMultiSignatureDeriver() {
+		this(false, new ForkJoinPool(), true);
+	}
+
+	public BtcMultiSignatureDeriver(boolean testnet, ForkJoinPool pool) {
+		this(testnet, pool, false);
+	}
+
+	private BtcMultiSignatureDeriver(boolean testnet, ForkJoinPool pool,
+			boolean ownPool) {
+		this.validator = new BtcAddressValidator(testnet);
+		this.pool = pool;
+		this.ownPool = ownPool;
+	}
+
+	public void shutdown() {
+		if (ownPool) {
+			pool.shutdown();
+		}
+	}
+
+	public BtcMultiSignatureAddress createMultiSignatureAddress(
+			long required, List<String> keys) throws BtcException {
+		byte[] script = getRedeemScript(required, keys);
+		BtcMultiSignatureAddress address = new BtcMultiSignatureAddress();
+		address.setAddress(BtcBase58.encodeCheck(
+				validator.getScriptHashVersion(),
+				BtcRipemd160.hash160(script)));
+		address.setRedeemScript(BtcUtil.bytesToHex(script));
+		return address;
+	}
+
+	public BtcMultiSignatureAddress[] createMultiSignatureAddresses(
+			long required, List<List<String>> keySets) throws BtcException {
+		BtcMultiSignatureAddress[] addresses = new BtcMultiSignatureAddress[keySets
+				.size()];
+		BtcException[] errors = new BtcException[addresses.length];
+		AtomicInteger failed = new AtomicInteger(addresses.length);
+		pool.invoke(new DeriveTask(required, keySets, addresses, errors,
+				failed, 0, addresses.length));
+		if (failed.get() < addresses.length) {
+			throw errors[failed.get()];
+		}
+		return addresses;
+	}
+
+	public byte[] getRedeemScript(long required, List<String> keys)
+			throws BtcException {
+		if (required < 1) {
+			throw new BtcException(RPC_MISC_ERROR,
+					"a multisignature address must require at least one key to redeem");
+		}
+		if (keys.size() < required) {
+			throw new BtcException(RPC_MISC_ERROR, "not enough keys supplied (got "
+					+ keys.size() + " keys, but need at least " + required
+					+ " to redeem)");
+		}
+		if (keys.size() > MAXIMUM_KEYS) {
+			throw new BtcException(RPC_MISC_ERROR,
+					"Number of addresses involved in the multisignature address creation > "
+							+ MAXIMUM_KEYS + "\nReduce the number");
+		}
+		ByteArrayOutputStream script = new ByteArrayOutputStream(
+				3 + 66 * keys.size());
+		script.write(OP_1 + (int) required - 1);
+		for (String key : keys) {
+			byte[] publicKey;
+			try {
+				publicKey = BtcUtil.hexToBytes(BtcUtil.notNull(key));
+			} catch (IllegalArgumentException e) {
+				publicKey = new byte[0];
+			}
+			if (BtcSecp256k1.decode(publicKey) == null) {
+				throw new BtcException(RPC_MISC_ERROR, " Invalid public key: "
+						+ key);
+			}
+			script.write(publicKey.length);
+			script.write(publicKey, 0, publicKey.length);
+		}
+		script.write(OP_1 + keys.size() - 1);
+		script.write(OP_CHECKMULTISIG);
+		if (script.size() > MAXIMUM_SCRIPT_SIZE) {
+			throw new BtcException(RPC_MISC_ERROR,
+					"redeemScript exceeds size limit: " + script.size() + " > "
+							+ MAXIMUM_SCRIPT_SIZE);
+		}
+		return script.toByteArray();
+	}
+
+	private final class DeriveTask extends RecursiveAction {
+		private static final long serialVersionUID = 4167520386313049278L;
+		private final long required;
+		private final List<List<String>> keySets;
+		private final BtcMultiSignatureAddress[] addresses;
+		private final BtcException[] errors;
+		private final AtomicInteger failed;
+		private final int from;
+		private final int to;
+
+		private DeriveTask(long required, List<List<String>> keySets,
+				BtcMultiSignatureAddress[] addresses, BtcException[] errors,
+				AtomicInteger failed, int from, int to) {
+			this.required = required;
+			this.keySets = keySets;
+			this.addresses = addresses;
+			this.errors = errors;
+			this.failed = failed;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= BATCH_THRESHOLD) {
+				for (int i = from; (i < to) && (i < failed.get()); i++) {
+					try {
+						addresses[i] = createMultiSignatureAddress(required,
+								keySets.get(i));
+					} catch (BtcException e) {
+						errors[i] = e;
+						int current = failed.get();
+						while ((i < current)
+								&& !failed.compareAndSet(current, i)) {
+							current = failed.get();
+						}
+					}
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new DeriveTask(required, keySets, addresses, errors,
+						failed, from, middle), new DeriveTask(required, keySets,
+						addresses, errors, failed, middle, to));
+			}
+		}
+	}
+}
@@ -35,9 +35,17 @@ public class BtcNode implements Serializable {
 		ADD, REMOVE, ONETRY, NULL;
 
 		public static Operation getValue(String value) {
-			try {
-				return Operation.valueOf(value.toUpperCase());
-			} catch (Throwable t) {
+			if (value == null) {
+				return NULL;
+			}
+			switch (value.toUpperCase()) {
+			case "ADD":
+				return ADD;
+			case "REMOVE":
+				return REMOVE;
+			case "ONETRY":
+				return ONETRY;
+			default:
 				return NULL;
 			}
 		}
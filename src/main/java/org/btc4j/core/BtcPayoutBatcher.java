@@ -0,0 +1,180 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BtcPayoutBatcher {
+	private final BtcApi api;
+	private final String account;
+	private final long minConfirms;
+	private final String comment;
+	private final int maximumBatchSize;
+	private final long maximumDelay;
+	private final ScheduledExecutorService executor;
+	private Batch batch = null;
+
+	public BtcPayoutBatcher(BtcApi api, String account, long minConfirms,
+			String comment, int maximumBatchSize, long maximumDelay) {
+		this.api = api;
+		this.account = BtcUtil.notNull(account);
+		this.minConfirms = minConfirms;
+		this.comment = comment;
+		this.maximumBatchSize = Math.max(1, maximumBatchSize);
+		this.maximumDelay = Math.max(0, maximumDelay);
+		this.executor = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	public Future<String> send(String address, BigDecimal amount) {
+		if ((BtcUtil.nil(address) == null) || (amount == null)
+				|| (amount.signum() <= 0)) {
+			throw new IllegalArgumentException("invalid payout: " + address
+					+ " " + amount);
+		}
+		BtcFuture<String> future = new BtcFuture<String>();
+		Batch full = null;
+		synchronized (this) {
+			if (executor.isShutdown()) {
+				throw new IllegalStateException("payout batcher is shut down");
+			}
+			if (batch == null) {
+				final Batch created = new Batch();
+				created.timer = executor.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flush(created);
+					}
+				}, maximumDelay, TimeUnit.MILLISECONDS);
+				batch = created;
+			}
+			batch.add(address, amount, future);
+			if (batch.futures.size() >= maximumBatchSize) {
+				full = batch;
+				batch = null;
+			}
+		}
+		if (full != null) {
+			full.timer.cancel(false);
+			submit(full);
+		}
+		return future;
+	}
+
+	public void flush() {
+		Batch pending;
+		synchronized (this) {
+			pending = batch;
+			batch = null;
+		}
+		if (pending != null) {
+			pending.timer.cancel(false);
+			submit(pending);
+		}
+	}
+
+	public void shutdown() {
+		synchronized (this) {
+			flush();
+			executor.shutdown();
+		}
+	}
+
+	public boolean awaitTermination(long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	private void submit(final Batch pending) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				pay(pending);
+			}
+		});
+	}
+
+	private void flush(Batch expired) {
+		synchronized (this) {
+			if (batch != expired) {
+				return;
+			}
+			batch = null;
+		}
+		pay(expired);
+	}
+
+	private void pay(Batch pending) {
+		Map<String, BigDecimal> amounts = new LinkedHashMap<String, BigDecimal>();
+		List<BtcFuture<String>> futures = new ArrayList<BtcFuture<String>>(
+				pending.futures.size());
+		for (int i = 0; i < pending.futures.size(); i++) {
+			BtcFuture<String> future = pending.futures.get(i);
+			if (future.start()) {
+				String address = pending.addresses.get(i);
+				BigDecimal existing = amounts.get(address);
+				amounts.put(address, (existing == null) ? pending.amounts
+						.get(i) : existing.add(pending.amounts.get(i)));
+				futures.add(future);
+			}
+		}
+		if (futures.isEmpty()) {
+			return;
+		}
+		try {
+			String transaction = api.sendMany(account, amounts, minConfirms,
+					comment);
+			for (BtcFuture<String> future : futures) {
+				future.complete(transaction);
+			}
+		} catch (Throwable t) {
+			for (BtcFuture<String> future : futures) {
+				future.fail(t);
+			}
+		}
+	}
+
+	private static final class Batch {
+		private final List<String> addresses = new ArrayList<String>();
+		private final List<BigDecimal> amounts = new ArrayList<BigDecimal>();
+		private final List<BtcFuture<String>> futures = new ArrayList<BtcFuture<String>>();
+		private ScheduledFuture<?> timer;
+
+		private void add(String address, BigDecimal amount,
+				BtcFuture<String> future) {
+			addresses.add(address);
+			amounts.add(amount);
+			futures.add(future);
+		}
+	}
+}
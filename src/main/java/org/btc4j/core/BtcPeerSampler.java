@@ -0,0 +1,279 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class BtcPeerSampler {
+	private static final int TIME = 0;
+	private static final int SENT = 1;
+	private static final int RECEIVED = 2;
+	private static final int BAN_SCORE = 3;
+	private static final int CONNECTS = 1;
+	private static final int DISCONNECTS = 2;
+	private static final int FIELDS = 4;
+	private static final int SPARE_RINGS = 64;
+	private final BtcApi api;
+	private final int capacity;
+	private final long stallTimeout;
+	private final Map<String, Peer> peers = new HashMap<String, Peer>();
+	private final Deque<long[]> spare = new ArrayDeque<long[]>();
+	private final Ring churn;
+	private final ScheduledExecutorService executor;
+	private long samples = 0;
+	private long connects = 0;
+	private long disconnects = 0;
+	private volatile BtcException lastError = null;
+
+	public BtcPeerSampler(BtcApi api, int capacity, long stallTimeout,
+			long interval) {
+		this.api = api;
+		this.capacity = Math.max(2, capacity);
+		this.stallTimeout = stallTimeout;
+		this.churn = new Ring(new long[this.capacity * FIELDS]);
+		if (interval > 0) {
+			this.executor = Executors.newSingleThreadScheduledExecutor();
+			executor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						sample();
+						lastError = null;
+					} catch (BtcException e) {
+						lastError = e;
+					}
+				}
+			}, 0, interval, TimeUnit.MILLISECONDS);
+		} else {
+			this.executor = null;
+		}
+	}
+
+	public void sample() throws BtcException {
+		record(api.getPeerInformation(), System.currentTimeMillis());
+	}
+
+	public synchronized void record(List<BtcPeer> information, long time) {
+		samples++;
+		for (BtcPeer update : information) {
+			Peer peer = peers.get(update.getNetworkAddress());
+			if ((peer != null)
+					&& (peer.connectionTime != update.getConnectionTime())) {
+				release(peer);
+				disconnects++;
+				peer = null;
+			}
+			if (peer == null) {
+				peer = new Peer(update, acquire(), time);
+				peers.put(peer.address, peer);
+				if (samples > 1) {
+					connects++;
+				}
+			}
+			if (update.getBytesReceived() > peer.ring.last(RECEIVED)) {
+				peer.progress = time;
+			}
+			peer.ring.add(time, update.getBytesSent(),
+					update.getBytesReceived(), update.getBanScore());
+			peer.generation = samples;
+		}
+		for (Iterator<Peer> i = peers.values().iterator(); i.hasNext();) {
+			Peer peer = i.next();
+			if (peer.generation != samples) {
+				i.remove();
+				release(peer);
+				disconnects++;
+			}
+		}
+		churn.add(time, connects, disconnects, 0);
+	}
+
+	public synchronized BtcPeerTelemetry getPeer(String networkAddress) {
+		Peer peer = peers.get(networkAddress);
+		return (peer == null) ? null : telemetry(peer);
+	}
+
+	public synchronized List<BtcPeerTelemetry> getPeers() {
+		List<BtcPeerTelemetry> telemetry = new ArrayList<BtcPeerTelemetry>(
+				peers.size());
+		for (Peer peer : peers.values()) {
+			telemetry.add(telemetry(peer));
+		}
+		return telemetry;
+	}
+
+	public synchronized List<String> getStalledPeers() {
+		List<String> stalled = new ArrayList<String>();
+		for (Peer peer : peers.values()) {
+			if (isStalled(peer)) {
+				stalled.add(peer.address);
+			}
+		}
+		return stalled;
+	}
+
+	public synchronized double getSendRate() {
+		double rate = 0;
+		for (Peer peer : peers.values()) {
+			rate += peer.ring.rate(SENT);
+		}
+		return rate;
+	}
+
+	public synchronized double getReceiveRate() {
+		double rate = 0;
+		for (Peer peer : peers.values()) {
+			rate += peer.ring.rate(RECEIVED);
+		}
+		return rate;
+	}
+
+	public synchronized int getConnections() {
+		return peers.size();
+	}
+
+	public synchronized long getConnects() {
+		return connects;
+	}
+
+	public synchronized long getDisconnects() {
+		return disconnects;
+	}
+
+	public synchronized double getChurn() {
+		return (churn.rate(CONNECTS) + churn.rate(DISCONNECTS)) * 60;
+	}
+
+	synchronized int getSpareRings() {
+		return spare.size();
+	}
+
+	public BtcException getLastError() {
+		return lastError;
+	}
+
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private BtcPeerTelemetry telemetry(Peer peer) {
+		BtcPeerTelemetry telemetry = new BtcPeerTelemetry();
+		telemetry.setNetworkAddress(peer.address);
+		telemetry.setConnectionTime(peer.connectionTime);
+		telemetry.setInbound(peer.inbound);
+		telemetry.setSamples(peer.ring.size);
+		telemetry.setBytesSent(peer.ring.last(SENT));
+		telemetry.setBytesReceived(peer.ring.last(RECEIVED));
+		telemetry.setSendRate(peer.ring.rate(SENT));
+		telemetry.setReceiveRate(peer.ring.rate(RECEIVED));
+		telemetry.setBanScore(peer.ring.last(BAN_SCORE));
+		telemetry.setStalled(isStalled(peer));
+		return telemetry;
+	}
+
+	private boolean isStalled(Peer peer) {
+		return (churn.last(TIME) - peer.progress) >= stallTimeout;
+	}
+
+	private long[] acquire() {
+		long[] values = spare.poll();
+		return (values == null) ? new long[capacity * FIELDS] : values;
+	}
+
+	private void release(Peer peer) {
+		if (spare.size() < SPARE_RINGS) {
+			spare.push(peer.ring.values);
+		}
+	}
+
+	private static final class Peer {
+		private final String address;
+		private final long connectionTime;
+		private final boolean inbound;
+		private final Ring ring;
+		private long progress;
+		private long generation;
+
+		private Peer(BtcPeer information, long[] values, long time) {
+			this.address = information.getNetworkAddress();
+			this.connectionTime = information.getConnectionTime();
+			this.inbound = information.isInbound();
+			this.ring = new Ring(values);
+			this.progress = time;
+		}
+	}
+
+	private static final class Ring {
+		private final long[] values;
+		private int head = 0;
+		private int size = 0;
+
+		private Ring(long[] values) {
+			this.values = values;
+		}
+
+		private void add(long time, long first, long second, long third) {
+			int offset = head * FIELDS;
+			values[offset + TIME] = time;
+			values[offset + 1] = first;
+			values[offset + 2] = second;
+			values[offset + 3] = third;
+			head = (head + 1) % (values.length / FIELDS);
+			size = Math.min(size + 1, values.length / FIELDS);
+		}
+
+		private long last(int field) {
+			return (size == 0) ? 0 : values[index(size - 1) + field];
+		}
+
+		private double rate(int field) {
+			if (size < 2) {
+				return 0;
+			}
+			int oldest = index(0);
+			int newest = index(size - 1);
+			long elapsed = values[newest + TIME] - values[oldest + TIME];
+			long delta = values[newest + field] - values[oldest + field];
+			return ((elapsed <= 0) || (delta < 0)) ? 0 : delta * 1000.0
+					/ elapsed;
+		}
+
+		private int index(int sample) {
+			int slots = values.length / FIELDS;
+			return ((head - size + sample + slots) % slots) * FIELDS;
+		}
+	}
+}
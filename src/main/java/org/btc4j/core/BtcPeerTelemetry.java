@@ -0,0 +1,148 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.Serializable;
+
+public class BtcPeerTelemetry implements Serializable {
+	private static final long serialVersionUID = 3718862479004512265L;
+	private String networkAddress = "";
+	private long connectionTime = 0;
+	private boolean inbound = false;
+	private long samples = 0;
+	private long bytesSent = 0;
+	private long bytesReceived = 0;
+	private double sendRate = 0;
+	private double receiveRate = 0;
+	private long banScore = 0;
+	private boolean stalled = false;
+
+	public String getNetworkAddress() {
+		return networkAddress;
+	}
+
+	public void setNetworkAddress(String networkAddress) {
+		this.networkAddress = BtcUtil.notNull(networkAddress);
+	}
+
+	public long getConnectionTime() {
+		return connectionTime;
+	}
+
+	public void setConnectionTime(long connectionTime) {
+		this.connectionTime = connectionTime;
+	}
+
+	public boolean isInbound() {
+		return inbound;
+	}
+
+	public void setInbound(boolean inbound) {
+		this.inbound = inbound;
+	}
+
+	public long getSamples() {
+		return samples;
+	}
+
+	public void setSamples(long samples) {
+		this.samples = samples;
+	}
+
+	public long getBytesSent() {
+		return bytesSent;
+	}
+
+	public void setBytesSent(long bytesSent) {
+		this.bytesSent = bytesSent;
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived;
+	}
+
+	public void setBytesReceived(long bytesReceived) {
+		this.bytesReceived = bytesReceived;
+	}
+
+	public double getSendRate() {
+		return sendRate;
+	}
+
+	public void setSendRate(double sendRate) {
+		this.sendRate = sendRate;
+	}
+
+	public double getReceiveRate() {
+		return receiveRate;
+	}
+
+	public void setReceiveRate(double receiveRate) {
+		this.receiveRate = receiveRate;
+	}
+
+	public long getBanScore() {
+		return banScore;
+	}
+
+	public void setBanScore(long banScore) {
+		this.banScore = banScore;
+	}
+
+	public boolean isStalled() {
+		return stalled;
+	}
+
+	public void setStalled(boolean stalled) {
+		this.stalled = stalled;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BtcPeerTelemetry [networkAddress=");
+		builder.append(networkAddress);
+		builder.append(", connectionTime=");
+		builder.append(connectionTime);
+		builder.append(", inbound=");
+		builder.append(inbound);
+		builder.append(", samples=");
+		builder.append(samples);
+		builder.append(", bytesSent=");
+		builder.append(bytesSent);
+		builder.append(", bytesReceived=");
+		builder.append(bytesReceived);
+		builder.append(", sendRate=");
+		builder.append(sendRate);
+		builder.append(", receiveRate=");
+		builder.append(receiveRate);
+		builder.append(", banScore=");
+		builder.append(banScore);
+		builder.append(", stalled=");
+		builder.append(stalled);
+		builder.append("]");
+		return builder.toString();
+	}
+}
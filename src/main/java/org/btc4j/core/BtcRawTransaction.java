@@ -40,9 +40,23 @@ public class BtcRawTransaction extends BtcTransactionBase {
 		ALL, NONE, SINGLE, ALLANYONECANPAY, NONEANYONECANPAY, SINGLEANYONECANPAY, NULL;
 
 		public static SignatureHash getValue(String value) {
-			try {
-				return SignatureHash.valueOf(value.toUpperCase());
-			} catch (Throwable t) {
+			if (value == null) {
+				return NULL;
+			}
+			switch (value.toUpperCase()) {
+			case "ALL":
+				return ALL;
+			case "NONE":
+				return NONE;
+			case "SINGLE":
+				return SINGLE;
+			case "ALLANYONECANPAY":
+				return ALLANYONECANPAY;
+			case "NONEANYONECANPAY":
+				return NONEANYONECANPAY;
+			case "SINGLEANYONECANPAY":
+				return SINGLEANYONECANPAY;
+			default:
 				return NULL;
 			}
 		}
@@ -0,0 +1,212 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BtcRawTransactionBuilder {
+	public static final long TRANSACTION_VERSION = 1;
+	public static final long SEQUENCE_FINAL = 0xffffffffL;
+	public static final long SEQUENCE_LOCK_TIME = 0xfffffffeL;
+	public static final long SIGNATURE_SCRIPT_SIZE = 107;
+	private static final int RPC_INVALID_PARAMETER = -8;
+	private static final int RPC_INVALID_ADDRESS_OR_KEY = -5;
+	private final BtcAddressValidator validator;
+	private final List<BtcOutputPart> inputs = new ArrayList<BtcOutputPart>();
+	private final List<Long> sequences = new ArrayList<Long>();
+	private final List<byte[]> scripts = new ArrayList<byte[]>();
+	private final List<Long> values = new ArrayList<Long>();
+	private long lockTime = 0;
+
+	public BtcRawTransactionBuilder() {
+		this(false);
+	}
+
+	public BtcRawTransactionBuilder(boolean testnet) {
+		this.validator = new BtcAddressValidator(testnet);
+	}
+
+	public static String createRawTransaction(List<BtcOutputPart> outputs,
+			Map<String, BigDecimal> amounts, boolean testnet)
+			throws BtcException {
+		BtcRawTransactionBuilder builder = new BtcRawTransactionBuilder(
+				testnet);
+		builder.addInputs(outputs);
+		for (Map.Entry<String, BigDecimal> amount : amounts.entrySet()) {
+			builder.addOutput(amount.getKey(), amount.getValue());
+		}
+		return builder.build();
+	}
+
+	public BtcRawTransactionBuilder addInput(BtcOutputPart output)
+			throws BtcException {
+		return addInput(output, -1);
+	}
+
+	public BtcRawTransactionBuilder addInput(BtcOutputPart output,
+			long sequence) throws BtcException {
+		if ((output.getTransaction().length() != 64)
+				|| (output.getOutput() < 0)) {
+			throw new BtcException(RPC_INVALID_PARAMETER,
+					"Invalid parameter, expected txid and vout: " + output);
+		}
+		if (sequence > SEQUENCE_FINAL) {
+			throw new BtcException(RPC_INVALID_PARAMETER,
+					"Invalid parameter, sequence out of range: " + sequence);
+		}
+		inputs.add(output);
+		sequences.add(sequence);
+		return this;
+	}
+
+	public BtcRawTransactionBuilder addInputs(List<BtcOutputPart> outputs)
+			throws BtcException {
+		for (BtcOutputPart output : outputs) {
+			addInput(output);
+		}
+		return this;
+	}
+
+	public BtcRawTransactionBuilder addOutput(String address, BigDecimal amount)
+			throws BtcException {
+		byte[] script = getScript(address);
+		long value = BtcUtil.toSatoshis(amount);
+		if (value < 0) {
+			throw new BtcException(RPC_INVALID_PARAMETER, "Invalid amount");
+		}
+		scripts.add(script);
+		values.add(value);
+		return this;
+	}
+
+	public BtcRawTransactionBuilder setLockTime(long lockTime) {
+		this.lockTime = lockTime;
+		return this;
+	}
+
+	public byte[] getScript(String address) throws BtcException {
+		byte[] hash = new byte[20];
+		int version = validator.decode(address, hash);
+		if (version == validator.getPubKeyHashVersion()) {
+			byte[] script = new byte[25];
+			script[0] = 0x76;
+			script[1] = (byte) 0xa9;
+			script[2] = 0x14;
+			System.arraycopy(hash, 0, script, 3, 20);
+			script[23] = (byte) 0x88;
+			script[24] = (byte) 0xac;
+			return script;
+		} else if (version == validator.getScriptHashVersion()) {
+			byte[] script = new byte[23];
+			script[0] = (byte) 0xa9;
+			script[1] = 0x14;
+			System.arraycopy(hash, 0, script, 2, 20);
+			script[22] = (byte) 0x87;
+			return script;
+		}
+		throw new BtcException(RPC_INVALID_ADDRESS_OR_KEY,
+				"Invalid Bitcoin address: " + address);
+	}
+
+	public long getSize() {
+		long size = 8 + varIntSize(inputs.size()) + varIntSize(scripts.size())
+				+ 41 * inputs.size();
+		for (byte[] script : scripts) {
+			size += 8 + varIntSize(script.length) + script.length;
+		}
+		return size;
+	}
+
+	public long getEstimatedSize() {
+		return getSize() + SIGNATURE_SCRIPT_SIZE * inputs.size();
+	}
+
+	public byte[] toByteArray() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream((int) getSize());
+		writeInt(out, TRANSACTION_VERSION);
+		writeVarInt(out, inputs.size());
+		for (int i = 0; i < inputs.size(); i++) {
+			BtcOutputPart input = inputs.get(i);
+			byte[] transaction = BtcUtil.reverse(BtcUtil.hexToBytes(input
+					.getTransaction()));
+			out.write(transaction, 0, transaction.length);
+			writeInt(out, input.getOutput());
+			writeVarInt(out, 0);
+			long sequence = sequences.get(i);
+			if (sequence < 0) {
+				sequence = (lockTime != 0) ? SEQUENCE_LOCK_TIME
+						: SEQUENCE_FINAL;
+			}
+			writeInt(out, sequence);
+		}
+		writeVarInt(out, scripts.size());
+		for (int i = 0; i < scripts.size(); i++) {
+			writeInt(out, values.get(i));
+			writeInt(out, values.get(i) >>> 32);
+			byte[] script = scripts.get(i);
+			writeVarInt(out, script.length);
+			out.write(script, 0, script.length);
+		}
+		writeInt(out, lockTime);
+		return out.toByteArray();
+	}
+
+	public String build() {
+		return BtcUtil.bytesToHex(toByteArray());
+	}
+
+	static int varIntSize(long value) {
+		return (value < 0xfd) ? 1 : ((value <= 0xffff) ? 3
+				: ((value <= 0xffffffffL) ? 5 : 9));
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, long value) {
+		out.write((int) value);
+		out.write((int) (value >>> 8));
+		out.write((int) (value >>> 16));
+		out.write((int) (value >>> 24));
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, long value) {
+		if (value < 0xfd) {
+			out.write((int) value);
+		} else if (value <= 0xffff) {
+			out.write(0xfd);
+			out.write((int) value);
+			out.write((int) (value >>> 8));
+		} else if (value <= 0xffffffffL) {
+			out.write(0xfe);
+			writeInt(out, value);
+		} else {
+			out.write(0xff);
+			writeInt(out, value);
+			writeInt(out, value >>> 32);
+		}
+	}
+}
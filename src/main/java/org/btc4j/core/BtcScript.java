@@ -40,9 +40,13 @@ public class BtcScript implements Serializable {
 		PUBKEYHASH, NULL;
 
 		public static Type getValue(String value) {
-			try {
-				return Type.valueOf(value.toUpperCase());
-			} catch (Throwable t) {
+			if (value == null) {
+				return NULL;
+			}
+			switch (value.toUpperCase()) {
+			case "PUBKEYHASH":
+				return PUBKEYHASH;
+			default:
 				return NULL;
 			}
 		}
@@ -61,7 +65,7 @@ public class BtcScript implements Serializable {
 	}
 
 	public void setPublicKey(String publicKey) {
-		this.publicKey = publicKey;
+		this.publicKey = BtcUtil.notNull(publicKey);
 	}
 
 	public long getRequiredSignatures() {
@@ -0,0 +1,487 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class BtcSecp256k1 {
+	public static final BigInteger P = new BigInteger(
+			"fffffffffffffffffffffffffffffffffffffffffffffffffffffffefffffc2f",
+			16);
+	public static final BigInteger N = new BigInteger(
+			"fffffffffffffffffffffffffffffffebaaedce6af48a03bbfd25e8cd0364141",
+			16);
+	public static final BigInteger GX = new BigInteger(
+			"79be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798",
+			16);
+	public static final BigInteger GY = new BigInteger(
+			"483ada7726a3c4655da4fbfc0e1108a8fd17b448a68554199c47d08ffb10d4b8",
+			16);
+	private static final int LIMBS = 10;
+	private static final long MASK = 0x3ffffffL;
+	private static final long[] FIELD_P = { 0x3fffc2fL, 0x3ffffbfL, MASK,
+			MASK, MASK, MASK, MASK, MASK, MASK, 0x3fffffL };
+	private static final long[] ONE = element(BigInteger.ONE);
+	private static final long[] SEVEN = element(BigInteger.valueOf(7));
+	private static final BigInteger SQRT_EXPONENT = P.add(BigInteger.ONE)
+			.shiftRight(2);
+	private static final int WINDOW = 4;
+	private static final int WINDOWS = 256 / WINDOW;
+	private static final long[][][][] G_TABLE = precompute();
+
+	public static byte[] recover(byte[] hash, BigInteger r, BigInteger s,
+			int recoveryId, boolean compressed) {
+		if ((r.signum() <= 0) || (r.compareTo(N) >= 0) || (s.signum() <= 0)
+				|| (s.compareTo(N) >= 0) || (recoveryId < 0)
+				|| (recoveryId > 3)) {
+			return null;
+		}
+		BigInteger x = r.add(N.multiply(BigInteger.valueOf(recoveryId >> 1)));
+		if (x.compareTo(P) >= 0) {
+			return null;
+		}
+		long[] fx = element(x);
+		long[] fy = decompress(fx, (recoveryId & 1) == 1);
+		if (fy == null) {
+			return null;
+		}
+		BigInteger inverse = r.modInverse(N);
+		BigInteger e = new BigInteger(1, hash).mod(N);
+		BigInteger u1 = N.subtract(e).multiply(inverse).mod(N);
+		BigInteger u2 = s.multiply(inverse).mod(N);
+		long[][] q = toAffine(add(multiplyG(u1), multiply(fx, fy, u2)));
+		return (q == null) ? null : encode(integer(q[0]), integer(q[1]),
+				compressed);
+	}
+
+	public static boolean verify(byte[] hash, BigInteger r, BigInteger s,
+			byte[] publicKey) {
+		if ((r.signum() <= 0) || (r.compareTo(N) >= 0) || (s.signum() <= 0)
+				|| (s.compareTo(N) >= 0)) {
+			return false;
+		}
+		BigInteger[] q = decode(publicKey);
+		if (q == null) {
+			return false;
+		}
+		BigInteger w = s.modInverse(N);
+		BigInteger u1 = new BigInteger(1, hash).mod(N).multiply(w).mod(N);
+		BigInteger u2 = r.multiply(w).mod(N);
+		long[][] point = toAffine(add(multiplyG(u1),
+				multiply(element(q[0]), element(q[1]), u2)));
+		return (point != null) && integer(point[0]).mod(N).equals(r);
+	}
+
+	public static BigInteger[] decode(byte[] publicKey) {
+		if ((publicKey.length == 33)
+				&& ((publicKey[0] == 2) || (publicKey[0] == 3))) {
+			BigInteger x = new BigInteger(1,
+					Arrays.copyOfRange(publicKey, 1, 33));
+			if (x.compareTo(P) >= 0) {
+				return null;
+			}
+			long[] y = decompress(element(x), publicKey[0] == 3);
+			return (y == null) ? null : new BigInteger[] { x, integer(y) };
+		} else if ((publicKey.length == 65) && (publicKey[0] == 4)) {
+			BigInteger x = new BigInteger(1,
+					Arrays.copyOfRange(publicKey, 1, 33));
+			BigInteger y = new BigInteger(1, Arrays.copyOfRange(publicKey, 33,
+					65));
+			if ((x.compareTo(P) >= 0) || (y.compareTo(P) >= 0)) {
+				return null;
+			}
+			long[] fy = element(y);
+			if (!isZero(subtract(multiply(fy, fy), curve(element(x))))) {
+				return null;
+			}
+			return new BigInteger[] { x, y };
+		}
+		return null;
+	}
+
+	public static byte[] encode(BigInteger x, BigInteger y, boolean compressed) {
+		byte[] encoded = new byte[compressed ? 33 : 65];
+		encoded[0] = (byte) (compressed ? (y.testBit(0) ? 3 : 2) : 4);
+		put(encoded, 1, x);
+		if (!compressed) {
+			put(encoded, 33, y);
+		}
+		return encoded;
+	}
+
+	private static void put(byte[] out, int offset, BigInteger value) {
+		byte[] bytes = value.toByteArray();
+		int length = Math.min(bytes.length, 32);
+		System.arraycopy(bytes, bytes.length - length, out, offset + 32
+				- length, length);
+	}
+
+	private static long[] decompress(long[] x, boolean odd) {
+		long[] alpha = curve(x);
+		long[] y = power(alpha, SQRT_EXPONENT);
+		if (!isZero(subtract(multiply(y, y), alpha))) {
+			return null;
+		}
+		y = normalize(y);
+		return (((y[0] & 1) == 1) == odd) ? y : normalize(subtract(
+				new long[LIMBS], y));
+	}
+
+	private static long[] curve(long[] x) {
+		return add(multiply(multiply(x, x), x), SEVEN);
+	}
+
+	private static int digit(BigInteger k, int window) {
+		int digit = 0;
+		for (int bit = WINDOW - 1; bit >= 0; bit--) {
+			digit = (digit << 1) | (k.testBit(window * WINDOW + bit) ? 1 : 0);
+		}
+		return digit;
+	}
+
+	private static long[][] multiplyG(BigInteger k) {
+		long[][] result = null;
+		for (int i = 0; i < WINDOWS; i++) {
+			int digit = digit(k, i);
+			if (digit != 0) {
+				result = addAffine(result, G_TABLE[i][digit]);
+			}
+		}
+		return result;
+	}
+
+	private static long[][] multiply(long[] x, long[] y, BigInteger k) {
+		long[][][] table = new long[1 << WINDOW][][];
+		long[][] base = { x, y };
+		table[1] = new long[][] { x, y, ONE };
+		for (int i = 2; i < table.length; i++) {
+			table[i] = addAffine(table[i - 1], base);
+		}
+		long[][] result = null;
+		for (int i = WINDOWS - 1; i >= 0; i--) {
+			for (int bit = 0; bit < WINDOW; bit++) {
+				result = twice(result);
+			}
+			int digit = digit(k, i);
+			if (digit != 0) {
+				result = add(result, table[digit]);
+			}
+		}
+		return result;
+	}
+
+	private static long[][] twice(long[][] p) {
+		if ((p == null) || isZero(p[1])) {
+			return null;
+		}
+		long[] a = multiply(p[0], p[0]);
+		long[] b = multiply(p[1], p[1]);
+		long[] c = multiply(b, b);
+		long[] xb = add(p[0], b);
+		long[] d = scale(subtract(subtract(multiply(xb, xb), a), c), 2);
+		long[] e = scale(a, 3);
+		long[] x = subtract(multiply(e, e), scale(d, 2));
+		long[] y = subtract(multiply(e, subtract(d, x)), scale(c, 8));
+		long[] z = scale(multiply(p[1], p[2]), 2);
+		return new long[][] { x, y, z };
+	}
+
+	private static long[][] addAffine(long[][] p, long[][] q) {
+		if (p == null) {
+			return new long[][] { q[0], q[1], ONE };
+		}
+		long[] z1z1 = multiply(p[2], p[2]);
+		long[] u2 = multiply(q[0], z1z1);
+		long[] s2 = multiply(multiply(q[1], p[2]), z1z1);
+		long[] h = subtract(u2, p[0]);
+		long[] r = scale(subtract(s2, p[1]), 2);
+		if (isZero(h)) {
+			return isZero(r) ? twice(p) : null;
+		}
+		long[] hh = multiply(h, h);
+		long[] i = scale(hh, 4);
+		long[] j = multiply(h, i);
+		long[] v = multiply(p[0], i);
+		long[] x = subtract(subtract(multiply(r, r), j), scale(v, 2));
+		long[] y = subtract(multiply(r, subtract(v, x)),
+				scale(multiply(p[1], j), 2));
+		long[] zh = add(p[2], h);
+		long[] z = subtract(subtract(multiply(zh, zh), z1z1), hh);
+		return new long[][] { x, y, z };
+	}
+
+	private static long[][] add(long[][] p, long[][] q) {
+		if (p == null) {
+			return q;
+		}
+		if (q == null) {
+			return p;
+		}
+		long[] z1z1 = multiply(p[2], p[2]);
+		long[] z2z2 = multiply(q[2], q[2]);
+		long[] u1 = multiply(p[0], z2z2);
+		long[] u2 = multiply(q[0], z1z1);
+		long[] s1 = multiply(multiply(p[1], q[2]), z2z2);
+		long[] s2 = multiply(multiply(q[1], p[2]), z1z1);
+		long[] h = subtract(u2, u1);
+		long[] r = scale(subtract(s2, s1), 2);
+		if (isZero(h)) {
+			return isZero(r) ? twice(p) : null;
+		}
+		long[] h2 = scale(h, 2);
+		long[] i = multiply(h2, h2);
+		long[] j = multiply(h, i);
+		long[] v = multiply(u1, i);
+		long[] x = subtract(subtract(multiply(r, r), j), scale(v, 2));
+		long[] y = subtract(multiply(r, subtract(v, x)),
+				scale(multiply(s1, j), 2));
+		long[] zz = add(p[2], q[2]);
+		long[] z = multiply(
+				subtract(subtract(multiply(zz, zz), z1z1), z2z2), h);
+		return new long[][] { x, y, z };
+	}
+
+	private static long[][] toAffine(long[][] p) {
+		if ((p == null) || isZero(p[2])) {
+			return null;
+		}
+		long[] zInverse = element(integer(p[2]).modInverse(P));
+		long[] zInverse2 = multiply(zInverse, zInverse);
+		return new long[][] { normalize(multiply(p[0], zInverse2)),
+				normalize(multiply(multiply(p[1], zInverse2), zInverse)) };
+	}
+
+	private static long[][][][] precompute() {
+		long[][][][] table = new long[WINDOWS][1 << WINDOW][][];
+		long[][] base = { element(GX), element(GY) };
+		for (int i = 0; i < WINDOWS; i++) {
+			table[i][1] = base;
+			long[][] point = { base[0], base[1], ONE };
+			for (int j = 2; j < (1 << WINDOW); j++) {
+				point = addAffine(point, base);
+				table[i][j] = toAffine(point);
+			}
+			point = new long[][] { base[0], base[1], ONE };
+			for (int bit = 0; bit < WINDOW; bit++) {
+				point = twice(point);
+			}
+			base = toAffine(point);
+		}
+		return table;
+	}
+
+	private static long[] element(BigInteger value) {
+		long[] element = new long[LIMBS];
+		for (int i = 0; i < LIMBS; i++) {
+			element[i] = value.shiftRight(26 * i).longValue() & MASK;
+		}
+		return element;
+	}
+
+	private static BigInteger integer(long[] element) {
+		long[] normal = normalize(element);
+		BigInteger value = BigInteger.ZERO;
+		for (int i = LIMBS - 1; i >= 0; i--) {
+			value = value.shiftLeft(26).or(BigInteger.valueOf(normal[i]));
+		}
+		return value;
+	}
+
+	private static long[] add(long[] a, long[] b) {
+		long[] r = new long[LIMBS + 1];
+		for (int i = 0; i < LIMBS; i++) {
+			r[i] = a[i] + b[i];
+		}
+		return carry(r);
+	}
+
+	private static long[] subtract(long[] a, long[] b) {
+		long[] r = new long[LIMBS + 1];
+		for (int i = 0; i < LIMBS; i++) {
+			r[i] = a[i] - b[i];
+		}
+		return carry(r);
+	}
+
+	private static long[] scale(long[] a, long k) {
+		long[] r = new long[LIMBS + 1];
+		for (int i = 0; i < LIMBS; i++) {
+			r[i] = a[i] * k;
+		}
+		return carry(r);
+	}
+
+	private static long[] multiply(long[] a, long[] b) {
+		long a0 = a[0], a1 = a[1], a2 = a[2], a3 = a[3], a4 = a[4];
+		long a5 = a[5], a6 = a[6], a7 = a[7], a8 = a[8], a9 = a[9];
+		long b0 = b[0], b1 = b[1], b2 = b[2], b3 = b[3], b4 = b[4];
+		long b5 = b[5], b6 = b[6], b7 = b[7], b8 = b[8], b9 = b[9];
+		long t0 = a0 * b0;
+		long t1 = a0 * b1 + a1 * b0;
+		long t2 = a0 * b2 + a1 * b1 + a2 * b0;
+		long t3 = a0 * b3 + a1 * b2 + a2 * b1 + a3 * b0;
+		long t4 = a0 * b4 + a1 * b3 + a2 * b2 + a3 * b1 + a4 * b0;
+		long t5 = a0 * b5 + a1 * b4 + a2 * b3 + a3 * b2 + a4 * b1 + a5 * b0;
+		long t6 = a0 * b6 + a1 * b5 + a2 * b4 + a3 * b3 + a4 * b2 + a5 * b1
+				+ a6 * b0;
+		long t7 = a0 * b7 + a1 * b6 + a2 * b5 + a3 * b4 + a4 * b3 + a5 * b2
+				+ a6 * b1 + a7 * b0;
+		long t8 = a0 * b8 + a1 * b7 + a2 * b6 + a3 * b5 + a4 * b4 + a5 * b3
+				+ a6 * b2 + a7 * b1 + a8 * b0;
+		long t9 = a0 * b9 + a1 * b8 + a2 * b7 + a3 * b6 + a4 * b5 + a5 * b4
+				+ a6 * b3 + a7 * b2 + a8 * b1 + a9 * b0;
+		long t10 = a1 * b9 + a2 * b8 + a3 * b7 + a4 * b6 + a5 * b5
+				+ a6 * b4 + a7 * b3 + a8 * b2 + a9 * b1;
+		long t11 = a2 * b9 + a3 * b8 + a4 * b7 + a5 * b6 + a6 * b5
+				+ a7 * b4 + a8 * b3 + a9 * b2;
+		long t12 = a3 * b9 + a4 * b8 + a5 * b7 + a6 * b6 + a7 * b5
+				+ a8 * b4 + a9 * b3;
+		long t13 = a4 * b9 + a5 * b8 + a6 * b7 + a7 * b6 + a8 * b5 + a9 * b4;
+		long t14 = a5 * b9 + a6 * b8 + a7 * b7 + a8 * b6 + a9 * b5;
+		long t15 = a6 * b9 + a7 * b8 + a8 * b7 + a9 * b6;
+		long t16 = a7 * b9 + a8 * b8 + a9 * b7;
+		long t17 = a8 * b9 + a9 * b8;
+		long t18 = a9 * b9;
+		long t19 = 0;
+		t1 += t0 >> 26;
+		t0 &= MASK;
+		t2 += t1 >> 26;
+		t1 &= MASK;
+		t3 += t2 >> 26;
+		t2 &= MASK;
+		t4 += t3 >> 26;
+		t3 &= MASK;
+		t5 += t4 >> 26;
+		t4 &= MASK;
+		t6 += t5 >> 26;
+		t5 &= MASK;
+		t7 += t6 >> 26;
+		t6 &= MASK;
+		t8 += t7 >> 26;
+		t7 &= MASK;
+		t9 += t8 >> 26;
+		t8 &= MASK;
+		t10 += t9 >> 26;
+		t9 &= MASK;
+		t11 += t10 >> 26;
+		t10 &= MASK;
+		t12 += t11 >> 26;
+		t11 &= MASK;
+		t13 += t12 >> 26;
+		t12 &= MASK;
+		t14 += t13 >> 26;
+		t13 &= MASK;
+		t15 += t14 >> 26;
+		t14 &= MASK;
+		t16 += t15 >> 26;
+		t15 &= MASK;
+		t17 += t16 >> 26;
+		t16 &= MASK;
+		t18 += t17 >> 26;
+		t17 &= MASK;
+		t19 += t18 >> 26;
+		t18 &= MASK;
+		long[] r = new long[LIMBS + 1];
+		r[0] = t0 + t10 * 0x3d10L;
+		r[1] = t1 + t11 * 0x3d10L + (t10 << 10);
+		r[2] = t2 + t12 * 0x3d10L + (t11 << 10);
+		r[3] = t3 + t13 * 0x3d10L + (t12 << 10);
+		r[4] = t4 + t14 * 0x3d10L + (t13 << 10);
+		r[5] = t5 + t15 * 0x3d10L + (t14 << 10);
+		r[6] = t6 + t16 * 0x3d10L + (t15 << 10);
+		r[7] = t7 + t17 * 0x3d10L + (t16 << 10);
+		r[8] = t8 + t18 * 0x3d10L + (t17 << 10);
+		r[9] = t9 + t19 * 0x3d10L + (t18 << 10);
+		r[10] = t19 << 10;
+		return carry(r);
+	}
+
+	private static long[] carry(long[] r) {
+		while (true) {
+			for (int i = 0; i < LIMBS; i++) {
+				r[i + 1] += r[i] >> 26;
+				r[i] &= MASK;
+			}
+			long c = r[LIMBS];
+			if (c == 0) {
+				return r;
+			}
+			r[LIMBS] = 0;
+			r[0] += c * 0x3d10L;
+			r[1] += c << 10;
+		}
+	}
+
+	private static long[] normalize(long[] a) {
+		long[] r = Arrays.copyOf(a, LIMBS);
+		for (int pass = 0; pass < 2; pass++) {
+			long t = r[9] >>> 22;
+			r[9] &= 0x3fffffL;
+			r[0] += t * 0x3d1L;
+			r[1] += t << 6;
+			for (int i = 0; i < LIMBS - 1; i++) {
+				r[i + 1] += r[i] >> 26;
+				r[i] &= MASK;
+			}
+		}
+		boolean greater = true;
+		for (int i = LIMBS - 1; i >= 0; i--) {
+			if (r[i] != FIELD_P[i]) {
+				greater = r[i] > FIELD_P[i];
+				break;
+			}
+		}
+		if (greater) {
+			long borrow = 0;
+			for (int i = 0; i < LIMBS; i++) {
+				long v = r[i] - FIELD_P[i] - borrow;
+				borrow = (v < 0) ? 1 : 0;
+				r[i] = v & MASK;
+			}
+		}
+		return r;
+	}
+
+	private static boolean isZero(long[] a) {
+		long[] r = normalize(a);
+		long bits = 0;
+		for (int i = 0; i < LIMBS; i++) {
+			bits |= r[i];
+		}
+		return bits == 0;
+	}
+
+	private static long[] power(long[] a, BigInteger exponent) {
+		long[] result = ONE;
+		for (int i = exponent.bitLength() - 1; i >= 0; i--) {
+			result = multiply(result, result);
+			if (exponent.testBit(i)) {
+				result = multiply(result, a);
+			}
+		}
+		return result;
+	}
+}
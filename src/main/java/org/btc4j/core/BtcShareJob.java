@@ -0,0 +1,173 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BtcShareJob {
+	private final String workId;
+	private final long height;
+	private final String previousBlockHash;
+	private final long minimumTime;
+	private final BtcTarget target;
+	private final byte[] headerPrefix;
+	private final byte[] bits;
+	private final byte[] coinbase1;
+	private final byte[] coinbase2;
+	private final int extraNonceSize;
+	private final byte[][] merkleBranch;
+	private final List<String> transactions;
+
+	BtcShareJob(String workId, BtcBlockTemplate template, String coinbase1,
+			String coinbase2, int extraNonceSize) {
+		if ((extraNonceSize < 0) || (extraNonceSize > 8)) {
+			throw new IllegalArgumentException("invalid extra nonce size: "
+					+ extraNonceSize);
+		}
+		this.workId = workId;
+		this.height = template.getHeight();
+		this.previousBlockHash = template.getPreviousBlockHash();
+		this.minimumTime = template.getMinimumTime();
+		this.target = (template.getTarget().length() > 0) ? BtcTarget
+				.valueOf(template.getTarget()) : BtcTarget.fromBits(template
+				.getBits());
+		this.headerPrefix = new byte[36];
+		putInt(headerPrefix, 0, template.getVersion());
+		byte[] previous = BtcUtil.reverse(BtcUtil.hexToBytes(template
+				.getPreviousBlockHash()));
+		System.arraycopy(previous, 0, headerPrefix, 4, 32);
+		this.bits = new byte[4];
+		putInt(bits, 0, Long.parseLong(template.getBits(), 16));
+		this.coinbase1 = BtcUtil.hexToBytes(coinbase1);
+		this.coinbase2 = BtcUtil.hexToBytes(coinbase2);
+		this.extraNonceSize = extraNonceSize;
+		List<String> data = new ArrayList<String>(template.getTransactions()
+				.size());
+		for (BtcTransactionTemplate transaction : template.getTransactions()) {
+			data.add(transaction.getData());
+		}
+		this.transactions = Collections.unmodifiableList(data);
+		this.merkleBranch = merkleBranch(data);
+	}
+
+	public String getWorkId() {
+		return workId;
+	}
+
+	public long getHeight() {
+		return height;
+	}
+
+	public String getPreviousBlockHash() {
+		return previousBlockHash;
+	}
+
+	public long getMinimumTime() {
+		return minimumTime;
+	}
+
+	public BtcTarget getTarget() {
+		return target;
+	}
+
+	public int getExtraNonceSize() {
+		return extraNonceSize;
+	}
+
+	public List<String> getTransactions() {
+		return transactions;
+	}
+
+	int getCoinbaseLength() {
+		return coinbase1.length + extraNonceSize + coinbase2.length;
+	}
+
+	int writeCoinbase(byte[] buffer, long extraNonce) {
+		System.arraycopy(coinbase1, 0, buffer, 0, coinbase1.length);
+		int offset = coinbase1.length;
+		for (int i = extraNonceSize - 1; i >= 0; i--) {
+			buffer[offset + i] = (byte) extraNonce;
+			extraNonce >>>= 8;
+		}
+		offset += extraNonceSize;
+		System.arraycopy(coinbase2, 0, buffer, offset, coinbase2.length);
+		return offset + coinbase2.length;
+	}
+
+	byte[][] getMerkleBranch() {
+		return merkleBranch;
+	}
+
+	void writeHeader(byte[] header, byte[] merkleRoot, int rootOffset,
+			long time, long nonce) {
+		System.arraycopy(headerPrefix, 0, header, 0, 36);
+		System.arraycopy(merkleRoot, rootOffset, header, 36, 32);
+		putInt(header, 68, time);
+		System.arraycopy(bits, 0, header, 72, 4);
+		putInt(header, 76, nonce);
+	}
+
+	static void putInt(byte[] buffer, int offset, long value) {
+		buffer[offset] = (byte) value;
+		buffer[offset + 1] = (byte) (value >>> 8);
+		buffer[offset + 2] = (byte) (value >>> 16);
+		buffer[offset + 3] = (byte) (value >>> 24);
+	}
+
+	private static byte[][] merkleBranch(List<String> transactions) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		List<byte[]> level = new ArrayList<byte[]>(transactions.size() + 1);
+		level.add(null);
+		for (String transaction : transactions) {
+			level.add(digest.digest(digest.digest(BtcUtil
+					.hexToBytes(transaction))));
+		}
+		List<byte[]> branch = new ArrayList<byte[]>();
+		while (level.size() > 1) {
+			if ((level.size() & 1) != 0) {
+				level.add(level.get(level.size() - 1));
+			}
+			branch.add(level.get(1));
+			List<byte[]> next = new ArrayList<byte[]>(level.size() / 2);
+			next.add(null);
+			for (int i = 2; i < level.size(); i += 2) {
+				digest.update(level.get(i));
+				digest.update(level.get(i + 1));
+				next.add(digest.digest(digest.digest()));
+			}
+			level = next;
+		}
+		return branch.toArray(new byte[branch.size()][]);
+	}
+}
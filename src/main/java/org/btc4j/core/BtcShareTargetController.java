@@ -0,0 +1,194 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BtcShareTargetController {
+	public static final double MAXIMUM_ADJUSTMENT = 4.0;
+	private static final int BUCKETS = 16;
+	private static final long COUNT_MASK = 0xffffffL;
+	private final double initialDifficulty;
+	private final double minimumDifficulty;
+	private final double maximumDifficulty;
+	private final long shareInterval;
+	private final long retargetInterval;
+	private final long bucketWidth;
+	private final ConcurrentMap<String, Miner> miners = new ConcurrentHashMap<String, Miner>();
+	private volatile BtcTarget networkTarget = BtcTarget.DIFFICULTY_1;
+
+	public BtcShareTargetController(double initialDifficulty,
+			double minimumDifficulty, double maximumDifficulty,
+			long shareInterval, long retargetInterval, long window) {
+		if ((minimumDifficulty <= 0) || (maximumDifficulty < minimumDifficulty)
+				|| (shareInterval <= 0) || (retargetInterval <= 0)
+				|| (window <= 0)) {
+			throw new IllegalArgumentException("invalid vardiff parameters");
+		}
+		this.initialDifficulty = clamp(initialDifficulty, minimumDifficulty,
+				maximumDifficulty);
+		this.minimumDifficulty = minimumDifficulty;
+		this.maximumDifficulty = maximumDifficulty;
+		this.shareInterval = shareInterval;
+		this.retargetInterval = retargetInterval;
+		this.bucketWidth = Math.max(1, (window + BUCKETS - 1) / BUCKETS);
+	}
+
+	public void setTemplate(BtcBlockTemplate template) {
+		networkTarget = (template.getTarget().length() > 0) ? BtcTarget
+				.valueOf(template.getTarget()) : BtcTarget.fromBits(template
+				.getBits());
+	}
+
+	public BtcTarget getNetworkTarget() {
+		return networkTarget;
+	}
+
+	public BtcTarget getShareTarget(String miner) {
+		Miner state = getMiner(miner);
+		retarget(state, now());
+		BtcTarget network = networkTarget;
+		BtcTarget target = state.target;
+		return (target.compareTo(network) < 0) ? network : target;
+	}
+
+	public double getDifficulty(String miner) {
+		return getMiner(miner).difficulty;
+	}
+
+	public void setDifficulty(String miner, double difficulty) {
+		Miner state = getMiner(miner);
+		state.update(clamp(difficulty, minimumDifficulty, maximumDifficulty));
+	}
+
+	public double getShareRate(String miner) {
+		Miner state = miners.get(miner);
+		return (state == null) ? 0 : state.rate(now());
+	}
+
+	public boolean recordShare(String miner) {
+		Miner state = getMiner(miner);
+		long now = now();
+		state.record(now);
+		return retarget(state, now);
+	}
+
+	public void removeMiner(String miner) {
+		miners.remove(miner);
+	}
+
+	public int getMinerCount() {
+		return miners.size();
+	}
+
+	private Miner getMiner(String miner) {
+		Miner state = miners.get(miner);
+		if (state == null) {
+			Miner created = new Miner(now(), initialDifficulty);
+			state = miners.putIfAbsent(miner, created);
+			if (state == null) {
+				state = created;
+			}
+		}
+		return state;
+	}
+
+	private boolean retarget(Miner state, long now) {
+		long last = state.lastRetarget.get();
+		if (((now - last) < retargetInterval)
+				|| !state.lastRetarget.compareAndSet(last, now)) {
+			return false;
+		}
+		double rate = state.rate(now);
+		double adjustment = clamp(rate * shareInterval,
+				1 / MAXIMUM_ADJUSTMENT, MAXIMUM_ADJUSTMENT);
+		double difficulty = clamp(state.difficulty * adjustment,
+				minimumDifficulty, maximumDifficulty);
+		if (difficulty == state.difficulty) {
+			return false;
+		}
+		state.update(difficulty);
+		return true;
+	}
+
+	private static double clamp(double value, double minimum, double maximum) {
+		return (value < minimum) ? minimum : ((value > maximum) ? maximum
+				: value);
+	}
+
+	protected long now() {
+		return System.currentTimeMillis() / 1000;
+	}
+
+	private final class Miner {
+		private final long created;
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final AtomicLong lastRetarget;
+		private volatile double difficulty;
+		private volatile BtcTarget target;
+
+		private Miner(long now, double difficulty) {
+			this.created = now;
+			this.lastRetarget = new AtomicLong(now);
+			update(difficulty);
+		}
+
+		private void update(double difficulty) {
+			this.target = BtcTarget.fromDifficulty(difficulty);
+			this.difficulty = difficulty;
+		}
+
+		private void record(long now) {
+			long slot = now / bucketWidth;
+			int index = (int) (slot % BUCKETS);
+			while (true) {
+				long value = buckets.get(index);
+				long next = ((value >>> 24) == slot) ? (((value & COUNT_MASK) == COUNT_MASK) ? value
+						: value + 1)
+						: ((slot << 24) | 1);
+				if (buckets.compareAndSet(index, value, next)) {
+					return;
+				}
+			}
+		}
+
+		private double rate(long now) {
+			long slot = now / bucketWidth;
+			long count = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				long value = buckets.get(i);
+				long age = slot - (value >>> 24);
+				if ((age >= 0) && (age < BUCKETS)) {
+					count += value & COUNT_MASK;
+				}
+			}
+			long elapsed = Math.min(BUCKETS * bucketWidth, now - created);
+			return count / (double) Math.max(bucketWidth, elapsed);
+		}
+	}
+}
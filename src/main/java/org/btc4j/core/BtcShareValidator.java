@@ -0,0 +1,174 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BtcShareValidator {
+	public static final long MAXIMUM_FUTURE_TIME = 7200;
+	private final BtcApi api;
+	private final ConcurrentMap<String, BtcShareJob> jobs = new ConcurrentHashMap<String, BtcShareJob>();
+	private final AtomicLong jobCounter = new AtomicLong();
+	private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	public enum Result {
+		BLOCK, SHARE, LOW_DIFFICULTY, STALE, TIME_OUT_OF_RANGE
+	}
+
+	public BtcShareValidator(BtcApi api) {
+		this.api = api;
+	}
+
+	public BtcShareJob addJob(BtcBlockTemplate template, String coinbase1,
+			String coinbase2, int extraNonceSize) {
+		String workId = template.getWorkId();
+		if (workId.length() == 0) {
+			workId = Long.toHexString(jobCounter.incrementAndGet());
+		}
+		BtcShareJob job = new BtcShareJob(workId, template, coinbase1,
+				coinbase2, extraNonceSize);
+		Iterator<BtcShareJob> iterator = jobs.values().iterator();
+		while (iterator.hasNext()) {
+			if (!job.getPreviousBlockHash().equals(
+					iterator.next().getPreviousBlockHash())) {
+				iterator.remove();
+			}
+		}
+		jobs.put(workId, job);
+		return job;
+	}
+
+	public BtcShareJob getJob(String workId) {
+		return jobs.get(workId);
+	}
+
+	public void removeJob(String workId) {
+		jobs.remove(workId);
+	}
+
+	public void clearJobs() {
+		jobs.clear();
+	}
+
+	public Result validate(String workId, long extraNonce, long time,
+			long nonce, BtcTarget shareTarget) throws BtcException {
+		BtcShareJob job = jobs.get(workId);
+		if (job == null) {
+			return Result.STALE;
+		}
+		if ((time < job.getMinimumTime())
+				|| (time > (System.currentTimeMillis() / 1000)
+						+ MAXIMUM_FUTURE_TIME)) {
+			return Result.TIME_OUT_OF_RANGE;
+		}
+		Scratch s = scratch.get();
+		try {
+			int length = job.getCoinbaseLength();
+			if (s.coinbase.length < length) {
+				s.coinbase = new byte[length];
+			}
+			job.writeCoinbase(s.coinbase, extraNonce);
+			s.doubleDigest(s.coinbase, 0, length, s.pair, 0);
+			for (byte[] branch : job.getMerkleBranch()) {
+				System.arraycopy(branch, 0, s.pair, 32, 32);
+				s.doubleDigest(s.pair, 0, 64, s.pair, 0);
+			}
+			job.writeHeader(s.header, s.pair, 0, time, nonce);
+			s.doubleDigest(s.header, 0, 80, s.hash, 0);
+		} catch (DigestException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+		if (job.getTarget().isMetBy(s.hash)) {
+			BtcBlockSubmission submission = api.submitBlock(
+					encodeBlock(job, s, extraNonce), job.getWorkId(),
+					new HashMap<String, String>());
+			return submission.isAccepted() ? Result.BLOCK : Result.SHARE;
+		}
+		BtcTarget target = (shareTarget == null) ? job.getTarget()
+				: shareTarget;
+		return target.isMetBy(s.hash) ? Result.SHARE : Result.LOW_DIFFICULTY;
+	}
+
+	private static String encodeBlock(BtcShareJob job, Scratch s,
+			long extraNonce) {
+		int length = job.writeCoinbase(s.coinbase, extraNonce);
+		StringBuilder builder = new StringBuilder();
+		builder.append(BtcUtil.bytesToHex(s.header));
+		long count = job.getTransactions().size() + 1;
+		if (count < 0xfd) {
+			builder.append(BtcUtil.bytesToHex(new byte[] { (byte) count }));
+		} else if (count <= 0xffff) {
+			builder.append(BtcUtil.bytesToHex(new byte[] { (byte) 0xfd,
+					(byte) count, (byte) (count >>> 8) }));
+		} else {
+			byte[] varint = new byte[5];
+			varint[0] = (byte) 0xfe;
+			BtcShareJob.putInt(varint, 1, count);
+			builder.append(BtcUtil.bytesToHex(varint));
+		}
+		builder.append(BtcUtil.bytesToHex(s.coinbase, 0, length));
+		for (String transaction : job.getTransactions()) {
+			builder.append(transaction);
+		}
+		return builder.toString();
+	}
+
+	private static final class Scratch {
+		private final MessageDigest digest;
+		private final byte[] header = new byte[80];
+		private final byte[] pair = new byte[64];
+		private final byte[] hash = new byte[32];
+		private byte[] coinbase = new byte[256];
+
+		private Scratch() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private void doubleDigest(byte[] input, int offset, int length,
+				byte[] output, int outputOffset) throws DigestException {
+			digest.update(input, offset, length);
+			digest.digest(output, outputOffset, 32);
+			digest.update(output, outputOffset, 32);
+			digest.digest(output, outputOffset, 32);
+		}
+	}
+}
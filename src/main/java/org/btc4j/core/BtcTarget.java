@@ -0,0 +1,177 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+public final class BtcTarget implements Serializable, Comparable<BtcTarget> {
+	private static final long serialVersionUID = 4526711583312407741L;
+	private static final BigInteger MAXIMUM = BigInteger.ONE.shiftLeft(256)
+			.subtract(BigInteger.ONE);
+	public static final BtcTarget DIFFICULTY_1 = valueOf(BigInteger.valueOf(
+			0xffffL).shiftLeft(208));
+	private final long word0;
+	private final long word1;
+	private final long word2;
+	private final long word3;
+
+	private BtcTarget(BigInteger value) {
+		word0 = value.shiftRight(192).longValue();
+		word1 = value.shiftRight(128).longValue();
+		word2 = value.shiftRight(64).longValue();
+		word3 = value.longValue();
+	}
+
+	public static BtcTarget valueOf(BigInteger value) {
+		if (value.signum() <= 0) {
+			return new BtcTarget(BigInteger.ONE);
+		}
+		return new BtcTarget((value.compareTo(MAXIMUM) > 0) ? MAXIMUM : value);
+	}
+
+	public static BtcTarget valueOf(String hex) {
+		return valueOf(new BigInteger(hex, 16));
+	}
+
+	public static BtcTarget fromBits(String bits) {
+		long compact = Long.parseLong(bits, 16);
+		int size = (int) (compact >>> 24);
+		BigInteger mantissa = BigInteger.valueOf(compact & 0x007fffffL);
+		return valueOf((size <= 3) ? mantissa.shiftRight(8 * (3 - size))
+				: mantissa.shiftLeft(8 * (size - 3)));
+	}
+
+	public static BtcTarget fromDifficulty(double difficulty) {
+		if (difficulty <= 0) {
+			return valueOf(MAXIMUM);
+		}
+		return valueOf(new BigDecimal(DIFFICULTY_1.toBigInteger()).divide(
+				BigDecimal.valueOf(difficulty), 0, RoundingMode.DOWN)
+				.toBigInteger());
+	}
+
+	public boolean isMetBy(byte[] hash) {
+		return isMetBy(hash, 0);
+	}
+
+	public boolean isMetBy(byte[] hash, int offset) {
+		int cmp = compareUnsigned(word(hash, offset + 24), word0);
+		if (cmp == 0) {
+			cmp = compareUnsigned(word(hash, offset + 16), word1);
+			if (cmp == 0) {
+				cmp = compareUnsigned(word(hash, offset + 8), word2);
+				if (cmp == 0) {
+					cmp = compareUnsigned(word(hash, offset), word3);
+				}
+			}
+		}
+		return cmp <= 0;
+	}
+
+	public BtcTarget multiply(double factor) {
+		return valueOf(new BigDecimal(toBigInteger()).multiply(
+				BigDecimal.valueOf(factor)).toBigInteger());
+	}
+
+	public double getDifficulty() {
+		return new BigDecimal(DIFFICULTY_1.toBigInteger()).divide(
+				new BigDecimal(toBigInteger()), 8, RoundingMode.HALF_UP)
+				.doubleValue();
+	}
+
+	public BigInteger toBigInteger() {
+		byte[] bytes = new byte[33];
+		put(bytes, 1, word0);
+		put(bytes, 9, word1);
+		put(bytes, 17, word2);
+		put(bytes, 25, word3);
+		return new BigInteger(bytes);
+	}
+
+	@Override
+	public int compareTo(BtcTarget other) {
+		int cmp = compareUnsigned(word0, other.word0);
+		if (cmp == 0) {
+			cmp = compareUnsigned(word1, other.word1);
+			if (cmp == 0) {
+				cmp = compareUnsigned(word2, other.word2);
+				if (cmp == 0) {
+					cmp = compareUnsigned(word3, other.word3);
+				}
+			}
+		}
+		return cmp;
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = word0 ^ (word1 * 31) ^ (word2 * 961) ^ (word3 * 29791);
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof BtcTarget))
+			return false;
+		return compareTo((BtcTarget) obj) == 0;
+	}
+
+	@Override
+	public String toString() {
+		String hex = toBigInteger().toString(16);
+		StringBuilder builder = new StringBuilder(64);
+		for (int i = hex.length(); i < 64; i++) {
+			builder.append('0');
+		}
+		builder.append(hex);
+		return builder.toString();
+	}
+
+	private static long word(byte[] hash, int offset) {
+		long value = 0;
+		for (int i = 7; i >= 0; i--) {
+			value = (value << 8) | (hash[offset + i] & 0xffL);
+		}
+		return value;
+	}
+
+	private static void put(byte[] bytes, int offset, long value) {
+		for (int i = 7; i >= 0; i--) {
+			bytes[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	private static int compareUnsigned(long x, long y) {
+		x ^= Long.MIN_VALUE;
+		y ^= Long.MIN_VALUE;
+		return (x < y) ? -1 : ((x == y) ? 0 : 1);
+	}
+}
@@ -40,9 +40,15 @@ public class BtcTransaction extends BtcTransactionBase {
 		RECEIVE, SEND, NULL;
 
 		public static Category getValue(String value) {
-			try {
-				return Category.valueOf(value.toUpperCase());
-			} catch (Throwable t) {
+			if (value == null) {
+				return NULL;
+			}
+			switch (value.toUpperCase()) {
+			case "RECEIVE":
+				return RECEIVE;
+			case "SEND":
+				return SEND;
+			default:
 				return NULL;
 			}
 		}
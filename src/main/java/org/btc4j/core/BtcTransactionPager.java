@@ -0,0 +1,140 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BtcTransactionPager {
+	private final BtcApi api;
+	private final String account;
+	private final long count;
+	private final ExecutorService executor;
+	private final boolean ownExecutor;
+	private long from = 0;
+	private Future<List<BtcTransaction>> pending;
+	private List<BtcTransaction> page = Collections.emptyList();
+	private int index = 0;
+
+	public BtcTransactionPager(BtcApi api, String account, long count) {
+		this(api, account, count, Executors.newSingleThreadExecutor(), true);
+	}
+
+	public BtcTransactionPager(BtcApi api, String account, long count,
+			ExecutorService executor) {
+		this(api, account, count, executor, false);
+	}
+
+	private BtcTransactionPager(BtcApi api, String account, long count,
+			ExecutorService executor, boolean ownExecutor) {
+		this.api = api;
+		this.account = BtcUtil.notNull(account);
+		this.count = BtcUtil.atLeast(count, 1);
+		this.executor = executor;
+		this.ownExecutor = ownExecutor;
+		this.pending = fetch(0);
+	}
+
+	public boolean hasNext() throws BtcException {
+		while (index >= page.size()) {
+			if (pending == null) {
+				return false;
+			}
+			page = nextPage();
+			index = 0;
+		}
+		return true;
+	}
+
+	public BtcTransaction next() throws BtcException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return page.get(index++);
+	}
+
+	public List<BtcTransaction> nextPage() throws BtcException {
+		if (pending == null) {
+			return Collections.emptyList();
+		}
+		List<BtcTransaction> current = await(pending);
+		if (current.size() < count) {
+			close();
+		} else {
+			from += count;
+			pending = fetch(from);
+		}
+		return current;
+	}
+
+	public long getOffset() {
+		return from;
+	}
+
+	public void close() {
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	private Future<List<BtcTransaction>> fetch(final long offset) {
+		return executor.submit(new Callable<List<BtcTransaction>>() {
+			@Override
+			public List<BtcTransaction> call() throws BtcException {
+				return api.listTransactions(account, count, offset);
+			}
+		});
+	}
+
+	private List<BtcTransaction> await(Future<List<BtcTransaction>> future)
+			throws BtcException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		} catch (ExecutionException e) {
+			close();
+			if (e.getCause() instanceof BtcException) {
+				throw (BtcException) e.getCause();
+			}
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": "
+							+ e.getCause().getMessage(), e.getCause());
+		}
+	}
+}
@@ -31,7 +31,8 @@ import java.util.Arrays;
 public class BtcTransactionTemplate implements Serializable {
 	private static final long serialVersionUID = 691792420399697789L;
 	private String data = "";
-	private long[] depends = new long[] {};
+	private static final long[] NO_DEPENDS = new long[] {};
+	private long[] depends = NO_DEPENDS;
 	private BigDecimal fee = BigDecimal.ZERO;
 	private String hash = "";
 	private boolean required = false;
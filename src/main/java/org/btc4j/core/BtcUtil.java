@@ -25,12 +25,16 @@
 package org.btc4j.core;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class BtcUtil {
+	private static final char[] HEX_DIGITS = "0123456789abcdef"
+			.toCharArray();
+	private static final long[] EMPTY_LONGS = new long[] {};
 
 	public static long atLeast(long value, long least) {
 		return (value < least) ? least : value;
@@ -46,6 +50,15 @@ public class BtcUtil {
 		return value ? 1 : 0;
 	}
 
+	public static long toSatoshis(BigDecimal value) {
+		return notNull(value).movePointRight(8)
+				.setScale(0, RoundingMode.HALF_UP).longValue();
+	}
+
+	public static BigDecimal fromSatoshis(long value) {
+		return BigDecimal.valueOf(value, 8);
+	}
+
 	public static String nil(String value) {
 		return (value == null) ? null : (((value.length() == 0) || ("null"
 				.equalsIgnoreCase(value))) ? null : value);
@@ -106,6 +119,46 @@ public class BtcUtil {
 	}
 
 	public static long[] notNull(long[] value) {
-		return (value == null) ? new long[] {} : value;
+		return (value == null) ? EMPTY_LONGS : value;
+	}
+
+	public static byte[] hexToBytes(String hex) {
+		int length = hex.length();
+		if ((length & 1) != 0) {
+			throw new IllegalArgumentException("odd hex length: " + length);
+		}
+		byte[] bytes = new byte[length >> 1];
+		for (int i = 0; i < bytes.length; i++) {
+			int hi = Character.digit(hex.charAt(i << 1), 16);
+			int lo = Character.digit(hex.charAt((i << 1) + 1), 16);
+			if ((hi < 0) || (lo < 0)) {
+				throw new IllegalArgumentException("invalid hex: " + hex);
+			}
+			bytes[i] = (byte) ((hi << 4) | lo);
+		}
+		return bytes;
+	}
+
+	public static String bytesToHex(byte[] bytes) {
+		return bytesToHex(bytes, 0, bytes.length);
+	}
+
+	public static String bytesToHex(byte[] bytes, int offset, int length) {
+		char[] chars = new char[length << 1];
+		for (int i = 0; i < length; i++) {
+			int value = bytes[offset + i] & 0xff;
+			chars[i << 1] = HEX_DIGITS[value >>> 4];
+			chars[(i << 1) + 1] = HEX_DIGITS[value & 0x0f];
+		}
+		return new String(chars);
+	}
+
+	public static byte[] reverse(byte[] bytes) {
+		for (int i = 0, j = bytes.length - 1; i < j; i++, j--) {
+			byte swap = bytes[i];
+			bytes[i] = bytes[j];
+			bytes[j] = swap;
+		}
+		return bytes;
 	}
 }
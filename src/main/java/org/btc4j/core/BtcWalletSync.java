@@ -0,0 +1,283 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class BtcWalletSync {
+	private final BtcApi api;
+	private final File journal;
+	private final long targetConfirms;
+	private final ConcurrentMap<String, BtcTransaction> transactions = new ConcurrentHashMap<String, BtcTransaction>();
+	private volatile String lastBlock = "";
+
+	public BtcWalletSync(BtcApi api, File journal, long targetConfirms)
+			throws BtcException {
+		this.api = api;
+		this.journal = journal;
+		this.targetConfirms = BtcUtil.atLeast(targetConfirms, 1);
+		if ((journal != null) && journal.exists()) {
+			load();
+		}
+	}
+
+	public String getLastBlock() {
+		return lastBlock;
+	}
+
+	public BtcTransaction getTransaction(String transactionId) {
+		return transactions.get(transactionId);
+	}
+
+	public Collection<BtcTransaction> getTransactions() {
+		return Collections.unmodifiableCollection(transactions.values());
+	}
+
+	public synchronized int sync() throws BtcException {
+		BtcLastBlock delta = api.listSinceBlock(lastBlock, targetConfirms);
+		Map<String, BtcTransaction> changed = merge(delta.getTransactions());
+		if ((journal != null)
+				&& (!changed.isEmpty() || !delta.getLastBlock().equals(
+						lastBlock))) {
+			BtcLastBlock record = new BtcLastBlock();
+			record.setLastBlock(delta.getLastBlock());
+			record.setTransactions(new ArrayList<BtcTransaction>(changed
+					.values()));
+			append(record);
+		}
+		for (BtcTransaction transaction : changed.values()) {
+			apply(transaction);
+		}
+		lastBlock = delta.getLastBlock();
+		return changed.size();
+	}
+
+	public synchronized void compact() throws BtcException {
+		if (journal == null) {
+			return;
+		}
+		BtcLastBlock snapshot = new BtcLastBlock();
+		snapshot.setLastBlock(lastBlock);
+		snapshot.setTransactions(new ArrayList<BtcTransaction>(transactions
+				.values()));
+		File temporary = new File(journal.getPath() + ".tmp");
+		try {
+			write(temporary, snapshot, false);
+			if (!temporary.renameTo(journal)
+					&& !(journal.delete() && temporary.renameTo(journal))) {
+				throw new IOException("cannot replace " + journal);
+			}
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	private Map<String, BtcTransaction> merge(List<BtcTransaction> entries) {
+		Map<String, BtcTransaction> changed = new LinkedHashMap<String, BtcTransaction>();
+		for (BtcTransaction entry : entries) {
+			String id = entry.getTransaction();
+			BtcTransaction existing = changed.get(id);
+			if (existing == null) {
+				existing = transactions.get(id);
+			}
+			BtcTransaction merged = merge(existing, entry);
+			if (existing == null) {
+				if (merged.getConfirmations() >= 0) {
+					changed.put(id, merged);
+				}
+			} else if (!same(existing, merged)) {
+				changed.put(id, merged);
+			}
+		}
+		return changed;
+	}
+
+	private void apply(BtcTransaction transaction) {
+		if (transaction.getConfirmations() < 0) {
+			transactions.remove(transaction.getTransaction());
+		} else {
+			transactions.put(transaction.getTransaction(), transaction);
+		}
+	}
+
+	static BtcTransaction merge(BtcTransaction existing, BtcTransaction update) {
+		BtcTransaction merged = new BtcTransaction();
+		merged.setTransaction(update.getTransaction());
+		merged.setAmount(update.getAmount());
+		merged.setFee(update.getFee());
+		merged.setConfirmations(update.getConfirmations());
+		merged.setTime(update.getTime());
+		merged.setTimeReceived(update.getTimeReceived());
+		merged.setBlockHash(update.getBlockHash());
+		merged.setBlockIndex(update.getBlockIndex());
+		merged.setBlockTime(update.getBlockTime());
+		Map<String, BtcTransactionDetail> details = new LinkedHashMap<String, BtcTransactionDetail>();
+		if (existing != null) {
+			for (BtcTransactionDetail detail : existing.getDetails()) {
+				details.put(key(detail), detail);
+			}
+		}
+		for (BtcTransactionDetail detail : update.getDetails()) {
+			details.put(key(detail), detail);
+		}
+		merged.setDetails(new ArrayList<BtcTransactionDetail>(details
+				.values()));
+		return merged;
+	}
+
+	private static boolean same(BtcTransaction a, BtcTransaction b) {
+		if ((a.getConfirmations() != b.getConfirmations())
+				|| (a.getBlockIndex() != b.getBlockIndex())
+				|| (a.getBlockTime() != b.getBlockTime())
+				|| !a.getBlockHash().equals(b.getBlockHash())
+				|| (a.getAmount().compareTo(b.getAmount()) != 0)
+				|| (a.getFee().compareTo(b.getFee()) != 0)
+				|| (a.getDetails().size() != b.getDetails().size())) {
+			return false;
+		}
+		for (int i = 0; i < a.getDetails().size(); i++) {
+			if (!key(a.getDetails().get(i)).equals(
+					key(b.getDetails().get(i)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String key(BtcTransactionDetail detail) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(detail.getAccount());
+		builder.append('\n');
+		builder.append(detail.getAddress());
+		builder.append('\n');
+		builder.append(detail.getCategory());
+		builder.append('\n');
+		builder.append(detail.getAmount().stripTrailingZeros().toPlainString());
+		return builder.toString();
+	}
+
+	private void load() throws BtcException {
+		DataInputStream in = null;
+		long valid = 0;
+		try {
+			in = new DataInputStream(new FileInputStream(journal));
+			while (true) {
+				byte[] bytes;
+				try {
+					bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+				} catch (EOFException e) {
+					break;
+				}
+				valid += 4 + bytes.length;
+				ObjectInputStream record = new ObjectInputStream(
+						new ByteArrayInputStream(bytes));
+				BtcLastBlock delta = (BtcLastBlock) record.readObject();
+				for (BtcTransaction transaction : delta.getTransactions()) {
+					apply(transaction);
+				}
+				lastBlock = delta.getLastBlock();
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		} finally {
+			close(in);
+		}
+		if (journal.length() > valid) {
+			truncate(valid);
+		}
+	}
+
+	private void truncate(long length) throws BtcException {
+		try {
+			RandomAccessFile file = new RandomAccessFile(journal, "rw");
+			try {
+				file.setLength(length);
+			} finally {
+				file.close();
+			}
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	private void append(BtcLastBlock record) throws BtcException {
+		try {
+			write(journal, record, true);
+		} catch (IOException e) {
+			throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+					BtcException.BTC4J_ERROR_MESSAGE + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static void write(File file, BtcLastBlock record, boolean append)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream object = new ObjectOutputStream(bytes);
+		object.writeObject(record);
+		object.close();
+		FileOutputStream stream = new FileOutputStream(file, append);
+		try {
+			DataOutputStream out = new DataOutputStream(stream);
+			out.writeInt(bytes.size());
+			bytes.writeTo(out);
+			out.flush();
+			stream.getFD().sync();
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static void close(DataInputStream in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcAddressPoolTest {
+	private final AtomicInteger addresses = new AtomicInteger();
+	private final AtomicInteger refills = new AtomicInteger();
+	private final AtomicBoolean failing = new AtomicBoolean();
+	private BtcApi api;
+	private BtcAddressPool pool;
+
+	@Before
+	public void setUp() {
+		api = (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws BtcException {
+						String name = method.getName();
+						if ("getNewAddress".equals(name)) {
+							if (failing.get()) {
+								throw new BtcException(
+										BtcException.BTC4J_ERROR_CODE,
+										"wallet locked");
+							}
+							return args[0] + "-" + addresses.incrementAndGet();
+						} else if ("getInformation".equals(name)) {
+							BtcInfo info = new BtcInfo();
+							info.setKeyPoolSize(1);
+							return info;
+						} else if ("keyPoolRefill".equals(name)) {
+							refills.incrementAndGet();
+							return null;
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+	}
+
+	@After
+	public void tearDown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void prefetchFillsPool() throws Exception {
+		pool = new BtcAddressPool(api, 5, 2, 0, 60000);
+		pool.prefetch("alice");
+		awaitAvailable("alice", 5);
+		assertEquals(5, addresses.get());
+		assertEquals(0, refills.get());
+		assertEquals("alice-1", pool.getNewAddress("alice"));
+		assertEquals(4, pool.getAvailable("alice"));
+	}
+
+	@Test
+	public void refillStartsAtWatermark() throws Exception {
+		pool = new BtcAddressPool(api, 5, 2, 0, 60000);
+		pool.prefetch("alice");
+		awaitAvailable("alice", 5);
+		pool.getNewAddress("alice");
+		pool.getNewAddress("alice");
+		Thread.sleep(50);
+		assertEquals(3, pool.getAvailable("alice"));
+		assertEquals(5, addresses.get());
+		assertEquals("alice-3", pool.getNewAddress("alice"));
+		awaitAvailable("alice", 5);
+		assertEquals(8, addresses.get());
+	}
+
+	@Test
+	public void zeroWatermarkRefillsWhenEmpty() throws Exception {
+		pool = new BtcAddressPool(api, 3, 0, 0, 60000);
+		pool.prefetch("alice");
+		awaitAvailable("alice", 3);
+		pool.getNewAddress("alice");
+		pool.getNewAddress("alice");
+		Thread.sleep(50);
+		assertEquals(1, pool.getAvailable("alice"));
+		assertEquals("alice-3", pool.getNewAddress("alice"));
+		awaitAvailable("alice", 3);
+		assertEquals(6, addresses.get());
+	}
+
+	@Test
+	public void emptyPoolFallsBackToDirectCall() throws Exception {
+		pool = new BtcAddressPool(api, 2, 1, 0, 60000);
+		assertTrue(pool.getNewAddress("bob").startsWith("bob-"));
+		awaitAvailable("bob", 2);
+		assertEquals(3, addresses.get());
+	}
+
+	@Test
+	public void lowKeyPoolTriggersRefill() throws Exception {
+		pool = new BtcAddressPool(api, 2, 1, 10, 60000);
+		pool.prefetch("alice");
+		awaitAvailable("alice", 2);
+		assertEquals(1, refills.get());
+	}
+
+	@Test
+	public void lastErrorIsRecordedAndCleared() throws Exception {
+		pool = new BtcAddressPool(api, 2, 1, 0, 60000);
+		failing.set(true);
+		pool.prefetch("alice");
+		long deadline = System.currentTimeMillis() + 5000;
+		while ((pool.getLastError() == null)
+				&& (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(1);
+		}
+		assertEquals("wallet locked", pool.getLastError().getMessage());
+		assertEquals(0, pool.getAvailable("alice"));
+		failing.set(false);
+		pool.prefetch("alice");
+		awaitAvailable("alice", 2);
+		assertNull(pool.getLastError());
+	}
+
+	@Test
+	public void nonPositiveCheckIntervalIsClamped() throws Exception {
+		pool = new BtcAddressPool(api, 2, 1, 0, 0);
+		pool.prefetch("alice");
+		awaitAvailable("alice", 2);
+	}
+
+	private void awaitAvailable(String account, int expected)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while ((pool.getAvailable(account) != expected)
+				&& (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(1);
+		}
+		assertEquals(expected, pool.getAvailable(account));
+	}
+}
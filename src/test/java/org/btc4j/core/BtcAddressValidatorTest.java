@@ -0,0 +1,86 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BtcAddressValidatorTest {
+	private final BtcAddressValidator mainnet = new BtcAddressValidator();
+	private final BtcAddressValidator testnet = new BtcAddressValidator(true);
+
+	@Test
+	public void decode() {
+		byte[] hash = new byte[20];
+		assertEquals(BtcAddressValidator.PUBKEYHASH_VERSION,
+				mainnet.decode("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN2", hash));
+		assertArrayEquals(BtcUtil
+				.hexToBytes("77bff20c60e522dfaa3350c39b030a5d004e839a"), hash);
+		assertEquals(BtcAddressValidator.SCRIPTHASH_VERSION,
+				mainnet.decode("3J98t1WpEZ73CNmQviecrnyiWrnqRhWNLy", hash));
+		assertArrayEquals(BtcUtil
+				.hexToBytes("b472a266d0bd89c13706a4132ccfb16f7c3b9fcb"), hash);
+		assertEquals(BtcAddressValidator.TESTNET_PUBKEYHASH_VERSION,
+				testnet.decode("mipcBbFg9gMiCh81Kj8tqqdgoZub1ZJRfn", hash));
+		assertEquals(BtcAddressValidator.TESTNET_SCRIPTHASH_VERSION,
+				testnet.decode("2MzQwSSnBHWHqSAqtTVQ6v47XtaisrJa1Vc", hash));
+		assertArrayEquals(BtcUtil
+				.hexToBytes("4e9f39ca4688ff102128ea4ccda34105324305b0"), hash);
+	}
+
+	@Test
+	public void isValid() {
+		assertTrue(mainnet.isValid("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN2"));
+		assertFalse(mainnet.isValid("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN3"));
+		assertFalse(mainnet.isValid("mipcBbFg9gMiCh81Kj8tqqdgoZub1ZJRfn"));
+		assertFalse(testnet.isValid("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN2"));
+		assertFalse(mainnet.isValid(""));
+		assertFalse(mainnet.isValid(null));
+		assertFalse(mainnet.isValid("1NS17iag9jJgTHD1VXjvLCEnZuQ3rJDE9L0"));
+	}
+
+	@Test
+	public void isScript() {
+		assertTrue(mainnet.isScript("3J98t1WpEZ73CNmQviecrnyiWrnqRhWNLy"));
+		assertFalse(mainnet.isScript("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN2"));
+		assertTrue(testnet.isScript("2MzQwSSnBHWHqSAqtTVQ6v47XtaisrJa1Vc"));
+	}
+
+	@Test
+	public void validateAddress() {
+		BtcAddress address = mainnet
+				.validateAddress("3J98t1WpEZ73CNmQviecrnyiWrnqRhWNLy");
+		assertTrue(address.isValid());
+		assertTrue(address.isScript());
+		assertEquals("3J98t1WpEZ73CNmQviecrnyiWrnqRhWNLy",
+				address.getAddress());
+		assertFalse(mainnet.validateAddress("3J98t1WpEZ73CNmQviecrnyiWrnqRhWNLz")
+				.isValid());
+	}
+}
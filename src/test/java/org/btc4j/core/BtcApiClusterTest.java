@@ -0,0 +1,178 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcApiClusterTest {
+	private final List<Node> nodes = new ArrayList<Node>();
+	private final List<BtcApi> backends = new ArrayList<BtcApi>();
+	private BtcApiCluster cluster;
+
+	@Before
+	public void setUp() {
+		for (int i = 0; i < 3; i++) {
+			Node node = new Node("node" + i, 100);
+			nodes.add(node);
+			backends.add((BtcApi) Proxy.newProxyInstance(
+					BtcApi.class.getClassLoader(),
+					new Class<?>[] { BtcApi.class }, node));
+		}
+		cluster = new BtcApiCluster(backends);
+		cluster.check();
+	}
+
+	@After
+	public void tearDown() {
+		cluster.shutdown();
+	}
+
+	@Test
+	public void sendRawTransactionIsNotRetried() throws Exception {
+		nodes.get(0).failing.add("sendRawTransaction");
+		try {
+			cluster.getApi().sendRawTransaction("00");
+			fail("send was retried on another node");
+		} catch (BtcException e) {
+			assertEquals(BtcException.BTC4J_ERROR_CODE, e.getCode());
+		}
+		assertEquals(Arrays.asList("sendRawTransaction"), nodes.get(0).calls());
+		assertEquals(Collections.emptyList(), nodes.get(1).calls());
+		assertEquals(Collections.emptyList(), nodes.get(2).calls());
+	}
+
+	@Test
+	public void walletCallsUseTheWalletNode() throws Exception {
+		for (int i = 0; i < 6; i++) {
+			assertEquals("node0", cluster.getApi().getNewAddress(""));
+		}
+		nodes.get(0).failing.add("getNewAddress");
+		try {
+			cluster.getApi().getNewAddress("");
+			fail("wallet call failed over");
+		} catch (BtcException e) {
+			assertEquals(BtcException.BTC4J_ERROR_CODE, e.getCode());
+		}
+		assertEquals(Collections.emptyList(), nodes.get(1).calls());
+		assertEquals(Collections.emptyList(), nodes.get(2).calls());
+	}
+
+	@Test
+	public void readsFailOver() throws Exception {
+		nodes.get(0).failing.add("getBlockHash");
+		nodes.get(1).failing.add("getBlockHash");
+		for (int i = 0; i < 6; i++) {
+			assertEquals("node2", cluster.getApi().getBlockHash(1));
+		}
+		nodes.get(2).failing.add("getBlockHash");
+		try {
+			cluster.getApi().getBlockHash(1);
+			fail("all nodes failed");
+		} catch (BtcException e) {
+			assertEquals(BtcException.BTC4J_ERROR_CODE, e.getCode());
+		}
+	}
+
+	@Test
+	public void laggingNodeIsSkipped() throws Exception {
+		nodes.get(2).height = 99;
+		cluster.check();
+		assertEquals(100, cluster.getBestHeight());
+		for (int i = 0; i < 12; i++) {
+			assertTrue(!"node2".equals(cluster.getApi().getBlockHash(1)));
+		}
+		assertEquals(Collections.emptyList(), nodes.get(2).calls());
+	}
+
+	@Test
+	public void nonPositiveCheckIntervalIsClamped() throws Exception {
+		BtcApiCluster clamped = new BtcApiCluster(backends, 0, 0, 0,
+				BtcApiCluster.DEFAULT_EJECT_TIME,
+				BtcApiCluster.DEFAULT_FAILURE_THRESHOLD);
+		try {
+			long deadline = System.currentTimeMillis() + 5000;
+			while ((clamped.getBestHeight() != 100)
+					&& (System.currentTimeMillis() < deadline)) {
+				Thread.sleep(1);
+			}
+			assertEquals(100, clamped.getBestHeight());
+		} finally {
+			clamped.shutdown();
+		}
+	}
+
+	private static final class Node implements InvocationHandler {
+		private final String name;
+		private final List<String> calls = new ArrayList<String>();
+		private final Set<String> failing = Collections
+				.synchronizedSet(new HashSet<String>());
+		private volatile long height;
+
+		private Node(String name, long height) {
+			this.name = name;
+			this.height = height;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+				throws BtcException {
+			String call = method.getName();
+			if ("getBlockCount".equals(call)) {
+				return height;
+			}
+			synchronized (calls) {
+				calls.add(call);
+			}
+			if (failing.contains(call)) {
+				throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+						BtcException.BTC4J_ERROR_MESSAGE + ": " + name
+								+ " unavailable");
+			}
+			return name;
+		}
+
+		private List<String> calls() {
+			synchronized (calls) {
+				return new ArrayList<String>(calls);
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcApiCoalescerTest {
+	private final AtomicInteger invocations = new AtomicInteger();
+	private final CountDownLatch entered = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BtcApi api;
+
+	@Before
+	public void setUp() {
+		api = (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws InterruptedException {
+						int invocation = invocations.incrementAndGet();
+						if (invocation == 1) {
+							entered.countDown();
+							release.await();
+						}
+						String name = method.getName();
+						if ("getBlockCount".equals(name)) {
+							return (long) invocation;
+						} else if ("getDifficulty".equals(name)) {
+							throw new IllegalStateException("difficulty "
+									+ invocation);
+						} else if ("getConnectionCount".equals(name)) {
+							throw new AssertionError("connections "
+									+ invocation);
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+	}
+
+	@Test
+	public void concurrentCallsShareOneRequest() throws Exception {
+		final BtcApiCoalescer coalescer = new BtcApiCoalescer(api, 60000);
+		final AtomicReference<Object> waited = new AtomicReference<Object>();
+		Thread loader = call(coalescer, "getBlockCount", null);
+		entered.await();
+		Thread waiter = call(coalescer, "getBlockCount", waited);
+		awaitBlocked(waiter);
+		release.countDown();
+		loader.join();
+		waiter.join();
+		assertEquals(1L, waited.get());
+		assertEquals(1L, coalescer.getApi().getBlockCount());
+		assertEquals(3, coalescer.getCalls());
+		assertEquals(1, coalescer.getRequests());
+		coalescer.invalidateAll();
+		assertEquals(2L, coalescer.getApi().getBlockCount());
+		assertEquals(2, coalescer.getRequests());
+	}
+
+	@Test
+	public void waiterGetsRuntimeExceptionUnchanged() throws Exception {
+		BtcApiCoalescer coalescer = new BtcApiCoalescer(api,
+				Collections.singleton("getDifficulty"), 0);
+		AtomicReference<Object> loaded = new AtomicReference<Object>();
+		AtomicReference<Object> waited = new AtomicReference<Object>();
+		Thread loader = call(coalescer, "getDifficulty", loaded);
+		entered.await();
+		Thread waiter = call(coalescer, "getDifficulty", waited);
+		awaitBlocked(waiter);
+		release.countDown();
+		loader.join();
+		waiter.join();
+		assertTrue(loaded.get() instanceof IllegalStateException);
+		assertSame(loaded.get(), waited.get());
+		assertEquals(1, coalescer.getRequests());
+	}
+
+	@Test
+	public void errorCompletesEntry() throws Exception {
+		BtcApiCoalescer coalescer = new BtcApiCoalescer(api,
+				Collections.singleton("getConnectionCount"), 60000);
+		AtomicReference<Object> loaded = new AtomicReference<Object>();
+		AtomicReference<Object> waited = new AtomicReference<Object>();
+		Thread loader = call(coalescer, "getConnectionCount", loaded);
+		entered.await();
+		Thread waiter = call(coalescer, "getConnectionCount", waited);
+		awaitBlocked(waiter);
+		release.countDown();
+		loader.join();
+		waiter.join();
+		assertTrue(loaded.get() instanceof AssertionError);
+		assertSame(loaded.get(), waited.get());
+		try {
+			coalescer.getApi().getConnectionCount();
+			fail("error was cached");
+		} catch (AssertionError e) {
+			assertEquals("connections 2", e.getMessage());
+		}
+		assertEquals(2, coalescer.getRequests());
+	}
+
+	private static Thread call(final BtcApiCoalescer coalescer,
+			final String method, final AtomicReference<Object> outcome) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Object result;
+					if ("getBlockCount".equals(method)) {
+						result = coalescer.getApi().getBlockCount();
+					} else if ("getDifficulty".equals(method)) {
+						result = coalescer.getApi().getDifficulty();
+					} else {
+						result = coalescer.getApi().getConnectionCount();
+					}
+					if (outcome != null) {
+						outcome.set(result);
+					}
+				} catch (BtcException | RuntimeException | Error e) {
+					if (outcome != null) {
+						outcome.set(e);
+					}
+				}
+			}
+		};
+		thread.start();
+		return thread;
+	}
+
+	private static void awaitBlocked(Thread thread) throws InterruptedException {
+		while ((thread.getState() != Thread.State.WAITING)
+				&& (thread.getState() != Thread.State.TIMED_WAITING)) {
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcApiHedgerTest {
+	private final List<String> calls = new ArrayList<String>();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private BtcApiHedger hedger;
+
+	@Before
+	public void setUp() {
+		hedger = new BtcApiHedger(Arrays.asList(backend("slow", 10000),
+				backend("fast", 0)), BtcApiHedger.IDEMPOTENT_METHODS, 95, 1.0,
+				20, executor);
+	}
+
+	@After
+	public void tearDown() {
+		hedger.shutdown();
+		executor.shutdown();
+	}
+
+	@Test
+	public void hedgeWins() throws Exception {
+		assertEquals("fast", hedger.getApi().getBlockHash(1));
+		assertEquals(1, hedger.getCalls());
+		assertEquals(1, hedger.getHedges());
+		assertEquals(1, hedger.getHedgeWins());
+		assertEquals("fast", hedger.getApi().getBlockHash(1));
+		assertEquals(2, hedger.getCalls());
+		assertEquals(1, hedger.getHedges());
+	}
+
+	@Test
+	public void losingAttemptsAreRecorded() throws Exception {
+		for (int i = 0; i < 40; i++) {
+			assertEquals("fast", hedger.getApi().getBlockHash(i));
+		}
+		assertTrue(hedger.getDelay("getBlockHash") >= 15);
+	}
+
+	@Test
+	public void otherMethodsAreNotHedged() throws Exception {
+		assertEquals("slow", hedger.getApi().getNewAddress(""));
+		assertEquals(0, hedger.getCalls());
+		assertEquals(0, hedger.getHedges());
+		synchronized (calls) {
+			assertEquals(Arrays.asList("slow getNewAddress"), calls);
+		}
+	}
+
+	@Test
+	public void callerExecutorIsLeftRunning() throws Exception {
+		hedger.shutdown();
+		assertFalse(executor.isShutdown());
+		assertEquals("fast", hedger.getApi().getBlockHash(1));
+	}
+
+	@Test
+	public void ownExecutorIsShutdown() throws Exception {
+		BtcApiHedger owned = new BtcApiHedger(Arrays.asList(backend("slow",
+				0), backend("fast", 0)));
+		assertEquals("slow", owned.getApi().getBlockHash(1));
+		owned.shutdown();
+		try {
+			owned.getApi().getBlockHash(1);
+			fail("executor still accepts tasks");
+		} catch (RejectedExecutionException e) {
+		}
+	}
+
+	private BtcApi backend(final String name, final long delay) {
+		return (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws InterruptedException {
+						synchronized (calls) {
+							calls.add(name + " " + method.getName());
+						}
+						if ("getBlockHash".equals(method.getName())) {
+							Thread.sleep(delay);
+						}
+						return name;
+					}
+				});
+	}
+}
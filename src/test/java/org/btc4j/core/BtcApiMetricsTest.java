@@ -0,0 +1,130 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcApiMetricsTest {
+	private BtcApiMetrics metrics;
+	private BtcApi api;
+
+	@Before
+	public void setUp() {
+		metrics = new BtcApiMetrics((BtcApi) Proxy.newProxyInstance(
+				BtcApi.class.getClassLoader(), new Class<?>[] { BtcApi.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws BtcException {
+						String name = method.getName();
+						if ("getBlockHash".equals(name)) {
+							return "000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f";
+						} else if ("listUnspent".equals(name)) {
+							List<BtcOutput> outputs = new ArrayList<BtcOutput>();
+							for (int i = 0; i < 3; i++) {
+								outputs.add(new BtcOutput());
+							}
+							return outputs;
+						} else if ("sendMany".equals(name)) {
+							return "txid";
+						} else if ("listAccounts".equals(name)) {
+							return new HashMap<String, BtcAccount>();
+						} else if ("getBlockCount".equals(name)) {
+							throw new BtcException(-28, "Loading block index");
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				}));
+		api = metrics.getApi();
+	}
+
+	@Test
+	public void elements() throws BtcException {
+		api.getBlockHash(0);
+		api.listUnspent(1, 9999999);
+		api.listUnspent(1, 9999999);
+		Map<String, BigDecimal> amounts = new LinkedHashMap<String, BigDecimal>();
+		amounts.put("a", BigDecimal.ONE);
+		amounts.put("b", BigDecimal.ONE);
+		api.sendMany("", amounts, 1, null);
+		api.listAccounts(1);
+		BtcMethodMetrics hash = metrics.getMethodMetrics("getBlockHash");
+		assertEquals(1, hash.getCalls());
+		assertEquals(1, hash.getRequestElements());
+		assertEquals(1, hash.getResponseElements());
+		BtcMethodMetrics unspent = metrics.getMethodMetrics("listUnspent");
+		assertEquals(2, unspent.getCalls());
+		assertEquals(4, unspent.getRequestElements());
+		assertEquals(6, unspent.getResponseElements());
+		assertEquals(3, unspent.getResponseElementsMax());
+		BtcMethodMetrics send = metrics.getMethodMetrics("sendMany");
+		assertEquals(4, send.getRequestElements());
+		assertEquals(1, send.getResponseElements());
+		assertEquals(0, metrics.getMethodMetrics("listAccounts")
+				.getResponseElements());
+		assertEquals(5, metrics.getCalls());
+		assertEquals(0, metrics.getErrors());
+	}
+
+	@Test
+	public void errors() {
+		for (int i = 0; i < 2; i++) {
+			try {
+				api.getBlockCount();
+			} catch (BtcException e) {
+				assertEquals(-28, e.getCode());
+			}
+		}
+		BtcMethodMetrics count = metrics.getMethodMetrics("getBlockCount");
+		assertEquals(2, count.getCalls());
+		assertEquals(2, count.getErrors());
+		assertEquals(Long.valueOf(2), count.getErrorCodes().get("-28"));
+		assertEquals(0, count.getRequestElements());
+		assertEquals(0, count.getResponseElements());
+		assertEquals(2, metrics.getErrors());
+	}
+
+	@Test
+	public void reset() throws BtcException {
+		api.getBlockHash(0);
+		metrics.reset();
+		assertNull(metrics.getMethodMetrics("getBlockHash"));
+		assertEquals(0, metrics.getCalls());
+	}
+}
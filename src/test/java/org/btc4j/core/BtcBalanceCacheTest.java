@@ -0,0 +1,171 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcBalanceCacheTest {
+	private final List<String> requests = Collections
+			.synchronizedList(new ArrayList<String>());
+	private final AtomicBoolean blocking = new AtomicBoolean();
+	private final AtomicBoolean failing = new AtomicBoolean();
+	private final CountDownLatch entered = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BtcBalanceCache cache;
+
+	@Before
+	public void setUp() {
+		BtcApi api = (BtcApi) Proxy.newProxyInstance(
+				BtcApi.class.getClassLoader(), new Class<?>[] { BtcApi.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws Exception {
+						if (!"getBalance".equals(method.getName())) {
+							throw new UnsupportedOperationException(method
+									.getName());
+						}
+						requests.add(String.valueOf(args[0]));
+						if (blocking.compareAndSet(true, false)) {
+							entered.countDown();
+							release.await();
+						}
+						if (failing.compareAndSet(true, false)) {
+							throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+									"node unavailable");
+						}
+						return BigDecimal.valueOf(requests.size());
+					}
+				});
+		cache = new BtcBalanceCache(api);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+	}
+
+	@Test
+	public void concurrentGetBalanceSharesOneRequest() throws Exception {
+		blocking.set(true);
+		AtomicReference<Object> loaded = new AtomicReference<Object>();
+		AtomicReference<Object> waited = new AtomicReference<Object>();
+		Thread loader = balance("alice", loaded);
+		entered.await();
+		Thread waiter = balance("alice", waited);
+		while ((waiter.getState() != Thread.State.WAITING)
+				&& (waiter.getState() != Thread.State.TIMED_WAITING)) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+		loader.join();
+		waiter.join();
+		assertEquals(BigDecimal.ONE, loaded.get());
+		assertSame(loaded.get(), waited.get());
+		assertEquals(1, requests.size());
+		assertEquals(BigDecimal.ONE, cache.getBalance("alice", 1));
+		assertEquals(1, requests.size());
+	}
+
+	@Test
+	public void walletNotifyInvalidatesAccountAndWalletWideBalance()
+			throws Exception {
+		cache.getBalance("alice", 1);
+		cache.getBalance("bob", 1);
+		cache.getBalance(null, 1);
+		assertEquals(3, cache.size());
+		BtcTransactionDetail detail = new BtcTransactionDetail();
+		detail.setAccount("alice");
+		BtcTransaction transaction = new BtcTransaction();
+		transaction.setDetails(Collections.singletonList(detail));
+		cache.walletNotify(transaction);
+		assertEquals(1, cache.size());
+		requests.clear();
+		cache.getBalance("alice", 1);
+		cache.getBalance("bob", 1);
+		cache.getBalance(null, 1);
+		assertEquals(2, requests.size());
+		assertEquals("alice", requests.get(0));
+		assertEquals("null", requests.get(1));
+	}
+
+	@Test
+	public void defaultAccountIsNotWalletWide() throws Exception {
+		cache.getBalance("", 1);
+		cache.getBalance(null, 1);
+		assertEquals(2, requests.size());
+		cache.invalidate("bob");
+		assertEquals(1, cache.size());
+		cache.getBalance("", 1);
+		assertEquals(2, requests.size());
+	}
+
+	@Test
+	public void failedLoadIsNotCached() throws Exception {
+		failing.set(true);
+		try {
+			cache.getBalance("alice", 1);
+			fail("expected failure");
+		} catch (BtcException e) {
+			assertEquals("node unavailable", e.getMessage());
+		}
+		assertEquals(0, cache.size());
+		assertEquals(BigDecimal.valueOf(2), cache.getBalance("alice", 1));
+		assertEquals(1, cache.size());
+	}
+
+	private Thread balance(final String account,
+			final AtomicReference<Object> outcome) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					outcome.set(cache.getBalance(account, 1));
+				} catch (BtcException e) {
+					outcome.set(e);
+				}
+			}
+		};
+		thread.start();
+		return thread;
+	}
+}
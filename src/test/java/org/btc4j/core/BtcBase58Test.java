@@ -0,0 +1,102 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BtcBase58Test {
+	private static final String[][] VECTORS = {
+			{ "", "" },
+			{ "61", "2g" },
+			{ "626262", "a3gV" },
+			{ "636363", "aPEr" },
+			{ "73696d706c792061206c6f6e6720737472696e67",
+					"2cFupjhnEsSn59qHXstmK2ffpLv2" },
+			{ "00eb15231dfceb60925886b67d065299925915aeb172c06647",
+					"1NS17iag9jJgTHD1VXjvLCEnZuQ3rJDE9L" },
+			{ "516b6fcd0f", "ABnLTmg" },
+			{ "bf4f89001e670274dd", "3SEo3LWLoPntC" },
+			{ "572e4794", "3EFU7m" },
+			{ "ecac89cad93923c02321", "EJDM8drfXA6uyA" },
+			{ "10c8511e", "Rt5zm" },
+			{ "00000000000000000000", "1111111111" } };
+
+	@Test
+	public void encode() {
+		for (String[] vector : VECTORS) {
+			assertEquals(vector[1],
+					BtcBase58.encode(BtcUtil.hexToBytes(vector[0])));
+		}
+	}
+
+	@Test
+	public void decode() {
+		for (String[] vector : VECTORS) {
+			assertEquals(vector[0],
+					BtcUtil.bytesToHex(BtcBase58.decode(vector[1])));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void decodeInvalid() {
+		BtcBase58.decode("0OIl");
+	}
+
+	@Test
+	public void encodeCheck() {
+		assertEquals("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN2",
+				BtcBase58.encodeCheck(0, BtcUtil
+						.hexToBytes("77bff20c60e522dfaa3350c39b030a5d004e839a")));
+		assertEquals("3J98t1WpEZ73CNmQviecrnyiWrnqRhWNLy",
+				BtcBase58.encodeCheck(5, BtcUtil
+						.hexToBytes("b472a266d0bd89c13706a4132ccfb16f7c3b9fcb")));
+	}
+
+	@Test
+	public void decodeCheck() {
+		assertEquals("0077bff20c60e522dfaa3350c39b030a5d004e839a",
+				BtcUtil.bytesToHex(BtcBase58
+						.decodeCheck("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN2")));
+		byte[] output = new byte[21];
+		assertEquals(21, BtcBase58.decodeCheck(
+				"mipcBbFg9gMiCh81Kj8tqqdgoZub1ZJRfn", output));
+		assertArrayEquals(BtcUtil
+				.hexToBytes("6f243f1394f44554f4ce3fd68649c19adc483ce924"),
+				output);
+		assertEquals(-1, BtcBase58.decodeCheck(
+				"mipcBbFg9gMiCh81Kj8tqqdgoZub1ZJRfm", output));
+		assertEquals(-1, BtcBase58.decodeCheck("mipcBbFg9gMiCh81Kj8tqqdgoZub1ZJRf0",
+				output));
+		assertEquals(-1, BtcBase58.decodeCheck("1111", output));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void decodeCheckChecksum() {
+		BtcBase58.decodeCheck("1BvBMSEYstWetqTFn5Au4m4GFg7xJaNVN3");
+	}
+}
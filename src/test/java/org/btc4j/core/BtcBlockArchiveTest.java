@@ -0,0 +1,250 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcBlockArchiveTest {
+	private final List<String> chain = new ArrayList<String>();
+	private final List<String> rawRequests = new ArrayList<String>();
+	private File directory;
+	private BtcApi api;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = File.createTempFile("btc4j", "archive");
+		directory.delete();
+		chain.add(BtcTestModels.GENESIS_HASH);
+		chain.add("hash1");
+		chain.add("hash2");
+		api = (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) {
+						String name = method.getName();
+						if ("getBlockCount".equals(name)) {
+							return (long) chain.size() - 1;
+						} else if ("getBlockHash".equals(name)) {
+							return chain.get(((Long) args[0]).intValue());
+						} else if ("getBlock".equals(name)) {
+							return block((String) args[0],
+									chain.indexOf(args[0]));
+						} else if ("getRawTransaction".equals(name)) {
+							rawRequests.add((String) args[0]);
+							return BtcTestModels.rawTransaction();
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void appendAndReopen() throws Exception {
+		BtcBlockArchive archive = new BtcBlockArchive(directory, 1024);
+		List<BtcRawTransaction> raw = new ArrayList<BtcRawTransaction>();
+		raw.add(BtcTestModels.rawTransaction());
+		assertTrue(archive.append(block("hash0", 0), raw));
+		assertFalse(archive.append(block("hash0", 0), raw));
+		for (int i = 1; i < 20; i++) {
+			assertTrue(archive.append(block("hash" + i, i)));
+		}
+		assertEquals("hash19", archive.getBlock(19).getHash());
+		archive.close();
+		archive = new BtcBlockArchive(directory, 1024);
+		try {
+			assertTrue(new File(directory, "blk00001.dat").exists());
+			assertEquals(19, archive.getHeight());
+			assertEquals(20, archive.size());
+			assertEquals("hash7", archive.getHash(7));
+			assertEquals(7, archive.getBlock("hash7").getHeight());
+			List<BtcRawTransaction> transactions = new ArrayList<BtcRawTransaction>();
+			assertEquals("hash0", archive.getBlock(0, transactions).getHash());
+			assertEquals(1, transactions.size());
+			assertEquals(BtcTestModels.rawTransaction().getHex(), transactions
+					.get(0).getHex());
+			assertEquals(2, transactions.get(0).getOutputs().size());
+			assertTrue(archive.append(block("hash20", 20)));
+			assertEquals("hash20", archive.getBlock(20).getHash());
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void decodeFromMappedSlice() throws Exception {
+		BtcBlockArchive archive = new BtcBlockArchive(directory, 1024);
+		try {
+			archive.append(BtcTestModels.block());
+			ByteBuffer buffer = archive.getBuffer(0);
+			assertFalse(buffer.hasArray());
+			assertEquals(BtcTestModels.block().toString(),
+					archive.getBlock(BtcTestModels.GENESIS_HASH).toString());
+			assertNull(archive.getBlock(1));
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void followSkipsGenesisTransactions() throws Exception {
+		BtcBlockArchive archive = new BtcBlockArchive(directory, 1024);
+		try {
+			assertEquals(3, archive.follow(api, true));
+			assertEquals(2, archive.getHeight());
+			assertEquals(2, rawRequests.size());
+			assertEquals(0, archive.getRawTransactions(0).size());
+			assertEquals(1, archive.getRawTransactions(2).size());
+			assertEquals(0, archive.follow(api, true));
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void reorgTruncationSurvivesReopen() throws Exception {
+		BtcBlockArchive archive = new BtcBlockArchive(directory, 1024);
+		archive.follow(api);
+		chain.remove(2);
+		chain.set(1, "fork1");
+		assertEquals(1, archive.follow(api));
+		archive.close();
+		archive = new BtcBlockArchive(directory, 1024);
+		try {
+			assertEquals(1, archive.getHeight());
+			assertEquals("fork1", archive.getHash(1));
+			assertNull(archive.getHash(2));
+			assertTrue(archive.contains("hash2"));
+			chain.remove(1);
+			assertEquals(0, archive.follow(api));
+			assertEquals(0, archive.getHeight());
+		} finally {
+			archive.close();
+		}
+		archive = new BtcBlockArchive(directory, 1024);
+		try {
+			assertEquals(0, archive.getHeight());
+			assertNull(archive.getHash(1));
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void tornRecordIsTruncated() throws Exception {
+		BtcBlockArchive archive = new BtcBlockArchive(directory, 64 * 1024);
+		for (int i = 0; i < 3; i++) {
+			archive.append(block("hash" + i, i));
+		}
+		archive.close();
+		clearLastByte(new File(directory, "blk00000.dat"));
+		archive = new BtcBlockArchive(directory, 64 * 1024);
+		try {
+			assertEquals(1, archive.getHeight());
+			assertEquals(2, archive.size());
+			assertFalse(archive.contains("hash2"));
+			assertNull(archive.getHash(2));
+			assertTrue(archive.append(block("hash2", 2)));
+		} finally {
+			archive.close();
+		}
+		archive = new BtcBlockArchive(directory, 64 * 1024);
+		try {
+			assertEquals(2, archive.getHeight());
+			assertEquals("hash2", archive.getBlock(2).getHash());
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void corruptSealedSegmentIsRejected() throws Exception {
+		BtcBlockArchive archive = new BtcBlockArchive(directory, 1024);
+		for (int i = 0; i < 10; i++) {
+			archive.append(block("hash" + i, i));
+		}
+		archive.close();
+		assertTrue(new File(directory, "blk00001.dat").exists());
+		clearLastByte(new File(directory, "blk00000.dat"));
+		try {
+			new BtcBlockArchive(directory, 1024).close();
+			fail("corrupt sealed segment was accepted");
+		} catch (BtcException e) {
+			assertTrue(e.getMessage().contains("corrupt archive segment"));
+		}
+	}
+
+	private static void clearLastByte(File file) throws IOException {
+		RandomAccessFile data = new RandomAccessFile(file, "rw");
+		try {
+			long last = -1;
+			for (long i = 0; i < data.length(); i++) {
+				if (data.read() != 0) {
+					last = i;
+				}
+			}
+			data.seek(last);
+			data.write(0);
+		} finally {
+			data.close();
+		}
+	}
+
+	private static BtcBlock block(String hash, long height) {
+		BtcBlock block = BtcTestModels.block();
+		block.setHash(hash);
+		block.setHeight(height);
+		return block;
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcBlockMapReduceTest {
+	private static final BtcBlockMapReduce.Reducer<Long> SUM = new BtcBlockMapReduce.Reducer<Long>() {
+		@Override
+		public Long reduce(Long left, Long right) {
+			return left + right;
+		}
+	};
+	private final ForkJoinPool pool = new ForkJoinPool(2);
+	private File directory;
+	private BtcBlockArchive archive;
+	private BtcBlockMapReduce mapReduce;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = File.createTempFile("btc4j", "mapreduce");
+		directory.delete();
+		archive = new BtcBlockArchive(directory, 1024);
+		for (int i = 0; i < 100; i++) {
+			BtcBlock block = BtcTestModels.block();
+			block.setHash("hash" + i);
+			block.setHeight(i);
+			List<BtcRawTransaction> transactions = new ArrayList<BtcRawTransaction>();
+			for (int j = 0; j < i % 3; j++) {
+				transactions.add(BtcTestModels.rawTransaction());
+			}
+			archive.append(block, transactions);
+		}
+		mapReduce = new BtcBlockMapReduce(archive, pool, 8);
+	}
+
+	@After
+	public void tearDown() {
+		mapReduce.shutdown();
+		assertFalse(pool.isShutdown());
+		pool.shutdown();
+		archive.close();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void mapBlocks() throws Exception {
+		Long sum = mapReduce.map(0, 99,
+				new BtcBlockMapReduce.BlockMapper<Long>() {
+					@Override
+					public Long map(BtcBlock block) {
+						return block.getHeight();
+					}
+				}, SUM);
+		assertEquals(Long.valueOf(4950), sum);
+		assertEquals(100, mapReduce.getBlocks());
+		assertNull(mapReduce.map(5, 4,
+				new BtcBlockMapReduce.BlockMapper<Long>() {
+					@Override
+					public Long map(BtcBlock block) {
+						return 1L;
+					}
+				}, SUM));
+	}
+
+	@Test
+	public void mapTransactions() throws Exception {
+		Long count = mapReduce.map(0, 99,
+				new BtcBlockMapReduce.TransactionMapper<Long>() {
+					@Override
+					public Long map(BtcBlock block,
+							BtcRawTransaction transaction) {
+						return (long) transaction.getOutputs().size();
+					}
+				}, SUM);
+		assertEquals(Long.valueOf(2 * 99), count);
+		assertEquals(100, mapReduce.getBlocks());
+	}
+
+	@Test(expected = BtcException.class)
+	public void mapperFailure() throws Exception {
+		mapReduce.map(0, 99, new BtcBlockMapReduce.BlockMapper<Long>() {
+			@Override
+			public Long map(BtcBlock block) throws BtcException {
+				if (block.getHeight() == 50) {
+					throw new BtcException(BtcException.BTC4J_ERROR_CODE,
+							"height 50");
+				}
+				return 1L;
+			}
+		}, SUM);
+	}
+
+	@Test
+	public void missingHeightFails() throws Exception {
+		for (boolean transactions : new boolean[] { false, true }) {
+			try {
+				if (transactions) {
+					mapReduce.map(90, 100,
+							new BtcBlockMapReduce.TransactionMapper<Long>() {
+								@Override
+								public Long map(BtcBlock block,
+										BtcRawTransaction transaction) {
+									return 1L;
+								}
+							}, SUM);
+				} else {
+					mapReduce.map(90, 100,
+							new BtcBlockMapReduce.BlockMapper<Long>() {
+								@Override
+								public Long map(BtcBlock block) {
+									return 1L;
+								}
+							}, SUM);
+				}
+				fail("missing height was skipped");
+			} catch (BtcException e) {
+				assertTrue(e.getMessage().endsWith(
+						"block not archived at height 100"));
+			}
+		}
+	}
+
+	@Test
+	public void ownPoolIsShutdown() throws Exception {
+		BtcBlockMapReduce owned = new BtcBlockMapReduce(archive);
+		assertEquals(Long.valueOf(10), owned.map(0, 9,
+				new BtcBlockMapReduce.BlockMapper<Long>() {
+					@Override
+					public Long map(BtcBlock block) {
+						return 1L;
+					}
+				}, SUM));
+		owned.shutdown();
+		try {
+			owned.map(0, 9, new BtcBlockMapReduce.BlockMapper<Long>() {
+				@Override
+				public Long map(BtcBlock block) {
+					return 1L;
+				}
+			}, SUM);
+			fail("pool still accepts tasks");
+		} catch (RejectedExecutionException e) {
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BtcCodecTest {
+	private static <T> T roundTrip(T value) throws IOException {
+		byte[] encoded = BtcCodec.encode(value);
+		@SuppressWarnings("unchecked")
+		T decoded = (T) BtcCodec.decode(encoded, value.getClass());
+		assertEquals(value.toString(), decoded.toString());
+		assertArrayEquals(encoded, BtcCodec.encode(decoded));
+		return decoded;
+	}
+
+	@Test
+	public void rawTransaction() throws IOException {
+		BtcRawTransaction transaction = roundTrip(BtcTestModels
+				.rawTransaction());
+		assertEquals(BtcScript.Type.PUBKEYHASH, transaction.getOutputs()
+				.get(1).getScript().getType());
+		assertEquals(BtcRawTransactionBuilder.SEQUENCE_FINAL, transaction
+				.getInputs().get(0).getSequence());
+	}
+
+	@Test
+	public void block() throws IOException {
+		BtcBlock block = roundTrip(BtcTestModels.block());
+		assertEquals(BtcTransaction.Category.RECEIVE, block.getTransactions()
+				.get(0).getDetails().get(0).getCategory());
+	}
+
+	@Test
+	public void blockTemplate() throws IOException {
+		BtcBlockTemplate template = roundTrip(BtcTestModels.blockTemplate());
+		assertArrayEquals(new long[] { 1 }, template.getTransactions().get(1)
+				.getDepends());
+		assertEquals("062f503253482f", template.getCoinbase().getAux()
+				.get("flags"));
+	}
+
+	@Test
+	public void methodMetrics() throws IOException {
+		BtcMethodMetrics metrics = new BtcMethodMetrics();
+		metrics.setMethod("getblock");
+		metrics.setCalls(3);
+		metrics.setErrors(1);
+		Map<String, Long> codes = new HashMap<String, Long>();
+		codes.put("-5", 1L);
+		metrics.setErrorCodes(codes);
+		metrics.setLatencyMean(1.5);
+		metrics.setLatencyMax(Long.MAX_VALUE);
+		metrics.setResponseElementsMax(-1);
+		roundTrip(metrics);
+	}
+
+	@Test
+	public void target() throws IOException {
+		assertEquals(BtcTarget.DIFFICULTY_1, roundTrip(BtcTarget.DIFFICULTY_1));
+	}
+
+	@Test
+	public void nullPublicKey() throws IOException {
+		BtcScript script = BtcTestModels.script();
+		script.setPublicKey(null);
+		assertEquals("", script.getPublicKey());
+		assertEquals("", roundTrip(script).getPublicKey());
+	}
+
+	@Test
+	public void strings() throws IOException {
+		String[] values = { null, "", "00", "ab12", "AB12", "abc",
+				"\u00e9t\u00e9", "null" };
+		String[] expected = { "", "", "00", "ab12", "AB12", "abc",
+				"\u00e9t\u00e9", "null" };
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (String value : values) {
+			BtcCodec.writeString(out, value);
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		for (String value : expected) {
+			assertEquals(value, BtcCodec.readString(in));
+		}
+	}
+
+	@Test
+	public void longStrings() throws IOException {
+		StringBuilder text = new StringBuilder();
+		StringBuilder hex = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			text.append((char) ('g' + (i % 20)));
+			hex.append("0f");
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		BtcCodec.writeString(out, text.toString());
+		BtcCodec.writeString(out, hex.toString());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		assertEquals(text.toString(), BtcCodec.readString(in));
+		assertEquals(hex.toString(), BtcCodec.readString(in));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void corruptStringLength() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		BtcCodec.writeVarLong(out, (long) Integer.MAX_VALUE << 1);
+		out.writeBytes("short");
+		BtcCodec.readString(new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray())));
+	}
+
+	@Test(expected = IOException.class)
+	public void corruptListCount() throws IOException {
+		byte[] encoded = BtcCodec.encode(new BtcCoinSelection());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.write(encoded, 0, 2);
+		BtcCodec.writeVarLong(out, Integer.MAX_VALUE);
+		out.write(encoded, 3, encoded.length - 3);
+		BtcCodec.decode(bytes.toByteArray());
+	}
+
+	@Test
+	public void buffers() throws IOException {
+		BtcRawTransaction transaction = BtcTestModels.rawTransaction();
+		BtcBlock block = BtcTestModels.block();
+		for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(4096),
+				ByteBuffer.allocateDirect(4096) }) {
+			BtcCodec.write(buffer, transaction);
+			BtcCodec.write(buffer, block);
+			buffer.flip();
+			assertEquals(transaction.toString(), BtcCodec.read(buffer)
+					.toString());
+			assertEquals(block.toString(), BtcCodec.read(buffer).toString());
+			assertEquals(0, buffer.remaining());
+		}
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void version() throws IOException {
+		byte[] encoded = BtcCodec.encode(BtcTestModels.block());
+		encoded[0] = (byte) (BtcCodec.VERSION + 1);
+		BtcCodec.decode(encoded);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BtcCoinSelectorTest {
+	@Test
+	public void branchAndBoundFindsExactMatch() throws Exception {
+		BtcOutput half = output("0.5", 6);
+		BtcOutput tenth = output("0.1", 6);
+		List<BtcOutput> unspent = Arrays.asList(output("0.3", 6),
+				output("0.2", 6), half, tenth);
+		BtcCoinSelection selection = new BtcCoinSelector(0, 1000).select(
+				unspent, new BigDecimal("0.6"), 1, 1);
+		assertEquals(2, selection.getOutputs().size());
+		assertSame(half, selection.getOutputs().get(0));
+		assertSame(tenth, selection.getOutputs().get(1));
+		assertEquals(60000000L, BtcUtil.toSatoshis(selection.getAmount()));
+		assertEquals(0L, BtcUtil.toSatoshis(selection.getChange()));
+		assertEquals(0L, BtcUtil.toSatoshis(selection.getFee()));
+	}
+
+	@Test
+	public void branchAndBoundAcceptsWasteBelowCostOfChange()
+			throws Exception {
+		BtcOutput match = satoshis(100000 + 44 + 148 + 100);
+		List<BtcOutput> unspent = Arrays.asList(satoshis(500000), match);
+		BtcCoinSelection selection = new BtcCoinSelector(1, 1000).select(
+				unspent, BtcUtil.fromSatoshis(100000), 1, 1);
+		assertEquals(1, selection.getOutputs().size());
+		assertSame(match, selection.getOutputs().get(0));
+		assertEquals(0L, BtcUtil.toSatoshis(selection.getChange()));
+		assertEquals(292L, BtcUtil.toSatoshis(selection.getFee()));
+	}
+
+	@Test
+	public void knapsackMinimisesChange() throws Exception {
+		List<BtcOutput> unspent = Arrays.asList(output("1", 6),
+				output("0.3", 6), output("0.25", 6));
+		BtcCoinSelection selection = new BtcCoinSelector(0, 10000).select(
+				unspent, new BigDecimal("0.5"), 1, 1);
+		assertEquals(2, selection.getOutputs().size());
+		assertEquals(55000000L, BtcUtil.toSatoshis(selection.getAmount()));
+		assertEquals(5000000L, BtcUtil.toSatoshis(selection.getChange()));
+		assertEquals(0L, BtcUtil.toSatoshis(selection.getFee()));
+	}
+
+	@Test
+	public void knapsackFallsBackToLowestLarger() throws Exception {
+		BtcOutput large = output("1", 6);
+		List<BtcOutput> unspent = Arrays.asList(output("0.1", 6), large,
+				output("0.1", 6), output("2", 6));
+		BtcCoinSelection selection = new BtcCoinSelector(0, 10000).select(
+				unspent, new BigDecimal("0.5"), 1, 1);
+		assertEquals(1, selection.getOutputs().size());
+		assertSame(large, selection.getOutputs().get(0));
+		assertEquals(50000000L, BtcUtil.toSatoshis(selection.getChange()));
+	}
+
+	@Test
+	public void changeAccountsForFees() throws Exception {
+		List<BtcOutput> unspent = Arrays.asList(satoshis(1000000));
+		BtcCoinSelection selection = new BtcCoinSelector(1, 1000).select(
+				unspent, BtcUtil.fromSatoshis(100000), 2, 1);
+		long fee = 148 + 10 + 34 * 2 + 34;
+		assertEquals(fee, BtcUtil.toSatoshis(selection.getFee()));
+		assertEquals(1000000L - 100000 - fee,
+				BtcUtil.toSatoshis(selection.getChange()));
+	}
+
+	@Test(expected = BtcException.class)
+	public void insufficientFunds() throws Exception {
+		List<BtcOutput> unspent = Arrays.asList(output("0.1", 6),
+				output("0.2", 6));
+		new BtcCoinSelector(0, 1000).select(unspent, new BigDecimal("1"), 1,
+				1);
+	}
+
+	@Test(expected = BtcException.class)
+	public void feesMakeFundsInsufficient() throws Exception {
+		List<BtcOutput> unspent = Arrays.asList(satoshis(100100));
+		new BtcCoinSelector(1, 1000).select(unspent,
+				BtcUtil.fromSatoshis(100000), 1, 1);
+	}
+
+	@Test
+	public void minConfirmsFiltersOutputs() throws Exception {
+		BtcOutput confirmed = output("0.6", 6);
+		List<BtcOutput> unspent = new ArrayList<BtcOutput>();
+		unspent.add(output("1", 0));
+		unspent.add(confirmed);
+		BtcCoinSelection selection = new BtcCoinSelector(0, 1000).select(
+				unspent, new BigDecimal("0.6"), 1, 1);
+		assertEquals(1, selection.getOutputs().size());
+		assertSame(confirmed, selection.getOutputs().get(0));
+		try {
+			new BtcCoinSelector(0, 1000).select(unspent,
+					new BigDecimal("0.9"), 1, 1);
+			fail("unconfirmed output was spent");
+		} catch (BtcException e) {
+			assertEquals(BtcException.BTC4J_ERROR_CODE, e.getCode());
+		}
+		assertEquals(2, new BtcCoinSelector(0, 1000)
+				.select(unspent, new BigDecimal("1.6"), 1, 0).getOutputs()
+				.size());
+	}
+
+	private static BtcOutput output(String value, long confirmations) {
+		BtcOutput output = new BtcOutput();
+		output.setValue(new BigDecimal(value));
+		output.setConfirmations(confirmations);
+		return output;
+	}
+
+	private static BtcOutput satoshis(long value) {
+		BtcOutput output = new BtcOutput();
+		output.setValue(BtcUtil.fromSatoshis(value));
+		output.setConfirmations(6);
+		return output;
+	}
+}
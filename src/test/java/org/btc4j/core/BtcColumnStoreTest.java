@@ -0,0 +1,287 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcColumnStoreTest {
+	private static final String T1 = repeat("11");
+	private static final String T2 = repeat("22");
+	private static final String T3 = repeat("33");
+	private final List<String> chain = new ArrayList<String>();
+	private final Map<String, BtcBlock> blocks = new HashMap<String, BtcBlock>();
+	private final Map<String, BtcRawTransaction> raw = new HashMap<String, BtcRawTransaction>();
+	private final List<String> rawRequests = new ArrayList<String>();
+	private File directory;
+	private BtcApi api;
+	private BtcColumnStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = File.createTempFile("btc4j", "columns");
+		directory.delete();
+		BtcBlock genesis = BtcTestModels.block();
+		blocks.put(genesis.getHash(), genesis);
+		chain.add(genesis.getHash());
+		add(1, raw(T1, null, 0, BtcTestModels.ADDRESS, BtcTestModels.ADDRESS));
+		add(2, raw(T2, T1, 0, "addr2"));
+		api = (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) {
+						String name = method.getName();
+						if ("getBlockCount".equals(name)) {
+							return (long) chain.size() - 1;
+						} else if ("getBlockHash".equals(name)) {
+							return chain.get(((Long) args[0]).intValue());
+						} else if ("getBlock".equals(name)) {
+							return blocks.get(args[0]);
+						} else if ("getRawTransaction".equals(name)) {
+							rawRequests.add((String) args[0]);
+							return raw.get(args[0]);
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+		store = new BtcColumnStore(directory);
+	}
+
+	@After
+	public void tearDown() {
+		store.close();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void followSkipsGenesisAndMarksSpends() throws Exception {
+		assertEquals(3, store.follow(api, 1));
+		assertEquals(Arrays.asList(T1, T2), rawRequests);
+		assertEquals(2, store.getHeight());
+		assertEquals(3, store.getRows());
+		assertEquals(Arrays.asList("11 spent " + BtcTestModels.ADDRESS,
+				"11 unspent " + BtcTestModels.ADDRESS, "22 unspent addr2"),
+				rows());
+		assertEquals(0, store.follow(api, 1));
+	}
+
+	@Test
+	public void reopenKeepsIndexes() throws Exception {
+		store.follow(api, 1);
+		store.close();
+		store = new BtcColumnStore(directory);
+		assertEquals(2, store.getHeight());
+		assertEquals(3, store.getRows());
+		assertEquals(1, store.getChunks());
+		add(3, raw(T3, T1, 1, BtcTestModels.ADDRESS));
+		assertEquals(1, store.follow(api, 1));
+		assertEquals(Arrays.asList("11 spent " + BtcTestModels.ADDRESS,
+				"11 spent " + BtcTestModels.ADDRESS, "22 unspent addr2",
+				"33 unspent " + BtcTestModels.ADDRESS), rows());
+		assertEquals(addressIds().get(0), addressIds().get(3));
+	}
+
+	@Test
+	public void reorgAtTipTruncates() throws Exception {
+		store.follow(api, 1);
+		chain.remove(2);
+		add(2, raw(T3, T1, 1, "addr3"));
+		assertEquals(1, store.follow(api, 1));
+		assertEquals(2, store.getHeight());
+		List<String> expected = Arrays.asList("11 unspent "
+				+ BtcTestModels.ADDRESS, "11 spent " + BtcTestModels.ADDRESS,
+				"33 unspent addr3");
+		assertEquals(expected, rows());
+		store.close();
+		store = new BtcColumnStore(directory);
+		assertEquals(expected, rows());
+		chain.remove(2);
+		assertEquals(0, store.follow(api, 1));
+		assertEquals(1, store.getHeight());
+		assertEquals(2, store.getRows());
+		store.close();
+		store = new BtcColumnStore(directory);
+		assertEquals(2, store.getRows());
+		assertEquals(
+				Arrays.asList("11 unspent " + BtcTestModels.ADDRESS,
+						"11 unspent " + BtcTestModels.ADDRESS), rows());
+	}
+
+	@Test
+	public void addressIndexGrows() throws Exception {
+		List<BtcRawTransaction> transactions = new ArrayList<BtcRawTransaction>();
+		for (int i = 0; i < 600; i++) {
+			transactions.add(raw(String.format("%064x", i + 1), null, 0,
+					"addr" + i));
+		}
+		BtcBlock block = block(1);
+		assertEquals(600, store.append(block, transactions));
+		store.close();
+		store = new BtcColumnStore(directory);
+		List<Integer> ids = addressIds();
+		for (int i = 0; i < 600; i++) {
+			assertEquals("addr" + i, store.getAddress(ids.get(i)));
+		}
+		transactions.clear();
+		transactions.add(raw(T1, String.format("%064x", 8), 0, "addr7"));
+		store.append(block(2), transactions);
+		ids = addressIds();
+		assertEquals(ids.get(7), ids.get(600));
+		List<String> rows = rows();
+		assertEquals(Arrays.asList("08 spent addr7", "11 unspent addr7"),
+				Arrays.asList(rows.get(7), rows.get(600)));
+	}
+
+	@Test
+	public void sharedPoolIsNotShutdown() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(1);
+		BtcColumnStore shared = new BtcColumnStore(new File(directory,
+				"shared"), pool);
+		shared.close();
+		assertFalse(pool.isShutdown());
+		pool.shutdown();
+	}
+
+	private List<String> rows() throws BtcException {
+		return store.scan(null, new BtcColumnStore.Task<List<String>>() {
+			@Override
+			public List<String> map(BtcColumnStore.Chunk chunk) {
+				List<String> rows = new ArrayList<String>();
+				for (int i = 0; i < chunk.getRows(); i++) {
+					rows.add(chunk.getTransaction(i).substring(62) + " "
+							+ (chunk.isSpent(i) ? "spent" : "unspent") + " "
+							+ chunk.getAddress(i));
+				}
+				return rows;
+			}
+
+			@Override
+			public List<String> reduce(List<String> left, List<String> right) {
+				left.addAll(right);
+				return left;
+			}
+		});
+	}
+
+	private List<Integer> addressIds() throws BtcException {
+		return store.scan(null, new BtcColumnStore.Task<List<Integer>>() {
+			@Override
+			public List<Integer> map(BtcColumnStore.Chunk chunk) {
+				List<Integer> ids = new ArrayList<Integer>();
+				for (int i = 0; i < chunk.getRows(); i++) {
+					ids.add(chunk.getAddressId(i));
+				}
+				return ids;
+			}
+
+			@Override
+			public List<Integer> reduce(List<Integer> left, List<Integer> right) {
+				left.addAll(right);
+				return left;
+			}
+		});
+	}
+
+	private void add(int height, BtcRawTransaction transaction) {
+		BtcBlock block = block(height);
+		block.setHash(String.format("%064x", height * 1000
+				+ transaction.getTransaction().charAt(0)));
+		List<BtcTransaction> transactions = new ArrayList<BtcTransaction>();
+		BtcTransaction summary = new BtcTransaction();
+		summary.setTransaction(transaction.getTransaction());
+		transactions.add(summary);
+		block.setTransactions(transactions);
+		blocks.put(block.getHash(), block);
+		raw.put(transaction.getTransaction(), transaction);
+		chain.add(height, block.getHash());
+	}
+
+	private static BtcBlock block(int height) {
+		BtcBlock block = new BtcBlock();
+		block.setHash(String.format("%064x", height));
+		block.setHeight(height);
+		block.setTime(1231006505 + height * 600);
+		return block;
+	}
+
+	private static BtcRawTransaction raw(String id, String spends, int spent,
+			String... addresses) {
+		BtcRawTransaction transaction = new BtcRawTransaction();
+		transaction.setTransaction(id);
+		List<BtcInput> inputs = new ArrayList<BtcInput>();
+		if (spends != null) {
+			BtcInput input = new BtcInput();
+			input.setTransaction(spends);
+			input.setOutput(spent);
+			inputs.add(input);
+		}
+		transaction.setInputs(inputs);
+		List<BtcOutput> outputs = new ArrayList<BtcOutput>();
+		for (int i = 0; i < addresses.length; i++) {
+			BtcScript script = new BtcScript();
+			script.setType(BtcScript.Type.PUBKEYHASH);
+			script.setAddresses(new ArrayList<String>(Arrays
+					.asList(addresses[i])));
+			BtcOutput output = new BtcOutput();
+			output.setIndex(i);
+			output.setScript(script);
+			output.setValue(new BigDecimal("1.00000000"));
+			outputs.add(output);
+		}
+		transaction.setOutputs(outputs);
+		return transaction;
+	}
+
+	private static String repeat(String value) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 32; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+}
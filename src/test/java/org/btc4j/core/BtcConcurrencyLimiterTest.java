@@ -0,0 +1,201 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcConcurrencyLimiterTest {
+	private final List<String> calls = new ArrayList<String>();
+	private final CountDownLatch holding = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private volatile long delay = 0;
+	private BtcApi api;
+	private Thread holder;
+
+	@Before
+	public void setUp() {
+		api = (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws InterruptedException {
+						String name = method.getName();
+						synchronized (calls) {
+							calls.add(name);
+						}
+						if ("getConnectionCount".equals(name)) {
+							holding.countDown();
+							release.await();
+							return 1L;
+						} else if ("getBlockCount".equals(name)) {
+							Thread.sleep(delay);
+							return 1L;
+						} else if ("getBlockHash".equals(name)) {
+							return "hash";
+						} else if ("walletPassphrase".equals(name)) {
+							return null;
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		release.countDown();
+		if (holder != null) {
+			holder.join();
+		}
+	}
+
+	@Test
+	public void singleSlowCallIsNotCongestion() throws Exception {
+		BtcConcurrencyLimiter limiter = new BtcConcurrencyLimiter(api, 8, 8,
+				16, 1000);
+		BtcApi limited = limiter.getApi();
+		delay = 5;
+		for (int i = 0; i < 20; i++) {
+			limited.getBlockCount();
+		}
+		delay = 12;
+		limited.getBlockCount();
+		delay = 5;
+		for (int i = 0; i < 5; i++) {
+			limited.getBlockCount();
+		}
+		assertEquals(8, limiter.getLimit());
+		delay = 15;
+		for (int i = 0; i < 20; i++) {
+			limited.getBlockCount();
+		}
+		assertTrue(limiter.getLimit() < 8);
+	}
+
+	@Test
+	public void queueFull() throws Exception {
+		BtcConcurrencyLimiter limiter = new BtcConcurrencyLimiter(api, 1, 1,
+				0, 1000);
+		hold(limiter);
+		try {
+			limiter.getApi().getBlockCount();
+			fail("call was not shed");
+		} catch (BtcException e) {
+			assertTrue(e.getMessage().endsWith("queue full"));
+		}
+		assertEquals(1, limiter.getShed());
+	}
+
+	@Test
+	public void queueTimeout() throws Exception {
+		BtcConcurrencyLimiter limiter = new BtcConcurrencyLimiter(api, 1, 1,
+				4, 50);
+		hold(limiter);
+		try {
+			limiter.getApi().getBlockCount();
+			fail("call did not time out");
+		} catch (BtcException e) {
+			assertTrue(e.getMessage().endsWith("queue timeout"));
+		}
+		assertEquals(1, limiter.getShed());
+		assertEquals(0,
+				limiter.getQueued(BtcConcurrencyLimiter.Priority.DEFAULT));
+		release.countDown();
+		holder.join();
+		assertEquals(1L, limiter.getApi().getBlockCount());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	public void walletLaneGoesFirst() throws Exception {
+		final BtcConcurrencyLimiter limiter = new BtcConcurrencyLimiter(api,
+				1, 1, 4, 5000);
+		hold(limiter);
+		Thread analytics = new Thread() {
+			@Override
+			public void run() {
+				try {
+					limiter.getApi().getBlockHash(1);
+				} catch (BtcException e) {
+				}
+			}
+		};
+		analytics.start();
+		await(limiter, BtcConcurrencyLimiter.Priority.ANALYTICS);
+		Thread wallet = new Thread() {
+			@Override
+			public void run() {
+				try {
+					limiter.getApi().walletPassphrase("passphrase", 1);
+				} catch (BtcException e) {
+				}
+			}
+		};
+		wallet.start();
+		await(limiter, BtcConcurrencyLimiter.Priority.WALLET);
+		release.countDown();
+		analytics.join();
+		wallet.join();
+		assertEquals(Arrays.asList("getConnectionCount", "walletPassphrase",
+				"getBlockHash"), calls);
+		assertEquals(0, limiter.getShed());
+	}
+
+	private void hold(final BtcConcurrencyLimiter limiter)
+			throws InterruptedException {
+		holder = new Thread() {
+			@Override
+			public void run() {
+				try {
+					limiter.getApi().getConnectionCount();
+				} catch (BtcException e) {
+				}
+			}
+		};
+		holder.start();
+		holding.await();
+	}
+
+	private static void await(BtcConcurrencyLimiter limiter,
+			BtcConcurrencyLimiter.Priority priority)
+			throws InterruptedException {
+		while (limiter.getQueued(priority) == 0) {
+			Thread.sleep(1);
+		}
+	}
+}
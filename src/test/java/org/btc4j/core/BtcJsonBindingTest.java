@@ -0,0 +1,140 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class BtcJsonBindingTest {
+	private static String write(BtcRawTransaction value) {
+		BtcJsonWriter out = new BtcJsonWriter();
+		BtcJsonBinding.writeRawTransaction(out, value);
+		return out.toString();
+	}
+
+	private static String write(BtcBlock value) {
+		BtcJsonWriter out = new BtcJsonWriter();
+		BtcJsonBinding.writeBlock(out, value);
+		return out.toString();
+	}
+
+	private static String write(BtcBlockTemplate value) {
+		BtcJsonWriter out = new BtcJsonWriter();
+		BtcJsonBinding.writeBlockTemplate(out, value);
+		return out.toString();
+	}
+
+	@Test
+	public void rawTransaction() throws BtcException {
+		String json = write(BtcTestModels.rawTransaction());
+		BtcRawTransaction transaction = BtcJsonBinding
+				.readRawTransaction(new BtcJsonReader(json));
+		assertEquals(json, write(transaction));
+		assertEquals(BtcTestModels.rawTransaction().getHex(),
+				transaction.getHex());
+		assertEquals(2, transaction.getOutputs().size());
+		BtcOutput output = transaction.getOutputs().get(1);
+		assertEquals(transaction.getTransaction(), output.getTransaction());
+		assertEquals(1, output.getOutput());
+		assertEquals(new BigDecimal("40.00000000"), output.getValue());
+		assertEquals(BtcTestModels.ADDRESS, output.getScript().getAddresses()
+				.get(0));
+		assertEquals(BtcRawTransactionBuilder.SEQUENCE_FINAL, transaction
+				.getInputs().get(0).getSequence());
+	}
+
+	@Test
+	public void rawTransactionFieldOrder() throws BtcException {
+		BtcRawTransaction transaction = BtcJsonBinding
+				.readRawTransaction(new BtcJsonReader(
+						"{\"vout\":[{\"value\":0.5,\"n\":3,\"scriptPubKey\":{\"type\":\"pubkeyhash\"}}],"
+								+ "\"txid\":\"" + BtcTestModels.GENESIS_COINBASE
+								+ "\",\"unknown\":[1,{\"a\":null}]}"));
+		BtcOutput output = transaction.getOutputs().get(0);
+		assertEquals(BtcTestModels.GENESIS_COINBASE, output.getTransaction());
+		assertEquals(3, output.getOutput());
+		assertEquals(new BigDecimal("0.5"), output.getValue());
+		assertEquals(BtcScript.Type.PUBKEYHASH, output.getScript().getType());
+	}
+
+	@Test
+	public void block() throws BtcException {
+		String json = write(BtcTestModels.block());
+		BtcBlock block = BtcJsonBinding.readBlock(new BtcJsonReader(json));
+		assertEquals(json, write(block));
+		assertEquals(BtcTestModels.GENESIS_HASH, block.getHash());
+		assertEquals(2083236893, block.getNonce());
+		assertEquals("1d00ffff", block.getBits());
+	}
+
+	@Test
+	public void blockTemplate() throws BtcException {
+		String json = write(BtcTestModels.blockTemplate());
+		BtcBlockTemplate template = BtcJsonBinding
+				.readBlockTemplate(new BtcJsonReader(json));
+		assertEquals(json, write(template));
+		assertEquals(2, template.getTransactions().size());
+		assertArrayEquals(new long[] { 1 }, template.getTransactions().get(1)
+				.getDepends());
+		assertEquals(new BigDecimal("25.00020000"), template.getCoinbase()
+				.getValue());
+		assertEquals(3, template.getMutable().size());
+	}
+
+	@Test
+	public void transaction() throws BtcException {
+		BtcTransaction transaction = BtcJsonBinding
+				.readTransaction(new BtcJsonReader(
+						"{\"category\":\"send\",\"account\":\"a\\\"b\\u00e9\",\"amount\":-1.5,"
+								+ "\"fee\":-0.0001,\"txid\":\""
+								+ BtcTestModels.GENESIS_COINBASE + "\"}"));
+		assertEquals(1, transaction.getDetails().size());
+		BtcTransactionDetail detail = transaction.getDetails().get(0);
+		assertEquals(BtcTransaction.Category.SEND, detail.getCategory());
+		assertEquals("a\"b\u00e9", detail.getAccount());
+		assertEquals(new BigDecimal("-1.5"), detail.getAmount());
+		assertEquals(new BigDecimal("-0.0001"), detail.getFee());
+	}
+
+	@Test
+	public void enums() {
+		assertEquals(BtcTransaction.Category.RECEIVE,
+				BtcTransaction.Category.getValue("receive"));
+		assertEquals(BtcTransaction.Category.NULL,
+				BtcTransaction.Category.getValue("generate"));
+		assertEquals(BtcScript.Type.PUBKEYHASH,
+				BtcScript.Type.getValue("pubkeyhash"));
+		assertEquals(BtcScript.Type.NULL, BtcScript.Type.getValue(""));
+	}
+
+	@Test(expected = BtcException.class)
+	public void malformed() throws BtcException {
+		BtcJsonBinding.readBlock(new BtcJsonReader("{\"hash\":"));
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcMessageVerifierTest {
+	private static final String COMPRESSED_ADDRESS = "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH";
+	private static final String UNCOMPRESSED_ADDRESS = "1EHNa6Q4Jz2uvNExL497mE43ikXhwF6kZm";
+	private static final String COMPRESSED_SIGNATURE = "IJNLHqEKSzwXV+KwwBfQthQ848mn5qSkmGDXpqshDuPYEOg8uTcjlbkPGnvJ33vAczB/QKDth4nWgb6dGTRq/xg=";
+	private static final String UNCOMPRESSED_SIGNATURE = "HJNLHqEKSzwXV+KwwBfQthQ848mn5qSkmGDXpqshDuPYEOg8uTcjlbkPGnvJ33vAczB/QKDth4nWgb6dGTRq/xg=";
+	private static final String MESSAGE = "btc4j";
+	private BtcMessageVerifier verifier;
+
+	@Before
+	public void setUp() {
+		verifier = new BtcMessageVerifier();
+	}
+
+	@After
+	public void tearDown() {
+		verifier.shutdown();
+	}
+
+	@Test
+	public void verifyMessage() throws BtcException {
+		assertTrue(verifier.verifyMessage(COMPRESSED_ADDRESS,
+				COMPRESSED_SIGNATURE, MESSAGE));
+		assertTrue(verifier.verifyMessage(UNCOMPRESSED_ADDRESS,
+				UNCOMPRESSED_SIGNATURE, MESSAGE));
+		assertFalse(verifier.verifyMessage(UNCOMPRESSED_ADDRESS,
+				COMPRESSED_SIGNATURE, MESSAGE));
+		assertFalse(verifier.verifyMessage(COMPRESSED_ADDRESS,
+				COMPRESSED_SIGNATURE, MESSAGE + "."));
+		assertFalse(verifier.verifyMessage(COMPRESSED_ADDRESS, "AAAA",
+				MESSAGE));
+	}
+
+	@Test(expected = BtcException.class)
+	public void verifyMessageInvalidAddress() throws BtcException {
+		verifier.verifyMessage("1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMh",
+				COMPRESSED_SIGNATURE, MESSAGE);
+	}
+
+	@Test(expected = BtcException.class)
+	public void verifyMessageMalformedSignature() throws BtcException {
+		verifier.verifyMessage(COMPRESSED_ADDRESS, "not base64!", MESSAGE);
+	}
+
+	@Test
+	public void verifySignature() throws Exception {
+		byte[] hash = MessageDigest.getInstance("SHA-256").digest(
+				"Satoshi Nakamoto".getBytes("UTF-8"));
+		byte[] signature = BtcUtil
+				.hexToBytes("3045022100934b1ea10a4b3c1757e2b0c017d0b6143ce3c9a7e6a4a49860d7a6ab210ee3d802202442ce9d2b916064108014783e923ec36b49743e2ffa1c4496f01a512aafd9e5");
+		byte[] publicKey = BtcUtil
+				.hexToBytes("0279be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798");
+		assertTrue(verifier.verifySignature(hash, signature, publicKey));
+		signature[signature.length - 1] ^= 1;
+		assertFalse(verifier.verifySignature(hash, signature, publicKey));
+	}
+
+	@Test
+	public void verifyMessages() {
+		List<String> addresses = new ArrayList<String>();
+		List<String> signatures = new ArrayList<String>();
+		List<String> messages = new ArrayList<String>();
+		boolean[] expected = new boolean[100];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = (i % 3) != 0;
+			addresses.add(COMPRESSED_ADDRESS);
+			signatures.add(COMPRESSED_SIGNATURE);
+			messages.add(expected[i] ? MESSAGE : MESSAGE + i);
+		}
+		boolean[] results = verifier.verifyMessages(addresses, signatures,
+				messages);
+		assertEquals(expected.length, results.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], results[i]);
+		}
+	}
+
+	@Test
+	public void sharedPool() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			BtcMessageVerifier shared = new BtcMessageVerifier(false, pool);
+			List<String> one = new ArrayList<String>();
+			one.add(COMPRESSED_ADDRESS);
+			List<String> signature = new ArrayList<String>();
+			signature.add(COMPRESSED_SIGNATURE);
+			List<String> message = new ArrayList<String>();
+			message.add(MESSAGE);
+			shared.shutdown();
+			assertFalse(pool.isShutdown());
+			assertTrue(shared.verifyMessages(one, signature, message)[0]);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
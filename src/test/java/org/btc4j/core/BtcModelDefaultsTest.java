@@ -0,0 +1,118 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BtcModelDefaultsTest {
+	@Test
+	public void defaultCollectionsAreEmptyAndStable() {
+		BtcBlock block = new BtcBlock();
+		List<BtcTransaction> transactions = block.getTransactions();
+		assertTrue(transactions.isEmpty());
+		assertSame(transactions, block.getTransactions());
+		BtcRawTransaction raw = new BtcRawTransaction();
+		assertTrue(raw.getInputs().isEmpty());
+		assertTrue(raw.getOutputs().isEmpty());
+		assertSame(raw.getOutputs(), raw.getOutputs());
+		assertTrue(new BtcBlockTemplate().getCoinbase().getAux().isEmpty());
+		assertTrue(new BtcMethodMetrics().getErrorCodes().isEmpty());
+		assertTrue(new BtcScript().getAddresses().isEmpty());
+		assertTrue(new BtcTransaction().getDetails().isEmpty());
+		assertTrue(new BtcAddedNode().getAddresses().isEmpty());
+		assertTrue(new BtcCoinSelection().getOutputs().isEmpty());
+	}
+
+	@Test
+	public void defaultCollectionsAreNotShared() {
+		BtcBlock first = new BtcBlock();
+		BtcBlock second = new BtcBlock();
+		first.getTransactions().add(new BtcTransaction());
+		assertEquals(1, first.getTransactions().size());
+		assertTrue(second.getTransactions().isEmpty());
+		assertNotSame(new BtcOutput().getScript(), new BtcOutput().getScript());
+		assertNotSame(new BtcAddress().getAccount(),
+				new BtcAddress().getAccount());
+	}
+
+	@Test
+	public void defaultChildrenAreStable() {
+		BtcOutput output = new BtcOutput();
+		assertSame(output.getScript(), output.getScript());
+		assertSame(output.getDetail(), output.getDetail());
+		BtcBlockTemplate template = new BtcBlockTemplate();
+		assertSame(template.getCoinbase(), template.getCoinbase());
+	}
+
+	@Test
+	public void settersRoundTrip() {
+		BtcRawTransaction raw = new BtcRawTransaction();
+		List<BtcOutput> outputs = Arrays.asList(new BtcOutput());
+		raw.setOutputs(outputs);
+		assertSame(outputs, raw.getOutputs());
+		raw.setOutputs(null);
+		assertTrue(raw.getOutputs().isEmpty());
+		raw.getOutputs().add(new BtcOutput());
+		assertEquals(1, raw.getOutputs().size());
+		BtcScript script = new BtcScript();
+		script.setAddresses(Collections.singletonList(BtcTestModels.ADDRESS));
+		BtcOutput output = new BtcOutput();
+		output.setScript(script);
+		assertSame(script, output.getScript());
+		output.setScript(null);
+		assertTrue(output.getScript().getAddresses().isEmpty());
+	}
+
+	@Test
+	public void toStringRendersDefaults() {
+		assertTrue(new BtcBlock().toString().contains("transactions=[]"));
+		String raw = new BtcRawTransaction().toString();
+		assertTrue(raw.contains("inputs=[]"));
+		assertTrue(raw.contains("outputs=[]"));
+		String output = new BtcOutput().toString();
+		assertTrue(output.contains("script=" + new BtcScript()));
+		assertTrue(output.contains("detail=" + new BtcTransactionDetail()));
+		assertTrue(new BtcBlockTemplate().toString().contains(
+				"coinBase=" + new BtcCoinbase()));
+		assertTrue(new BtcCoinbase().toString().contains("aux={}"));
+	}
+
+	@Test
+	public void toStringRoundTripsSetValues() {
+		BtcBlock block = BtcTestModels.block();
+		assertTrue(block.toString().contains(
+				"transactions=" + block.getTransactions()));
+		assertEquals(block.toString(), block.toString());
+	}
+}
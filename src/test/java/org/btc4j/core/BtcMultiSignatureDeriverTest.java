@@ -0,0 +1,123 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcMultiSignatureDeriverTest {
+	private static final String G = "0279be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798";
+	private static final String TWO_G = "02c6047f9441ed7d6d3045406e95c07cd85c778e4b8cef3ca7abac09b95c709ee5";
+	private static final String THREE_G = "02f9308a019258c31049344f85f89d5229b531c845836f99b08601f113bce036f9";
+	private static final String REDEEM_SCRIPT = "5221" + G + "21" + TWO_G
+			+ "21" + THREE_G + "53ae";
+	private BtcMultiSignatureDeriver deriver;
+
+	@Before
+	public void setUp() {
+		deriver = new BtcMultiSignatureDeriver();
+	}
+
+	@After
+	public void tearDown() {
+		deriver.shutdown();
+	}
+
+	@Test
+	public void createMultiSignatureAddress() throws BtcException {
+		BtcMultiSignatureAddress address = deriver.createMultiSignatureAddress(
+				2, Arrays.asList(G, TWO_G, THREE_G));
+		assertEquals("33hG2q39jRi2NqicRJB4ggY1J8EJm97Szz",
+				address.getAddress());
+		assertEquals(REDEEM_SCRIPT, address.getRedeemScript());
+		address = deriver.createMultiSignatureAddress(1, Arrays.asList(G));
+		assertEquals("3DicS6C8JZm59RsrgXr56iVHzYdQngiehV",
+				address.getAddress());
+		assertEquals("5121" + G + "51ae", address.getRedeemScript());
+	}
+
+	@Test
+	public void createTestnetAddress() throws BtcException {
+		BtcMultiSignatureDeriver testnet = new BtcMultiSignatureDeriver(true,
+				null);
+		assertEquals("2MuFU6ZyBLtDNadMA6RnwJdXGWUSUaoKLeS", testnet
+				.createMultiSignatureAddress(2,
+						Arrays.asList(G, TWO_G, THREE_G)).getAddress());
+	}
+
+	@Test(expected = BtcException.class)
+	public void notEnoughKeys() throws BtcException {
+		deriver.getRedeemScript(3, Arrays.asList(G, TWO_G));
+	}
+
+	@Test(expected = BtcException.class)
+	public void invalidKey() throws BtcException {
+		deriver.getRedeemScript(1, Arrays.asList(G, "02" + G.substring(4)));
+	}
+
+	@Test
+	public void createMultiSignatureAddresses() throws BtcException {
+		List<List<String>> keySets = new ArrayList<List<String>>();
+		for (int i = 0; i < 300; i++) {
+			keySets.add((i % 2 == 0) ? Arrays.asList(G, TWO_G, THREE_G)
+					: Arrays.asList(THREE_G, TWO_G, G));
+		}
+		BtcMultiSignatureAddress[] addresses = deriver
+				.createMultiSignatureAddresses(2, keySets);
+		assertEquals(300, addresses.length);
+		for (int i = 0; i < addresses.length; i += 2) {
+			assertEquals("33hG2q39jRi2NqicRJB4ggY1J8EJm97Szz",
+					addresses[i].getAddress());
+		}
+	}
+
+	@Test
+	public void createMultiSignatureAddressesError() {
+		List<List<String>> keySets = new ArrayList<List<String>>();
+		for (int i = 0; i < 500; i++) {
+			keySets.add(Arrays.asList(G, TWO_G, THREE_G));
+		}
+		keySets.set(70, Arrays.asList(G, "70"));
+		keySets.set(10, Arrays.asList(G, "10"));
+		keySets.set(490, Arrays.asList(G, "490"));
+		for (int attempt = 0; attempt < 20; attempt++) {
+			try {
+				deriver.createMultiSignatureAddresses(1, keySets);
+				fail("expected BtcException");
+			} catch (BtcException e) {
+				assertTrue(e.getMessage(), e.getMessage().endsWith(": 10"));
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcPayoutBatcherTest {
+	private final List<Map<?, ?>> batches = new ArrayList<Map<?, ?>>();
+	private final CountDownLatch sending = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BtcPayoutBatcher batcher;
+
+	@Before
+	public void setUp() {
+		BtcApi api = (BtcApi) Proxy.newProxyInstance(
+				BtcApi.class.getClassLoader(), new Class<?>[] { BtcApi.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws InterruptedException {
+						if (!"sendMany".equals(method.getName())) {
+							throw new UnsupportedOperationException(method
+									.getName());
+						}
+						synchronized (batches) {
+							batches.add((Map<?, ?>) args[1]);
+						}
+						sending.countDown();
+						release.await();
+						return "txid" + batches.size();
+					}
+				});
+		batcher = new BtcPayoutBatcher(api, "", 1, null, 100, 60000);
+	}
+
+	@Test
+	public void coalesce() throws Exception {
+		release.countDown();
+		Future<String> first = batcher.send("a", BigDecimal.ONE);
+		Future<String> second = batcher.send("b", BigDecimal.ONE);
+		Future<String> third = batcher.send("a", BigDecimal.ONE);
+		batcher.shutdown();
+		assertTrue(batcher.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).size());
+		assertEquals(new BigDecimal(2), batches.get(0).get("a"));
+		assertEquals("txid1", first.get());
+		assertEquals("txid1", second.get());
+		assertEquals("txid1", third.get());
+	}
+
+	@Test
+	public void cancelQueued() throws Exception {
+		release.countDown();
+		Future<String> kept = batcher.send("a", BigDecimal.ONE);
+		Future<String> cancelled = batcher.send("b", BigDecimal.ONE);
+		assertTrue(cancelled.cancel(false));
+		batcher.shutdown();
+		assertTrue(batcher.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(1, batches.size());
+		assertEquals(1, batches.get(0).size());
+		assertFalse(batches.get(0).containsKey("b"));
+		assertEquals("txid1", kept.get());
+		assertTrue(cancelled.isCancelled());
+	}
+
+	@Test
+	public void cancelAllQueued() throws Exception {
+		assertTrue(batcher.send("a", BigDecimal.ONE).cancel(false));
+		batcher.shutdown();
+		assertTrue(batcher.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(0, batches.size());
+	}
+
+	@Test
+	public void cancelSending() throws Exception {
+		Future<String> payout = batcher.send("a", BigDecimal.ONE);
+		batcher.flush();
+		assertTrue(sending.await(10, TimeUnit.SECONDS));
+		assertFalse(payout.cancel(false));
+		release.countDown();
+		assertEquals("txid1", payout.get());
+		batcher.shutdown();
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcPeerSamplerTest {
+	private static final double DELTA = 1e-9;
+	private BtcPeerSampler sampler;
+
+	@Before
+	public void setUp() {
+		sampler = new BtcPeerSampler(null, 4, 5000, 0);
+	}
+
+	@Test
+	public void ringKeepsNewestSamples() {
+		for (int i = 0; i < 10; i++) {
+			sampler.record(Arrays.asList(peer("a", 1, 100 * i, 10 * i)),
+					1000 * i);
+		}
+		BtcPeerTelemetry telemetry = sampler.getPeer("a");
+		assertEquals(4, telemetry.getSamples());
+		assertEquals(900, telemetry.getBytesSent());
+		assertEquals(90, telemetry.getBytesReceived());
+		assertEquals(100, telemetry.getSendRate(), DELTA);
+		assertEquals(10, telemetry.getReceiveRate(), DELTA);
+		assertEquals(100, sampler.getSendRate(), DELTA);
+	}
+
+	@Test
+	public void counterResetReportsZeroRate() {
+		long[] sent = { 1000, 2000, 50 };
+		for (int i = 0; i < sent.length; i++) {
+			sampler.record(Arrays.asList(peer("a", 1, sent[i], 0)), 1000 * i);
+		}
+		assertEquals(0, sampler.getPeer("a").getSendRate(), DELTA);
+		assertEquals(0, sampler.getDisconnects());
+		for (int i = 3; i < 6; i++) {
+			sampler.record(Arrays.asList(peer("a", 1, 50 + 100 * (i - 2), 0)),
+					1000 * i);
+		}
+		assertEquals(100, sampler.getPeer("a").getSendRate(), DELTA);
+	}
+
+	@Test
+	public void newConnectionTimeIsReconnect() {
+		sampler.record(Arrays.asList(peer("a", 1, 100, 0)), 0);
+		sampler.record(Arrays.asList(peer("a", 1, 200, 0)), 1000);
+		assertEquals(0, sampler.getConnects());
+		sampler.record(Arrays.asList(peer("a", 2, 10, 0)), 2000);
+		assertEquals(1, sampler.getConnects());
+		assertEquals(1, sampler.getDisconnects());
+		assertEquals(1, sampler.getConnections());
+		BtcPeerTelemetry telemetry = sampler.getPeer("a");
+		assertEquals(2, telemetry.getConnectionTime());
+		assertEquals(1, telemetry.getSamples());
+		assertEquals(10, telemetry.getBytesSent());
+		assertEquals(0, telemetry.getSendRate(), DELTA);
+	}
+
+	@Test
+	public void missingPeerIsDisconnect() {
+		sampler.record(Arrays.asList(peer("a", 1, 0, 0), peer("b", 1, 0, 0)),
+				0);
+		sampler.record(Arrays.asList(peer("a", 1, 0, 0)), 1000);
+		assertEquals(1, sampler.getDisconnects());
+		assertNull(sampler.getPeer("b"));
+		assertEquals(1, sampler.getPeers().size());
+		assertEquals(60.0, sampler.getChurn(), DELTA);
+	}
+
+	@Test
+	public void peerWithoutProgressIsStalled() {
+		for (int i = 0; i <= 6; i++) {
+			sampler.record(
+					Arrays.asList(peer("a", 1, 0, 10), peer("b", 1, 0, i)),
+					1000 * i);
+		}
+		assertEquals(Collections.singletonList("a"),
+				sampler.getStalledPeers());
+		assertTrue(sampler.getPeer("a").isStalled());
+		assertFalse(sampler.getPeer("b").isStalled());
+	}
+
+	@Test
+	public void spareRingsStayBounded() {
+		int maximum = 0;
+		for (int cycle = 0; cycle < 5000; cycle++) {
+			int count = (cycle * 37) % 101;
+			List<BtcPeer> information = new ArrayList<BtcPeer>(count);
+			for (int i = 0; i < count; i++) {
+				information.add(peer("peer" + i, cycle, cycle, 0));
+			}
+			sampler.record(information, 1000L * cycle);
+			maximum = Math.max(maximum, sampler.getSpareRings());
+			assertEquals(count, sampler.getConnections());
+			if (count > 0) {
+				assertEquals(1, sampler.getPeer("peer0").getSamples());
+				assertEquals(cycle, sampler.getPeer("peer0").getBytesSent());
+			}
+		}
+		assertTrue(maximum <= 64);
+		assertEquals(64, maximum);
+		sampler.record(Collections.<BtcPeer> emptyList(), 5000000);
+		assertTrue(sampler.getSpareRings() <= 64);
+	}
+
+	private static BtcPeer peer(String address, long connectionTime,
+			long sent, long received) {
+		BtcPeer peer = new BtcPeer();
+		peer.setNetworkAddress(address);
+		peer.setConnectionTime(connectionTime);
+		peer.setBytesSent(sent);
+		peer.setBytesReceived(received);
+		return peer;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BtcRawTransactionBuilderTest {
+	private static final String GENESIS_COINBASE = "4a5e1e4baab89f3a32518a88c31bc87f618f76673e2cc77ab2127b7afdeda33b";
+	private static final String PUBKEY_HASH_ADDRESS = "1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa";
+	private static final String SCRIPT_HASH_ADDRESS = "3P14159f73E4gFr7JterCCQh9QjiTjiZrG";
+	private static final String INPUT = "01000000013ba3edfd7a7b12b27ac72c3e67768f617fc81bc3888a51323a9fb8aa4b1e5e4a0000000000";
+	private static final String OUTPUTS = "0280f0fa02000000001976a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ac40787d010000000017a914e9c3dd0c07aac76179ebc76a6c78d4d67c6c160a87";
+
+	private static BtcRawTransactionBuilder builder() throws BtcException {
+		BtcOutputPart input = new BtcOutputPart();
+		input.setTransaction(GENESIS_COINBASE);
+		input.setOutput(0);
+		return new BtcRawTransactionBuilder().addInput(input)
+				.addOutput(PUBKEY_HASH_ADDRESS, new BigDecimal("0.5"))
+				.addOutput(SCRIPT_HASH_ADDRESS, new BigDecimal("0.25"));
+	}
+
+	@Test
+	public void createRawTransaction() throws BtcException {
+		BtcOutputPart input = new BtcOutputPart();
+		input.setTransaction(GENESIS_COINBASE);
+		List<BtcOutputPart> inputs = new ArrayList<BtcOutputPart>();
+		inputs.add(input);
+		Map<String, BigDecimal> amounts = new LinkedHashMap<String, BigDecimal>();
+		amounts.put(PUBKEY_HASH_ADDRESS, new BigDecimal("0.5"));
+		amounts.put(SCRIPT_HASH_ADDRESS, new BigDecimal("0.25"));
+		assertEquals(INPUT + "ffffffff" + OUTPUTS + "00000000",
+				BtcRawTransactionBuilder.createRawTransaction(inputs, amounts,
+						false));
+	}
+
+	@Test
+	public void size() throws BtcException {
+		BtcRawTransactionBuilder builder = builder();
+		assertEquals(builder.toByteArray().length, builder.getSize());
+		assertEquals(builder.getSize()
+				+ BtcRawTransactionBuilder.SIGNATURE_SCRIPT_SIZE,
+				builder.getEstimatedSize());
+	}
+
+	@Test
+	public void lockTime() throws BtcException {
+		assertEquals(INPUT + "feffffff" + OUTPUTS + "20a10700", builder()
+				.setLockTime(500000).build());
+	}
+
+	@Test
+	public void sequence() throws BtcException {
+		BtcOutputPart input = new BtcOutputPart();
+		input.setTransaction(GENESIS_COINBASE);
+		BtcRawTransactionBuilder builder = new BtcRawTransactionBuilder()
+				.addInput(input, 0xfffffffdL)
+				.addOutput(PUBKEY_HASH_ADDRESS, new BigDecimal("0.5"))
+				.addOutput(SCRIPT_HASH_ADDRESS, new BigDecimal("0.25"));
+		assertEquals(INPUT + "fdffffff" + OUTPUTS + "00000000",
+				builder.build());
+	}
+
+	@Test
+	public void script() throws BtcException {
+		assertArrayEquals(BtcUtil
+				.hexToBytes("76a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ac"),
+				new BtcRawTransactionBuilder().getScript(PUBKEY_HASH_ADDRESS));
+		assertArrayEquals(BtcUtil
+				.hexToBytes("a914e9c3dd0c07aac76179ebc76a6c78d4d67c6c160a87"),
+				new BtcRawTransactionBuilder().getScript(SCRIPT_HASH_ADDRESS));
+	}
+
+	@Test(expected = BtcException.class)
+	public void invalidAddress() throws BtcException {
+		new BtcRawTransactionBuilder()
+				.getScript("1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNb");
+	}
+
+	@Test(expected = BtcException.class)
+	public void testnetAddress() throws BtcException {
+		new BtcRawTransactionBuilder(true).getScript(PUBKEY_HASH_ADDRESS);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BtcRipemd160Test {
+	private static String digest(String message) {
+		return BtcUtil.bytesToHex(BtcRipemd160.digest(message.getBytes(Charset
+				.forName("US-ASCII"))));
+	}
+
+	@Test
+	public void digest() {
+		assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31", digest(""));
+		assertEquals("0bdc9d2d256b3ee9daae347be6f4dc835a467ffe", digest("a"));
+		assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc", digest("abc"));
+		assertEquals("5d0689ef49d2fae572b881b123a85ffa21595f36",
+				digest("message digest"));
+		assertEquals("f71c27109c692c1b56bbdceb5b9d2865b3708dbc",
+				digest("abcdefghijklmnopqrstuvwxyz"));
+		assertEquals(
+				"12a053384a9c0c88e405a06c27dcf49ada62eb2b",
+				digest("abcdbcdecdefdefgefghfghighijhijkijkljklmklmnlmnomnopnopq"));
+		assertEquals(
+				"b0e20b6e3116640286ed3a87a5713079b21f5189",
+				digest("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789"));
+	}
+
+	@Test
+	public void digestMillion() {
+		byte[] data = new byte[1000000];
+		Arrays.fill(data, (byte) 'a');
+		assertEquals("52783243c1697bdbe16d37f97f68f08325dc1528",
+				BtcUtil.bytesToHex(BtcRipemd160.digest(data)));
+	}
+
+	@Test
+	public void digestRange() {
+		byte[] data = "xxabcxx".getBytes(Charset.forName("US-ASCII"));
+		assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc",
+				BtcUtil.bytesToHex(BtcRipemd160.digest(data, 2, 3)));
+	}
+
+	@Test
+	public void hash160() {
+		assertEquals(
+				"751e76e8199196d454941c45d1b3a323f1433bd6",
+				BtcUtil.bytesToHex(BtcRipemd160.hash160(BtcUtil
+						.hexToBytes("0279be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798"))));
+		assertEquals(
+				"91b24bf9f5288532960ac687abb035127b1d28a5",
+				BtcUtil.bytesToHex(BtcRipemd160.hash160(BtcUtil
+						.hexToBytes("0479be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798483ada7726a3c4655da4fbfc0e1108a8fd17b448a68554199c47d08ffb10d4b8"))));
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+
+import org.junit.Test;
+
+public class BtcSecp256k1Test {
+	private static final String G_COMPRESSED = "0279be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798";
+	private static final String G_UNCOMPRESSED = "0479be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798483ada7726a3c4655da4fbfc0e1108a8fd17b448a68554199c47d08ffb10d4b8";
+	private static final String MINUS_G_COMPRESSED = "0379be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798";
+	private static final String TWO_G_COMPRESSED = "02c6047f9441ed7d6d3045406e95c07cd85c778e4b8cef3ca7abac09b95c709ee5";
+	private static final BigInteger R = new BigInteger(
+			"934b1ea10a4b3c1757e2b0c017d0b6143ce3c9a7e6a4a49860d7a6ab210ee3d8",
+			16);
+	private static final BigInteger S = new BigInteger(
+			"2442ce9d2b916064108014783e923ec36b49743e2ffa1c4496f01a512aafd9e5",
+			16);
+
+	private static byte[] hash(String message) throws Exception {
+		return MessageDigest.getInstance("SHA-256").digest(
+				message.getBytes(Charset.forName("UTF-8")));
+	}
+
+	@Test
+	public void decode() {
+		BigInteger[] g = BtcSecp256k1.decode(BtcUtil.hexToBytes(G_COMPRESSED));
+		assertEquals(BtcSecp256k1.GX, g[0]);
+		assertEquals(BtcSecp256k1.GY, g[1]);
+		g = BtcSecp256k1.decode(BtcUtil.hexToBytes(G_UNCOMPRESSED));
+		assertEquals(BtcSecp256k1.GX, g[0]);
+		assertEquals(BtcSecp256k1.GY, g[1]);
+		BigInteger[] minusG = BtcSecp256k1.decode(BtcUtil
+				.hexToBytes(MINUS_G_COMPRESSED));
+		assertEquals(BtcSecp256k1.P.subtract(BtcSecp256k1.GY), minusG[1]);
+		BigInteger[] twoG = BtcSecp256k1.decode(BtcUtil
+				.hexToBytes(TWO_G_COMPRESSED));
+		assertEquals(new BigInteger(
+				"1ae168fea63dc339a3c58419466ceaeef7f632653266d0e1236431a950cfe52a",
+				16), twoG[1]);
+	}
+
+	@Test
+	public void decodeInvalid() {
+		byte[] offCurve = BtcUtil.hexToBytes(G_UNCOMPRESSED);
+		offCurve[64] ^= 1;
+		assertNull(BtcSecp256k1.decode(offCurve));
+		assertNull(BtcSecp256k1.decode(new byte[33]));
+		assertNull(BtcSecp256k1.decode(BtcUtil.hexToBytes("05"
+				+ G_COMPRESSED.substring(2))));
+	}
+
+	@Test
+	public void encode() {
+		assertArrayEquals(BtcUtil.hexToBytes(G_COMPRESSED),
+				BtcSecp256k1.encode(BtcSecp256k1.GX, BtcSecp256k1.GY, true));
+		assertArrayEquals(BtcUtil.hexToBytes(G_UNCOMPRESSED),
+				BtcSecp256k1.encode(BtcSecp256k1.GX, BtcSecp256k1.GY, false));
+	}
+
+	@Test
+	public void verify() throws Exception {
+		byte[] hash = hash("Satoshi Nakamoto");
+		assertTrue(BtcSecp256k1.verify(hash, R, S,
+				BtcUtil.hexToBytes(G_COMPRESSED)));
+		assertTrue(BtcSecp256k1.verify(hash, R, S,
+				BtcUtil.hexToBytes(G_UNCOMPRESSED)));
+		assertTrue(BtcSecp256k1.verify(hash, R, BtcSecp256k1.N.subtract(S),
+				BtcUtil.hexToBytes(G_COMPRESSED)));
+		assertFalse(BtcSecp256k1.verify(hash, R, S,
+				BtcUtil.hexToBytes(TWO_G_COMPRESSED)));
+		assertFalse(BtcSecp256k1.verify(hash("Satoshi Nakamoto."), R, S,
+				BtcUtil.hexToBytes(G_COMPRESSED)));
+		assertFalse(BtcSecp256k1.verify(hash, BtcSecp256k1.N, S,
+				BtcUtil.hexToBytes(G_COMPRESSED)));
+	}
+
+	@Test
+	public void recover() throws Exception {
+		byte[] hash = hash("Satoshi Nakamoto");
+		assertArrayEquals(BtcUtil.hexToBytes(G_COMPRESSED),
+				BtcSecp256k1.recover(hash, R, S, 1, true));
+		assertArrayEquals(BtcUtil.hexToBytes(G_UNCOMPRESSED),
+				BtcSecp256k1.recover(hash, R, S, 1, false));
+		assertFalse(BtcUtil.bytesToHex(
+				BtcSecp256k1.recover(hash, R, S, 0, true)).equals(
+				G_COMPRESSED));
+		assertNull(BtcSecp256k1.recover(hash, R, S, 4, true));
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcShareTargetControllerTest {
+	private static final double DELTA = 1e-9;
+	private long time;
+	private BtcShareTargetController controller;
+
+	@Before
+	public void setUp() {
+		time = 1000;
+		controller = controller(64, 1, 1024);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidParametersAreRejected() {
+		new BtcShareTargetController(64, 2, 1, 10, 60, 160);
+	}
+
+	@Test
+	public void initialAndManualDifficultyAreClamped() {
+		assertEquals(1024, controller(4096, 1, 1024).getDifficulty("alice"),
+				DELTA);
+		assertEquals(1, controller(0.5, 1, 1024).getDifficulty("alice"),
+				DELTA);
+		controller.setDifficulty("alice", 0.01);
+		assertEquals(1, controller.getDifficulty("alice"), DELTA);
+		controller.setDifficulty("alice", 1e6);
+		assertEquals(1024, controller.getDifficulty("alice"), DELTA);
+	}
+
+	@Test
+	public void noRetargetBeforeInterval() {
+		for (; time < 1059; time++) {
+			assertFalse(controller.recordShare("alice"));
+		}
+		assertEquals(64, controller.getDifficulty("alice"), DELTA);
+	}
+
+	@Test
+	public void adjustmentFollowsShareRate() {
+		controller.recordShare("alice");
+		time = 1020;
+		controller.recordShare("alice");
+		time = 1040;
+		controller.recordShare("alice");
+		time = 1060;
+		assertEquals(3 / 60.0, controller.getShareRate("alice"), DELTA);
+		controller.getShareTarget("alice");
+		assertEquals(32, controller.getDifficulty("alice"), DELTA);
+	}
+
+	@Test
+	public void fastMinerAdjustmentIsClamped() {
+		for (; time < 1060; time++) {
+			controller.recordShare("alice");
+		}
+		assertTrue(controller.recordShare("alice"));
+		assertEquals(64 * BtcShareTargetController.MAXIMUM_ADJUSTMENT,
+				controller.getDifficulty("alice"), DELTA);
+	}
+
+	@Test
+	public void slowMinerAdjustmentIsClamped() {
+		controller.recordShare("alice");
+		time = 1060;
+		controller.getShareTarget("alice");
+		assertEquals(64 / BtcShareTargetController.MAXIMUM_ADJUSTMENT,
+				controller.getDifficulty("alice"), DELTA);
+	}
+
+	@Test
+	public void difficultyStaysWithinBounds() {
+		controller = controller(1000, 1, 1024);
+		for (; time < 1060; time++) {
+			controller.recordShare("alice");
+		}
+		assertTrue(controller.recordShare("alice"));
+		assertEquals(1024, controller.getDifficulty("alice"), DELTA);
+		for (time++; time < 1121; time++) {
+			assertFalse(controller.recordShare("alice"));
+		}
+		assertEquals(1024, controller.getDifficulty("alice"), DELTA);
+		controller = controller(2, 1, 1024);
+		time = 2060;
+		controller.getShareTarget("bob");
+		time = 2120;
+		controller.getShareTarget("bob");
+		assertEquals(1, controller.getDifficulty("bob"), DELTA);
+		time = 2180;
+		assertFalse(controller.recordShare("bob"));
+	}
+
+	@Test
+	public void windowDropsOldShares() {
+		for (; time < 1060; time++) {
+			controller.recordShare("alice");
+		}
+		time = 1165;
+		controller.recordShare("alice");
+		assertEquals(51 / 160.0, controller.getShareRate("alice"), DELTA);
+		time = 1400;
+		assertEquals(0, controller.getShareRate("alice"), DELTA);
+	}
+
+	@Test
+	public void shareTargetIsCappedAtNetworkTarget() {
+		BtcBlockTemplate template = new BtcBlockTemplate();
+		template.setTarget(BtcTarget.fromDifficulty(16).toString());
+		controller.setTemplate(template);
+		assertEquals(controller.getNetworkTarget(),
+				controller.getShareTarget("alice"));
+		controller.setDifficulty("alice", 8);
+		assertEquals(BtcTarget.fromDifficulty(8),
+				controller.getShareTarget("alice"));
+	}
+
+	private BtcShareTargetController controller(double initial,
+			double minimum, double maximum) {
+		return new BtcShareTargetController(initial, minimum, maximum, 10,
+				60, 160) {
+			@Override
+			protected long now() {
+				return time;
+			}
+		};
+	}
+}
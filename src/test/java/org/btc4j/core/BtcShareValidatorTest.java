@@ -0,0 +1,132 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcShareValidatorTest {
+	private static final String GENESIS_HASH = "000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f";
+	private static final String GENESIS_HEADER = "0100000000000000000000000000000000000000000000000000000000000000000000003ba3edfd7a7b12b27ac72c3e67768f617fc81bc3888a51323a9fb8aa4b1e5e4a29ab5f49ffff001d1dac2b7c";
+	private static final String GENESIS_COINBASE1 = "01000000010000000000000000000000000000000000000000000000000000000000000000ffffffff4d04";
+	private static final String GENESIS_COINBASE2 = "0104455468652054696d65732030332f4a616e2f32303039204368616e63656c6c6f72206f6e206272696e6b206f66207365636f6e64206261696c6f757420666f722062616e6b73ffffffff0100f2052a01000000434104678afdb0fe5548271967f1a67130b7105cd6a828e03909a67962e0ea1f61deb649f6bc3f4cef38c4f35504e51ec112de5c384df7ba0b8d578a4c702b6bf11d5fac00000000";
+	private static final long GENESIS_EXTRA_NONCE = 0xffff001dL;
+	private static final long GENESIS_TIME = 1231006505;
+	private static final long GENESIS_NONCE = 2083236893;
+	private final List<String> submitted = new ArrayList<String>();
+	private BtcShareValidator validator;
+	private BtcShareJob job;
+
+	@Before
+	public void setUp() {
+		BtcApi api = (BtcApi) Proxy.newProxyInstance(
+				BtcApi.class.getClassLoader(), new Class<?>[] { BtcApi.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) {
+						if (!"submitBlock".equals(method.getName())) {
+							throw new UnsupportedOperationException(method
+									.getName());
+						}
+						submitted.add((String) args[0]);
+						BtcBlockSubmission submission = new BtcBlockSubmission();
+						submission.setAccepted(true);
+						return submission;
+					}
+				});
+		BtcBlockTemplate template = new BtcBlockTemplate();
+		template.setVersion(1);
+		template.setPreviousBlockHash(GENESIS_HASH.replaceAll(".", "0"));
+		template.setBits("1d00ffff");
+		template.setWorkId("genesis");
+		validator = new BtcShareValidator(api);
+		job = validator.addJob(template, GENESIS_COINBASE1, GENESIS_COINBASE2,
+				4);
+	}
+
+	@Test
+	public void genesisTarget() {
+		assertEquals(BtcTarget.fromBits("1d00ffff"), job.getTarget());
+		assertEquals(BtcTarget.DIFFICULTY_1, job.getTarget());
+		assertTrue(job.getTarget().isMetBy(
+				BtcUtil.reverse(BtcUtil.hexToBytes(GENESIS_HASH))));
+	}
+
+	@Test
+	public void genesisBlock() throws BtcException {
+		assertEquals(BtcShareValidator.Result.BLOCK, validator.validate(
+				"genesis", GENESIS_EXTRA_NONCE, GENESIS_TIME, GENESIS_NONCE,
+				null));
+		assertEquals(1, submitted.size());
+		assertEquals(GENESIS_HEADER + "01" + GENESIS_COINBASE1 + "ffff001d"
+				+ GENESIS_COINBASE2, submitted.get(0));
+	}
+
+	@Test
+	public void lowDifficulty() throws BtcException {
+		assertEquals(BtcShareValidator.Result.LOW_DIFFICULTY,
+				validator.validate("genesis", GENESIS_EXTRA_NONCE,
+						GENESIS_TIME, GENESIS_NONCE + 1, null));
+		assertEquals(BtcShareValidator.Result.LOW_DIFFICULTY,
+				validator.validate("genesis", GENESIS_EXTRA_NONCE - 1,
+						GENESIS_TIME, GENESIS_NONCE, null));
+		assertEquals(0, submitted.size());
+	}
+
+	@Test
+	public void share() throws BtcException {
+		assertEquals(BtcShareValidator.Result.SHARE, validator.validate(
+				"genesis", GENESIS_EXTRA_NONCE, GENESIS_TIME,
+				GENESIS_NONCE + 1, BtcTarget.valueOf(GENESIS_HASH.replaceAll(
+						".", "f"))));
+		assertEquals(0, submitted.size());
+	}
+
+	@Test
+	public void stale() throws BtcException {
+		assertEquals(BtcShareValidator.Result.STALE, validator.validate(
+				"unknown", GENESIS_EXTRA_NONCE, GENESIS_TIME, GENESIS_NONCE,
+				null));
+	}
+
+	@Test
+	public void timeOutOfRange() throws BtcException {
+		assertEquals(BtcShareValidator.Result.TIME_OUT_OF_RANGE,
+				validator.validate("genesis", GENESIS_EXTRA_NONCE,
+						(System.currentTimeMillis() / 1000)
+								+ BtcShareValidator.MAXIMUM_FUTURE_TIME + 60,
+						GENESIS_NONCE, null));
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class BtcTestModels {
+	static final String GENESIS_HASH = "000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f";
+	static final String GENESIS_COINBASE = "4a5e1e4baab89f3a32518a88c31bc87f618f76673e2cc77ab2127b7afdeda33b";
+	static final String ADDRESS = "1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa";
+
+	private BtcTestModels() {
+	}
+
+	static BtcScript script() {
+		BtcScript script = new BtcScript();
+		script.setAsm("OP_DUP OP_HASH160 62e907b15cbf27d5425399ebf6f0fb50ebb88f18 OP_EQUALVERIFY OP_CHECKSIG");
+		script.setPublicKey("76a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ac");
+		script.setRequiredSignatures(1);
+		script.setType(BtcScript.Type.PUBKEYHASH);
+		List<String> addresses = new ArrayList<String>();
+		addresses.add(ADDRESS);
+		script.setAddresses(addresses);
+		return script;
+	}
+
+	static BtcRawTransaction rawTransaction() {
+		BtcRawTransaction transaction = new BtcRawTransaction();
+		transaction.setTransaction("b1fea52486ce0c62bb442b530a3f0132b826c74e473d1f2c220bfa78111c5082");
+		transaction.setConfirmations(12);
+		transaction.setTime(1231469665);
+		transaction.setBlockHash("00000000839a8e6886ab5951d76f411475428afc90947ee320161bbf18eb6048");
+		transaction.setBlockTime(1231469665);
+		transaction.setHex("0100000001c997a5e56e104102fa209c6a852dd90660a20b2d9c352423edce25857fcd3704000000004847304402204e45e16932b8af514961a1d3a1a25fdf3f4f7732e9d624c6c61548ab5fb8cd410220181522ec8eca07de4860a4acdd12909d831cc56cbbac4622082221a8768d1d0901ffffffff0200ca9a3b00000000434104ae1a62fe09c5f51b13905f07f06b99a2f7159b2225f374cd378d71302fa28414e7aab37397f554a7df5f142c21c1b7303b8a0626f1baded5c72a704f7e6cd84cac00286bee0000000043410411db93e1dcdb8a016b49840f8c53bc1eb68a382e97b1482ecad7b148a6909a5cb2e0eaddfb84ccf9744464f82e160bfa9b8b64f9d4c03f999b8643f656b412a3ac00000000");
+		transaction.setVersion(1);
+		transaction.setLockTime(0);
+		List<BtcInput> inputs = new ArrayList<BtcInput>();
+		BtcInput input = new BtcInput();
+		input.setTransaction("0437cd7f8525ceed2324359c2d0ba26006d92d856a9c20fa0241106ee5a597c9");
+		input.setOutput(0);
+		BtcScript signature = new BtcScript();
+		signature.setAsm("304402204e45e16932b8af514961a1d3a1a25fdf3f4f7732e9d624c6c61548ab5fb8cd410220181522ec8eca07de4860a4acdd12909d831cc56cbbac4622082221a8768d1d0901");
+		signature.setPublicKey("47304402204e45e16932b8af514961a1d3a1a25fdf3f4f7732e9d624c6c61548ab5fb8cd410220181522ec8eca07de4860a4acdd12909d831cc56cbbac4622082221a8768d1d0901");
+		input.setScript(signature);
+		input.setSequence(BtcRawTransactionBuilder.SEQUENCE_FINAL);
+		inputs.add(input);
+		transaction.setInputs(inputs);
+		List<BtcOutput> outputs = new ArrayList<BtcOutput>();
+		for (int i = 0; i < 2; i++) {
+			BtcOutput output = new BtcOutput();
+			output.setTransaction(transaction.getTransaction());
+			output.setOutput(i);
+			output.setIndex(i);
+			output.setScript(script());
+			output.setValue(new BigDecimal((i == 0) ? "10.00000000"
+					: "40.00000000"));
+			outputs.add(output);
+		}
+		transaction.setOutputs(outputs);
+		return transaction;
+	}
+
+	static BtcTransaction transaction() {
+		BtcTransaction transaction = new BtcTransaction();
+		transaction.setTransaction(GENESIS_COINBASE);
+		transaction.setConfirmations(100);
+		transaction.setTime(1231006505);
+		transaction.setBlockHash(GENESIS_HASH);
+		transaction.setBlockTime(1231006505);
+		transaction.setAmount(new BigDecimal("50.00000000"));
+		transaction.setFee(new BigDecimal("-0.00010000"));
+		BtcTransactionDetail detail = new BtcTransactionDetail();
+		detail.setAccount("mining");
+		detail.setAddress(ADDRESS);
+		detail.setCategory(BtcTransaction.Category.RECEIVE);
+		detail.setAmount(new BigDecimal("50.00000000"));
+		List<BtcTransactionDetail> details = new ArrayList<BtcTransactionDetail>();
+		details.add(detail);
+		transaction.setDetails(details);
+		transaction.setTimeReceived(1231006506);
+		transaction.setBlockIndex(0);
+		return transaction;
+	}
+
+	static BtcBlock block() {
+		BtcBlock block = new BtcBlock();
+		block.setHash(GENESIS_HASH);
+		block.setConfirmations(1);
+		block.setSize(285);
+		block.setHeight(0);
+		block.setVersion(1);
+		block.setMerkleRoot(GENESIS_COINBASE);
+		List<BtcTransaction> transactions = new ArrayList<BtcTransaction>();
+		transactions.add(transaction());
+		block.setTransactions(transactions);
+		block.setTime(1231006505);
+		block.setNonce(2083236893);
+		block.setBits("1d00ffff");
+		block.setDifficulty(new BigDecimal("1.00000000"));
+		block.setNextBlockHash("00000000839a8e6886ab5951d76f411475428afc90947ee320161bbf18eb6048");
+		return block;
+	}
+
+	static BtcBlockTemplate blockTemplate() {
+		BtcBlockTemplate template = new BtcBlockTemplate();
+		template.setVersion(2);
+		template.setPreviousBlockHash(GENESIS_HASH);
+		List<BtcTransactionTemplate> transactions = new ArrayList<BtcTransactionTemplate>();
+		for (int i = 0; i < 2; i++) {
+			BtcTransactionTemplate transaction = new BtcTransactionTemplate();
+			transaction.setData(rawTransaction().getHex());
+			transaction.setHash(rawTransaction().getTransaction());
+			transaction.setDepends((i == 0) ? new long[] {} : new long[] { 1 });
+			transaction.setFee(new BigDecimal("0.00010000"));
+			transaction.setSignatureOperations(2);
+			transactions.add(transaction);
+		}
+		template.setTransactions(transactions);
+		BtcCoinbase coinbase = new BtcCoinbase();
+		Map<String, String> aux = new HashMap<String, String>();
+		aux.put("flags", "062f503253482f");
+		coinbase.setAux(aux);
+		coinbase.setValue(new BigDecimal("25.00020000"));
+		template.setCoinbase(coinbase);
+		template.setTarget("00000000ffff0000000000000000000000000000000000000000000000000000");
+		template.setMinimumTime(1231006506);
+		List<String> mutable = new ArrayList<String>();
+		mutable.add("time");
+		mutable.add("transactions");
+		mutable.add("prevblock");
+		template.setMutable(mutable);
+		template.setNonceRange("00000000ffffffff");
+		template.setSignatureOperations(20000);
+		template.setSize(1000000);
+		template.setTime(1231006600);
+		template.setBits("1d00ffff");
+		template.setHeight(1);
+		return template;
+	}
+}
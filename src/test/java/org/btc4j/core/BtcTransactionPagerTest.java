@@ -0,0 +1,171 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BtcTransactionPagerTest {
+	private final List<Long> offsets = Collections
+			.synchronizedList(new ArrayList<Long>());
+	private final Semaphore fetched = new Semaphore(0);
+	private final List<BtcTransaction> history = new ArrayList<BtcTransaction>();
+	private long failAt = -1;
+
+	@Test
+	public void pagesCoverHistoryWhenCountDoesNotDivide() throws Exception {
+		history(10);
+		BtcTransactionPager pager = new BtcTransactionPager(api(), "alice", 3);
+		assertEquals(3, pager.nextPage().size());
+		assertEquals(3, pager.nextPage().size());
+		assertEquals(3, pager.nextPage().size());
+		List<BtcTransaction> last = pager.nextPage();
+		assertEquals(1, last.size());
+		assertEquals("tx9", last.get(0).getTransaction());
+		assertTrue(pager.nextPage().isEmpty());
+		assertEquals(Arrays.asList(0L, 3L, 6L, 9L), offsets);
+	}
+
+	@Test
+	public void exactMultipleEndsOnEmptyPage() throws Exception {
+		history(9);
+		BtcTransactionPager pager = new BtcTransactionPager(api(), "alice", 3);
+		int seen = 0;
+		while (pager.hasNext()) {
+			assertEquals("tx" + seen, pager.next().getTransaction());
+			seen++;
+		}
+		assertEquals(9, seen);
+		assertEquals(Arrays.asList(0L, 3L, 6L, 9L), offsets);
+		try {
+			pager.next();
+			fail("expected end of history");
+		} catch (NoSuchElementException e) {
+		}
+	}
+
+	@Test
+	public void emptyHistory() throws Exception {
+		BtcTransactionPager pager = new BtcTransactionPager(api(), "alice", 3);
+		assertFalse(pager.hasNext());
+		assertEquals(Arrays.asList(0L), offsets);
+	}
+
+	@Test
+	public void nextPageIsPrefetched() throws Exception {
+		history(7);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			BtcTransactionPager pager = new BtcTransactionPager(api(),
+					"alice", 3, executor);
+			assertTrue(fetched.tryAcquire(5, TimeUnit.SECONDS));
+			assertEquals(Arrays.asList(0L), offsets);
+			assertEquals(3, pager.nextPage().size());
+			assertEquals(3, pager.getOffset());
+			assertTrue(fetched.tryAcquire(5, TimeUnit.SECONDS));
+			assertEquals(Arrays.asList(0L, 3L), offsets);
+			assertEquals(3, pager.nextPage().size());
+			assertTrue(fetched.tryAcquire(5, TimeUnit.SECONDS));
+			assertEquals(1, pager.nextPage().size());
+			assertEquals(Arrays.asList(0L, 3L, 6L), offsets);
+			assertFalse(pager.hasNext());
+			assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void failedPageStopsPaging() throws Exception {
+		history(10);
+		failAt = 3;
+		BtcTransactionPager pager = new BtcTransactionPager(api(), "alice", 3);
+		assertEquals(3, pager.nextPage().size());
+		try {
+			pager.nextPage();
+			fail("expected failure");
+		} catch (BtcException e) {
+			assertEquals("offset 3", e.getMessage());
+		}
+		assertFalse(pager.hasNext());
+		assertEquals(Arrays.asList(0L, 3L), offsets);
+	}
+
+	private void history(int size) {
+		for (int i = 0; i < size; i++) {
+			BtcTransaction transaction = new BtcTransaction();
+			transaction.setTransaction("tx" + i);
+			history.add(transaction);
+		}
+	}
+
+	private BtcApi api() {
+		return (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws BtcException {
+						if (!"listTransactions".equals(method.getName())) {
+							throw new UnsupportedOperationException(method
+									.getName());
+						}
+						assertEquals("alice", args[0]);
+						int count = ((Long) args[1]).intValue();
+						int from = ((Long) args[2]).intValue();
+						offsets.add((long) from);
+						try {
+							if (from == failAt) {
+								throw new BtcException(
+										BtcException.BTC4J_ERROR_CODE,
+										"offset " + from);
+							}
+							return new ArrayList<BtcTransaction>(history
+									.subList(Math.min(from, history.size()),
+											Math.min(from + count,
+													history.size())));
+						} finally {
+							fetched.release();
+						}
+					}
+				});
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ The MIT License (MIT)
+ 
+ Copyright (c) 2013, 2014 by ggbusto@gmx.com
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+package org.btc4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BtcWalletSyncTest {
+	private final Map<String, BtcLastBlock> deltas = new HashMap<String, BtcLastBlock>();
+	private final List<String> cursors = new ArrayList<String>();
+	private File journal;
+	private BtcApi api;
+
+	@Before
+	public void setUp() throws Exception {
+		journal = File.createTempFile("btc4j", "journal");
+		journal.delete();
+		api = (BtcApi) Proxy.newProxyInstance(BtcApi.class.getClassLoader(),
+				new Class<?>[] { BtcApi.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) {
+						if (!"listSinceBlock".equals(method.getName())) {
+							throw new UnsupportedOperationException(method
+									.getName());
+						}
+						String cursor = (String) args[0];
+						cursors.add(cursor);
+						BtcLastBlock delta = deltas.get(cursor);
+						if (delta == null) {
+							delta = new BtcLastBlock();
+							delta.setLastBlock(cursor);
+						}
+						return delta;
+					}
+				});
+	}
+
+	@After
+	public void tearDown() {
+		journal.delete();
+		new File(journal.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void journalIsReplayedWithoutFullReload() throws Exception {
+		delta("", "b1", transaction("tx1", 1, "alice", "1"),
+				transaction("tx2", 1, "bob", "2"));
+		BtcWalletSync sync = new BtcWalletSync(api, journal, 6);
+		assertEquals(2, sync.sync());
+		BtcWalletSync reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals("b1", reopened.getLastBlock());
+		assertEquals(2, reopened.getTransactions().size());
+		assertEquals(new BigDecimal("2"), reopened.getTransaction("tx2")
+				.getAmount());
+		assertEquals(0, reopened.sync());
+		assertEquals(Arrays.asList("", "b1"), cursors);
+	}
+
+	@Test
+	public void deltasMergeIntoExistingTransactions() throws Exception {
+		delta("", "b1", transaction("tx1", 1, "alice", "1"));
+		BtcTransaction update = transaction("tx1", 2, "alice", "1");
+		BtcTransactionDetail send = detail("bob", "-1");
+		send.setCategory(BtcTransaction.Category.SEND);
+		update.getDetails().add(send);
+		delta("b1", "b2", update);
+		delta("b2", "b3", transaction("tx1", 2, "alice", "1"));
+		BtcWalletSync sync = new BtcWalletSync(api, journal, 6);
+		assertEquals(1, sync.sync());
+		assertEquals(1, sync.sync());
+		BtcTransaction merged = sync.getTransaction("tx1");
+		assertEquals(2, merged.getConfirmations());
+		assertEquals(2, merged.getDetails().size());
+		long length = journal.length();
+		assertEquals(0, sync.sync());
+		assertEquals("b3", sync.getLastBlock());
+		assertEquals(2, sync.getTransaction("tx1").getDetails().size());
+		assertTrue(journal.length() > length);
+		length = journal.length();
+		assertEquals(0, sync.sync());
+		assertEquals(length, journal.length());
+		BtcWalletSync reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals("b3", reopened.getLastBlock());
+		assertEquals(2, reopened.getTransaction("tx1").getDetails().size());
+	}
+
+	@Test
+	public void reorgRemovesJournaledTransaction() throws Exception {
+		delta("", "b1", transaction("tx1", 1, "alice", "1"),
+				transaction("tx2", 1, "bob", "2"));
+		BtcTransaction unconfirmed = transaction("tx1", 0, "alice", "1");
+		unconfirmed.setBlockHash("");
+		delta("b1", "b2'", unconfirmed, transaction("tx2", -1, "bob", "2"),
+				transaction("tx3", -1, "carol", "3"));
+		BtcWalletSync sync = new BtcWalletSync(api, journal, 6);
+		sync.sync();
+		assertEquals(2, sync.sync());
+		assertEquals(0, sync.getTransaction("tx1").getConfirmations());
+		assertNull(sync.getTransaction("tx2"));
+		assertNull(sync.getTransaction("tx3"));
+		BtcWalletSync reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals("b2'", reopened.getLastBlock());
+		assertEquals(1, reopened.getTransactions().size());
+		assertNull(reopened.getTransaction("tx2"));
+		reopened.compact();
+		reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals(1, reopened.getTransactions().size());
+		assertEquals("b2'", reopened.getLastBlock());
+	}
+
+	@Test
+	public void truncatedJournalIsRecovered() throws Exception {
+		delta("", "b1", transaction("tx1", 1, "alice", "1"));
+		delta("b1", "b2", transaction("tx2", 1, "bob", "2"));
+		BtcWalletSync sync = new BtcWalletSync(api, journal, 6);
+		sync.sync();
+		long first = journal.length();
+		sync.sync();
+		RandomAccessFile file = new RandomAccessFile(journal, "rw");
+		try {
+			file.setLength(journal.length() - 7);
+		} finally {
+			file.close();
+		}
+		BtcWalletSync reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals(first, journal.length());
+		assertEquals("b1", reopened.getLastBlock());
+		assertEquals(1, reopened.getTransactions().size());
+		assertEquals(1, reopened.sync());
+		reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals("b2", reopened.getLastBlock());
+		assertEquals(2, reopened.getTransactions().size());
+	}
+
+	@Test
+	public void tornLengthPrefixIsRecovered() throws Exception {
+		delta("", "b1", transaction("tx1", 1, "alice", "1"));
+		new BtcWalletSync(api, journal, 6).sync();
+		long first = journal.length();
+		RandomAccessFile file = new RandomAccessFile(journal, "rw");
+		try {
+			file.setLength(first + 2);
+		} finally {
+			file.close();
+		}
+		BtcWalletSync reopened = new BtcWalletSync(api, journal, 6);
+		assertEquals(first, journal.length());
+		assertEquals("b1", reopened.getLastBlock());
+	}
+
+	private void delta(String cursor, String lastBlock,
+			BtcTransaction... transactions) {
+		BtcLastBlock delta = new BtcLastBlock();
+		delta.setLastBlock(lastBlock);
+		delta.setTransactions(Arrays.asList(transactions));
+		deltas.put(cursor, delta);
+	}
+
+	private static BtcTransaction transaction(String id, long confirmations,
+			String account, String amount) {
+		BtcTransaction transaction = new BtcTransaction();
+		transaction.setTransaction(id);
+		transaction.setConfirmations(confirmations);
+		transaction.setAmount(new BigDecimal(amount));
+		transaction.setBlockHash((confirmations > 0) ? "block" : "");
+		List<BtcTransactionDetail> details = new ArrayList<BtcTransactionDetail>();
+		details.add(detail(account, amount));
+		transaction.setDetails(details);
+		return transaction;
+	}
+
+	private static BtcTransactionDetail detail(String account, String amount) {
+		BtcTransactionDetail detail = new BtcTransactionDetail();
+		detail.setAccount(account);
+		detail.setAddress(account + "-address");
+		detail.setCategory(BtcTransaction.Category.RECEIVE);
+		detail.setAmount(new BigDecimal(amount));
+		return detail;
+	}
+}